@@ -0,0 +1,289 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.crypto.TransactionEncoder;
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.http.HttpService;
+import org.web3j.quorum.enclave.Tessera;
+import org.web3j.quorum.enclave.protocol.EnclaveService;
+import org.web3j.quorum.methods.request.PrivateRawTransaction;
+import org.web3j.quorum.methods.request.PrivateTransaction;
+import org.web3j.quorum.methods.response.EthGetQuorumTransactionReceipt;
+import org.web3j.quorum.tx.QuorumTransactionManager;
+import org.web3j.utils.Numeric;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Fails when the bytes allocated per operation on the transaction hot paths grow beyond their
+ * budget, as at high transaction rates these allocations drive garbage collection.
+ *
+ * <p>Each operation is measured against a reference operation doing the equivalent work through
+ * plain Jackson or web3j calls in the same JVM, so that the budgets hold across JVMs, string
+ * representations and pointer sizes. A budget is the ratio of the two measured when it was last
+ * set, plus {@value #TOLERANCE_PERCENT}% to absorb differences between JVMs. Lower a budget when an
+ * optimisation lands; raise one only for a deliberate trade-off.
+ */
+public class AllocationRegressionTest {
+
+    private static final int TOLERANCE_PERCENT = 25;
+    // Bytes per operation as a ratio of the reference operation's, measured on OpenJDK 17
+    private static final double BUDGET_PRIVATE_TRANSACTION = 2.93;
+    private static final double BUDGET_PRIVATE_RAW_TRANSACTION = 0.98;
+    private static final double BUDGET_SEND_RAW_PRIVATE_TRANSACTION = 0.88;
+    private static final double BUDGET_QUORUM_TRANSACTION_RECEIPT = 0.77;
+    private static final double BUDGET_SIGN = 1.01;
+
+    private static final int RECIPIENTS = 3;
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 20_000;
+
+    private static final String FROM = "0x0718197b9ac69127381ed0c4b5d0f724f857c4d1";
+    private static final String TO = "0x8a5e2a6343108babed07899510fb42297938d41f";
+    private static final String DATA = "0x" + String.format("%0512x", 1);
+    private static final String SIGNED_TRANSACTION = "0x" + String.format("%0400x", 1);
+    private static final String PRIVATE_FROM = "BULeR8JyUWhiuuCMU/HLA0Q5pzkYT+cHII3ZKBey3Bo=";
+    private static final Credentials CREDENTIALS =
+            Credentials.create("8f2a55949038a9610f50fb23b5883af3b4ecb3c3bb792cbcefbd1542c692be63");
+
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private final Web3jService web3jService = new HttpService();
+    private final Quorum quorum = Quorum.build(web3jService);
+    private final List<String> privateFor = recipients();
+    // Keeps results reachable, so that the JIT cannot elide the operations
+    private static volatile Object sink;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    @BeforeAll
+    public static void checkJvm() {
+        assumeTrue(
+                threadMXBean().isThreadAllocatedMemorySupported(),
+                "Thread allocation counters are not supported by this JVM");
+    }
+
+    @Test
+    public void testPrivateTransactionSerialisation() throws Exception {
+        Map<String, Object> transaction = new LinkedHashMap<>();
+        transaction.put("from", FROM);
+        transaction.put("to", TO);
+        transaction.put("gas", "0x47b760");
+        transaction.put("value", "0x0");
+        transaction.put("data", DATA);
+        transaction.put("nonce", "0x1");
+        transaction.put("privateFrom", PRIVATE_FROM);
+        transaction.put("privateFor", privateFor);
+        transaction.put("privacyFlag", 0);
+        assertWithinBudget(
+                "eth_sendTransaction with PrivateTransaction",
+                () ->
+                        serialise(
+                                quorum.ethSendTransaction(
+                                        new PrivateTransaction(
+                                                FROM,
+                                                BigInteger.ONE,
+                                                BigInteger.valueOf(4_700_000),
+                                                TO,
+                                                BigInteger.ZERO,
+                                                DATA,
+                                                PRIVATE_FROM,
+                                                privateFor,
+                                                PrivacyFlag.STANDARD_PRIVATE))),
+                () -> serialise(request("eth_sendTransaction", transaction)),
+                BUDGET_PRIVATE_TRANSACTION);
+    }
+
+    @Test
+    public void testPrivateRawTransactionSerialisation() throws Exception {
+        Map<String, Object> privacyParams = new LinkedHashMap<>();
+        privacyParams.put("privateFor", privateFor);
+        privacyParams.put("privacyFlag", 0);
+        assertWithinBudget(
+                "PrivateRawTransaction",
+                () ->
+                        serialise(
+                                new PrivateRawTransaction(
+                                        privateFor, PrivacyFlag.STANDARD_PRIVATE)),
+                () -> serialise(privacyParams),
+                BUDGET_PRIVATE_RAW_TRANSACTION);
+        assertWithinBudget(
+                "eth_sendRawPrivateTransaction",
+                () ->
+                        serialise(
+                                quorum.ethSendRawPrivateTransaction(
+                                        SIGNED_TRANSACTION,
+                                        privateFor,
+                                        PrivacyFlag.STANDARD_PRIVATE)),
+                () ->
+                        serialise(
+                                request(
+                                        "eth_sendRawPrivateTransaction",
+                                        SIGNED_TRANSACTION,
+                                        privacyParams)),
+                BUDGET_SEND_RAW_PRIVATE_TRANSACTION);
+    }
+
+    @Test
+    public void testQuorumTransactionReceiptDeserialisation() throws Exception {
+        byte[] response = receiptResponse().getBytes(StandardCharsets.UTF_8);
+        assertNotNull(
+                objectMapper.readValue(response, EthGetQuorumTransactionReceipt.class).getResult());
+        assertWithinBudget(
+                "EthGetQuorumTransactionReceipt",
+                () -> objectMapper.readValue(response, EthGetQuorumTransactionReceipt.class),
+                () -> objectMapper.readTree(response),
+                BUDGET_QUORUM_TRANSACTION_RECEIPT);
+    }
+
+    @Test
+    public void testQuorumTransactionManagerSign() throws Exception {
+        QuorumTransactionManager transactionManager =
+                new QuorumTransactionManager(
+                        quorum,
+                        new Tessera(
+                                new EnclaveService("http://localhost", 9081, new OkHttpClient()),
+                                quorum),
+                        CREDENTIALS,
+                        PRIVATE_FROM,
+                        privateFor);
+        RawTransaction rawTransaction =
+                RawTransaction.createTransaction(
+                        BigInteger.ONE,
+                        BigInteger.ZERO,
+                        BigInteger.valueOf(4_700_000),
+                        TO,
+                        BigInteger.ZERO,
+                        DATA);
+        assertWithinBudget(
+                "QuorumTransactionManager.sign",
+                () -> transactionManager.sign(rawTransaction),
+                () ->
+                        Numeric.toHexString(
+                                TransactionEncoder.signMessage(rawTransaction, CREDENTIALS)),
+                BUDGET_SIGN);
+    }
+
+    private Request<?, ?> request(String method, Object... params) {
+        return new Request<>(method, Arrays.asList(params), web3jService, Response.class);
+    }
+
+    private Object serialise(Object value) throws Exception {
+        buffer.reset();
+        objectMapper.writeValue(buffer, value);
+        return buffer;
+    }
+
+    private static void assertWithinBudget(
+            String name, Operation operation, Operation reference, double baseline)
+            throws Exception {
+        long allocated = allocated(operation);
+        long referenceAllocated = allocated(reference);
+        double budget = baseline * (100 + TOLERANCE_PERCENT) / 100;
+
+        assertThat(
+                String.format(
+                        Locale.ROOT,
+                        "%s allocated %d B per operation against %d B for the reference,"
+                                + " a budget of %.2f times",
+                        name,
+                        allocated,
+                        referenceAllocated,
+                        budget),
+                (double) allocated / referenceAllocated,
+                lessThanOrEqualTo(budget));
+    }
+
+    private static long allocated(Operation operation) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            sink = operation.run();
+        }
+        com.sun.management.ThreadMXBean threadMXBean = threadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = operation.run();
+        }
+        return (threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore) / ITERATIONS;
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        return (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    }
+
+    private static List<String> recipients() {
+        List<String> recipients = new ArrayList<>();
+        for (int i = 0; i < RECIPIENTS; i++) {
+            recipients.add(String.format("%043d=", i));
+        }
+        return recipients;
+    }
+
+    private static String receiptResponse() {
+        return "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{"
+                + "\"transactionHash\":\"0x0d9e7e34fd4db216a3f66981a467d9d990954e6ed3128aff4ec51a50fa175663\","
+                + "\"transactionIndex\":\"0x0\","
+                + "\"blockHash\":\"0xee5b9e9030d308c77a2d4f975b7090a026ac2cdfe9669e2452cedb4c82e8285e\","
+                + "\"blockNumber\":\"0xc9e\",\"cumulativeGasUsed\":\"0x5208\",\"gasUsed\":\"0x5208\","
+                + "\"contractAddress\":null,\"status\":\"0x1\","
+                + "\"from\":\""
+                + FROM
+                + "\",\"to\":\""
+                + TO
+                + "\",\"logs\":[{\"address\":\""
+                + TO
+                + "\",\"topics\":[\"0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef\","
+                + "\"0x000000000000000000000000"
+                + FROM.substring(2)
+                + "\"],\"data\":\"0x"
+                + String.format("%064x", 1)
+                + "\",\"blockNumber\":\"0xc9e\","
+                + "\"transactionHash\":\"0x0d9e7e34fd4db216a3f66981a467d9d990954e6ed3128aff4ec51a50fa175663\","
+                + "\"transactionIndex\":\"0x0\","
+                + "\"blockHash\":\"0xee5b9e9030d308c77a2d4f975b7090a026ac2cdfe9669e2452cedb4c82e8285e\","
+                + "\"logIndex\":\"0x0\",\"removed\":false}],"
+                + "\"logsBloom\":\"0x"
+                + String.format("%0512x", 0)
+                + "\",\"isPrivacyMarkerTransaction\":false}}";
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        Object run() throws Exception;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.quorum.istanbul.BlockSignerIndexer;
+import org.web3j.quorum.istanbul.BlockSignerStore;
+import org.web3j.quorum.methods.response.istanbul.BlockSigners;
+import org.web3j.quorum.simulator.QuorumNodeSimulator;
+import org.web3j.utils.Numeric;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class BlockSignerIndexerTest {
+
+    private static final List<String> VALIDATORS =
+            Arrays.asList(
+                    "0x0000000000000000000000000000000000000001",
+                    "0x0000000000000000000000000000000000000002",
+                    "0x0000000000000000000000000000000000000003",
+                    "0x0000000000000000000000000000000000000004");
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("signers");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testStoreRoundTrip() throws Exception {
+        BlockSignerStore store = BlockSignerStore.open(directory);
+        store.write(blocks(0, 99));
+        store.write(blocks(200, 249));
+
+        BlockSignerStore reopened = BlockSignerStore.open(directory);
+        assertThat(reopened.read(0, 249), is(concat(blocks(0, 99), blocks(200, 249))));
+        assertThat(reopened.read(90, 210), is(concat(blocks(90, 99), blocks(200, 210))));
+        assertThat(reopened.getDictionary().getAddresses(), is(VALIDATORS));
+        assertThat(reopened.lastIndexedBlock(0), is(99L));
+        assertThat(reopened.lastIndexedBlock(100), is(99L));
+
+        List<long[]> missing = reopened.missingRanges(0, 300);
+        assertThat(missing.size(), is(2));
+        assertThat(missing.get(0), is(new long[] {100, 199}));
+        assertThat(missing.get(1), is(new long[] {250, 300}));
+    }
+
+    @Test
+    public void testIndexesInSegmentsAndResumes() throws Exception {
+        try (QuorumNodeSimulator node = QuorumNodeSimulator.http()) {
+            node.respond(
+                    "istanbul_getSignersFromBlock",
+                    params -> signers(Numeric.toBigInt(params.path(0).asText()).intValue()));
+            Quorum quorum = node.quorum();
+            BlockSignerStore store = BlockSignerStore.open(directory);
+
+            try (BlockSignerIndexer indexer = new BlockSignerIndexer(quorum, store, 100, 30, 2)) {
+                assertThat(indexer.index(0, 99), is(100L));
+                assertThat(indexer.resume(0, 349), is(250L));
+                assertThat(indexer.index(0, 349), is(0L));
+            }
+
+            assertThat(node.getCallCount("istanbul_getSignersFromBlock"), is(350L));
+            assertThat(store.read(0, 349), is(blocks(0, 349)));
+            assertThat(store.lastIndexedBlock(0), is(349L));
+        }
+    }
+
+    @Test
+    public void testRunsOnGivenExecutor() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try (QuorumNodeSimulator node = QuorumNodeSimulator.http()) {
+            node.respond(
+                    "istanbul_getSignersFromBlock",
+                    params -> signers(Numeric.toBigInt(params.path(0).asText()).intValue()));
+            BlockSignerStore store = BlockSignerStore.open(directory);
+
+            try (BlockSignerIndexer indexer =
+                    new BlockSignerIndexer(node.quorum(), store, 10, 10, 3, executor)) {
+                assertThat(indexer.index(0, 99), is(100L));
+            }
+
+            assertThat(executor.isShutdown(), is(false));
+            assertThat(store.read(0, 99), is(blocks(0, 99)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<BlockSigners> blocks(int first, int last) {
+        List<BlockSigners> blocks = new ArrayList<>();
+        for (int number = first; number <= last; number++) {
+            blocks.add(
+                    new BlockSigners(
+                            number,
+                            hash(number),
+                            VALIDATORS.get(number % VALIDATORS.size()),
+                            committers(number)));
+        }
+        return blocks;
+    }
+
+    private static Map<String, Object> signers(int number) {
+        Map<String, Object> signers = new LinkedHashMap<>();
+        signers.put("Number", number);
+        signers.put("Hash", hash(number));
+        signers.put("Author", VALIDATORS.get(number % VALIDATORS.size()));
+        signers.put("Committers", committers(number));
+        return signers;
+    }
+
+    private static List<String> committers(int number) {
+        List<String> committers = new ArrayList<>(VALIDATORS);
+        committers.remove(number % VALIDATORS.size());
+        return committers;
+    }
+
+    private static String hash(int number) {
+        return "0x" + String.format("%064x", number + 1);
+    }
+
+    private static <T> List<T> concat(List<T> first, List<T> second) {
+        List<T> result = new ArrayList<>(first);
+        result.addAll(second);
+        return result;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.quorum.methods.request.PrivateTransaction;
+import org.web3j.quorum.permissioning.BulkPermissioning;
+import org.web3j.quorum.permissioning.PermissionOperationResult;
+import org.web3j.quorum.permissioning.PermissionPlan;
+import org.web3j.quorum.simulator.QuorumNodeSimulator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.web3j.quorum.permissioning.PermissionOperationResult.Status.FAILED;
+import static org.web3j.quorum.permissioning.PermissionOperationResult.Status.SKIPPED;
+import static org.web3j.quorum.permissioning.PermissionOperationResult.Status.SUCCEEDED;
+
+public class BulkPermissioningTest {
+
+    private static final String ADMIN = "0xed9d02e382b34818e88b88a309c7fe71e65f419d";
+    private static final String ACCOUNT = "0xca843569e3427144cead5e4d5999a3d0ccf92b8e";
+    private static final String ENODE_1 = "enode://1@127.0.0.1:21000?discport=0";
+    private static final String ENODE_2 = "enode://2@127.0.0.1:21001?discport=0";
+
+    private QuorumNodeSimulator node;
+    private final List<String> calls = new CopyOnWriteArrayList<>();
+    private final List<Integer> barriers = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        node = QuorumNodeSimulator.http();
+        for (String method :
+                Arrays.asList(
+                        "addOrg",
+                        "approveOrg",
+                        "addSubOrg",
+                        "addNewRole",
+                        "addAccountToOrg",
+                        "addNode")) {
+            node.respond(
+                    "quorumPermission_" + method,
+                    params -> {
+                        calls.add(method);
+                        return "Action completed successfully";
+                    });
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        node.close();
+    }
+
+    @Test
+    public void testExecutesDependentOperationsInStages() throws Exception {
+        List<PermissionOperationResult> results = bulkPermissioning(2).execute(plan());
+
+        assertThat(stages(results), is(Arrays.asList(0, 1, 2, 2, 3, 2, 0)));
+        assertThat(
+                statuses(results),
+                is(
+                        Arrays.asList(
+                                SUCCEEDED, SUCCEEDED, SUCCEEDED, SUCCEEDED, SUCCEEDED, SUCCEEDED,
+                                SUCCEEDED)));
+        assertThat(results.get(0).getMessage(), is("Action completed successfully"));
+        assertThat(
+                calls,
+                is(
+                        Arrays.asList(
+                                "addOrg",
+                                "addNode",
+                                "approveOrg",
+                                "addSubOrg",
+                                "addNewRole",
+                                "addNode",
+                                "addAccountToOrg")));
+        assertThat(barriers, is(Arrays.asList(0, 1, 2)));
+    }
+
+    @Test
+    public void testSkipsOperationsDependingOnFailures() throws Exception {
+        node.respondWithError("quorumPermission_approveOrg", -32000, "org not in list");
+
+        List<PermissionOperationResult> results = bulkPermissioning(10).execute(plan());
+
+        assertThat(
+                statuses(results),
+                is(
+                        Arrays.asList(
+                                SUCCEEDED, FAILED, SKIPPED, SKIPPED, SKIPPED, SKIPPED, SUCCEEDED)));
+        assertThat(results.get(1).getMessage(), is("org not in list"));
+        assertThat(results.get(4).getMessage(), is("Depends on org:ORG"));
+        assertThat(calls, is(Arrays.asList("addOrg", "addNode")));
+        assertThat(barriers, is(Arrays.asList(0, 1)));
+    }
+
+    private BulkPermissioning bulkPermissioning(int maxBatchSize) {
+        PrivateTransaction transaction =
+                new PrivateTransaction(ADMIN, null, null, null, null, null, null, null);
+        return new BulkPermissioning(node.quorum(), transaction, barriers::add, maxBatchSize);
+    }
+
+    private static PermissionPlan plan() {
+        return new PermissionPlan()
+                .addOrg("ORG", ENODE_1, ADMIN)
+                .approveOrg("ORG", ENODE_1, ADMIN)
+                .addSubOrg("ORG", "SUB", "")
+                .addRole("ORG", "MEMBER", 1, false, false)
+                .addAccount(ACCOUNT, "ORG", "MEMBER")
+                .addNode("ORG", ENODE_2)
+                .addNode("OTHER", ENODE_2);
+    }
+
+    private static List<Integer> stages(List<PermissionOperationResult> results) {
+        return results.stream()
+                .map(PermissionOperationResult::getStage)
+                .collect(Collectors.toList());
+    }
+
+    private static List<PermissionOperationResult.Status> statuses(
+            List<PermissionOperationResult> results) {
+        return results.stream()
+                .map(PermissionOperationResult::getStatus)
+                .collect(Collectors.toList());
+    }
+}
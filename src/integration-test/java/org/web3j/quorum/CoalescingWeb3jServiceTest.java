@@ -0,0 +1,240 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.quorum.methods.response.raft.RaftLeader;
+import org.web3j.quorum.simulator.StubWeb3jService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CoalescingWeb3jServiceTest {
+
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile CountDownLatch release = new CountDownLatch(0);
+    private final StubWeb3jService service =
+            new StubWeb3jService()
+                    .respondToOthers(
+                            request -> {
+                                try {
+                                    release.await();
+                                } catch (InterruptedException e) {
+                                    throw new InterruptedIOException();
+                                }
+                                if (failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                                    throw new IOException("Connection refused");
+                                }
+                                return request.getMethod();
+                            });
+
+    @Test
+    public void testCoalescesConcurrentRequests() throws Exception {
+        Quorum quorum =
+                Quorum.build(new CoalescingWeb3jService(service).coalesce("raft_leader", 0));
+        release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<RaftLeader>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> quorum.raftGetLeader().send()));
+            }
+            while (service.getCallCount() < 1) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            RaftLeader first = futures.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<RaftLeader> future : futures) {
+                assertThat(future.get(5, TimeUnit.SECONDS), sameInstance(first));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(service.getCallCount(), is(1L));
+
+        quorum.raftGetLeader().send();
+        assertThat(service.getCallCount(), is(2L));
+    }
+
+    @Test
+    public void testReusesResponseWithinTimeToLive() throws Exception {
+        Quorum quorum =
+                Quorum.build(new CoalescingWeb3jService(service).coalesce("raft_leader", 60_000));
+
+        RaftLeader first = quorum.raftGetLeader().send();
+        assertThat(quorum.raftGetLeader().sendAsync().get(), sameInstance(first));
+        assertThat(service.getCallCount(), is(1L));
+    }
+
+    @Test
+    public void testDistinguishesParameters() throws Exception {
+        Quorum quorum =
+                Quorum.build(
+                        new CoalescingWeb3jService(service)
+                                .coalesce("istanbul_getValidators", 60_000));
+
+        quorum.istanbulGetValidators("latest").send();
+        quorum.istanbulGetValidators("0x1").send();
+        quorum.istanbulGetValidators("latest").send();
+        assertThat(service.getCallCount(), is(2L));
+    }
+
+    @Test
+    public void testPassesThroughOtherMethods() throws Exception {
+        Quorum quorum =
+                Quorum.build(new CoalescingWeb3jService(service).coalesce("raft_leader", 60_000));
+
+        quorum.raftGetRole().send();
+        quorum.raftGetRole().send();
+        assertThat(service.getCallCount(), is(2L));
+    }
+
+    @Test
+    public void testDoesNotCacheFailures() throws Exception {
+        Quorum quorum =
+                Quorum.build(new CoalescingWeb3jService(service).coalesce("raft_leader", 60_000));
+        failures.set(1);
+
+        assertThrows(IOException.class, () -> quorum.raftGetLeader().send());
+        quorum.raftGetLeader().send();
+        assertThat(service.getCallCount(), is(2L));
+    }
+
+    @Test
+    public void testCompletesEntryWhenLeaderThrowsError() throws Exception {
+        AtomicInteger errors = new AtomicInteger(1);
+        service.respond(
+                "raft_leader",
+                request -> {
+                    if (errors.getAndDecrement() > 0) {
+                        throw new StackOverflowError();
+                    }
+                    return "leader";
+                });
+        CoalescingWeb3jService coalescing =
+                new CoalescingWeb3jService(service).coalesce("raft_leader", 60_000);
+        Quorum quorum = Quorum.build(coalescing);
+
+        assertThrows(StackOverflowError.class, () -> quorum.raftGetLeader().send());
+        assertThat(quorum.raftGetLeader().send().getResult(), is("leader"));
+        assertThat(service.getCallCount(), is(2L));
+    }
+
+    @Test
+    public void testCompletesEntryWhenAsyncSendIsRejected() throws Exception {
+        AtomicInteger rejections = new AtomicInteger(1);
+        StubWeb3jService rejecting =
+                new StubWeb3jService() {
+                    @Override
+                    public <T extends Response> CompletableFuture<T> sendAsync(
+                            Request request, Class<T> responseType) {
+                        if (rejections.getAndDecrement() > 0) {
+                            throw new RejectedExecutionException("Executor has shut down");
+                        }
+                        return super.sendAsync(request, responseType);
+                    }
+                }.respondToOthers(Request::getMethod);
+        CoalescingWeb3jService coalescing =
+                new CoalescingWeb3jService(rejecting).coalesce("raft_leader", 60_000);
+        Quorum quorum = Quorum.build(coalescing);
+
+        ExecutionException e =
+                assertThrows(
+                        ExecutionException.class,
+                        () -> quorum.raftGetLeader().sendAsync().get(5, TimeUnit.SECONDS));
+        assertThat(e.getCause(), instanceOf(RejectedExecutionException.class));
+        assertThat(
+                quorum.raftGetLeader().sendAsync().get(5, TimeUnit.SECONDS).getResult(),
+                is("raft_leader"));
+        assertThat(coalescing.size(), is(1));
+    }
+
+    @Test
+    public void testWaitingCallerCanBeInterrupted() throws Exception {
+        Quorum quorum =
+                Quorum.build(new CoalescingWeb3jService(service).coalesce("raft_leader", 0));
+        release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<RaftLeader> leader = executor.submit(() -> quorum.raftGetLeader().send());
+            while (service.getCallCount() < 1) {
+                Thread.sleep(10);
+            }
+            AtomicReference<Throwable> thrown = new AtomicReference<>();
+            Thread follower =
+                    new Thread(
+                            () -> {
+                                try {
+                                    quorum.raftGetLeader().send();
+                                } catch (Throwable t) {
+                                    thrown.set(t);
+                                }
+                            });
+            follower.start();
+            while (follower.getState() != Thread.State.WAITING) {
+                Thread.sleep(10);
+            }
+            follower.interrupt();
+            follower.join(5_000);
+
+            assertThat(thrown.get(), instanceOf(InterruptedIOException.class));
+            release.countDown();
+            leader.get(5, TimeUnit.SECONDS);
+            assertThat(service.getCallCount(), is(1L));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEvictsExpiredResponses() throws Exception {
+        CoalescingWeb3jService coalescing =
+                new CoalescingWeb3jService(service).coalesce("istanbul_getValidators", 10);
+        Quorum quorum = Quorum.build(coalescing);
+
+        for (int block = 0; block < 100; block++) {
+            quorum.istanbulGetValidators("0x" + Integer.toHexString(block)).send();
+        }
+        Thread.sleep(1_100);
+        quorum.istanbulGetValidators("latest").send();
+
+        assertThat(coalescing.size(), is(1));
+        assertThat(service.getCallCount(), is(101L));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import org.web3j.quorum.istanbul.CompactBlockSigners;
+import org.web3j.quorum.istanbul.CompactSnapshot;
+import org.web3j.quorum.istanbul.ValidatorDictionary;
+import org.web3j.quorum.methods.response.istanbul.BlockSigners;
+import org.web3j.quorum.methods.response.istanbul.Snapshot;
+import org.web3j.quorum.methods.response.istanbul.Tally;
+import org.web3j.quorum.methods.response.istanbul.Vote;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class CompactIstanbulTest {
+
+    private static final String HASH =
+            "0x0d9e7e34fd4db216a3f66981a467d9d990954e6ed3128aff4ec51a50fa175663";
+    private static final String VALIDATOR_1 = "0x0000000000000000000000000000000000000001";
+    private static final String VALIDATOR_2 = "0x0000000000000000000000000000000000000002";
+    private static final String VALIDATOR_3 = "0x0000000000000000000000000000000000000003";
+
+    @Test
+    public void testValidatorDictionary() {
+        ValidatorDictionary dictionary = new ValidatorDictionary();
+
+        assertThat(dictionary.idOf(VALIDATOR_2), is(0));
+        assertThat(dictionary.idOf(VALIDATOR_1), is(1));
+        assertThat(dictionary.idOf(VALIDATOR_2.toUpperCase().replace("0X", "0x")), is(0));
+        assertThat(dictionary.find(VALIDATOR_3), is(-1));
+        assertThat(dictionary.addressOf(1), is(VALIDATOR_1));
+        assertThat(new ValidatorDictionary(dictionary.getAddresses()).idOf(VALIDATOR_1), is(1));
+    }
+
+    @Test
+    public void testBlockSignersRoundTrip() {
+        ValidatorDictionary dictionary =
+                new ValidatorDictionary(Arrays.asList(VALIDATOR_1, VALIDATOR_2, VALIDATOR_3));
+        BlockSigners signers =
+                new BlockSigners(7, HASH, VALIDATOR_2, Arrays.asList(VALIDATOR_3, VALIDATOR_1));
+
+        CompactBlockSigners compact = CompactBlockSigners.of(signers, dictionary);
+
+        assertThat(compact.getNumber(), is(7));
+        assertThat(compact.getHash(), is(HASH));
+        assertThat(compact.getAuthor(), is(1));
+        assertThat(compact.getCommitterCount(), is(2));
+        assertThat(compact.isCommitter(0), is(true));
+        assertThat(compact.isCommitter(1), is(false));
+        // Committers come back in dictionary order
+        assertThat(
+                compact.toBlockSigners(dictionary),
+                is(
+                        new BlockSigners(
+                                7, HASH, VALIDATOR_2, Arrays.asList(VALIDATOR_1, VALIDATOR_3))));
+    }
+
+    @Test
+    public void testBlockSignersCannotBeModified() {
+        byte[] hash = new byte[32];
+        BitSet committers = new BitSet();
+        committers.set(1);
+        CompactBlockSigners compact = new CompactBlockSigners(1, hash, 0, committers);
+        CompactBlockSigners copy = new CompactBlockSigners(1, new byte[32], 0, committers);
+
+        hash[0] = 1;
+        committers.set(2);
+        compact.getCommitters().set(3);
+
+        assertThat(compact.getHash(), is("0x" + String.format("%064x", 0)));
+        assertThat(compact.getCommitterCount(), is(1));
+        assertThat(compact, is(copy));
+    }
+
+    @Test
+    public void testSnapshotRoundTrip() {
+        ValidatorDictionary dictionary = new ValidatorDictionary();
+        Snapshot snapshot =
+                new Snapshot(
+                        "30000",
+                        HASH,
+                        "0x10",
+                        "0",
+                        new Tally(true, 1),
+                        Arrays.asList(VALIDATOR_1, VALIDATOR_2),
+                        Collections.singletonList(new Vote(VALIDATOR_1, 15, VALIDATOR_3, true)));
+
+        CompactSnapshot compact = CompactSnapshot.of(snapshot, dictionary);
+
+        assertThat(compact.getValidatorCount(), is(2));
+        assertThat(compact.getVoteCount(), is(1));
+        assertThat(compact.isValidator(dictionary.find(VALIDATOR_3)), is(false));
+        assertThat(compact.toSnapshot(dictionary), is(snapshot));
+        assertThat(CompactSnapshot.of(snapshot, dictionary), is(compact));
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigInteger;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.protocol.exceptions.ClientConnectionException;
+import org.web3j.quorum.enclave.EnclaveClientConnectionException;
+import org.web3j.quorum.enclave.Tessera;
+import org.web3j.quorum.simulator.QuorumNodeSimulator;
+import org.web3j.quorum.simulator.TesseraSimulator;
+import org.web3j.quorum.tx.ClientTransactionManager;
+import org.web3j.quorum.tx.PrivacyOptions;
+import org.web3j.quorum.tx.QuorumTransactionManager;
+import org.web3j.quorum.tx.limit.AdaptiveConcurrencyLimiter;
+import org.web3j.quorum.tx.limit.ConcurrencyLimitExceededException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ConcurrencyLimiterTest {
+
+    private static final Credentials CREDENTIALS =
+            Credentials.create(
+                    "0x8f2a55949038a9610f50fb23b5883af3b4ecb3c3bb792cbcefbd1542c692be63");
+
+    @Test
+    public void testLimitGrowsWhileInUse() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 4, 0, 1_000);
+
+        // One submission at a time uses at least half of a limit of two, but not of three
+        for (int i = 0; i < 20; i++) {
+            limiter.submit(() -> success());
+        }
+
+        assertThat(limiter.getLimit(), is(2));
+        assertThat(limiter.getInFlight(), is(0));
+        assertThat(limiter.getOverloadCount(), is(0L));
+    }
+
+    @Test
+    public void testLimitBacksOffOnOverload() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 20, 0, 1_000);
+
+        limiter.submit(() -> error(-32000, "txpool is full"));
+        assertThat(limiter.getLimit(), is(18));
+        limiter.submit(() -> error(-32005, "request rate exceeded"));
+        assertThat(limiter.getLimit(), is(16));
+
+        assertThrows(
+                SocketTimeoutException.class,
+                () ->
+                        limiter.submit(
+                                () -> {
+                                    throw new SocketTimeoutException("timeout");
+                                }));
+        assertThat(limiter.getLimit(), is(14));
+        assertThrows(
+                ClientConnectionException.class,
+                () ->
+                        limiter.submit(
+                                () -> {
+                                    throw new ClientConnectionException(
+                                            "Invalid response received: 503; busy");
+                                }));
+        assertThat(limiter.getLimit(), is(13));
+        assertThrows(
+                EnclaveClientConnectionException.class,
+                () ->
+                        limiter.submit(
+                                () -> {
+                                    throw new EnclaveClientConnectionException(
+                                            "Invalid response received from enclave: 429", 429);
+                                }));
+        assertThat(limiter.getLimit(), is(11));
+        assertThat(limiter.getOverloadCount(), is(5L));
+
+        // Failures which say nothing about load leave the limit alone
+        limiter.submit(() -> error(-32000, "nonce too low"));
+        assertThrows(
+                EnclaveClientConnectionException.class,
+                () ->
+                        limiter.submit(
+                                () -> {
+                                    throw new EnclaveClientConnectionException(
+                                            "Invalid response received from enclave: 400", 400);
+                                }));
+        assertThat(limiter.getLimit(), is(11));
+
+        for (int i = 0; i < 100; i++) {
+            limiter.submit(() -> error(-32000, "txpool is full"));
+        }
+        assertThat(limiter.getLimit(), is(1));
+    }
+
+    @Test
+    public void testLimitBacksOffOncePerWindow() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 10, 0, 1_000);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<EthSendTransaction>> futures =
+                    IntStream.range(0, 5)
+                            .mapToObj(
+                                    i ->
+                                            executor.submit(
+                                                    () ->
+                                                            limiter.submit(
+                                                                    () -> overloadAfter(release))))
+                            .collect(Collectors.toList());
+            awaitCondition(() -> limiter.getInFlight() == 5);
+            release.countDown();
+            for (Future<EthSendTransaction> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+
+            // All five were sent under the old limit, so only the first backs off
+            assertThat(limiter.getLimit(), is(9));
+            assertThat(limiter.getOverloadCount(), is(5L));
+
+            limiter.submit(() -> error(-32000, "txpool is full"));
+            assertThat(limiter.getLimit(), is(8));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLimitBacksOffOnSlowSubmissions() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 10, 0, 1);
+
+        limiter.submit(
+                () -> {
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        throw new InterruptedIOException();
+                    }
+                    return success();
+                });
+
+        assertThat(limiter.getLimit(), is(9));
+    }
+
+    @Test
+    public void testExcessSubmissionsAreQueued() throws Exception {
+        AdaptiveConcurrencyLimiter limiter =
+                new AdaptiveConcurrencyLimiter(1, 1, 1, 1, 10, 1_000, TimeUnit.SECONDS);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<EthSendTransaction> first =
+                    executor.submit(() -> limiter.submit(() -> successAfter(release)));
+            awaitCondition(() -> limiter.getInFlight() == 1);
+            Future<EthSendTransaction> second =
+                    executor.submit(() -> limiter.submit(() -> success()));
+            awaitCondition(() -> limiter.getQueueDepth() == 1);
+
+            assertThrows(
+                    ConcurrencyLimitExceededException.class, () -> limiter.submit(() -> success()));
+            assertThat(limiter.getRejectedCount(), is(1L));
+            assertThat(second.isDone(), is(false));
+
+            release.countDown();
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+            assertThat(limiter.getQueueDepth(), is(0));
+            assertThat(limiter.getInFlight(), is(0));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testQueuedSubmissionsAreSentInOrder() throws Exception {
+        AdaptiveConcurrencyLimiter limiter =
+                new AdaptiveConcurrencyLimiter(1, 1, 1, 10, 10, 1_000, TimeUnit.SECONDS);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> sent = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            Future<EthSendTransaction> first =
+                    executor.submit(() -> limiter.submit(() -> successAfter(release)));
+            awaitCondition(() -> limiter.getInFlight() == 1);
+            Future<?>[] queued = new Future<?>[5];
+            for (int i = 0; i < queued.length; i++) {
+                int index = i;
+                queued[i] =
+                        executor.submit(
+                                () ->
+                                        limiter.submit(
+                                                () -> {
+                                                    sent.add(index);
+                                                    return success();
+                                                }));
+                awaitCondition(() -> limiter.getQueueDepth() == index + 1);
+            }
+
+            release.countDown();
+            first.get(10, TimeUnit.SECONDS);
+            for (Future<?> future : queued) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            assertThat(sent, is(Arrays.asList(0, 1, 2, 3, 4)));
+            assertThat(limiter.getQueueDepth(), is(0));
+            assertThat(limiter.getInFlight(), is(0));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testQueuedSubmissionsTimeOut() throws Exception {
+        AdaptiveConcurrencyLimiter limiter =
+                new AdaptiveConcurrencyLimiter(1, 1, 1, 10, 50, 1_000, TimeUnit.MILLISECONDS);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> limiter.submit(() -> successAfter(release)));
+            awaitCondition(() -> limiter.getInFlight() == 1);
+
+            long start = System.nanoTime();
+            assertThrows(
+                    ConcurrencyLimitExceededException.class, () -> limiter.submit(() -> success()));
+            assertThat(
+                    System.nanoTime() - start,
+                    greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50)));
+            assertThat(limiter.getQueueDepth(), is(0));
+            assertThat(limiter.getRejectedCount(), is(1L));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testTransactionManagersSubmitThroughLimiter() throws Exception {
+        try (QuorumNodeSimulator node = QuorumNodeSimulator.http();
+                TesseraSimulator tessera = TesseraSimulator.http()) {
+            node.respondWithError("eth_sendTransaction", -32000, "txpool is full");
+            Quorum quorum = node.quorum();
+            AdaptiveConcurrencyLimiter limiter = limiter(10, 10, 10, 1_000);
+
+            ClientTransactionManager clientTransactionManager =
+                    new ClientTransactionManager(
+                            quorum,
+                            CREDENTIALS.getAddress(),
+                            "publicKey",
+                            Collections.singletonList("recipient"),
+                            null);
+            clientTransactionManager.setConcurrencyLimiter(limiter);
+            EthSendTransaction response =
+                    clientTransactionManager.sendTransaction(
+                            BigInteger.ZERO,
+                            BigInteger.valueOf(100_000),
+                            null,
+                            "0x6080",
+                            BigInteger.ZERO);
+            assertThat(response.getError().getMessage(), is("txpool is full"));
+            assertThat(limiter.getLimit(), is(9));
+
+            QuorumTransactionManager quorumTransactionManager =
+                    new QuorumTransactionManager(
+                            quorum,
+                            new Tessera(tessera.enclaveService(), quorum),
+                            CREDENTIALS,
+                            "publicKey",
+                            Collections.emptyList(),
+                            null,
+                            null,
+                            -1L,
+                            10,
+                            10L);
+            quorumTransactionManager.setConcurrencyLimiter(limiter);
+            for (int i = 0; i < 20; i++) {
+                quorumTransactionManager.signAndSend(
+                        RawTransaction.createTransaction(
+                                BigInteger.valueOf(i),
+                                BigInteger.ZERO,
+                                BigInteger.valueOf(100_000),
+                                null,
+                                BigInteger.ZERO,
+                                "0x6080"),
+                        new PrivacyOptions(Arrays.asList("recipient")));
+            }
+            assertThat(tessera.getPayloadCount(), is(20));
+            assertThat(limiter.getOverloadCount(), is(1L));
+            assertThat(limiter.getLimit(), is(9));
+            assertThat(limiter.getInFlight(), is(0));
+        }
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(
+            int initialLimit, int maxLimit, int maxQueued, long latencyThresholdMillis) {
+        return new AdaptiveConcurrencyLimiter(
+                initialLimit,
+                1,
+                maxLimit,
+                maxQueued,
+                1_000,
+                latencyThresholdMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private static EthSendTransaction success() {
+        EthSendTransaction response = new EthSendTransaction();
+        response.setResult("0x" + String.format("%064x", 1));
+        return response;
+    }
+
+    private static EthSendTransaction successAfter(CountDownLatch latch) throws IOException {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        }
+        return success();
+    }
+
+    private static EthSendTransaction overloadAfter(CountDownLatch latch) throws IOException {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        }
+        return error(-32000, "txpool is full");
+    }
+
+    private static EthSendTransaction error(int code, String message) {
+        EthSendTransaction response = new EthSendTransaction();
+        response.setError(new Response.Error(code, message));
+        return response;
+    }
+
+    private static void awaitCondition(Condition condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.holds()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for the limiter");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Condition {
+        boolean holds();
+    }
+}
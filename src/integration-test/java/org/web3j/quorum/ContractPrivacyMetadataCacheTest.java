@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.quorum.cache.ContractPrivacyMetadataCache;
+import org.web3j.quorum.simulator.QuorumNodeSimulator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ContractPrivacyMetadataCacheTest {
+
+    private static final String PRIVATE_CONTRACT = "0x1932c48b2bf8102ba33b4a6b545c32236e342f34";
+    private static final String PUBLIC_CONTRACT = "0x9d13c6d3afe1721beef56b55d303b09e021e27ab";
+
+    private QuorumNodeSimulator node;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        node = QuorumNodeSimulator.http();
+        node.respond(
+                "eth_getContractPrivacyMetadata",
+                params ->
+                        params.path(0).asText().equalsIgnoreCase(PRIVATE_CONTRACT)
+                                ? metadata()
+                                : null);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        node.close();
+    }
+
+    @Test
+    public void testCachesPrivateContractsIndefinitely() throws Exception {
+        ContractPrivacyMetadataCache cache = new ContractPrivacyMetadataCache(node.quorum());
+
+        assertThat(cache.getPrivacyFlag(PRIVATE_CONTRACT), is(PrivacyFlag.PARTY_PROTECTION));
+        assertThat(
+                cache.get(PRIVATE_CONTRACT.toUpperCase().replace("0X", "0x")).getCreationTxHash(),
+                is(new byte[] {55, 80}));
+        assertThat(cache.getPrivacyFlag(PUBLIC_CONTRACT), nullValue());
+        assertThat(cache.getPrivacyFlag(PUBLIC_CONTRACT), nullValue());
+
+        assertThat(node.getCallCount("eth_getContractPrivacyMetadata"), is(2L));
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(cache.getNegativeHitCount(), is(1L));
+        assertThat(cache.getMissCount(), is(2L));
+        assertThat(cache.getHitRate(), is(0.5));
+
+        cache.invalidate(PRIVATE_CONTRACT);
+        cache.get(PRIVATE_CONTRACT);
+        assertThat(node.getCallCount("eth_getContractPrivacyMetadata"), is(3L));
+    }
+
+    @Test
+    public void testExpiresNegativeResults() throws Exception {
+        ContractPrivacyMetadataCache cache = new ContractPrivacyMetadataCache(node.quorum(), 20);
+
+        cache.get(PUBLIC_CONTRACT);
+        cache.get(PUBLIC_CONTRACT);
+        Thread.sleep(50);
+        cache.get(PUBLIC_CONTRACT);
+
+        assertThat(node.getCallCount("eth_getContractPrivacyMetadata"), is(2L));
+        assertThat(
+                new ContractPrivacyMetadataCache(node.quorum(), 0).get(PUBLIC_CONTRACT),
+                nullValue());
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new ContractPrivacyMetadataCache(node.quorum(), -1));
+    }
+
+    @Test
+    public void testPrefetchesUncachedContracts() throws Exception {
+        ContractPrivacyMetadataCache cache = new ContractPrivacyMetadataCache(node.quorum());
+        cache.get(PRIVATE_CONTRACT);
+
+        assertThat(
+                cache.prefetch(Arrays.asList(PRIVATE_CONTRACT, PUBLIC_CONTRACT, PUBLIC_CONTRACT)),
+                is(1));
+        assertThat(cache.prefetch(Arrays.asList(PRIVATE_CONTRACT, PUBLIC_CONTRACT)), is(0));
+        assertThat(cache.size(), is(2));
+        assertThat(cache.getLoadCount(), is(2L));
+        assertThat(cache.getPrivacyFlag(PUBLIC_CONTRACT), nullValue());
+        assertThat(node.getCallCount("eth_getContractPrivacyMetadata"), is(2L));
+    }
+
+    @Test
+    public void testDoesNotCacheErrors() throws Exception {
+        node.respondWithError("eth_getContractPrivacyMetadata", -32000, "state not found");
+        ContractPrivacyMetadataCache cache = new ContractPrivacyMetadataCache(node.quorum());
+
+        assertThrows(IOException.class, () -> cache.get(PRIVATE_CONTRACT));
+        assertThrows(IOException.class, () -> cache.prefetch(Arrays.asList(PRIVATE_CONTRACT)));
+        assertThat(cache.size(), is(0));
+    }
+
+    private static Map<String, Object> metadata() {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("creationTxHash", new int[] {55, 80});
+        metadata.put("privacyFlag", 1);
+        return metadata;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.protocol.http.HttpService;
+import org.web3j.quorum.enclave.EnclaveClientConnectionException;
+import org.web3j.quorum.enclave.Tessera;
+import org.web3j.quorum.enclave.protocol.EnclaveService;
+import org.web3j.quorum.metrics.EndpointMetrics;
+import org.web3j.quorum.metrics.EnclaveMetrics;
+import org.web3j.quorum.metrics.RpcMetricsRegistry;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class EnclaveMetricsTest {
+
+    private static final String STORED = "{\"key\":\"c3RvcmVk\"}";
+
+    private HttpServer server;
+    private int port;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/upcheck", exchange -> respond(exchange, 200, "I'm up!"));
+        server.createContext("/storeraw", exchange -> respond(exchange, 200, STORED));
+        server.createContext("/receive", exchange -> respond(exchange, 500, "failed"));
+        server.start();
+        port = server.getAddress().getPort();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testRecordsEnclaveCalls() {
+        RpcMetricsRegistry rpcMetrics = new RpcMetricsRegistry();
+        EnclaveMetrics metrics = new EnclaveMetrics(rpcMetrics);
+        EnclaveService service =
+                new EnclaveService("http://127.0.0.1", port, new OkHttpClient(), metrics);
+        Tessera tessera = new Tessera(service, Quorum.build(new HttpService()));
+
+        assertThat(tessera.upCheck(), is(true));
+        assertThat(tessera.upCheck(), is(true));
+        tessera.storeRawRequest("cGF5bG9hZA==", "from", Collections.emptyList());
+
+        EndpointMetrics upcheck = metrics.getEndpoint("upcheck");
+        assertThat(upcheck.getCallCount(), is(2L));
+        assertThat(upcheck.getFailureCount(), is(0L));
+        assertThat(upcheck.getStatusCodes(), is(Collections.singletonMap(200, 2L)));
+        assertThat(upcheck.getResponseBytes(), is(2L * "I'm up!".length()));
+        assertThat(upcheck.getNetworkLatency().getCount(), is(2L));
+
+        EndpointMetrics storeRaw = metrics.getEndpoint("storeraw");
+        assertThat(storeRaw.getRequestBytes(), greaterThan(0L));
+        assertThat(storeRaw.getResponseBytes(), is((long) STORED.length()));
+        assertThat(storeRaw.getConnectionReuseRate(), is(1.0));
+
+        assertThat(rpcMetrics.getMethod("enclave/upcheck").getCallCount(), is(2L));
+    }
+
+    @Test
+    public void testRecordsErrorStatus() {
+        EnclaveMetrics metrics = new EnclaveMetrics();
+        EnclaveService service =
+                new EnclaveService("http://127.0.0.1", port, new OkHttpClient(), metrics);
+
+        assertThrows(
+                EnclaveClientConnectionException.class,
+                () -> service.send(Collections.emptyMap(), "receive", Object.class));
+
+        EndpointMetrics receive = metrics.getEndpoint("receive");
+        assertThat(receive.getFailureCount(), is(1L));
+        assertThat(receive.getStatusCodes(), is(Collections.singletonMap(500, 1L)));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        try (InputStream request = exchange.getRequestBody()) {
+            while (request.read() >= 0) {
+                // drain the request so that the connection can be reused
+            }
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream response = exchange.getResponseBody()) {
+            response.write(bytes);
+        }
+    }
+}
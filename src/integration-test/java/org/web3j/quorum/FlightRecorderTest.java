@@ -0,0 +1,172 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.sun.net.httpserver.HttpServer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.protocol.Web3jService;
+import org.web3j.quorum.enclave.protocol.EnclaveService;
+import org.web3j.quorum.jfr.QuorumFlightRecorder;
+import org.web3j.quorum.methods.response.QuorumTransactionReceipt;
+import org.web3j.quorum.simulator.StubWeb3jService;
+import org.web3j.quorum.tx.response.QuorumPollingTransactionReceiptProcessor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+public class FlightRecorderTest {
+
+    private static final String HASH = "0x01";
+
+    @AfterEach
+    public void tearDown() {
+        QuorumFlightRecorder.setEnabled(false);
+    }
+
+    @Test
+    public void testDoesNotRecordWhenDisabled() {
+        QuorumFlightRecorder.setEnabled(false);
+        Web3jService service = QuorumFlightRecorder.instrument(stubService());
+        assertThat(QuorumFlightRecorder.instrument(service), sameInstance(service));
+        assertThat(QuorumFlightRecorder.beginEnclaveCall(), is((Object) null));
+    }
+
+    @Test
+    public void testRecordsOnlyWhileEnabled() throws Exception {
+        QuorumFlightRecorder.setEnabled(false);
+        Quorum quorum = Quorum.build(stubService());
+
+        Path file = Files.createTempFile("quorum", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.web3j.quorum.RpcCall");
+            recording.start();
+
+            quorum.quorumGetPrivatePayload("0x02").send();
+            QuorumFlightRecorder.setEnabled(true);
+            quorum.quorumGetPrivatePayload("0x03").send();
+            QuorumFlightRecorder.setEnabled(false);
+            quorum.quorumGetPrivatePayload("0x04").send();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> rpcCalls;
+        try {
+            rpcCalls = events(RecordingFile.readAllEvents(file), "org.web3j.quorum.RpcCall");
+        } finally {
+            Files.delete(file);
+        }
+        assertThat(rpcCalls.size(), is(1));
+        assertThat(rpcCalls.get(0).getString("method"), is("eth_getQuorumPayload"));
+    }
+
+    @Test
+    public void testRecordsEvents() throws Exception {
+        QuorumFlightRecorder.setEnabled(true);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(
+                "/upcheck",
+                exchange -> {
+                    try (InputStream request = exchange.getRequestBody()) {
+                        while (request.read() >= 0) {
+                            // drain the request
+                        }
+                    }
+                    byte[] body = "I'm up!".getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream response = exchange.getResponseBody()) {
+                        response.write(body);
+                    }
+                });
+        server.start();
+
+        Path file = Files.createTempFile("quorum", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.web3j.quorum.RpcCall");
+            recording.enable("org.web3j.quorum.EnclaveCall");
+            recording.enable("org.web3j.quorum.ReceiptPoll");
+            recording.start();
+
+            Quorum quorum = Quorum.build(stubService());
+            quorum.quorumGetPrivatePayload(HASH).send();
+            new QuorumPollingTransactionReceiptProcessor(quorum, 1, 1)
+                    .waitForTransactionReceipt(HASH);
+            new EnclaveService(
+                            "http://127.0.0.1", server.getAddress().getPort(), new OkHttpClient())
+                    .send("upcheck");
+
+            recording.stop();
+            recording.dump(file);
+        } finally {
+            server.stop(0);
+        }
+
+        List<RecordedEvent> events;
+        try {
+            events = RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+
+        List<RecordedEvent> rpcCalls = events(events, "org.web3j.quorum.RpcCall");
+        assertThat(rpcCalls.size(), is(2));
+        assertThat(rpcCalls.get(0).getString("method"), is("eth_getQuorumPayload"));
+        assertThat(rpcCalls.get(0).getLong("paramsBytes"), is(8L));
+        assertThat(rpcCalls.get(0).getString("outcome"), is("success"));
+
+        List<RecordedEvent> polls = events(events, "org.web3j.quorum.ReceiptPoll");
+        assertThat(polls.size(), is(1));
+        assertThat(polls.get(0).getString("transactionHash"), is(HASH));
+        assertThat(polls.get(0).getInt("attempt"), is(1));
+        assertThat(polls.get(0).getBoolean("found"), is(true));
+
+        List<RecordedEvent> enclaveCalls = events(events, "org.web3j.quorum.EnclaveCall");
+        assertThat(enclaveCalls.size(), is(1));
+        assertThat(enclaveCalls.get(0).getString("path"), is("upcheck"));
+        assertThat(enclaveCalls.get(0).getInt("statusCode"), is(200));
+        assertThat(enclaveCalls.get(0).getLong("responseBytes"), is(7L));
+    }
+
+    private static List<RecordedEvent> events(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .collect(Collectors.toList());
+    }
+
+    /** Answers payload requests with an empty payload and receipt requests with a receipt. */
+    private static StubWeb3jService stubService() {
+        QuorumTransactionReceipt receipt = new QuorumTransactionReceipt();
+        receipt.setTransactionHash(HASH);
+        return new StubWeb3jService()
+                .respond("eth_getTransactionReceipt", request -> receipt)
+                .respondToOthers(request -> "0x");
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.quorum.cache.NodeMetadataCache;
+import org.web3j.quorum.simulator.QuorumNodeSimulator;
+import org.web3j.quorum.tx.ClientTransactionManager;
+import org.web3j.quorum.tx.PrivacyOptions;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class NodeMetadataCacheTest {
+
+    private static final String PRECOMPILE = "0x000000000000000000000000000000000000007a";
+    private static final String FROM = "0xed9d02e382b34818e88b88a309c7fe71e65f419d";
+    private static final String MARKER_HASH =
+            "0x2e8e1b1b2f1a7f8d4dd4e6e3ef8b9a5e9b6c2f3f1f8c6a0c1f9d3f4e5a6b7c8d";
+
+    private QuorumNodeSimulator node;
+    private Quorum quorum;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        node = QuorumNodeSimulator.http();
+        quorum = node.quorum();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        node.close();
+    }
+
+    @Test
+    public void testMemoisesUntilInvalidated() throws Exception {
+        NodeMetadataCache cache = new NodeMetadataCache(quorum);
+
+        assertThat(cache.getPrivacyPrecompileAddress(), is(PRECOMPILE));
+        assertThat(cache.getPrivacyPrecompileAddress(), is(PRECOMPILE));
+        cache.getIstanbulNodeAddress();
+        cache.getIstanbulNodeAddress();
+        assertThat(node.getCallCount("eth_getPrivacyPrecompileAddress"), is(1L));
+        assertThat(node.getCallCount("istanbul_nodeAddress"), is(1L));
+
+        cache.invalidate();
+        cache.getPrivacyPrecompileAddress();
+        assertThat(node.getCallCount("eth_getPrivacyPrecompileAddress"), is(2L));
+    }
+
+    @Test
+    public void testPreloadsOnlyMissingValues() throws Exception {
+        NodeMetadataCache cache = new NodeMetadataCache(quorum);
+
+        cache.preload(true, true, Collections.singletonList(PRECOMPILE));
+        cache.preload(true, true, Collections.singletonList(PRECOMPILE));
+        cache.getPrivacyPrecompileAddress();
+        cache.getIstanbulNodeAddress();
+        cache.getContractPrivacyMetadata(PRECOMPILE);
+
+        assertThat(node.getCallCount(), is(3L));
+    }
+
+    @Test
+    public void testRecognisesUnflaggedPrivacyMarkerReceipts() throws Exception {
+        node.respond("eth_sendTransaction", params -> MARKER_HASH);
+        node.respond("eth_getTransactionReceipt", params -> receipt(MARKER_HASH, PRECOMPILE));
+        node.respond("eth_getPrivateTransactionReceipt", params -> receipt("0x01", FROM));
+        ClientTransactionManager transactionManager = transactionManager();
+
+        assertThat(execute(transactionManager).getTransactionHash(), is(MARKER_HASH));
+
+        transactionManager.setNodeMetadataCache(new NodeMetadataCache(quorum));
+        assertThat(execute(transactionManager).getTransactionHash(), is("0x01"));
+        assertThat(execute(transactionManager).getTransactionHash(), is("0x01"));
+        assertThat(node.getCallCount("eth_getPrivacyPrecompileAddress"), is(1L));
+        assertThat(node.getCallCount("eth_getPrivateTransactionReceipt"), is(2L));
+    }
+
+    @Test
+    public void testIgnoresPrecompileOnNodesWithoutPrivacyMarkers() throws Exception {
+        node.respondWithError(
+                "eth_getPrivacyPrecompileAddress",
+                -32601,
+                "the method eth_getPrivacyPrecompileAddress does not exist/is not available");
+        node.respond("eth_getTransactionReceipt", params -> receipt(MARKER_HASH, PRECOMPILE));
+        ClientTransactionManager transactionManager = transactionManager();
+        transactionManager.setNodeMetadataCache(new NodeMetadataCache(quorum));
+
+        execute(transactionManager);
+        execute(transactionManager);
+
+        assertThat(node.getCallCount("eth_getPrivacyPrecompileAddress"), is(1L));
+        assertThat(node.getCallCount("eth_getPrivateTransactionReceipt"), is(0L));
+    }
+
+    @Test
+    public void testInvalidatedWhenNodeConnectionFails() throws Exception {
+        NodeMetadataCache cache = new NodeMetadataCache(quorum);
+        cache.getPrivacyPrecompileAddress();
+        ClientTransactionManager transactionManager = transactionManager();
+        transactionManager.setNodeMetadataCache(cache);
+        node.respond(
+                "eth_sendTransaction",
+                params -> {
+                    throw new UncheckedIOException(new IOException("Connection reset"));
+                });
+
+        assertThrows(IOException.class, () -> execute(transactionManager));
+        cache.getPrivacyPrecompileAddress();
+
+        assertThat(node.getCallCount("eth_getPrivacyPrecompileAddress"), is(2L));
+    }
+
+    private ClientTransactionManager transactionManager() {
+        return new ClientTransactionManager(
+                quorum, FROM, null, Collections.singletonList("recipient"), 5, 10);
+    }
+
+    private static TransactionReceipt execute(ClientTransactionManager transactionManager)
+            throws Exception {
+        return transactionManager.executeTransaction(
+                BigInteger.ZERO,
+                BigInteger.valueOf(100_000),
+                PRECOMPILE,
+                "0x",
+                BigInteger.ZERO,
+                new PrivacyOptions(Collections.singletonList("recipient")));
+    }
+
+    private static Map<String, Object> receipt(String transactionHash, String to) {
+        Map<String, Object> receipt = new LinkedHashMap<>();
+        receipt.put("transactionHash", transactionHash);
+        receipt.put("blockNumber", "0x1");
+        receipt.put("from", FROM);
+        receipt.put("to", to);
+        receipt.put("status", "0x1");
+        receipt.put("logs", Collections.emptyList());
+        return receipt;
+    }
+}
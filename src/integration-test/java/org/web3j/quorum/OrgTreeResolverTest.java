@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.quorum.methods.response.permissioning.OrgDetails;
+import org.web3j.quorum.permissioning.OrgTree;
+import org.web3j.quorum.permissioning.OrgTreeResolver;
+import org.web3j.quorum.simulator.QuorumNodeSimulator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.web3j.quorum.SimulatedPermissions.account;
+import static org.web3j.quorum.SimulatedPermissions.org;
+
+public class OrgTreeResolverTest {
+
+    private QuorumNodeSimulator node;
+    private SimulatedPermissions permissions;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        node = QuorumNodeSimulator.http();
+        permissions = new SimulatedPermissions().serve(node);
+        permissions.orgs.add(org("ORG", 2, "ORG.A", "ORG.B"));
+        permissions.orgs.add(org("ORG.A", 2, "ORG.A.X", "ORG.A.Y"));
+        permissions.orgs.add(org("ORG.B", 2));
+        permissions.orgs.add(org("ORG.A.X", 2));
+        permissions.orgs.add(org("ORG.A.Y", 2));
+        permissions.orgs.add(org("OTHER", 2));
+        node.respond("quorumPermission_getOrgDetails", params -> details(params.path(0).asText()));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        node.close();
+    }
+
+    @Test
+    public void testResolvesHierarchyInBatches() throws Exception {
+        try (OrgTreeResolver resolver = new OrgTreeResolver(node.quorum(), 2, 2)) {
+            OrgTree tree = resolver.resolve("ORG");
+
+            assertThat(tree.size(), is(5));
+            assertThat(tree.getSubOrgs().size(), is(2));
+            assertThat(tree.find("ORG.A.Y").getFullOrgId(), is("ORG.A.Y"));
+            assertThat(
+                    tree.find("ORG.A.X").getDetails().getAcctList().get(0).getOrgId(),
+                    is("ORG.A.X"));
+            assertThat(tree.find("OTHER"), nullValue());
+            assertThat(node.getCallCount("quorumPermission_orgList"), is(1L));
+            assertThat(node.getCallCount("quorumPermission_getOrgDetails"), is(5L));
+        }
+    }
+
+    @Test
+    public void testRunsBatchesOnGivenExecutor() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            OrgTreeResolver resolver = new OrgTreeResolver(node.quorum(), 1, 2, executor);
+            assertThat(resolver.resolve("ORG").size(), is(5));
+            resolver.close();
+
+            resolver.invalidateAll();
+            assertThat(resolver.resolve("ORG.A").size(), is(3));
+            assertThat(executor.isShutdown(), is(false));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMemoisedDetailsCannotBeChanged() throws Exception {
+        try (OrgTreeResolver resolver = new OrgTreeResolver(node.quorum())) {
+            OrgDetails details = resolver.resolve("ORG").find("ORG.B").getDetails();
+            details.setNodeList(null);
+            assertThrows(UnsupportedOperationException.class, () -> details.getAcctList().clear());
+
+            OrgTree tree = resolver.resolve("ORG");
+            assertThat(tree.find("ORG.B").getDetails().getNodeList(), is(Collections.emptyList()));
+            assertThat(tree.find("ORG.B").getDetails().getAcctList().size(), is(1));
+            assertThat(node.getCallCount("quorumPermission_getOrgDetails"), is(5L));
+        }
+    }
+
+    @Test
+    public void testMemoisesUnchangedOrgs() throws Exception {
+        try (OrgTreeResolver resolver = new OrgTreeResolver(node.quorum())) {
+            resolver.resolve("ORG");
+            resolver.resolve("ORG.A");
+            assertThat(node.getCallCount("quorumPermission_getOrgDetails"), is(5L));
+
+            permissions.orgs.set(4, org("ORG.A.Y", 4));
+            resolver.invalidate("ORG.B");
+            OrgTree tree = resolver.resolve("ORG");
+
+            assertThat(tree.find("ORG.A.Y").getOrg().getStatus(), is(4));
+            assertThat(node.getCallCount("quorumPermission_getOrgDetails"), is(7L));
+            assertThat(resolver.resolve("MISSING"), nullValue());
+        }
+    }
+
+    @Test
+    public void testFailsOnOrgDetailsError() {
+        node.respondWithError("quorumPermission_getOrgDetails", -32000, "org does not exist");
+
+        try (OrgTreeResolver resolver = new OrgTreeResolver(node.quorum(), 2, 2)) {
+            IOException e = assertThrows(IOException.class, () -> resolver.resolve("ORG"));
+            assertThat(e.getMessage().endsWith("org does not exist"), is(true));
+        }
+    }
+
+    private static Map<String, Object> details(String fullOrgId) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("roleList", Collections.emptyList());
+        details.put(
+                "acctList",
+                Collections.singletonList(
+                        account(
+                                "0xed9d02e382b34818e88b88a309c7fe71e65f419d",
+                                fullOrgId,
+                                "ADMIN",
+                                2)));
+        details.put("nodeList", Collections.emptyList());
+        details.put("subOrgList", Collections.emptyList());
+        return details;
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.crypto.Hash;
+import org.web3j.protocol.http.HttpService;
+import org.web3j.quorum.permissioning.PermissionEventSync;
+import org.web3j.quorum.permissioning.PermissionIndex;
+import org.web3j.quorum.simulator.QuorumNodeSimulator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.web3j.quorum.SimulatedPermissions.org;
+
+public class PermissionEventSyncTest {
+
+    private static final String CONTRACT = "0x9d13c6d3afe1721beef56b55d303b09e021e27ab";
+
+    private QuorumNodeSimulator node;
+    private SimulatedPermissions permissions;
+    private RecordingExecutor executor;
+    private PermissionIndex index;
+    private final List<Map<String, Object>> logs = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        node = QuorumNodeSimulator.http();
+        permissions = new SimulatedPermissions().serve(node);
+        permissions.orgs.add(org("ORG", 2, "ORG.SUB"));
+        permissions.orgs.add(org("ORG.SUB", 2));
+        node.respond("eth_newFilter", params -> "0x1");
+        node.respond("eth_getFilterLogs", params -> Collections.emptyList());
+        node.respond(
+                "eth_getFilterChanges",
+                params -> {
+                    List<Map<String, Object>> changes = new ArrayList<>(logs);
+                    logs.removeAll(changes);
+                    return changes;
+                });
+        node.respond("eth_uninstallFilter", params -> true);
+        executor = new RecordingExecutor();
+        index = new PermissionIndex(node.quorum());
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        node.close();
+    }
+
+    @Test
+    public void testAppliesOrgSuspensionEvents() throws Exception {
+        try (PermissionEventSync sync = newSync()) {
+            sync.start();
+            assertThat(index.snapshot().getOrg("ORG.SUB").getStatus(), is(2));
+
+            logs.add(
+                    log(
+                            "OrgSuspended(string,string,string,uint256)",
+                            new Utf8String("SUB"),
+                            new Utf8String("ORG"),
+                            new Utf8String("ORG"),
+                            new Uint256(2)));
+            waitFor(() -> sync.getAppliedEvents() == 1);
+            assertThat(index.snapshot().getOrg("ORG.SUB").getStatus(), is(4));
+            assertThat(index.snapshot().getSubOrgs("ORG"), is(Arrays.asList("ORG.SUB")));
+
+            logs.add(
+                    log(
+                            "OrgSuspensionRevoked(string,string,string,uint256)",
+                            new Utf8String("SUB"),
+                            new Utf8String("ORG"),
+                            new Utf8String("ORG"),
+                            new Uint256(2)));
+            logs.add(
+                    log(
+                            "OrgPendingApproval(string,string,string,uint256,uint256)",
+                            new Utf8String("NEW"),
+                            new Utf8String(""),
+                            new Utf8String("NEW"),
+                            new Uint256(1),
+                            new Uint256(1)));
+            waitFor(() -> sync.getAppliedEvents() == 3);
+            assertThat(index.snapshot().getOrg("ORG.SUB").getStatus(), is(2));
+            assertThat(index.snapshot().getOrg("NEW").getStatus(), is(1));
+            assertThat(sync.getReconciliations(), is(1L));
+        }
+    }
+
+    @Test
+    public void testAppliesEventsWhileReconciling() throws Exception {
+        try (PermissionEventSync sync = newSync()) {
+            sync.start();
+            CountDownLatch fetching = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            node.respond(
+                    "quorumPermission_acctList",
+                    params -> {
+                        fetching.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return permissions.accounts;
+                    });
+            Thread reconcile = new Thread(sync::reconcile);
+            reconcile.start();
+            try {
+                assertTrue(fetching.await(5, TimeUnit.SECONDS));
+
+                // The event is applied without waiting for the slow lists
+                logs.add(
+                        log(
+                                "OrgSuspended(string,string,string,uint256)",
+                                new Utf8String("SUB"),
+                                new Utf8String("ORG"),
+                                new Utf8String("ORG"),
+                                new Uint256(2)));
+                waitFor(() -> sync.getAppliedEvents() == 1);
+                assertThat(index.snapshot().getOrg("ORG.SUB").getStatus(), is(4));
+            } finally {
+                release.countDown();
+                reconcile.join(5_000);
+            }
+
+            // The lists were read before the event, which is applied again on top of them
+            assertThat(sync.getReconciliations(), is(2L));
+            assertThat(index.snapshot().getOrg("ORG.SUB").getStatus(), is(4));
+        }
+    }
+
+    @Test
+    public void testBacksOffAfterSubscriptionFailures() throws Exception {
+        node.respondWithError("eth_newFilter", -32000, "filter not found");
+
+        PermissionEventSync sync = newSync();
+        sync.start();
+        waitFor(() -> executor.delays.size() >= 5);
+        sync.stop();
+        int calls = (int) node.getCallCount("eth_newFilter");
+        Thread.sleep(100);
+
+        assertThat(executor.delays.subList(0, 5), is(Arrays.asList(10L, 20L, 40L, 40L, 40L)));
+        assertThat(node.getCallCount("eth_newFilter"), is((long) calls));
+        assertThat(sync.getReconciliations(), is((long) calls));
+    }
+
+    private PermissionEventSync newSync() {
+        Quorum quorum = new JsonRpc2_0Quorum(new HttpService(node.getUrl()), 10, executor);
+        return new PermissionEventSync(
+                quorum, index, Collections.singletonList(CONTRACT), executor, 10, 40);
+    }
+
+    private static Map<String, Object> log(String signature, Type... values) {
+        Map<String, Object> log = new LinkedHashMap<>();
+        log.put("removed", false);
+        log.put("logIndex", "0x0");
+        log.put("transactionIndex", "0x0");
+        log.put("transactionHash", Hash.sha3String(signature));
+        log.put("blockHash", Hash.sha3String(CONTRACT));
+        log.put("blockNumber", "0x1");
+        log.put("address", CONTRACT);
+        log.put("data", "0x" + FunctionEncoder.encodeConstructor(Arrays.asList(values)));
+        log.put("topics", Collections.singletonList(Hash.sha3String(signature)));
+        return log;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    /** Records the delay of every task scheduled once. */
+    private static class RecordingExecutor extends ScheduledThreadPoolExecutor {
+        private final List<Long> delays = new CopyOnWriteArrayList<>();
+
+        private RecordingExecutor() {
+            super(2);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            delays.add(unit.toMillis(delay));
+            return super.schedule(command, delay, unit);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.quorum.permissioning.PermissionIndex;
+import org.web3j.quorum.permissioning.PermissionSnapshot;
+import org.web3j.quorum.simulator.QuorumNodeSimulator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.web3j.quorum.SimulatedPermissions.account;
+import static org.web3j.quorum.SimulatedPermissions.node;
+import static org.web3j.quorum.SimulatedPermissions.org;
+import static org.web3j.quorum.SimulatedPermissions.role;
+
+public class PermissionIndexTest {
+
+    private static final String ACCOUNT = "0xed9d02e382b34818e88b88a309c7fe71e65f419d";
+    private static final String ENODE =
+            "ac6b1096ca56b9f6d004b779ae3728bf83f8e22453404cc3cef16a3d9b96608bc67c4b30db88e0a5a6c6390213f7acbe1153ff6d23ce57380104288ae19373ef";
+
+    private QuorumNodeSimulator node;
+    private SimulatedPermissions permissions;
+    private PermissionIndex index;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        node = QuorumNodeSimulator.http();
+        permissions = new SimulatedPermissions().serve(node);
+        permissions.orgs.add(org("ORG", 2, "ORG.SUB"));
+        permissions.orgs.add(org("ORG.SUB", 2));
+        permissions.nodes.add(node("ORG", ENODE, 2));
+        permissions.roles.add(role("ORG", "ADMIN", 3, true));
+        permissions.accounts.add(account(ACCOUNT, "ORG", "ADMIN", 2));
+        index = new PermissionIndex(node.quorum());
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        index.close();
+        node.close();
+    }
+
+    @Test
+    public void testRefreshIndexesLists() throws IOException {
+        assertThat(index.snapshot().getOrgList().isEmpty(), is(true));
+
+        assertThat(index.refresh(), is(true));
+
+        PermissionSnapshot snapshot = index.snapshot();
+        assertThat(snapshot.getOrg("ORG.SUB").getParentOrgId(), is("ORG"));
+        assertThat(snapshot.getSubOrgs("ORG").size(), is(1));
+        assertThat(snapshot.isNodeApproved("enode://" + ENODE + "@10.0.0.1:21000"), is(true));
+        assertThat(snapshot.isAccountActive(ACCOUNT.toUpperCase()), is(true));
+        assertThat(snapshot.getAccountRole(ACCOUNT).isAdmin(), is(true));
+        assertThat(node.getCallCount("quorumPermission_orgList"), is(1L));
+    }
+
+    @Test
+    public void testUnchangedRefreshKeepsSnapshot() throws IOException {
+        index.refresh();
+        PermissionSnapshot snapshot = index.snapshot();
+
+        assertThat(index.refresh(), is(false));
+        assertThat(index.snapshot(), sameInstance(snapshot));
+
+        permissions.accounts.set(0, account(ACCOUNT, "ORG", "ADMIN", 4));
+        assertThat(index.refresh(), is(true));
+        assertThat(index.snapshot().isAccountActive(ACCOUNT), is(false));
+        assertThat(snapshot.isAccountActive(ACCOUNT), is(true));
+        assertThat(index.snapshot().getOrg("ORG"), is(snapshot.getOrg("ORG")));
+    }
+
+    @Test
+    public void testFailedRefreshKeepsSnapshot() throws IOException {
+        index.refresh();
+        PermissionSnapshot snapshot = index.snapshot();
+        node.respondWithError("quorumPermission_roleList", -32000, "permissions not enabled");
+
+        assertThrows(IOException.class, index::refresh);
+        assertThat(index.snapshot(), sameInstance(snapshot));
+        assertThat(snapshot.getAccount("0x0000000000000000000000000000000000000001"), nullValue());
+    }
+}
@@ -39,6 +39,27 @@ public class PermissionResponseTest extends ResponseTester {
                         "[PermissionOrgInfo(orgId=INITORG, fullOrgId=INITORG, parentOrgId=, ultimateParent=INITORG, level=1, status=2, subOrgList=[])]"));
     }
 
+    @Test
+    public void testPermissionGetOrgListResultBeforeId() {
+        buildResponse(
+                "{\"jsonrpc\":\"2.0\",\"result\":[{\"fullOrgId\": \"INITORG.SUB\",\"level\": 2,\"orgId\": \"SUB\",\"parentOrgId\": \"INITORG\",\"status\": 2,\"subOrgList\": null,\"ultimateParent\": \"INITORG\"}],\"id\":7}");
+
+        PermissionOrgList orgList = deserialiseResponse(PermissionOrgList.class);
+        assertThat(orgList.getId(), is(7L));
+        assertThat(
+                orgList.getPermissionOrgList().toString(),
+                is(
+                        "[PermissionOrgInfo(orgId=SUB, fullOrgId=INITORG.SUB, parentOrgId=INITORG, ultimateParent=INITORG, level=2, status=2, subOrgList=null)]"));
+    }
+
+    @Test
+    public void testPermissionGetNodeListEmpty() {
+        buildResponse("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":[]}");
+
+        PermissionNodeList nodeList = deserialiseResponse(PermissionNodeList.class);
+        assertThat(nodeList.getPermissionNodeList().isEmpty(), is(true));
+    }
+
     @Test
     public void testPermissionGetNodeList() {
         buildResponse(
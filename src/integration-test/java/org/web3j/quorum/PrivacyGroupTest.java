@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.quorum.methods.request.PrivateRawTransaction;
+import org.web3j.quorum.methods.request.PrivateTransaction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PrivacyGroupTest {
+
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+
+    @Test
+    public void testInterning() {
+        List<String> privateFor = new ArrayList<>(Arrays.asList("key1", "key2"));
+        PrivacyGroup group = PrivacyGroup.of(privateFor, PrivacyFlag.PARTY_PROTECTION);
+        privateFor.add("key3");
+
+        assertSame(
+                group,
+                PrivacyGroup.of(Arrays.asList("key1", "key2"), PrivacyFlag.PARTY_PROTECTION));
+        assertNotSame(group, PrivacyGroup.of(Arrays.asList("key1", "key2")));
+        assertEquals(Arrays.asList("key1", "key2"), group.getPrivateFor());
+    }
+
+    @Test
+    public void testConcurrentInterning() throws Exception {
+        List<String> privateFor = Arrays.asList("key1", "key2", "key3");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<PrivacyGroup>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                futures.add(
+                        executor.submit(
+                                () -> PrivacyGroup.of(new ArrayList<>(privateFor), null, null)));
+            }
+            PrivacyGroup group = futures.get(0).get();
+            for (Future<PrivacyGroup> future : futures) {
+                assertSame(group, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSerialisation() throws Exception {
+        List<String> privateFor = Arrays.asList("key1", "key2");
+        List<String> mandatoryFor = Collections.singletonList("key2");
+        PrivacyGroup group = PrivacyGroup.of(privateFor, PrivacyFlag.MANDATORY_FOR, mandatoryFor);
+
+        assertEquals(
+                objectMapper.writeValueAsString(
+                        new PrivateRawTransaction(
+                                privateFor, PrivacyFlag.MANDATORY_FOR, mandatoryFor)),
+                group.toJson());
+        assertEquals(
+                objectMapper.writeValueAsString(
+                        transaction(privateFor, PrivacyFlag.MANDATORY_FOR, mandatoryFor)),
+                objectMapper.writeValueAsString(
+                        transaction(
+                                group.getPrivateFor(),
+                                group.getPrivacyFlag(),
+                                group.getMandatoryFor())));
+    }
+
+    @Test
+    public void testValidation() {
+        assertThrows(
+                IllegalArgumentException.class, () -> PrivacyGroup.of(Arrays.asList("key1", "")));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> PrivacyGroup.of(Arrays.asList("key1"), PrivacyFlag.MANDATORY_FOR));
+        assertThrows(
+                IllegalArgumentException.class,
+                () ->
+                        PrivacyGroup.of(
+                                Arrays.asList("key1"),
+                                PrivacyFlag.PARTY_PROTECTION,
+                                Arrays.asList("key1")));
+    }
+
+    private static PrivateTransaction transaction(
+            List<String> privateFor, PrivacyFlag privacyFlag, List<String> mandatoryFor) {
+        return new PrivateTransaction(
+                "FROM",
+                BigInteger.ONE,
+                BigInteger.TEN,
+                "TO",
+                BigInteger.TEN,
+                "DATA",
+                "privateFrom",
+                privateFor,
+                privacyFlag,
+                mandatoryFor);
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.quorum.cache.PrivatePayloadCache;
+import org.web3j.quorum.cache.PrivatePayloadFetcher;
+import org.web3j.quorum.simulator.QuorumNodeSimulator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PrivatePayloadFetcherTest {
+
+    private QuorumNodeSimulator node;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        node = QuorumNodeSimulator.http();
+        node.respond("eth_getQuorumPayload", params -> payloadOf(params.path(0).asText()));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        node.close();
+    }
+
+    @Test
+    public void testFetchesDistinctPayloadHashesOnce() throws Exception {
+        try (PrivatePayloadFetcher fetcher =
+                new PrivatePayloadFetcher(node.quorum(), new PrivatePayloadCache(1 << 20))) {
+            Map<String, String> payloads =
+                    fetcher.fetch(Arrays.asList(payloadHash(1), payloadHash(2), payloadHash(1)));
+
+            assertThat(payloads.size(), is(2));
+            assertThat(payloads.get(payloadHash(1)), is(payloadOf(payloadHash(1))));
+            assertThat(payloads.get(payloadHash(2)), is(payloadOf(payloadHash(2))));
+            assertThat(node.getCallCount("eth_getQuorumPayload"), is(2L));
+        }
+    }
+
+    @Test
+    public void testServesCachedPayloadsWithoutAsking() throws Exception {
+        PrivatePayloadCache cache = new PrivatePayloadCache(1 << 20);
+        try (PrivatePayloadFetcher fetcher = new PrivatePayloadFetcher(node.quorum(), cache)) {
+            fetcher.fetch(payloadHash(1));
+            String payload = fetcher.fetch(payloadHash(1).toUpperCase().replace("0X", "0x"));
+
+            assertThat(payload, is(payloadOf(payloadHash(1))));
+            assertThat(node.getCallCount("eth_getQuorumPayload"), is(1L));
+            assertThat(cache.getHitCount(), is(1L));
+        }
+    }
+
+    @Test
+    public void testSplitsIntoBatches() throws Exception {
+        try (PrivatePayloadFetcher fetcher =
+                new PrivatePayloadFetcher(node.quorum(), new PrivatePayloadCache(1 << 20), 3, 2)) {
+            List<String> hashes = hashes(10);
+
+            Map<String, String> payloads = fetcher.fetch(hashes);
+
+            assertThat(payloads.size(), is(10));
+            for (String hash : hashes) {
+                assertThat(payloads.get(hash), is(payloadOf(hash)));
+            }
+            assertThat(node.getCallCount("eth_getQuorumPayload"), is(10L));
+            assertThat(fetcher.getCache().size(), is(10));
+        }
+    }
+
+    @Test
+    public void testRunsBatchesOnGivenExecutor() throws Exception {
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        4,
+                        runnable -> {
+                            threads.incrementAndGet();
+                            return new Thread(runnable);
+                        });
+        try {
+            PrivatePayloadFetcher fetcher =
+                    new PrivatePayloadFetcher(
+                            node.quorum(), new PrivatePayloadCache(0), 2, 2, executor);
+            assertThat(fetcher.fetch(hashes(10)).size(), is(10));
+            fetcher.close();
+
+            // Two workers take the five batches, and the pool outlives the fetcher
+            assertThat(threads.get(), is(2));
+            assertThat(fetcher.fetch(hashes(4)).size(), is(4));
+            assertThat(executor.isShutdown(), is(false));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDoesNotCacheFailures() throws Exception {
+        PrivatePayloadCache cache = new PrivatePayloadCache(1 << 20);
+        node.respondWithError("eth_getQuorumPayload", -32000, "enclave unavailable");
+        try (PrivatePayloadFetcher fetcher = new PrivatePayloadFetcher(node.quorum(), cache)) {
+            assertThrows(IOException.class, () -> fetcher.fetch(payloadHash(1)));
+            assertThat(cache.size(), is(0));
+        }
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        String payload = payloadOf(payloadHash(0));
+        PrivatePayloadCache cache = new PrivatePayloadCache(2 * 2L * payload.length());
+
+        cache.put(payloadHash(1), payload);
+        cache.put(payloadHash(2), payload);
+        cache.get(payloadHash(1));
+        cache.put(payloadHash(3), payload);
+
+        assertThat(cache.size(), is(2));
+        assertThat(cache.contains(payloadHash(1)), is(true));
+        assertThat(cache.contains(payloadHash(2)), is(false));
+        assertThat(cache.get(payloadHash(2)), nullValue());
+        assertThat(cache.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void testSpillsEvictedPayloadsToFile() throws Exception {
+        Path spillFile = Files.createTempFile("payloads", ".bin");
+        try (PrivatePayloadCache cache = new PrivatePayloadCache(0, spillFile, 1 << 16)) {
+            cache.put(payloadHash(1), payloadOf(payloadHash(1)));
+            cache.put(payloadHash(2), payloadOf(payloadHash(2)));
+
+            assertThat(cache.size(), is(2));
+            assertThat(cache.get(payloadHash(1)), is(payloadOf(payloadHash(1))));
+            assertThat(cache.get(payloadHash(2)), is(payloadOf(payloadHash(2))));
+        } finally {
+            Files.delete(spillFile);
+        }
+    }
+
+    @Test
+    public void testDropsPayloadsThatDoNotFitTheSpillFile() throws Exception {
+        Path spillFile = Files.createTempFile("payloads", ".bin");
+        try (PrivatePayloadCache cache = new PrivatePayloadCache(0, spillFile, 40)) {
+            cache.put(payloadHash(1), payloadOf(payloadHash(1)));
+            cache.put(payloadHash(2), payloadOf(payloadHash(2)));
+
+            assertThat(cache.get(payloadHash(1)), is(payloadOf(payloadHash(1))));
+            assertThat(cache.get(payloadHash(2)), nullValue());
+        } finally {
+            Files.delete(spillFile);
+        }
+    }
+
+    private static List<String> hashes(int count) {
+        List<String> hashes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            hashes.add(payloadHash(i));
+        }
+        return hashes;
+    }
+
+    private static String payloadHash(int i) {
+        return String.format("0x%0128x", i);
+    }
+
+    private static String payloadOf(String payloadHash) {
+        return "0xf8" + payloadHash.substring(payloadHash.length() - 62);
+    }
+}
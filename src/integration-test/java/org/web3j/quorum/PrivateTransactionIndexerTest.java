@@ -0,0 +1,370 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.quorum.cache.PrivatePayloadCache;
+import org.web3j.quorum.cache.PrivatePayloadFetcher;
+import org.web3j.quorum.privacy.PrivateTransactionIndexer;
+import org.web3j.quorum.privacy.PrivateTransactionRecord;
+import org.web3j.quorum.simulator.QuorumNodeSimulator;
+import org.web3j.utils.Numeric;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.number.OrderingComparison.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Indexes a simulated chain in which every third block holds a private transaction, the block after
+ * it a privacy marker transaction and the block after that a public transaction. The marker in
+ * block 4 hides a private transaction the node is not party to, and the payload of the private
+ * transaction in block 6 is empty.
+ */
+public class PrivateTransactionIndexerTest {
+
+    private static final int BLOCKS = 10;
+
+    private QuorumNodeSimulator node;
+    private Quorum quorum;
+    private Path directory;
+    private final Map<Long, AtomicInteger> blockFetches = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        node = QuorumNodeSimulator.http();
+        quorum = node.quorum();
+        directory = Files.createTempDirectory("indexer");
+
+        node.respond("eth_getBlockByNumber", params -> block(params.path(0).asText()));
+        node.respond("eth_getTransactionReceipt", params -> receipt(params.path(0).asText()));
+        node.respond(
+                "eth_getPrivateTransactionByHash",
+                params -> privateTransaction(params.path(0).asText()));
+        node.respond(
+                "eth_getPrivateTransactionReceipt",
+                params -> privateReceipt(params.path(0).asText()));
+        node.respond("eth_getQuorumPayload", params -> payload(params.path(0).asText()));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        node.close();
+        Files.deleteIfExists(directory.resolve("checkpoint"));
+        Files.deleteIfExists(directory.resolve("checkpoint.tmp"));
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testIndexesChunksOfBlocks() throws Exception {
+        List<long[]> ranges = new CopyOnWriteArrayList<>();
+        Map<Long, PrivateTransactionRecord> records = new ConcurrentHashMap<>();
+        PrivateTransactionIndexer indexer =
+                new PrivateTransactionIndexer(
+                        quorum,
+                        fetcher(),
+                        (from, to, chunk) -> {
+                            ranges.add(new long[] {from, to});
+                            for (PrivateTransactionRecord record : chunk) {
+                                assertTrue(record.getBlockNumber() >= from);
+                                assertTrue(record.getBlockNumber() <= to);
+                                records.put(record.getBlockNumber(), record);
+                            }
+                        },
+                        null,
+                        3,
+                        2,
+                        2);
+
+        assertThat(indexer.index(0, BLOCKS - 1), is(5L));
+
+        List<Long> starts = new ArrayList<>();
+        ranges.forEach(range -> starts.add(range[0]));
+        Collections.sort(starts);
+        assertThat(starts, is(list(0, 3, 6, 9)));
+        assertThat(new ArrayList<>(new TreeSet<>(records.keySet())), is(list(0, 1, 3, 7, 9)));
+        for (long block = 0; block < BLOCKS; block++) {
+            assertThat(blockFetches.get(block).get(), is(1));
+        }
+
+        PrivateTransactionRecord direct = records.get(3L);
+        assertThat(direct.isPrivacyMarkerTransaction(), is(false));
+        assertThat(direct.getTransactionHash(), is(transactionHash(3)));
+        assertThat(direct.getPayload(), is(payloadOf(payloadHash(3))));
+
+        PrivateTransactionRecord marker = records.get(7L);
+        assertThat(marker.isPrivacyMarkerTransaction(), is(true));
+        assertThat(marker.getTransactionHash(), is(transactionHash(7)));
+        assertThat(marker.getPrivateTransaction().getHash(), is(privateTransactionHash(7)));
+        assertThat(marker.getPrivateReceipt().getTransactionHash(), is(privateTransactionHash(7)));
+        assertThat(marker.getPayload(), is(payloadOf(payloadHash(7))));
+    }
+
+    @Test
+    public void testKeepsPayloadlessRecordsWithoutFetcher() throws Exception {
+        List<PrivateTransactionRecord> records = new CopyOnWriteArrayList<>();
+        PrivateTransactionIndexer indexer =
+                new PrivateTransactionIndexer(
+                        quorum, null, (from, to, chunk) -> records.addAll(chunk), null);
+
+        assertThat(indexer.index(0, BLOCKS - 1), is(6L));
+        assertThat(node.getCallCount("eth_getQuorumPayload"), is(0L));
+        for (PrivateTransactionRecord record : records) {
+            assertThat(record.getPayload(), nullValue());
+        }
+    }
+
+    @Test
+    public void testCheckpointsOnlyContiguousChunks() throws Exception {
+        Path checkpoint = directory.resolve("checkpoint");
+        CountDownLatch laterChunkDelivered = new CountDownLatch(1);
+        AtomicLong checkpointWhileFirstPending = new AtomicLong(Long.MIN_VALUE);
+        PrivateTransactionIndexer[] indexer = new PrivateTransactionIndexer[1];
+        indexer[0] =
+                new PrivateTransactionIndexer(
+                        quorum,
+                        null,
+                        (from, to, chunk) -> {
+                            if (from == 0) {
+                                await(laterChunkDelivered);
+                                checkpointWhileFirstPending.set(indexer[0].readCheckpoint());
+                            } else {
+                                laterChunkDelivered.countDown();
+                            }
+                        },
+                        checkpoint,
+                        3,
+                        10,
+                        2);
+
+        indexer[0].index(0, 5);
+
+        assertThat(checkpointWhileFirstPending.get(), is(-1L));
+        assertThat(indexer[0].readCheckpoint(), is(5L));
+    }
+
+    @Test
+    public void testResumesAfterFailedChunk() throws Exception {
+        Path checkpoint = directory.resolve("checkpoint");
+        AtomicInteger attempts = new AtomicInteger();
+        Map<Long, Long> delivered = new ConcurrentHashMap<>();
+        PrivateTransactionIndexer indexer =
+                new PrivateTransactionIndexer(
+                        quorum,
+                        fetcher(),
+                        (from, to, chunk) -> {
+                            if (from == 6 && attempts.getAndIncrement() == 0) {
+                                throw new IOException("sink unavailable");
+                            }
+                            delivered.put(from, to);
+                        },
+                        checkpoint,
+                        3,
+                        10,
+                        1);
+
+        assertThrows(IOException.class, () -> indexer.index(0, BLOCKS - 1));
+        long resumedAfter = indexer.readCheckpoint();
+        assertThat(resumedAfter, lessThan(6L));
+
+        Map<Long, Integer> fetchesBefore = new HashMap<>();
+        blockFetches.forEach((block, fetches) -> fetchesBefore.put(block, fetches.get()));
+        indexer.resume(0, BLOCKS - 1);
+
+        assertThat(indexer.readCheckpoint(), is((long) BLOCKS - 1));
+        for (long start = 0; start < BLOCKS; start += 3) {
+            assertTrue(delivered.containsKey(start), "chunk " + start + " delivered");
+        }
+        for (long block = 0; block <= resumedAfter; block++) {
+            assertThat(blockFetches.get(block).get(), is(fetchesBefore.get(block)));
+        }
+        for (long block = resumedAfter + 1; block < BLOCKS; block++) {
+            assertThat(blockFetches.get(block).get(), is(fetchesBefore.getOrDefault(block, 0) + 1));
+        }
+    }
+
+    @Test
+    public void testRejectsConcurrentRunsOnGivenExecutor() throws Exception {
+        Path checkpoint = directory.resolve("checkpoint");
+        CountDownLatch delivering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try (PrivateTransactionIndexer indexer =
+                new PrivateTransactionIndexer(
+                        quorum,
+                        null,
+                        (from, to, chunk) -> {
+                            delivering.countDown();
+                            await(release);
+                        },
+                        checkpoint,
+                        5,
+                        10,
+                        2,
+                        executor)) {
+            Future<Long> first = executor.submit(() -> indexer.index(0, BLOCKS - 1));
+            await(delivering);
+
+            assertThrows(IllegalStateException.class, () -> indexer.index(0, BLOCKS - 1));
+            release.countDown();
+            assertThat(first.get(10, TimeUnit.SECONDS), is(6L));
+            assertThat(indexer.readCheckpoint(), is((long) BLOCKS - 1));
+
+            // A finished run leaves nothing behind for the next one
+            assertThat(indexer.index(0, 4), is(3L));
+            assertThat(indexer.readCheckpoint(), is(4L));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testResumesFromLaterStart() throws Exception {
+        Path checkpoint = directory.resolve("checkpoint");
+        Files.write(checkpoint, "2".getBytes());
+        PrivateTransactionIndexer indexer =
+                new PrivateTransactionIndexer(quorum, null, (from, to, chunk) -> {}, checkpoint);
+
+        indexer.resume(5, BLOCKS - 1);
+
+        assertThat(blockFetches.containsKey(3L), is(false));
+        assertThat(blockFetches.get(5L).get(), is(1));
+        assertThat(indexer.readCheckpoint(), is((long) BLOCKS - 1));
+    }
+
+    private PrivatePayloadFetcher fetcher() {
+        return new PrivatePayloadFetcher(quorum, new PrivatePayloadCache(1 << 20), 2, 2);
+    }
+
+    private Map<String, Object> block(String number) {
+        long block = Numeric.toBigInt(number).longValueExact();
+        blockFetches.computeIfAbsent(block, b -> new AtomicInteger()).incrementAndGet();
+        if (block >= BLOCKS) {
+            return null;
+        }
+        Map<String, Object> transaction = new HashMap<>();
+        transaction.put("hash", transactionHash(block));
+        transaction.put("blockNumber", number);
+        transaction.put("transactionIndex", "0x0");
+        transaction.put("v", block % 3 == 0 ? "0x25" : "0x1c");
+        transaction.put("input", block % 3 == 0 ? payloadHash(block) : "0x");
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("number", number);
+        result.put("hash", String.format("0x%064x", 0xb0000 + block));
+        result.put("transactions", Collections.singletonList(transaction));
+        return result;
+    }
+
+    private Map<String, Object> receipt(String transactionHash) {
+        long block = blockOf(transactionHash);
+        Map<String, Object> receipt = new HashMap<>();
+        receipt.put("transactionHash", transactionHash);
+        receipt.put("blockNumber", Numeric.encodeQuantity(BigInteger.valueOf(block)));
+        receipt.put("status", "0x1");
+        receipt.put("isPrivacyMarkerTransaction", block % 3 == 1);
+        return receipt;
+    }
+
+    private Map<String, Object> privateTransaction(String markerHash) {
+        long block = blockOf(markerHash);
+        if (block == 4) {
+            return null;
+        }
+        Map<String, Object> transaction = new HashMap<>();
+        transaction.put("hash", privateTransactionHash(block));
+        transaction.put("v", "0x25");
+        transaction.put("input", payloadHash(block));
+        return transaction;
+    }
+
+    private Map<String, Object> privateReceipt(String markerHash) {
+        long block = blockOf(markerHash);
+        if (block == 4) {
+            return null;
+        }
+        Map<String, Object> receipt = new HashMap<>();
+        receipt.put("transactionHash", privateTransactionHash(block));
+        receipt.put("status", "0x1");
+        return receipt;
+    }
+
+    private static String payload(String payloadHash) {
+        return payloadHash.equals(payloadHash(6)) ? "0x" : payloadOf(payloadHash);
+    }
+
+    private static long blockOf(String transactionHash) {
+        return Numeric.toBigInt(transactionHash).longValueExact() & 0xffff;
+    }
+
+    private static String transactionHash(long block) {
+        return String.format("0x%064x", 0x10000 + block);
+    }
+
+    private static String privateTransactionHash(long block) {
+        return String.format("0x%064x", 0x20000 + block);
+    }
+
+    private static String payloadHash(long block) {
+        return String.format("0x%0128x", 0x30000 + block);
+    }
+
+    private static String payloadOf(String payloadHash) {
+        return "0xf8" + payloadHash.substring(payloadHash.length() - 62);
+    }
+
+    private static List<Long> list(long... values) {
+        List<Long> list = new ArrayList<>();
+        for (long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    private static void await(CountDownLatch latch) throws IOException {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IOException("Later chunk was not delivered");
+            }
+        } catch (InterruptedException e) {
+            throw new UncheckedIOException(new IOException(e));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.web3j.protocol.core.Request;
+import org.web3j.quorum.methods.response.istanbul.IstanbulNodeAddress;
+import org.web3j.quorum.methods.response.raft.RaftLeader;
+import org.web3j.quorum.methods.response.raft.RaftRole;
+import org.web3j.quorum.simulator.StubWeb3jService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class QuorumBatchTest {
+
+    private final StubWeb3jService service =
+            new StubWeb3jService().respondToOthers(Request::getMethod);
+    private final Quorum quorum = Quorum.build(service);
+
+    @Test
+    public void testTypedResponses() throws Exception {
+        QuorumBatch batch = quorum.newQuorumBatch();
+        QuorumBatch.Handle<RaftRole> role = batch.add(quorum.raftGetRole());
+        QuorumBatch.Handle<RaftLeader> leader = batch.add(quorum.raftGetLeader());
+        QuorumBatch.Handle<IstanbulNodeAddress> address = batch.add(quorum.istanbulNodeAddress());
+
+        QuorumBatch.Responses responses = batch.send();
+        assertThat(responses.get(role).getRole(), is("raft_role"));
+        assertThat(responses.get(leader).getLeader(), is("raft_leader"));
+        assertThat(responses.get(address).getNodeAddress(), is("istanbul_nodeAddress"));
+        assertThat(service.getBatchSizes(), is(Arrays.asList(3)));
+    }
+
+    @Test
+    public void testSplitsLargeBatches() throws Exception {
+        QuorumBatch batch = quorum.newQuorumBatch(2);
+        List<QuorumBatch.Handle<RaftRole>> handles = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            handles.add(batch.add(quorum.raftGetRole()));
+        }
+
+        QuorumBatch.Responses responses = batch.sendAsync().get();
+        assertThat(responses.getResponses().size(), is(5));
+        assertThat(responses.get(handles.get(4)).getRole(), is("raft_role"));
+        assertThat(service.getBatchSizes(), is(Arrays.asList(2, 2, 1)));
+    }
+
+    @Test
+    public void testRejectsHandleFromOtherBatch() throws Exception {
+        QuorumBatch first = quorum.newQuorumBatch();
+        QuorumBatch.Handle<RaftRole> role = first.add(quorum.raftGetRole());
+        QuorumBatch second = quorum.newQuorumBatch();
+        second.add(quorum.raftGetRole());
+
+        QuorumBatch.Responses responses = second.send();
+        assertThrows(IllegalArgumentException.class, () -> responses.get(role));
+    }
+}
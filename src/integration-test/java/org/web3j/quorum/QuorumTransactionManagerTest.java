@@ -0,0 +1,260 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.crypto.SignedRawTransaction;
+import org.web3j.crypto.TransactionDecoder;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.quorum.enclave.Tessera;
+import org.web3j.quorum.simulator.QuorumNodeSimulator;
+import org.web3j.quorum.simulator.TesseraSimulator;
+import org.web3j.quorum.tx.PrivacyOptions;
+import org.web3j.quorum.tx.QuorumTransactionManager;
+import org.web3j.quorum.tx.nonce.LocalNonceSource;
+import org.web3j.utils.Numeric;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/** Tests the methods of {@link QuorumTransactionManager} taking per-call {@link PrivacyOptions}. */
+public class QuorumTransactionManagerTest {
+
+    private static final Credentials CREDENTIALS =
+            Credentials.create(
+                    "0x8f2a55949038a9610f50fb23b5883af3b4ecb3c3bb792cbcefbd1542c692be63");
+    private static final List<String> MANAGER_RECIPIENTS = Collections.singletonList("manager");
+
+    private QuorumNodeSimulator node;
+    private TesseraSimulator tessera;
+    private Quorum quorum;
+    private QuorumTransactionManager transactionManager;
+    private final List<JsonNode> sent = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        node = QuorumNodeSimulator.http();
+        tessera = TesseraSimulator.http();
+        node.setEnclave(tessera);
+        quorum = node.quorum();
+        transactionManager =
+                new QuorumTransactionManager(
+                        quorum,
+                        new Tessera(tessera.enclaveService(), quorum),
+                        CREDENTIALS,
+                        "publicKey",
+                        MANAGER_RECIPIENTS,
+                        null,
+                        null,
+                        -1L,
+                        10,
+                        10L);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        tessera.close();
+        node.close();
+    }
+
+    @Test
+    public void testSendsWithPerCallRecipients() throws Exception {
+        recordSends();
+        PrivacyOptions options =
+                new PrivacyOptions(
+                        null,
+                        Arrays.asList("recipient1", "recipient2"),
+                        PrivacyFlag.MANDATORY_FOR,
+                        Collections.singletonList("recipient1"));
+
+        EthSendTransaction response =
+                transactionManager.sendTransaction(
+                        BigInteger.ZERO,
+                        BigInteger.valueOf(100_000),
+                        "0x0000000000000000000000000000000000000001",
+                        "0x01020304",
+                        BigInteger.ZERO,
+                        options);
+
+        assertThat(response.hasError(), is(false));
+        assertThat(sent.size(), is(1));
+        JsonNode privacyParams = sent.get(0).path(1);
+        assertThat(privacyParams.path("privateFor").size(), is(2));
+        assertThat(privacyParams.path("privateFor").path(1).asText(), is("recipient2"));
+        assertThat(privacyParams.path("privacyFlag").asInt(), is(2));
+        assertThat(privacyParams.path("mandatoryFor").path(0).asText(), is("recipient1"));
+
+        SignedRawTransaction transaction = decode(sent.get(0).path(0).asText());
+        assertThat(v(transaction) == 37 || v(transaction) == 38, is(true));
+        assertThat(tessera.getPayloadCount(), is(1));
+        assertThat(
+                node.quorum()
+                        .quorumGetPrivatePayload(transaction.getData())
+                        .send()
+                        .getPrivatePayload(),
+                is("0x01020304"));
+    }
+
+    @Test
+    public void testExecutesWithPerCallRecipients() throws Exception {
+        TransactionReceipt receipt =
+                transactionManager.executeTransaction(
+                        BigInteger.ZERO,
+                        BigInteger.valueOf(100_000),
+                        null,
+                        "0x6080",
+                        BigInteger.ZERO,
+                        new PrivacyOptions(Collections.singletonList("recipient")));
+
+        assertThat(receipt.isStatusOK(), is(true));
+        assertThat(receipt.getContractAddress().length(), is(42));
+        assertThat(tessera.getPayloadCount(), is(1));
+    }
+
+    @Test
+    public void testSignsPrivateOnlyWithRecipients() {
+        RawTransaction rawTransaction =
+                RawTransaction.createTransaction(
+                        BigInteger.ONE,
+                        BigInteger.ZERO,
+                        BigInteger.valueOf(100_000),
+                        "0x0000000000000000000000000000000000000001",
+                        BigInteger.ZERO,
+                        "0x01");
+
+        SignedRawTransaction publicTransaction =
+                decode(
+                        transactionManager.sign(
+                                rawTransaction, new PrivacyOptions(Collections.emptyList())));
+        SignedRawTransaction privateTransaction =
+                decode(
+                        transactionManager.sign(
+                                rawTransaction,
+                                new PrivacyOptions(Collections.singletonList("recipient"))));
+
+        assertThat(v(publicTransaction) == 27 || v(publicTransaction) == 28, is(true));
+        assertThat(v(privateTransaction), is(v(publicTransaction) + 10));
+        assertThat(privateTransaction.getData(), is("01"));
+        assertThat(tessera.getPayloadCount(), is(0));
+    }
+
+    @Test
+    public void testConcurrentSendsUseDistinctNonces() throws Exception {
+        recordSends();
+        transactionManager.setNonceSource(new LocalNonceSource(quorum, CREDENTIALS.getAddress()));
+        PrivacyOptions options = new PrivacyOptions(Collections.singletonList("recipient"));
+        int sends = 20;
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<EthSendTransaction>> futures = new ArrayList<>();
+            for (int i = 0; i < sends; i++) {
+                futures.add(
+                        executor.submit(
+                                () ->
+                                        transactionManager.sendTransaction(
+                                                BigInteger.ZERO,
+                                                BigInteger.valueOf(100_000),
+                                                "0x0000000000000000000000000000000000000001",
+                                                "0x01",
+                                                BigInteger.ZERO,
+                                                options)));
+            }
+            for (Future<EthSendTransaction> future : futures) {
+                assertThat(future.get().hasError(), is(false));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Set<BigInteger> nonces = new TreeSet<>();
+        sent.forEach(params -> nonces.add(decode(params.path(0).asText()).getNonce()));
+        assertThat(nonces.size(), is(sends));
+        assertThat(nonces.iterator().next(), is(BigInteger.ZERO));
+        assertThat(node.getCallCount("eth_getTransactionCount"), is(1L));
+    }
+
+    @Test
+    public void testResynchronisesNoncesAfterRejectedSend() throws Exception {
+        AtomicBoolean reject = new AtomicBoolean(true);
+        node.respond(
+                "eth_sendRawPrivateTransaction",
+                params -> {
+                    if (reject.getAndSet(false)) {
+                        throw new QuorumNodeSimulator.RpcError(-32000, "nonce too low");
+                    }
+                    sent.add(params);
+                    return Hash.sha3(params.path(0).asText());
+                });
+        transactionManager.setNonceSource(new LocalNonceSource(quorum, CREDENTIALS.getAddress()));
+        PrivacyOptions options = new PrivacyOptions(Collections.singletonList("recipient"));
+
+        EthSendTransaction rejected = send(options);
+        EthSendTransaction accepted = send(options);
+
+        assertThat(rejected.hasError(), is(true));
+        assertThat(accepted.hasError(), is(false));
+        assertThat(decode(sent.get(0).path(0).asText()).getNonce(), is(BigInteger.ZERO));
+        assertThat(node.getCallCount("eth_getTransactionCount"), is(2L));
+    }
+
+    private EthSendTransaction send(PrivacyOptions options) throws IOException {
+        return transactionManager.sendTransaction(
+                BigInteger.ZERO,
+                BigInteger.valueOf(100_000),
+                "0x0000000000000000000000000000000000000001",
+                "0x01",
+                BigInteger.ZERO,
+                options);
+    }
+
+    private void recordSends() {
+        node.respond(
+                "eth_sendRawPrivateTransaction",
+                params -> {
+                    sent.add(params);
+                    return Hash.sha3(params.path(0).asText());
+                });
+    }
+
+    private static SignedRawTransaction decode(String signedTransaction) {
+        return (SignedRawTransaction)
+                TransactionDecoder.decode(Numeric.cleanHexPrefix(signedTransaction));
+    }
+
+    private static int v(SignedRawTransaction transaction) {
+        return transaction.getSignatureData().getV()[0];
+    }
+}
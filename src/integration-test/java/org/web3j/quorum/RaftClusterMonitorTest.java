@@ -0,0 +1,146 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.quorum.raft.RaftClusterEvent;
+import org.web3j.quorum.raft.RaftClusterMonitor;
+import org.web3j.quorum.simulator.QuorumNodeSimulator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class RaftClusterMonitorTest {
+
+    private QuorumNodeSimulator node;
+    private ScheduledExecutorService executor;
+    private RaftClusterMonitor monitor;
+    private final List<RaftClusterEvent> events = new CopyOnWriteArrayList<>();
+
+    private volatile List<Map<String, Object>> cluster;
+    private volatile String leader;
+    private volatile String role;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        cluster = new ArrayList<>(Arrays.asList(peer("1", true, "verifier")));
+        leader = "enode-1";
+        role = "minter";
+
+        node = QuorumNodeSimulator.http();
+        node.respond("raft_cluster", params -> cluster);
+        node.respond("raft_leader", params -> leader);
+        node.respond("raft_role", params -> role);
+
+        executor = Executors.newSingleThreadScheduledExecutor();
+        monitor = new RaftClusterMonitor(node.quorum(), executor, 1000);
+        monitor.addListener(events::add);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        monitor.close();
+        executor.shutdownNow();
+        node.close();
+    }
+
+    @Test
+    public void testFirstPollIsBaseline() {
+        monitor.poll();
+
+        assertThat(events.isEmpty(), is(true));
+        assertThat(monitor.getCluster().size(), is(1));
+        assertThat(monitor.getLeader(), is("enode-1"));
+        assertThat(monitor.getRole(), is("minter"));
+        assertThat(node.getCallCount("raft_cluster"), is(1L));
+    }
+
+    @Test
+    public void testReportsPeerChanges() {
+        cluster.add(peer("2", true, "learner"));
+        monitor.poll();
+
+        cluster = Arrays.asList(peer("2", false, "verifier"), peer("3", true, "verifier"));
+        leader = "enode-2";
+        role = "verifier";
+        monitor.poll();
+
+        assertThat(
+                types(),
+                is(
+                        Arrays.asList(
+                                RaftClusterEvent.Type.PEER_INACTIVE,
+                                RaftClusterEvent.Type.LEARNER_PROMOTED,
+                                RaftClusterEvent.Type.PEER_ADDED,
+                                RaftClusterEvent.Type.PEER_REMOVED,
+                                RaftClusterEvent.Type.LEADER_CHANGED,
+                                RaftClusterEvent.Type.ROLE_CHANGED)));
+        assertThat(events.get(3).getPeer().getRaftId(), is("1"));
+        assertThat(events.get(4).getPreviousValue(), is("enode-1"));
+        assertThat(events.get(4).getNewValue(), is("enode-2"));
+
+        monitor.poll();
+        assertThat(events.size(), is(6));
+    }
+
+    @Test
+    public void testReportsUnreachableOnce() {
+        monitor.poll();
+        node.respondWithError("raft_leader", -32000, "raft is not enabled");
+
+        monitor.poll();
+        monitor.poll();
+        assertThat(monitor.isReachable(), is(false));
+
+        node.respond("raft_leader", params -> leader);
+        monitor.poll();
+
+        assertThat(
+                types(),
+                is(
+                        Arrays.asList(
+                                RaftClusterEvent.Type.NODE_UNREACHABLE,
+                                RaftClusterEvent.Type.NODE_RECOVERED)));
+        assertThat(events.get(0).getNewValue(), is("raft is not enabled"));
+        assertThat(monitor.isReachable(), is(true));
+    }
+
+    private List<RaftClusterEvent.Type> types() {
+        return events.stream().map(RaftClusterEvent::getType).collect(Collectors.toList());
+    }
+
+    private static Map<String, Object> peer(String raftId, boolean active, String role) {
+        Map<String, Object> peer = new LinkedHashMap<>();
+        peer.put("hostname", "127.0.0.1");
+        peer.put("nodeId", "node-" + raftId);
+        peer.put("nodeActive", active);
+        peer.put("p2pPort", "21000");
+        peer.put("raftId", raftId);
+        peer.put("raftPort", "50000");
+        peer.put("role", role);
+        return peer;
+    }
+}
@@ -61,6 +61,27 @@ public class RaftResponseTest extends ResponseTester {
                         "[RaftPeer(hostname=127.0.0.1, nodeId=3d9ca5956b38557aba991e31cf510d4df641dce9cc26bfeb7de082f0c07abb6ede3a58410c8f249dabeecee4ad3979929ac4c7c496ad20b8cfdd061b7401b4f5, nodeActive=true, p2pPort=21003, raftId=4, raftPort=50404, role=verifier)]"));
     }
 
+    @Test
+    public void testRaftClusterEmpty() {
+        buildResponse("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":[]}");
+
+        RaftCluster raftCluster = deserialiseResponse(RaftCluster.class);
+        assertThat(raftCluster.getCluster().get().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testRaftClusterResultBeforeId() {
+        buildResponse(
+                "{\"jsonrpc\":\"2.0\",\"result\":[{\"hostname\":\"127.0.0.1\", \"nodeActive\":false, \"nodeId\":\"3d9c\",\"p2pPort\":21003, \"raftId\":4, \"raftPort\":50404, \"role\":\"learner\", \"extra\":{\"ignored\":[1,2]}}],\"id\":7}");
+
+        RaftCluster raftCluster = deserialiseResponse(RaftCluster.class);
+        assertThat(raftCluster.getId(), is(7L));
+        assertThat(
+                raftCluster.getCluster().get().toString(),
+                is(
+                        "[RaftPeer(hostname=127.0.0.1, nodeId=3d9c, nodeActive=false, p2pPort=21003, raftId=4, raftPort=50404, role=learner)]"));
+    }
+
     @Test
     public void testRaftRemovePeer() {
         buildResponse("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":\"null\"}");
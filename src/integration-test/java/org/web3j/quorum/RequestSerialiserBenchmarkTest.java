@@ -0,0 +1,252 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.protocol.http.HttpService;
+import org.web3j.quorum.methods.request.PrivateRawTransaction;
+import org.web3j.quorum.methods.request.PrivateRawTransactionEncoder;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Compares serialising the prepared private transaction and receipt requests against building and
+ * serialising the equivalent regular {@link Request}s, for a recipient set of 40 keys, checking
+ * that both produce the same JSON and that the prepared requests allocate less.
+ */
+public class RequestSerialiserBenchmarkTest {
+
+    private static final int RECIPIENTS = 40;
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 20_000;
+    private static final String SIGNED_TRANSACTION = "0x" + String.format("%0400x", 1);
+    private static final String TRANSACTION_HASH = "0x" + String.format("%064x", 1);
+
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private final Web3jService web3jService = new HttpService();
+    private final Quorum quorum = Quorum.build(web3jService);
+    private final List<String> privateFor = recipients();
+
+    @Test
+    public void testSendRawPrivateTransactionSerialisation() throws Exception {
+        RequestFactory prepared =
+                () ->
+                        quorum.ethSendRawPrivateTransaction(
+                                SIGNED_TRANSACTION, privateFor, PrivacyFlag.STANDARD_PRIVATE);
+        RequestFactory legacy =
+                () ->
+                        new Request<>(
+                                "eth_sendRawPrivateTransaction",
+                                Arrays.asList(
+                                        SIGNED_TRANSACTION,
+                                        new PrivateRawTransaction(
+                                                privateFor, PrivacyFlag.STANDARD_PRIVATE)),
+                                web3jService,
+                                EthSendTransaction.class);
+        compare(prepared, legacy);
+    }
+
+    @Test
+    public void testSendRawPrivateTransactionToGroupSerialisation() throws Exception {
+        PrivacyGroup group = PrivacyGroup.of(privateFor, PrivacyFlag.STANDARD_PRIVATE);
+        RequestFactory prepared =
+                () -> quorum.ethSendRawPrivateTransaction(SIGNED_TRANSACTION, group);
+        RequestFactory legacy =
+                () ->
+                        new Request<>(
+                                "eth_sendRawPrivateTransaction",
+                                Arrays.asList(
+                                        SIGNED_TRANSACTION,
+                                        new PrivateRawTransaction(
+                                                privateFor, PrivacyFlag.STANDARD_PRIVATE)),
+                                web3jService,
+                                EthSendTransaction.class);
+        compare(prepared, legacy);
+    }
+
+    @Test
+    public void testDistributePrivateTransactionSerialisation() throws Exception {
+        List<String> mandatoryFor = privateFor.subList(0, 2);
+        RequestFactory prepared =
+                () ->
+                        quorum.ethDistributePrivateTransaction(
+                                SIGNED_TRANSACTION,
+                                privateFor,
+                                PrivacyFlag.MANDATORY_FOR,
+                                mandatoryFor);
+        RequestFactory legacy =
+                () ->
+                        new Request<>(
+                                "eth_distributePrivateTransaction",
+                                Arrays.asList(
+                                        SIGNED_TRANSACTION,
+                                        new PrivateRawTransaction(
+                                                privateFor,
+                                                PrivacyFlag.MANDATORY_FOR,
+                                                mandatoryFor)),
+                                web3jService,
+                                EthSendTransaction.class);
+        compare(prepared, legacy);
+        assertEquals(
+                withoutId(
+                        objectMapper.writeValueAsString(
+                                quorum.ethDistributePrivateTransaction(
+                                        SIGNED_TRANSACTION,
+                                        PrivacyGroup.of(
+                                                privateFor,
+                                                PrivacyFlag.MANDATORY_FOR,
+                                                mandatoryFor)))),
+                withoutId(objectMapper.writeValueAsString(legacy.create())));
+    }
+
+    @Test
+    public void testGetTransactionReceiptSerialisation() throws Exception {
+        RequestFactory prepared = () -> quorum.ethGetTransactionReceipt(TRANSACTION_HASH);
+        RequestFactory legacy =
+                () ->
+                        new Request<>(
+                                "eth_getTransactionReceipt",
+                                Collections.singletonList(TRANSACTION_HASH),
+                                web3jService,
+                                EthGetTransactionReceipt.class);
+        compare(prepared, legacy);
+    }
+
+    @Test
+    public void testParamsAreTyped() {
+        List<?> params =
+                quorum.ethSendRawPrivateTransaction(
+                                SIGNED_TRANSACTION, privateFor, PrivacyFlag.PARTY_PROTECTION)
+                        .getParams();
+
+        assertEquals(SIGNED_TRANSACTION, params.get(0));
+        PrivateRawTransaction transaction = (PrivateRawTransaction) params.get(1);
+        assertEquals(privateFor, transaction.getPrivateFor());
+        assertEquals(PrivacyFlag.PARTY_PROTECTION.getValue(), transaction.getPrivacyFlag());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReplacedParamsAreSerialised() throws Exception {
+        Request<Object, EthSendTransaction> request =
+                (Request<Object, EthSendTransaction>)
+                        quorum.ethSendRawPrivateTransaction(
+                                SIGNED_TRANSACTION, privateFor, PrivacyFlag.STANDARD_PRIVATE);
+        List<String> otherRecipients = privateFor.subList(0, 1);
+        request.setParams(
+                Arrays.asList(
+                        SIGNED_TRANSACTION,
+                        new PrivateRawTransaction(otherRecipients, PrivacyFlag.PARTY_PROTECTION)));
+
+        Request<?, EthSendTransaction> expected =
+                new Request<>(
+                        "eth_sendRawPrivateTransaction",
+                        Arrays.asList(
+                                SIGNED_TRANSACTION,
+                                new PrivateRawTransaction(
+                                        otherRecipients, PrivacyFlag.PARTY_PROTECTION)),
+                        web3jService,
+                        EthSendTransaction.class);
+        assertEquals(
+                withoutId(objectMapper.writeValueAsString(expected)),
+                withoutId(objectMapper.writeValueAsString(request)));
+    }
+
+    @Test
+    public void testReusedEncodingIsLookedUpWithoutAllocating() {
+        PrivateRawTransactionEncoder encoder = new PrivateRawTransactionEncoder();
+        String encoding = encoder.encode(privateFor, PrivacyFlag.STANDARD_PRIVATE, null);
+        for (int i = 0; i < WARMUP; i++) {
+            encoder.encode(privateFor, PrivacyFlag.STANDARD_PRIVATE, null);
+        }
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        String reused = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            reused = encoder.encode(privateFor, PrivacyFlag.STANDARD_PRIVATE, null);
+        }
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertSame(encoding, reused);
+        assertThat(allocated / ITERATIONS, lessThan(8L));
+        assertEquals(1, encoder.size());
+    }
+
+    private void compare(RequestFactory prepared, RequestFactory legacy) throws Exception {
+        assertEquals(
+                withoutId(objectMapper.writeValueAsString(legacy.create())),
+                withoutId(objectMapper.writeValueAsString(prepared.create())));
+
+        assertThat(measure(prepared), lessThan(measure(legacy)));
+    }
+
+    private static String withoutId(String json) {
+        return json.replaceAll("\"id\":\\d+", "\"id\":0");
+    }
+
+    private static List<String> recipients() {
+        List<String> recipients = new ArrayList<>();
+        for (int i = 0; i < RECIPIENTS; i++) {
+            recipients.add(String.format("%043d=", i));
+        }
+        return recipients;
+    }
+
+    /**
+     * Builds and serialises requests into a reused buffer, as a transport would, and returns the
+     * bytes allocated per request.
+     */
+    private long measure(RequestFactory requests) throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        for (int i = 0; i < WARMUP; i++) {
+            buffer.reset();
+            objectMapper.writeValue(buffer, requests.create());
+        }
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            buffer.reset();
+            objectMapper.writeValue(buffer, requests.create());
+        }
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        return allocated / ITERATIONS;
+    }
+
+    @FunctionalInterface
+    private interface RequestFactory {
+        Request<?, ?> create();
+    }
+}
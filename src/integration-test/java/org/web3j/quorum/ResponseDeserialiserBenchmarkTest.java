@@ -0,0 +1,198 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.module.kotlin.KotlinModule;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.core.Response;
+import org.web3j.quorum.methods.response.permissioning.PermissionAccountInfo;
+import org.web3j.quorum.methods.response.permissioning.PermissionAccountList;
+import org.web3j.quorum.methods.response.raft.RaftCluster;
+import org.web3j.quorum.methods.response.raft.RaftPeer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Compares the streaming list deserialisers against the previous approach of handing the parser to
+ * a separate Kotlin-aware {@link ObjectMapper}, on responses with 10,000 elements. Both must
+ * produce the same elements, and the streaming deserialisers must allocate less.
+ */
+public class ResponseDeserialiserBenchmarkTest {
+
+    private static final int ELEMENTS = 10_000;
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 5;
+
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+
+    @Test
+    public void testRaftClusterDeserialisation() throws Exception {
+        StringBuilder json = new StringBuilder("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":[");
+        for (int i = 0; i < ELEMENTS; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"hostname\":\"127.0.0.1\",\"nodeActive\":true,\"nodeId\":\"")
+                    .append(String.format("%0128x", i))
+                    .append("\",\"p2pPort\":21000,\"raftId\":")
+                    .append(i)
+                    .append(",\"raftPort\":50400,\"role\":\"verifier\"}");
+        }
+        String response = json.append("]}").toString();
+
+        Result streaming =
+                measure(() -> objectMapper.readValue(response, RaftCluster.class).getResult());
+        Result legacy =
+                measure(
+                        () ->
+                                objectMapper
+                                        .readValue(response, LegacyRaftCluster.class)
+                                        .getResult());
+
+        assertThat(streaming.elements, is(legacy.elements));
+        assertThat(streaming.allocatedBytes, lessThan(legacy.allocatedBytes));
+    }
+
+    @Test
+    public void testPermissionAccountListDeserialisation() throws Exception {
+        StringBuilder json = new StringBuilder("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":[");
+        for (int i = 0; i < ELEMENTS; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"acctId\":\"0x")
+                    .append(String.format("%040x", i))
+                    .append("\",\"isOrgAdmin\":false,\"orgId\":\"INITORG\",")
+                    .append("\"roleId\":\"MEMBER\",\"status\":2}");
+        }
+        String response = json.append("]}").toString();
+
+        Result streaming =
+                measure(
+                        () ->
+                                objectMapper
+                                        .readValue(response, PermissionAccountList.class)
+                                        .getResult());
+        Result legacy =
+                measure(
+                        () ->
+                                objectMapper
+                                        .readValue(response, LegacyPermissionAccountList.class)
+                                        .getResult());
+
+        assertThat(streaming.elements, is(legacy.elements));
+        assertThat(streaming.allocatedBytes, lessThan(legacy.allocatedBytes));
+    }
+
+    public static class LegacyRaftCluster extends Response<List<RaftPeer>> {
+        @Override
+        @JsonDeserialize(using = LegacyRaftPeerDeserialiser.class)
+        public void setResult(List<RaftPeer> result) {
+            super.setResult(result);
+        }
+    }
+
+    public static class LegacyPermissionAccountList extends Response<List<PermissionAccountInfo>> {
+        @Override
+        @JsonDeserialize(using = LegacyPermissionAccountDeserialiser.class)
+        public void setResult(List<PermissionAccountInfo> result) {
+            super.setResult(result);
+        }
+    }
+
+    public static class LegacyRaftPeerDeserialiser extends LegacyListDeserialiser<RaftPeer> {
+        public LegacyRaftPeerDeserialiser() {
+            super(RaftPeer.class);
+        }
+    }
+
+    public static class LegacyPermissionAccountDeserialiser
+            extends LegacyListDeserialiser<PermissionAccountInfo> {
+        public LegacyPermissionAccountDeserialiser() {
+            super(PermissionAccountInfo.class);
+        }
+    }
+
+    /** The list deserialisation previously used by the permissioning and raft responses. */
+    abstract static class LegacyListDeserialiser<T> extends JsonDeserializer<List<T>> {
+        private final ObjectMapper om = new ObjectMapper().registerModule(new KotlinModule());
+        private final Class<T> type;
+
+        LegacyListDeserialiser(Class<T> type) {
+            this.type = type;
+        }
+
+        @Override
+        public List<T> deserialize(
+                JsonParser jsonParser, DeserializationContext deserializationContext)
+                throws IOException {
+            List<T> result = new ArrayList<>();
+            JsonToken nextToken = jsonParser.nextToken();
+
+            if (nextToken == JsonToken.START_OBJECT) {
+                Iterator<T> iterator = om.readValues(jsonParser, type);
+                while (iterator.hasNext()) {
+                    result.add(iterator.next());
+                }
+                return result;
+            } else {
+                return null;
+            }
+        }
+    }
+
+    private static Result measure(Deserialisation deserialisation) throws Exception {
+        List<?> elements = deserialisation.run();
+        assertThat(elements.size(), is(ELEMENTS));
+        for (int i = 0; i < WARMUP; i++) {
+            deserialisation.run();
+        }
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            deserialisation.run();
+        }
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        return new Result(elements, allocated / ITERATIONS);
+    }
+
+    @FunctionalInterface
+    private interface Deserialisation {
+        List<?> run() throws Exception;
+    }
+
+    private static class Result {
+        private final List<?> elements;
+        private final long allocatedBytes;
+
+        private Result(List<?> elements, long allocatedBytes) {
+            this.elements = elements;
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+}
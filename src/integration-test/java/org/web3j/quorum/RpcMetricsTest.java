@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.HttpServer;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.quorum.metrics.JmxRpcMetrics;
+import org.web3j.quorum.metrics.LatencyHistogram;
+import org.web3j.quorum.metrics.MeteredHttpService;
+import org.web3j.quorum.metrics.MeteredWeb3jService;
+import org.web3j.quorum.metrics.MethodMetrics;
+import org.web3j.quorum.metrics.RpcMetricsRegistry;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+
+public class RpcMetricsTest {
+
+    private static final String RESULT =
+            "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":\"0x0000000000000000000000000000000000000001\"}";
+    private static final String ERROR =
+            "{\"jsonrpc\":\"2.0\",\"id\":1,\"error\":{\"code\":-32000,\"message\":\"no leader\"}}";
+
+    private HttpServer server;
+    private String url;
+    private volatile long lastRequestBytes;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(
+                "/",
+                exchange -> {
+                    String request = read(exchange.getRequestBody());
+                    lastRequestBytes = request.getBytes(StandardCharsets.UTF_8).length;
+                    byte[] response =
+                            (request.contains("raft_leader") ? ERROR : RESULT)
+                                    .getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(200, response.length);
+                    try (OutputStream body = exchange.getResponseBody()) {
+                        body.write(response);
+                    }
+                });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testRecordsCallsErrorsAndPayloads() throws Exception {
+        RpcMetricsRegistry metrics = new RpcMetricsRegistry();
+        Quorum quorum =
+                Quorum.build(
+                        new MeteredWeb3jService(new MeteredHttpService(url, metrics), metrics));
+
+        quorum.ethGetPrivacyPrecompileAddress().send();
+        quorum.ethGetPrivacyPrecompileAddress().sendAsync().get();
+        quorum.raftGetLeader().send();
+
+        MethodMetrics precompile = metrics.getMethod("eth_getPrivacyPrecompileAddress");
+        assertThat(precompile.getCallCount(), is(2L));
+        assertThat(precompile.getErrorCount(), is(0L));
+        assertThat(precompile.getLatency().getCount(), is(2L));
+        assertThat(precompile.getPayloadCount(), is(2L));
+        assertThat(precompile.getResponseBytes(), is(2L * RESULT.length()));
+
+        MethodMetrics leader = metrics.getMethod("raft_leader");
+        assertThat(leader.getCallCount(), is(1L));
+        assertThat(leader.getErrorCount(), is(1L));
+        assertThat(leader.getRequestBytes(), is(lastRequestBytes));
+    }
+
+    @Test
+    public void testPublishesMethodsAsMXBeans() throws Exception {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name =
+                new ObjectName(
+                        "org.web3j.quorum:type=RpcMetrics,client=\"test\",method=\"eth_getPrivacyPrecompileAddress\"");
+        try (JmxRpcMetrics metrics = new JmxRpcMetrics("test")) {
+            Quorum quorum =
+                    Quorum.build(
+                            new MeteredWeb3jService(new MeteredHttpService(url, metrics), metrics));
+            quorum.ethGetPrivacyPrecompileAddress().send();
+
+            assertThat(mBeanServer.getAttribute(name, "CallCount"), is(1L));
+            assertThat(mBeanServer.getAttribute(name, "ResponseBytes"), is((long) RESULT.length()));
+        }
+        assertThat(mBeanServer.isRegistered(name), is(false));
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1_000);
+        }
+
+        assertThat(histogram.getCount(), is(100_000L));
+        assertThat(histogram.getMax(), is(100_000_000L));
+        assertWithinOnePercent(histogram.getValueAtPercentile(50), 50_000_000);
+        assertWithinOnePercent(histogram.getValueAtPercentile(99), 99_000_000);
+        assertWithinOnePercent(histogram.getValueAtPercentile(99.9), 99_900_000);
+        assertThat(histogram.getValueAtPercentile(100), is(100_000_000L));
+
+        LatencyHistogram small = new LatencyHistogram();
+        small.record(3);
+        small.record(7);
+        assertThat(small.getValueAtPercentile(50), is(3L));
+        assertThat(small.getValueAtPercentile(100), is(7L));
+    }
+
+    private static void assertWithinOnePercent(long actual, long expected) {
+        assertThat(
+                actual,
+                allOf(
+                        greaterThanOrEqualTo((long) (expected * 0.99)),
+                        lessThanOrEqualTo((long) (expected * 1.01))));
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        for (int read; (read = in.read(buffer)) > 0; ) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.web3j.quorum.simulator.QuorumNodeSimulator;
+
+/** Permissioning state served by a {@link QuorumNodeSimulator}, which tests may change freely. */
+class SimulatedPermissions {
+
+    final List<Map<String, Object>> orgs = new CopyOnWriteArrayList<>();
+    final List<Map<String, Object>> nodes = new CopyOnWriteArrayList<>();
+    final List<Map<String, Object>> roles = new CopyOnWriteArrayList<>();
+    final List<Map<String, Object>> accounts = new CopyOnWriteArrayList<>();
+
+    /** Answers the permissioning list methods of the given node from this state. */
+    SimulatedPermissions serve(QuorumNodeSimulator node) {
+        node.respond("quorumPermission_orgList", params -> orgs);
+        node.respond("quorumPermission_nodeList", params -> nodes);
+        node.respond("quorumPermission_roleList", params -> roles);
+        node.respond("quorumPermission_acctList", params -> accounts);
+        return this;
+    }
+
+    static Map<String, Object> org(String fullOrgId, int status, String... subOrgs) {
+        int separator = fullOrgId.lastIndexOf('.');
+        Map<String, Object> org = new LinkedHashMap<>();
+        org.put("orgId", fullOrgId.substring(separator + 1));
+        org.put("fullOrgId", fullOrgId);
+        org.put("parentOrgId", separator < 0 ? "" : fullOrgId.substring(0, separator));
+        org.put("ultimateParent", fullOrgId.split("\\.")[0]);
+        org.put("level", fullOrgId.split("\\.").length);
+        org.put("status", status);
+        org.put("subOrgList", Arrays.asList(subOrgs));
+        return org;
+    }
+
+    static Map<String, Object> node(String orgId, String enodeId, int status) {
+        Map<String, Object> node = new LinkedHashMap<>();
+        node.put("orgId", orgId);
+        node.put("url", "enode://" + enodeId + "@127.0.0.1:21000?discport=0&raftport=50401");
+        node.put("status", status);
+        return node;
+    }
+
+    static Map<String, Object> role(String orgId, String roleId, int access, boolean admin) {
+        Map<String, Object> role = new LinkedHashMap<>();
+        role.put("isVoter", admin);
+        role.put("active", true);
+        role.put("orgId", orgId);
+        role.put("roleId", roleId);
+        role.put("access", access);
+        role.put("isAdmin", admin);
+        return role;
+    }
+
+    static Map<String, Object> account(String address, String orgId, String roleId, int status) {
+        Map<String, Object> account = new LinkedHashMap<>();
+        account.put("acctId", address);
+        account.put("isOrgAdmin", false);
+        account.put("orgId", orgId);
+        account.put("roleId", roleId);
+        account.put("status", status);
+        return account;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.crypto.Credentials;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.protocol.http.HttpService;
+import org.web3j.quorum.enclave.Constellation;
+import org.web3j.quorum.enclave.SendResponse;
+import org.web3j.quorum.enclave.Tessera;
+import org.web3j.quorum.methods.response.raft.RaftLeader;
+import org.web3j.quorum.methods.response.raft.RaftRole;
+import org.web3j.quorum.simulator.Latency;
+import org.web3j.quorum.simulator.QuorumNodeSimulator;
+import org.web3j.quorum.simulator.TesseraSimulator;
+import org.web3j.quorum.tx.PrivacyOptions;
+import org.web3j.quorum.tx.QuorumTransactionManager;
+import org.web3j.utils.Numeric;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+
+public class SimulatorTest {
+
+    private static final Credentials CREDENTIALS =
+            Credentials.create(
+                    "0x8f2a55949038a9610f50fb23b5883af3b4ecb3c3bb792cbcefbd1542c692be63");
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("simulator");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(directory.resolve("geth.ipc"));
+        Files.deleteIfExists(directory.resolve("tm.ipc"));
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testPrivateTransactionOverHttp() throws Exception {
+        try (QuorumNodeSimulator node = QuorumNodeSimulator.http();
+                TesseraSimulator tessera = TesseraSimulator.http()) {
+            node.setEnclave(tessera);
+            node.setReceiptPolls(2);
+            Quorum quorum = node.quorum();
+            QuorumTransactionManager transactionManager =
+                    new QuorumTransactionManager(
+                            quorum,
+                            new Tessera(tessera.enclaveService(), quorum),
+                            CREDENTIALS,
+                            "publicKey",
+                            Collections.emptyList(),
+                            null,
+                            null,
+                            -1L,
+                            10,
+                            10L);
+
+            TransactionReceipt receipt =
+                    transactionManager.executeTransaction(
+                            BigInteger.ZERO,
+                            BigInteger.valueOf(100_000),
+                            null,
+                            "0x6080",
+                            BigInteger.ZERO,
+                            new PrivacyOptions(Arrays.asList("recipient")));
+
+            assertThat(receipt.isStatusOK(), is(true));
+            assertThat(receipt.getContractAddress().length(), is(42));
+            assertThat(tessera.getPayloadCount(), is(1));
+            assertThat(node.getCallCount("eth_getTransactionReceipt"), is(3L));
+            assertThat(
+                    quorum.ethGetTransactionCount(
+                                    CREDENTIALS.getAddress(), DefaultBlockParameterName.PENDING)
+                            .send()
+                            .getTransactionCount(),
+                    is(BigInteger.ONE));
+
+            SendResponse stored =
+                    transactionManager.storeRawRequest(
+                            "0x01020304", "publicKey", Collections.emptyList());
+            String key = Numeric.toHexString(Base64.getDecoder().decode(stored.getKey()));
+            assertThat(
+                    quorum.quorumGetPrivatePayload(key).send().getPrivatePayload(),
+                    is("0x01020304"));
+        }
+    }
+
+    @Test
+    public void testNodeOverIpc() throws Exception {
+        try (QuorumNodeSimulator node = QuorumNodeSimulator.ipc(directory.resolve("geth.ipc"))) {
+            node.respondWithError("raft_leader", -32000, "no leader");
+            Quorum quorum = node.quorum();
+            try {
+                assertThat(quorum.raftGetRole().send().getRole(), is("minter"));
+                assertThat(quorum.raftGetCluster().send().getCluster().get().size(), is(1));
+                assertThat(
+                        quorum.istanbulGetValidators("latest").send().getValidators().size(),
+                        is(2));
+                assertThat(
+                        quorum.quorumPermissionGetOrgList().send().getPermissionOrgList().size(),
+                        is(1));
+                assertThat(
+                        quorum.quorumPermissionGetOrgDetails("INITORG")
+                                .send()
+                                .getOrgDetails()
+                                .getRoleList()
+                                .size(),
+                        is(1));
+
+                RaftLeader leader = quorum.raftGetLeader().send();
+                assertThat(leader.getError().getMessage(), is("no leader"));
+                assertThat(quorum.ethChainId().send().getChainId(), is(BigInteger.valueOf(10000)));
+
+                BatchResponse batch =
+                        quorum.newBatch()
+                                .add(quorum.raftGetRole())
+                                .add(quorum.istanbulNodeAddress())
+                                .send();
+                assertThat(((RaftRole) batch.getResponses().get(0)).getRole(), is("minter"));
+                assertThat(batch.getResponses().get(1).hasError(), is(false));
+            } finally {
+                quorum.shutdown();
+            }
+            assertThat(node.getCallCount("raft_role"), is(2L));
+        }
+    }
+
+    @Test
+    public void testTesseraOverUnixSocket() throws Exception {
+        try (TesseraSimulator tessera = TesseraSimulator.unixSocket(directory.resolve("tm.ipc"))) {
+            Quorum quorum = Quorum.build(new HttpService());
+            Tessera enclave = new Tessera(tessera.enclaveService(), quorum);
+            assertThat(enclave.upCheck(), is(true));
+
+            String payload = Base64.getEncoder().encodeToString(new byte[] {1, 2, 3});
+            String key = enclave.storeRawRequest(payload, "from", Collections.emptyList()).getKey();
+            assertThat(tessera.getPayload(key), is(new byte[] {1, 2, 3}));
+
+            tessera.setUpcheckResponse("OK");
+            Constellation constellation = new Constellation(tessera.enclaveService(), quorum);
+            assertThat(constellation.upCheck(), is(true));
+            assertThat(constellation.receiveRequest(key, "to").getPayload(), is(payload));
+            assertThat(tessera.getCallCount("upcheck"), is(2L));
+        }
+    }
+
+    @Test
+    public void testLatency() throws Exception {
+        try (QuorumNodeSimulator node = QuorumNodeSimulator.http()) {
+            node.setLatency("raft_role", Latency.fixed(50, TimeUnit.MILLISECONDS));
+            Quorum quorum = node.quorum();
+
+            long start = System.nanoTime();
+            quorum.raftGetRole().send();
+            assertThat(System.nanoTime() - start, greaterThanOrEqualTo(50_000_000L));
+
+            quorum.raftGetLeader().send();
+            assertThat(node.getCallCount(), is(2L));
+        }
+    }
+}
@@ -20,6 +20,10 @@ import org.junit.jupiter.api.Test;
 import org.web3j.protocol.RequestTester;
 import org.web3j.protocol.http.HttpService;
 import org.web3j.quorum.methods.request.PrivateTransaction;
+import org.web3j.quorum.tx.ClientTransactionManager;
+import org.web3j.quorum.tx.PrivacyOptions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class TransactionRequestTest extends RequestTester {
 
@@ -48,6 +52,28 @@ public class TransactionRequestTest extends RequestTester {
                 "{\"jsonrpc\":\"2.0\",\"method\":\"eth_sendTransaction\",\"params\":[{\"from\":\"FROM\",\"to\":\"TO\",\"gas\":\"0xa\",\"value\":\"0xa\",\"data\":\"0xDATA\",\"nonce\":\"0x1\",\"privateFrom\":\"privateFrom\",\"privateFor\":[\"privateFor1\",\"privateFor2\"],\"privacyFlag\":0}],\"id\":1}");
     }
 
+    @Test
+    public void testSendTransactionWithPrivacyOptions() throws Exception {
+        ClientTransactionManager transactionManager =
+                new ClientTransactionManager(
+                        web3j, "FROM", "privateFrom", Arrays.asList("privateFor1"));
+        transactionManager.sendTransaction(
+                BigInteger.ONE,
+                BigInteger.TEN,
+                "TO",
+                "DATA",
+                BigInteger.TEN,
+                new PrivacyOptions(
+                        null,
+                        Arrays.asList("privateFor2", "privateFor3"),
+                        PrivacyFlag.MANDATORY_FOR,
+                        Arrays.asList("privateFor3")));
+
+        verifyResult(
+                "{\"jsonrpc\":\"2.0\",\"method\":\"eth_sendTransaction\",\"params\":[{\"from\":\"FROM\",\"to\":\"TO\",\"gas\":\"0xa\",\"value\":\"0xa\",\"data\":\"0xDATA\",\"privateFrom\":\"privateFrom\",\"privateFor\":[\"privateFor2\",\"privateFor3\"],\"privacyFlag\":2,\"mandatoryFor\":[\"privateFor3\"]}],\"id\":1}");
+        assertEquals(Arrays.asList("privateFor1"), transactionManager.getPrivateFor());
+    }
+
     @Test
     public void testSendRawTransaction() throws Exception {
         String signedTransactionData = "SignedTxData";
@@ -95,6 +121,21 @@ public class TransactionRequestTest extends RequestTester {
                 "{\"jsonrpc\":\"2.0\",\"method\":\"eth_sendRawPrivateTransaction\",\"params\":[\"SignedTxData\",{\"privateFor\":[\"privateFor1\",\"privateFor2\"],\"privacyFlag\":2,\"mandatoryFor\":[\"privateFor2\"]}],\"id\":1}");
     }
 
+    @Test
+    public void testSendRawPrivateTransactionPrivacyGroup() throws Exception {
+        String signedTransactionData = "SignedTxData";
+        web3j.ethSendRawPrivateTransaction(
+                        signedTransactionData,
+                        PrivacyGroup.of(
+                                Arrays.asList("privateFor1", "privateFor2"),
+                                PrivacyFlag.MANDATORY_FOR,
+                                Arrays.asList("privateFor2")))
+                .send();
+
+        verifyResult(
+                "{\"jsonrpc\":\"2.0\",\"method\":\"eth_sendRawPrivateTransaction\",\"params\":[\"SignedTxData\",{\"privateFor\":[\"privateFor1\",\"privateFor2\"],\"privacyFlag\":2,\"mandatoryFor\":[\"privateFor2\"]}],\"id\":1}");
+    }
+
     @Test
     public void testGetPrivateTransaction() throws Exception {
         web3j.quorumGetPrivatePayload("0x").send();
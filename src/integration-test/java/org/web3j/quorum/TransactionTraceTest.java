@@ -0,0 +1,240 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.quorum.enclave.Tessera;
+import org.web3j.quorum.enclave.protocol.EnclaveService;
+import org.web3j.quorum.methods.response.QuorumTransactionReceipt;
+import org.web3j.quorum.simulator.StubWeb3jService;
+import org.web3j.quorum.tx.ClientTransactionManager;
+import org.web3j.quorum.tx.PrivacyOptions;
+import org.web3j.quorum.tx.QuorumTransactionManager;
+import org.web3j.quorum.tx.trace.LoggingTransactionTraceListener;
+import org.web3j.quorum.tx.trace.TransactionPhase;
+import org.web3j.quorum.tx.trace.TransactionTrace;
+import org.web3j.quorum.tx.trace.TransactionTraceListener;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TransactionTraceTest {
+
+    private static final String HASH =
+            "0xb1a2b7ba3f5d7f0a2c55a3d6b0b0f3f25d2dc0e4ad0bcd4e3cf3c1ef5c8d5a11";
+
+    private final AtomicInteger receiptPolls = new AtomicInteger();
+    private volatile boolean failSend;
+
+    /**
+     * Answers sends with {@link #HASH}, and finds a privacy marker receipt on the second receipt
+     * request.
+     */
+    private final StubWeb3jService service =
+            new StubWeb3jService()
+                    .respond("eth_sendTransaction", request -> send())
+                    .respond("eth_sendRawPrivateTransaction", request -> send())
+                    .respond(
+                            "eth_getTransactionReceipt",
+                            request ->
+                                    receiptPolls.incrementAndGet() < 2
+                                            ? null
+                                            : receipt(new QuorumTransactionReceipt(), HASH))
+                    .respond(
+                            "eth_getPrivateTransactionReceipt",
+                            request -> receipt(new TransactionReceipt(), "private"));
+
+    private final Quorum quorum = Quorum.build(service);
+    private final RecordingListener listener = new RecordingListener();
+
+    @Test
+    public void testTracesClientTransactionWithPrivacyMarker() throws Exception {
+        ClientTransactionManager transactionManager =
+                new ClientTransactionManager(
+                        quorum, "FROM", "privateFrom", Arrays.asList("privateFor1"), 5, 10);
+        transactionManager.setTraceListener(listener);
+
+        TransactionReceipt receipt =
+                transactionManager.executeTransaction(
+                        BigInteger.ONE,
+                        BigInteger.TEN,
+                        "TO",
+                        "0x01",
+                        BigInteger.ZERO,
+                        new PrivacyOptions(Arrays.asList("privateFor2")));
+
+        assertThat(receipt.getTransactionHash(), is("private"));
+        assertThat(listener.completed.size(), is(1));
+        TransactionTrace trace = listener.completed.get(0);
+        assertThat(trace.getTransactionHash(), is(HASH));
+        assertThat(
+                phases(trace),
+                is(
+                        Arrays.asList(
+                                TransactionPhase.RPC_SEND,
+                                TransactionPhase.FIRST_RECEIPT_POLL,
+                                TransactionPhase.RECEIPT_FOUND,
+                                TransactionPhase.PRIVATE_RECEIPT)));
+        assertThat(trace.getReceiptPollCount(), is(2));
+        assertThat(listener.phases.get(), is(4));
+        assertThat(
+                trace.getSpan(TransactionPhase.RECEIPT_FOUND).getOffsetNanos(),
+                greaterThanOrEqualTo(
+                        trace.getSpan(TransactionPhase.FIRST_RECEIPT_POLL).getEndOffsetNanos()));
+        assertThat(trace.isFailed(), is(false));
+        assertThat(TransactionTrace.current(), nullValue());
+    }
+
+    @Test
+    public void testTracesQuorumTransactionManagerSignAndSend() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(
+                "/storeraw",
+                exchange -> {
+                    try (InputStream request = exchange.getRequestBody()) {
+                        while (request.read() >= 0) {
+                            // drain the request
+                        }
+                    }
+                    byte[] body = "{\"key\":\"AQID\"}".getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream response = exchange.getResponseBody()) {
+                        response.write(body);
+                    }
+                });
+        server.start();
+        try {
+            EnclaveService enclaveService =
+                    new EnclaveService(
+                            "http://127.0.0.1", server.getAddress().getPort(), new OkHttpClient());
+            QuorumTransactionManager transactionManager =
+                    new QuorumTransactionManager(
+                            quorum,
+                            new Tessera(enclaveService, quorum),
+                            Credentials.create(
+                                    "0x8f2a55949038a9610f50fb23b5883af3b4ecb3c3bb792cbcefbd1542c692be63"),
+                            "publicKey",
+                            Arrays.asList("recipient"));
+            transactionManager.setTraceListener(listener);
+
+            transactionManager.signAndSend(
+                    RawTransaction.createTransaction(
+                            BigInteger.ZERO,
+                            BigInteger.ZERO,
+                            BigInteger.TEN,
+                            "0x0000000000000000000000000000000000000001",
+                            BigInteger.ZERO,
+                            "0x01"));
+        } finally {
+            server.stop(0);
+        }
+
+        assertThat(listener.completed.size(), is(1));
+        TransactionTrace trace = listener.completed.get(0);
+        assertThat(trace.getTransactionHash(), is(HASH));
+        assertThat(
+                phases(trace),
+                is(
+                        Arrays.asList(
+                                TransactionPhase.ENCLAVE_STORE,
+                                TransactionPhase.SIGN,
+                                TransactionPhase.SET_PRIVATE,
+                                TransactionPhase.RPC_SEND)));
+    }
+
+    @Test
+    public void testRecordsFailure() {
+        ClientTransactionManager transactionManager =
+                new ClientTransactionManager(
+                        quorum, "FROM", "privateFrom", Arrays.asList("privateFor1"), 5, 10);
+        transactionManager.setTraceListener(listener);
+        failSend = true;
+
+        assertThrows(
+                IOException.class,
+                () ->
+                        transactionManager.sendTransaction(
+                                BigInteger.ONE, BigInteger.TEN, "TO", "0x01", BigInteger.ZERO));
+
+        assertThat(listener.completed.size(), is(1));
+        assertThat(listener.completed.get(0).isFailed(), is(true));
+        assertThat(listener.completed.get(0).getSpans(), is(Collections.emptyList()));
+        assertThat(TransactionTrace.current(), nullValue());
+    }
+
+    @Test
+    public void testDoesNotTraceWithoutListener() throws Exception {
+        assertThat(TransactionTrace.begin(TransactionTraceListener.NOOP).getSpans().size(), is(0));
+        assertThat(TransactionTrace.current(), nullValue());
+        assertThrows(
+                IllegalArgumentException.class, () -> new LoggingTransactionTraceListener(1.5));
+    }
+
+    private String send() throws IOException {
+        if (failSend) {
+            throw new IOException("Connection refused");
+        }
+        return HASH;
+    }
+
+    private static List<TransactionPhase> phases(TransactionTrace trace) {
+        return trace.getSpans().stream()
+                .map(TransactionTrace.Span::getPhase)
+                .collect(Collectors.toList());
+    }
+
+    private static class RecordingListener implements TransactionTraceListener {
+        private final List<TransactionTrace> completed = new ArrayList<>();
+        private final AtomicInteger phases = new AtomicInteger();
+
+        @Override
+        public void onPhase(TransactionTrace trace, TransactionTrace.Span span) {
+            phases.incrementAndGet();
+        }
+
+        @Override
+        public void onComplete(TransactionTrace trace) {
+            completed.add(trace);
+        }
+    }
+
+    private static TransactionReceipt receipt(TransactionReceipt receipt, String hash) {
+        receipt.setTransactionHash(hash);
+        if (receipt instanceof QuorumTransactionReceipt) {
+            ((QuorumTransactionReceipt) receipt).setIsPrivacyMarkerTransaction(true);
+        }
+        return receipt;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.load;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+import org.web3j.quorum.tx.ClientTransactionManager;
+import org.web3j.quorum.tx.PrivacyOptions;
+
+/** Sends private transactions for the node to sign with a {@link ClientTransactionManager}. */
+final class ClientTransactionDriver implements TransactionDriver {
+
+    private final ClientTransactionManager transactionManager;
+    private final PrivacyOptions privacyOptions;
+    private final LoadOptions options;
+
+    ClientTransactionDriver(
+            ClientTransactionManager transactionManager,
+            PrivacyOptions privacyOptions,
+            LoadOptions options) {
+        this.transactionManager = transactionManager;
+        this.privacyOptions = privacyOptions;
+        this.options = options;
+    }
+
+    @Override
+    public String submit() throws IOException {
+        return LoadGenerator.transactionHash(
+                transactionManager.sendTransaction(
+                        options.getGasPrice(),
+                        options.getGasLimit(),
+                        options.getTo(),
+                        options.getData(),
+                        BigInteger.ZERO,
+                        privacyOptions));
+    }
+}
@@ -0,0 +1,395 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import okhttp3.OkHttpClient;
+
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.Keys;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.protocol.exceptions.TransactionException;
+import org.web3j.protocol.http.HttpService;
+import org.web3j.protocol.ipc.UnixIpcService;
+import org.web3j.quorum.Quorum;
+import org.web3j.quorum.UnixDomainSocketFactory;
+import org.web3j.quorum.enclave.Tessera;
+import org.web3j.quorum.enclave.protocol.EnclaveService;
+import org.web3j.quorum.simulator.Latency;
+import org.web3j.quorum.simulator.QuorumNodeSimulator;
+import org.web3j.quorum.simulator.TesseraSimulator;
+import org.web3j.quorum.tx.ClientTransactionManager;
+import org.web3j.quorum.tx.PrivacyOptions;
+import org.web3j.quorum.tx.QuorumTransactionManager;
+import org.web3j.quorum.tx.response.QuorumPollingTransactionReceiptProcessor;
+import org.web3j.tx.response.TransactionReceiptProcessor;
+
+/**
+ * Generates private transaction load against a Quorum node, through either {@link
+ * QuorumTransactionManager} or {@link ClientTransactionManager}, and reports throughput and the
+ * latency of submission and of receipts.
+ *
+ * <p>With {@code --rate}, transactions are started on a fixed schedule by up to {@code
+ * --concurrency} workers, and latency is measured from each transaction's slot in the schedule, so
+ * that it is corrected for coordinated omission (see {@link LoadReport}). Slots in the schedule
+ * which have not been started by the end of the run are reported as timed out. Without it, each
+ * worker starts its next transaction as soon as the last one completes. Transactions started during
+ * the warm-up are not measured. By default the node and enclave are in-process simulators, so that
+ * the client side can be profiled on its own; run with {@code --help} for the options.
+ */
+public final class LoadGenerator {
+
+    // The enclave keys of the sample payload this generator replaces
+    private static final String STUB_PRIVATE_FROM = "BULeR8JyUWhiuuCMU/HLA0Q5pzkYT+cHII3ZKBey3Bo=";
+    private static final String STUB_PRIVATE_FOR = "QfeDAys9MPDs2XHExtc84jKGHxZg/aj52DTh0vtA3Xc=";
+
+    private final LoadOptions options;
+
+    private final AtomicLong started = new AtomicLong();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAccumulator lastCompletion = new LongAccumulator(Math::max, 0);
+
+    LoadGenerator(LoadOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (Arrays.asList(args).contains("--help")) {
+            System.out.print(LoadOptions.USAGE);
+            return;
+        }
+        LoadOptions options;
+        try {
+            options = LoadOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        LoadReport report = new LoadGenerator(options).run();
+        System.out.println();
+        report.print(System.out);
+        // HTTP client threads linger after the run
+        System.exit(report.getCompleted() > 0 ? 0 : 1);
+    }
+
+    LoadReport run() throws Exception {
+        QuorumNodeSimulator node = null;
+        TesseraSimulator tessera = null;
+        Quorum quorum;
+        EnclaveService enclaveService = null;
+        if (options.isStub()) {
+            node = QuorumNodeSimulator.http();
+            tessera = TesseraSimulator.http();
+            node.setEnclave(tessera);
+            node.setReceiptPolls(options.getStubReceiptPolls());
+            Latency latency = Latency.fixed(options.getStubLatencyNanos(), TimeUnit.NANOSECONDS);
+            node.setLatency(latency);
+            tessera.setLatency(latency);
+            quorum = node.quorum();
+            enclaveService = tessera.enclaveService();
+            if (options.getPrivateFor().isEmpty()) {
+                options.setPrivateFor(Arrays.asList(STUB_PRIVATE_FOR));
+            }
+            if (options.getPrivateFrom() == null) {
+                options.setPrivateFrom(STUB_PRIVATE_FROM);
+            }
+        } else {
+            quorum = Quorum.build(connect(options.getEndpoint()));
+            if (!options.isClientManager()) {
+                enclaveService = enclave(options.getEnclave());
+            }
+        }
+
+        try {
+            TransactionDriver driver = driver(quorum, enclaveService);
+            TransactionReceiptProcessor receiptProcessor =
+                    new QuorumPollingTransactionReceiptProcessor(
+                            quorum, options.getPollIntervalMillis(), options.getPollAttempts());
+            System.out.println(describe());
+            return drive(driver, receiptProcessor);
+        } finally {
+            quorum.shutdown();
+            if (node != null) {
+                node.close();
+                tessera.close();
+            }
+        }
+    }
+
+    private TransactionDriver driver(Quorum quorum, EnclaveService enclaveService)
+            throws Exception {
+        PrivacyOptions privacyOptions =
+                new PrivacyOptions(options.getPrivateFrom(), options.getPrivateFor(), null, null);
+        Credentials credentials =
+                options.getPrivateKey() == null
+                        ? Credentials.create(Keys.createEcKeyPair())
+                        : Credentials.create(options.getPrivateKey());
+
+        if (options.isClientManager()) {
+            if (options.getFrom() == null) {
+                options.setFrom(credentials.getAddress());
+            }
+            return new ClientTransactionDriver(
+                    new ClientTransactionManager(
+                            quorum,
+                            options.getFrom(),
+                            options.getPrivateFrom(),
+                            options.getPrivateFor(),
+                            null,
+                            options.getPollAttempts(),
+                            (int) options.getPollIntervalMillis()),
+                    privacyOptions,
+                    options);
+        }
+
+        QuorumTransactionManager transactionManager =
+                new QuorumTransactionManager(
+                        quorum,
+                        new Tessera(enclaveService, quorum),
+                        credentials,
+                        options.getPrivateFrom(),
+                        options.getPrivateFor(),
+                        null,
+                        null,
+                        options.getChainId(),
+                        options.getPollAttempts(),
+                        options.getPollIntervalMillis());
+        long nonce =
+                quorum.ethGetTransactionCount(
+                                credentials.getAddress(), DefaultBlockParameterName.PENDING)
+                        .send()
+                        .getTransactionCount()
+                        .longValueExact();
+        return new QuorumTransactionDriver(transactionManager, privacyOptions, options, nonce);
+    }
+
+    private LoadReport drive(TransactionDriver driver, TransactionReceiptProcessor receipts)
+            throws InterruptedException {
+        LoadReport report = new LoadReport();
+        long start = System.nanoTime();
+        long measureStart = start + options.getWarmupNanos();
+        long end = measureStart + options.getDurationNanos();
+        long interval = options.getRate() > 0 ? (long) (1e9 / options.getRate()) : 0;
+        AtomicLong schedule = new AtomicLong();
+
+        ScheduledExecutorService progress =
+                Executors.newSingleThreadScheduledExecutor(threads("load-progress"));
+        progress.scheduleAtFixedRate(
+                new Progress(start, measureStart),
+                options.getReportIntervalNanos(),
+                options.getReportIntervalNanos(),
+                TimeUnit.NANOSECONDS);
+
+        ExecutorService workers =
+                Executors.newFixedThreadPool(options.getConcurrency(), threads("load-worker"));
+        for (int i = 0; i < options.getConcurrency(); i++) {
+            workers.execute(
+                    () -> {
+                        while (true) {
+                            long intendedStart;
+                            if (interval > 0) {
+                                intendedStart = start + schedule.getAndIncrement() * interval;
+                                if (intendedStart >= end) {
+                                    return;
+                                }
+                                sleepUntil(intendedStart);
+                            } else {
+                                intendedStart = System.nanoTime();
+                            }
+                            // Stop on time even if the schedule has fallen behind
+                            if (System.nanoTime() >= end) {
+                                if (interval > 0) {
+                                    timedOut(report, intendedStart, measureStart, end);
+                                }
+                                return;
+                            }
+                            send(driver, receipts, report, intendedStart, measureStart);
+                        }
+                    });
+        }
+        workers.shutdown();
+        try {
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } finally {
+            workers.shutdownNow();
+            progress.shutdownNow();
+        }
+        if (interval > 0) {
+            // slots no worker reached before the end
+            for (long slot = schedule.get(); start + slot * interval < end; slot++) {
+                timedOut(report, start + slot * interval, measureStart, end);
+            }
+        }
+        report.setMeasuredNanos(Math.max(end, lastCompletion.get()) - measureStart);
+        return report;
+    }
+
+    private static void timedOut(
+            LoadReport report, long intendedStart, long measureStart, long end) {
+        if (intendedStart >= measureStart) {
+            report.recordTimeout(intendedStart, end);
+        }
+    }
+
+    private void send(
+            TransactionDriver driver,
+            TransactionReceiptProcessor receipts,
+            LoadReport report,
+            long intendedStart,
+            long measureStart) {
+        started.incrementAndGet();
+        boolean measured = intendedStart >= measureStart;
+        long start = System.nanoTime();
+        try {
+            String transactionHash = driver.submit();
+            long submitted = System.nanoTime();
+            if (options.isReceipts()) {
+                receipts.waitForTransactionReceipt(transactionHash);
+            }
+            long end = options.isReceipts() ? System.nanoTime() : submitted;
+            completed.increment();
+            lastCompletion.accumulate(end);
+            if (measured) {
+                report.recordSuccess(intendedStart, start, submitted, end);
+            }
+        } catch (IOException | TransactionException | RuntimeException e) {
+            failed.increment();
+            if (measured) {
+                report.recordFailure(e);
+            }
+        }
+    }
+
+    private String describe() {
+        String load =
+                options.getRate() > 0
+                        ? String.format(
+                                Locale.ROOT,
+                                "%.1f tx/s with at most %d in flight",
+                                options.getRate(),
+                                options.getConcurrency())
+                        : options.getConcurrency() + " in flight (closed loop)";
+        return String.format(
+                Locale.ROOT,
+                "Sending private transactions with the %s manager to %s: %s, for %.0f s after"
+                        + " %.0f s warm-up%s",
+                options.getManager(),
+                options.getEndpoint(),
+                load,
+                options.getDurationNanos() / 1e9,
+                options.getWarmupNanos() / 1e9,
+                options.isReceipts() ? "" : ", without receipts");
+    }
+
+    /** Checks the response of a send, returning its transaction hash. */
+    static String transactionHash(EthSendTransaction response) throws IOException {
+        if (response.hasError()) {
+            throw new IOException(response.getError().getMessage());
+        }
+        return response.getTransactionHash();
+    }
+
+    private static Web3jService connect(String endpoint) {
+        if (endpoint.startsWith("ipc:")) {
+            return new UnixIpcService(endpoint.substring("ipc:".length()));
+        }
+        return new HttpService(endpoint);
+    }
+
+    private static EnclaveService enclave(String enclave) {
+        if (enclave.startsWith("unix:")) {
+            // use a proper host name as a DNS lookup still occurs (localhost should suffice)
+            return new EnclaveService(
+                    "http://localhost",
+                    80,
+                    new OkHttpClient.Builder()
+                            .socketFactory(
+                                    new UnixDomainSocketFactory(
+                                            new File(enclave.substring("unix:".length()))))
+                            .build());
+        }
+        URI uri = URI.create(enclave);
+        return new EnclaveService(
+                uri.getScheme() + "://" + uri.getHost(), uri.getPort(), new OkHttpClient());
+    }
+
+    private static void sleepUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static ThreadFactory threads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /** Prints the progress of the run, including the warm-up. */
+    private class Progress implements Runnable {
+
+        private final long start;
+        private final long measureStart;
+        private long lastCompleted;
+        private long lastTime;
+
+        Progress(long start, long measureStart) {
+            this.start = start;
+            this.measureStart = measureStart;
+            this.lastTime = start;
+        }
+
+        @Override
+        public void run() {
+            long now = System.nanoTime();
+            long completedNow = completed.sum();
+            long failedNow = failed.sum();
+            System.out.printf(
+                    Locale.ROOT,
+                    "[%6.1f s] %-8s %8.1f tx/s  %d completed, %d failed, %d in flight%n",
+                    (now - start) / 1e9,
+                    now < measureStart ? "warm-up" : "measure",
+                    (completedNow - lastCompleted) * 1e9 / (now - lastTime),
+                    completedNow,
+                    failedNow,
+                    started.get() - completedNow - failedNow);
+            lastCompleted = completedNow;
+            lastTime = now;
+        }
+    }
+}
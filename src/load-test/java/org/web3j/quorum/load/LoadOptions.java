@@ -0,0 +1,337 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.load;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/** Command line options of the {@link LoadGenerator}. */
+final class LoadOptions {
+
+    static final String STUB = "stub";
+
+    static final String USAGE =
+            "Usage: LoadGenerator [options]\n"
+                    + "\n"
+                    + "  --manager quorum|client   transaction manager to drive (default quorum)\n"
+                    + "  --endpoint URL|ipc:PATH|stub\n"
+                    + "                            node to send to (default stub, an in-process"
+                    + " simulator)\n"
+                    + "  --enclave URL|unix:PATH   Tessera third party API, for the quorum"
+                    + " manager\n"
+                    + "  --rate N                  transactions started per second; 0 runs closed"
+                    + " loop (default 0)\n"
+                    + "  --concurrency N           transactions in flight at most (default 16)\n"
+                    + "  --duration D              measured run time, e.g. 30s or 2m (default"
+                    + " 30s)\n"
+                    + "  --warmup D                unmeasured run time before it (default 5s)\n"
+                    + "  --private-for K1,K2       recipient enclave keys\n"
+                    + "  --private-from K          sender enclave key\n"
+                    + "  --from ADDRESS            node account, for the client manager\n"
+                    + "  --private-key HEX         signing key, for the quorum manager (default a"
+                    + " new key)\n"
+                    + "  --chain-id N              chain id to sign for (default none)\n"
+                    + "  --to ADDRESS              contract to call (default a contract"
+                    + " deployment)\n"
+                    + "  --data HEX                transaction data\n"
+                    + "  --gas-limit N             gas limit (default 4700000)\n"
+                    + "  --no-receipts             measure submission only\n"
+                    + "  --poll-interval D         receipt polling interval (default 50ms)\n"
+                    + "  --poll-attempts N         receipt polling attempts (default 600)\n"
+                    + "  --report-interval D       progress output interval (default 5s)\n"
+                    + "  --stub-latency D          latency of each simulator call (default 0ms)\n"
+                    + "  --stub-receipt-polls N    simulator polls before a receipt is found"
+                    + " (default 1)\n";
+
+    // A small contract deployment, so that the default run exercises the enclave with a realistic
+    // payload
+    private static final String DEFAULT_DATA =
+            "0x608060405234801561001057600080fd5b5060405161010d38038061010d8339818101604052602081"
+                    + "101561003357600080fd5b810190808051906020019092919050505080600081905550506"
+                    + "0ca806100436000396000f3fe";
+
+    private String manager = "quorum";
+    private String endpoint = STUB;
+    private String enclave;
+    private double rate;
+    private int concurrency = 16;
+    private long durationNanos = TimeUnit.SECONDS.toNanos(30);
+    private long warmupNanos = TimeUnit.SECONDS.toNanos(5);
+    private List<String> privateFor = Collections.emptyList();
+    private String privateFrom;
+    private String from;
+    private String privateKey;
+    private long chainId = -1;
+    private String to;
+    private String data = DEFAULT_DATA;
+    private BigInteger gasLimit = BigInteger.valueOf(4_700_000);
+    private boolean receipts = true;
+    private long pollIntervalMillis = 50;
+    private int pollAttempts = 600;
+    private long reportIntervalNanos = TimeUnit.SECONDS.toNanos(5);
+    private long stubLatencyNanos;
+    private int stubReceiptPolls = 1;
+
+    static LoadOptions parse(String... args) {
+        LoadOptions options = new LoadOptions();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            String value = null;
+            int equals = name.indexOf('=');
+            if (equals > 0) {
+                value = name.substring(equals + 1);
+                name = name.substring(0, equals);
+            }
+            if (name.equals("--no-receipts")) {
+                options.receipts = false;
+                continue;
+            }
+            if (value == null) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value for " + name);
+                }
+                value = args[++i];
+            }
+            options.set(name, value);
+        }
+        options.validate();
+        return options;
+    }
+
+    private void set(String name, String value) {
+        switch (name) {
+            case "--manager":
+                manager = value.toLowerCase(Locale.ROOT);
+                break;
+            case "--endpoint":
+                endpoint = value;
+                break;
+            case "--enclave":
+                enclave = value;
+                break;
+            case "--rate":
+                rate = Double.parseDouble(value);
+                break;
+            case "--concurrency":
+                concurrency = Integer.parseInt(value);
+                break;
+            case "--duration":
+                durationNanos = parseDuration(value);
+                break;
+            case "--warmup":
+                warmupNanos = parseDuration(value);
+                break;
+            case "--private-for":
+                privateFor = new ArrayList<>(Arrays.asList(value.split(",")));
+                break;
+            case "--private-from":
+                privateFrom = value;
+                break;
+            case "--from":
+                from = value;
+                break;
+            case "--private-key":
+                privateKey = value;
+                break;
+            case "--chain-id":
+                chainId = Long.parseLong(value);
+                break;
+            case "--to":
+                to = value;
+                break;
+            case "--data":
+                data = value;
+                break;
+            case "--gas-limit":
+                gasLimit = new BigInteger(value);
+                break;
+            case "--poll-interval":
+                pollIntervalMillis = TimeUnit.NANOSECONDS.toMillis(parseDuration(value));
+                break;
+            case "--poll-attempts":
+                pollAttempts = Integer.parseInt(value);
+                break;
+            case "--report-interval":
+                reportIntervalNanos = parseDuration(value);
+                break;
+            case "--stub-latency":
+                stubLatencyNanos = parseDuration(value);
+                break;
+            case "--stub-receipt-polls":
+                stubReceiptPolls = Integer.parseInt(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option " + name);
+        }
+    }
+
+    private void validate() {
+        if (!manager.equals("quorum") && !manager.equals("client")) {
+            throw new IllegalArgumentException("Manager must be quorum or client");
+        }
+        if (rate < 0 || concurrency < 1 || durationNanos <= 0 || warmupNanos < 0) {
+            throw new IllegalArgumentException(
+                    "Rate and warm-up must not be negative, and concurrency and duration must be"
+                            + " positive");
+        }
+        if (pollIntervalMillis < 1 || pollAttempts < 1 || reportIntervalNanos <= 0) {
+            throw new IllegalArgumentException("Polling and report intervals must be positive");
+        }
+        if (!isStub()) {
+            if (privateFor.isEmpty()) {
+                throw new IllegalArgumentException("--private-for is required with --endpoint");
+            }
+            if (isClientManager() && from == null) {
+                throw new IllegalArgumentException("--from is required with the client manager");
+            }
+            if (!isClientManager()
+                    && (enclave == null || privateKey == null || privateFrom == null)) {
+                throw new IllegalArgumentException(
+                        "--enclave, --private-key and --private-from are required with the quorum"
+                                + " manager");
+            }
+        }
+    }
+
+    /**
+     * Parses a duration such as {@code 250ms}, {@code 30s} or {@code 2m}; plain numbers are
+     * seconds.
+     */
+    static long parseDuration(String value) {
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        TimeUnit unit = TimeUnit.SECONDS;
+        if (text.endsWith("ms")) {
+            unit = TimeUnit.MILLISECONDS;
+            text = text.substring(0, text.length() - 2);
+        } else if (text.endsWith("s")) {
+            text = text.substring(0, text.length() - 1);
+        } else if (text.endsWith("m")) {
+            unit = TimeUnit.MINUTES;
+            text = text.substring(0, text.length() - 1);
+        }
+        return unit.toNanos(Long.parseLong(text));
+    }
+
+    boolean isStub() {
+        return endpoint.equals(STUB);
+    }
+
+    boolean isClientManager() {
+        return manager.equals("client");
+    }
+
+    String getManager() {
+        return manager;
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    String getEnclave() {
+        return enclave;
+    }
+
+    double getRate() {
+        return rate;
+    }
+
+    int getConcurrency() {
+        return concurrency;
+    }
+
+    long getDurationNanos() {
+        return durationNanos;
+    }
+
+    long getWarmupNanos() {
+        return warmupNanos;
+    }
+
+    List<String> getPrivateFor() {
+        return privateFor;
+    }
+
+    void setPrivateFor(List<String> privateFor) {
+        this.privateFor = privateFor;
+    }
+
+    String getPrivateFrom() {
+        return privateFrom;
+    }
+
+    void setPrivateFrom(String privateFrom) {
+        this.privateFrom = privateFrom;
+    }
+
+    String getFrom() {
+        return from;
+    }
+
+    void setFrom(String from) {
+        this.from = from;
+    }
+
+    String getPrivateKey() {
+        return privateKey;
+    }
+
+    long getChainId() {
+        return chainId;
+    }
+
+    String getTo() {
+        return to;
+    }
+
+    String getData() {
+        return data;
+    }
+
+    BigInteger getGasPrice() {
+        return BigInteger.ZERO;
+    }
+
+    BigInteger getGasLimit() {
+        return gasLimit;
+    }
+
+    boolean isReceipts() {
+        return receipts;
+    }
+
+    long getPollIntervalMillis() {
+        return pollIntervalMillis;
+    }
+
+    int getPollAttempts() {
+        return pollAttempts;
+    }
+
+    long getReportIntervalNanos() {
+        return reportIntervalNanos;
+    }
+
+    long getStubLatencyNanos() {
+        return stubLatencyNanos;
+    }
+
+    int getStubReceiptPolls() {
+        return stubReceiptPolls;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.load;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.web3j.quorum.metrics.LatencyHistogram;
+
+/**
+ * The measurements of a load generator run.
+ *
+ * <p>Each transaction has an intended start time: its slot in the schedule when a rate is set, or
+ * the time it was started otherwise. Response time is measured from the intended start, so a stall
+ * which delays later transactions is charged to them too, instead of being hidden by the generator
+ * waiting for it (the coordinated omission described by Gil Tene). Service time is measured from
+ * the actual start and shows what the node itself took.
+ *
+ * <p>Scheduled transactions which had not started when the run ended are counted as timed out, and
+ * their response time so far is recorded, as a lower bound, so that a generator which falls behind
+ * its schedule does not drop the slowest transactions from the response time.
+ */
+final class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final LatencyHistogram submit = new LatencyHistogram();
+    private final LatencyHistogram receipt = new LatencyHistogram();
+    private final LatencyHistogram service = new LatencyHistogram();
+    private final LatencyHistogram response = new LatencyHistogram();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private volatile long measuredNanos;
+
+    void recordSuccess(long intendedStart, long start, long submitted, long end) {
+        submit.record(submitted - start);
+        if (end != submitted) {
+            receipt.record(end - submitted);
+        }
+        service.record(end - start);
+        response.record(end - intendedStart);
+        completed.increment();
+    }
+
+    void recordFailure(Throwable error) {
+        failed.increment();
+        String message = error.getMessage();
+        String key = error.getClass().getSimpleName() + (message == null ? "" : ": " + message);
+        errors.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+
+    void recordTimeout(long intendedStart, long end) {
+        response.record(end - intendedStart);
+        timedOut.increment();
+    }
+
+    void setMeasuredNanos(long measuredNanos) {
+        this.measuredNanos = measuredNanos;
+    }
+
+    long getCompleted() {
+        return completed.sum();
+    }
+
+    long getFailed() {
+        return failed.sum();
+    }
+
+    long getTimedOut() {
+        return timedOut.sum();
+    }
+
+    double getThroughput() {
+        return measuredNanos == 0 ? 0 : getCompleted() * 1e9 / measuredNanos;
+    }
+
+    LatencyHistogram getSubmitLatency() {
+        return submit;
+    }
+
+    LatencyHistogram getReceiptLatency() {
+        return receipt;
+    }
+
+    LatencyHistogram getServiceTime() {
+        return service;
+    }
+
+    LatencyHistogram getResponseTime() {
+        return response;
+    }
+
+    void print(PrintStream out) {
+        out.printf(
+                Locale.ROOT,
+                "Throughput: %.1f tx/s (%d completed, %d failed, %d timed out in %.1f s)%n%n",
+                getThroughput(),
+                getCompleted(),
+                getFailed(),
+                getTimedOut(),
+                measuredNanos / 1e9);
+        out.printf(
+                Locale.ROOT,
+                "%-28s %8s %9s %9s %9s %9s %9s %9s%n",
+                "Latency (ms)",
+                "count",
+                "mean",
+                "p50",
+                "p90",
+                "p99",
+                "p99.9",
+                "max");
+        print(out, "submit", submit);
+        print(out, "receipt", receipt);
+        print(out, "service time", service);
+        print(out, "response time (corrected)", response);
+
+        if (!errors.isEmpty()) {
+            out.printf("%nErrors:%n");
+            new TreeMap<>(errors)
+                    .forEach((error, count) -> out.printf("%8d  %s%n", count.sum(), error));
+        }
+    }
+
+    private static void print(PrintStream out, String name, LatencyHistogram histogram) {
+        StringBuilder line =
+                new StringBuilder(
+                        String.format(
+                                Locale.ROOT,
+                                "%-28s %8d %9.2f",
+                                name,
+                                histogram.getCount(),
+                                millis(histogram.getMean())));
+        for (double percentile : PERCENTILES) {
+            line.append(
+                    String.format(
+                            Locale.ROOT,
+                            " %9.2f",
+                            millis(histogram.getValueAtPercentile(percentile))));
+        }
+        line.append(String.format(Locale.ROOT, " %9.2f", millis(histogram.getMax())));
+        out.println(line);
+    }
+
+    private static double millis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.load;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.web3j.crypto.RawTransaction;
+import org.web3j.quorum.tx.PrivacyOptions;
+import org.web3j.quorum.tx.QuorumTransactionManager;
+
+/**
+ * Stores, signs and sends private transactions with a {@link QuorumTransactionManager}. Nonces are
+ * handed out locally from the account's pending transaction count, so that concurrent sends do not
+ * reuse them.
+ */
+final class QuorumTransactionDriver implements TransactionDriver {
+
+    private final QuorumTransactionManager transactionManager;
+    private final PrivacyOptions privacyOptions;
+    private final LoadOptions options;
+    private final AtomicLong nonce;
+
+    QuorumTransactionDriver(
+            QuorumTransactionManager transactionManager,
+            PrivacyOptions privacyOptions,
+            LoadOptions options,
+            long firstNonce) {
+        this.transactionManager = transactionManager;
+        this.privacyOptions = privacyOptions;
+        this.options = options;
+        this.nonce = new AtomicLong(firstNonce);
+    }
+
+    @Override
+    public String submit() throws IOException {
+        RawTransaction rawTransaction =
+                RawTransaction.createTransaction(
+                        BigInteger.valueOf(nonce.getAndIncrement()),
+                        options.getGasPrice(),
+                        options.getGasLimit(),
+                        options.getTo(),
+                        BigInteger.ZERO,
+                        options.getData());
+        return LoadGenerator.transactionHash(
+                transactionManager.signAndSend(rawTransaction, privacyOptions));
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.load;
+
+import java.io.IOException;
+
+/** Submits one transaction to the node for the load generator. */
+interface TransactionDriver {
+
+    /**
+     * Sends a transaction and returns its hash.
+     *
+     * @throws IOException if the transaction could not be sent or the node returned an error
+     */
+    String submit() throws IOException;
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.reactivex.Flowable;
+
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.websocket.events.Notification;
+
+/**
+ * A {@link Web3jService} which coalesces identical concurrent reads.
+ *
+ * <p>For methods which have been opted in with {@link #coalesce(String, long)}, a request with the
+ * same method, parameters and response type as one already in flight is not sent, but completes
+ * with the response of the request in flight. Successful responses may additionally be reused for a
+ * short time to live. All other requests, as well as batches and subscriptions, are passed straight
+ * to the underlying service. Expired responses are swept out at most once a second, when a request
+ * is made, so responses for parameters which are never requested again do not accumulate.
+ *
+ * <p>Coalesced callers share the same {@link Response} instance, which must therefore be treated as
+ * read only. A coalescing {@link Quorum} is obtained with {@code Quorum.build(new
+ * CoalescingWeb3jService(service).coalesce("raft_leader", 0))}.
+ */
+public class CoalescingWeb3jService implements Web3jService {
+
+    private static final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+
+    private static final long SWEEP_INTERVAL = 1_000;
+
+    private final Web3jService web3jService;
+    private final Map<String, Long> timesToLive = new ConcurrentHashMap<>();
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep = new AtomicLong();
+
+    public CoalescingWeb3jService(Web3jService web3jService) {
+        this.web3jService = web3jService;
+    }
+
+    /**
+     * Opts the given JSON-RPC method into coalescing.
+     *
+     * @param method the JSON-RPC method name, such as {@code raft_leader}
+     * @param timeToLive milliseconds for which a successful response is reused after it has been
+     *     received, or zero to only share responses between requests in flight at the same time
+     */
+    public CoalescingWeb3jService coalesce(String method, long timeToLive) {
+        if (timeToLive < 0) {
+            throw new IllegalArgumentException("Time to live must not be negative");
+        }
+        timesToLive.put(method, timeToLive);
+        return this;
+    }
+
+    /** Opts the given JSON-RPC method out of coalescing, discarding any cached responses. */
+    public CoalescingWeb3jService remove(String method) {
+        timesToLive.remove(method);
+        entries.keySet().removeIf(key -> key.method.equals(method));
+        return this;
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        Long timeToLive = timesToLive.get(request.getMethod());
+        if (timeToLive == null) {
+            return web3jService.send(request, responseType);
+        }
+        Key key = key(request, responseType);
+        Lookup lookup = lookup(key);
+        if (lookup.leader) {
+            try {
+                T response = web3jService.send(request, responseType);
+                complete(key, lookup.entry, response, timeToLive);
+            } catch (Throwable t) {
+                // Any failure must complete the entry, or later callers would wait on it forever
+                fail(key, lookup.entry, t);
+            }
+        }
+        try {
+            return responseType.cast(lookup.entry.future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(
+                    "Interrupted waiting for coalesced " + request.getMethod() + " response");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    @Override
+    public <T extends Response> CompletableFuture<T> sendAsync(
+            Request request, Class<T> responseType) {
+        Long timeToLive = timesToLive.get(request.getMethod());
+        if (timeToLive == null) {
+            return web3jService.sendAsync(request, responseType);
+        }
+        Key key;
+        try {
+            key = key(request, responseType);
+        } catch (IOException e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        Lookup lookup = lookup(key);
+        if (lookup.leader) {
+            try {
+                web3jService
+                        .sendAsync(request, responseType)
+                        .whenComplete(
+                                (response, throwable) -> {
+                                    if (throwable == null) {
+                                        complete(key, lookup.entry, response, timeToLive);
+                                    } else {
+                                        fail(key, lookup.entry, throwable);
+                                    }
+                                });
+            } catch (Throwable t) {
+                // Such as a rejected execution once the async executor has shut down
+                fail(key, lookup.entry, t);
+            }
+        }
+        return lookup.entry.future.thenApply(responseType::cast);
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        return web3jService.sendBatch(batchRequest);
+    }
+
+    @Override
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+        return web3jService.sendBatchAsync(batchRequest);
+    }
+
+    @Override
+    public <T extends Notification<?>> Flowable<T> subscribe(
+            Request request, String unsubscribeMethod, Class<T> responseType) {
+        return web3jService.subscribe(request, unsubscribeMethod, responseType);
+    }
+
+    @Override
+    public void close() throws IOException {
+        entries.clear();
+        web3jService.close();
+    }
+
+    /** The number of responses in flight or held for reuse. */
+    int size() {
+        return entries.size();
+    }
+
+    private Lookup lookup(Key key) {
+        sweep();
+        Entry created = new Entry();
+        Entry entry =
+                entries.compute(
+                        key,
+                        (k, existing) ->
+                                existing == null || existing.isExpired() ? created : existing);
+        return new Lookup(entry, entry == created);
+    }
+
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        long due = nextSweep.get();
+        if (now >= due && nextSweep.compareAndSet(due, now + SWEEP_INTERVAL)) {
+            entries.values().removeIf(Entry::isExpired);
+        }
+    }
+
+    private void complete(Key key, Entry entry, Response<?> response, long timeToLive) {
+        if (timeToLive > 0 && response != null && !response.hasError()) {
+            entry.expiresAt = System.currentTimeMillis() + timeToLive;
+        } else {
+            entries.remove(key, entry);
+        }
+        entry.future.complete(response);
+    }
+
+    private void fail(Key key, Entry entry, Throwable throwable) {
+        entries.remove(key, entry);
+        entry.future.completeExceptionally(throwable);
+    }
+
+    private static Key key(Request<?, ?> request, Class<?> responseType) throws IOException {
+        try {
+            return new Key(
+                    request.getMethod(),
+                    objectMapper.writeValueAsString(request.getParams()),
+                    responseType);
+        } catch (JsonProcessingException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static class Key {
+        private final String method;
+        private final String params;
+        private final Class<?> responseType;
+
+        private Key(String method, String params, Class<?> responseType) {
+            this.method = method;
+            this.params = params;
+            this.responseType = responseType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return method.equals(key.method)
+                    && params.equals(key.params)
+                    && responseType == key.responseType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(method, params, responseType);
+        }
+    }
+
+    private static class Entry {
+        private final CompletableFuture<Response<?>> future = new CompletableFuture<>();
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        private boolean isExpired() {
+            return future.isDone() && System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+    private static class Lookup {
+        private final Entry entry;
+        private final boolean leader;
+
+        private Lookup(Entry entry, boolean leader) {
+            this.entry = entry;
+            this.leader = leader;
+        }
+    }
+}
@@ -23,7 +23,9 @@ import org.web3j.protocol.core.Request;
 import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
 import org.web3j.protocol.core.methods.response.EthSendTransaction;
 import org.web3j.protocol.core.methods.response.EthTransaction;
-import org.web3j.quorum.methods.request.PrivateRawTransaction;
+import org.web3j.quorum.jfr.QuorumFlightRecorder;
+import org.web3j.quorum.methods.request.PreparedRequest;
+import org.web3j.quorum.methods.request.PrivateRawTransactionEncoder;
 import org.web3j.quorum.methods.request.PrivateTransaction;
 import org.web3j.quorum.methods.response.*;
 import org.web3j.quorum.methods.response.istanbul.IstanbulBlockSigners;
@@ -46,15 +48,21 @@ import org.web3j.quorum.methods.response.raft.RaftRole;
 /** Quorum JSON-RPC API implementation. */
 public class JsonRpc2_0Quorum extends JsonRpc2_0Web3j implements Quorum {
 
+    private final PrivateRawTransactionEncoder privateRawTransactionEncoder =
+            new PrivateRawTransactionEncoder();
+
     public JsonRpc2_0Quorum(Web3jService web3jService) {
-        super(web3jService);
+        super(QuorumFlightRecorder.instrument(web3jService));
     }
 
     public JsonRpc2_0Quorum(
             Web3jService web3jService,
             long pollingInterval,
             ScheduledExecutorService scheduledExecutorService) {
-        super(web3jService, pollingInterval, scheduledExecutorService);
+        super(
+                QuorumFlightRecorder.instrument(web3jService),
+                pollingInterval,
+                scheduledExecutorService);
     }
 
     @Override
@@ -63,26 +71,37 @@ public class JsonRpc2_0Quorum extends JsonRpc2_0Web3j implements Quorum {
             List<String> privateFor,
             PrivacyFlag privacyFlag,
             List<String> mandatoryFor) {
-        PrivateRawTransaction transaction =
-                new PrivateRawTransaction(privateFor, privacyFlag, mandatoryFor);
-        return new Request<>(
+        return new PreparedRequest<>(
                 "eth_sendRawPrivateTransaction",
-                Arrays.asList(signedTransactionData, transaction),
+                signedTransactionData,
+                privateFor,
+                privacyFlag,
+                mandatoryFor,
+                privateRawTransactionEncoder.encode(privateFor, privacyFlag, mandatoryFor),
                 web3jService,
                 EthSendTransaction.class);
     }
 
     @Override
     public Request<?, EthSendTransaction> ethSendRawPrivateTransaction(
-            String signedTransactionData, List<String> privateFor, PrivacyFlag privacyFlag) {
-        PrivateRawTransaction transaction = new PrivateRawTransaction(privateFor, privacyFlag);
-        return new Request<>(
+            String signedTransactionData, PrivacyGroup privacyGroup) {
+        return new PreparedRequest<>(
                 "eth_sendRawPrivateTransaction",
-                Arrays.asList(signedTransactionData, transaction),
+                signedTransactionData,
+                privacyGroup.getPrivateFor(),
+                privacyGroup.getPrivacyFlag(),
+                privacyGroup.getMandatoryFor(),
+                privacyGroup.toJson(),
                 web3jService,
                 EthSendTransaction.class);
     }
 
+    @Override
+    public Request<?, EthSendTransaction> ethSendRawPrivateTransaction(
+            String signedTransactionData, List<String> privateFor, PrivacyFlag privacyFlag) {
+        return ethSendRawPrivateTransaction(signedTransactionData, privateFor, privacyFlag, null);
+    }
+
     @Override
     public Request<?, EthSendTransaction> ethSendRawTransaction(String signedTransactionData) {
         return new Request<>(
@@ -133,13 +152,22 @@ public class JsonRpc2_0Quorum extends JsonRpc2_0Web3j implements Quorum {
     public Request<?, EthGetQuorumTransactionReceipt> ethGetQuorumTransactionReceipt(
             String transactionHash) {
 
-        return new Request<>(
+        return new PreparedRequest<>(
                 "eth_getTransactionReceipt",
-                Arrays.asList(transactionHash),
-                this.web3jService,
+                transactionHash,
+                web3jService,
                 EthGetQuorumTransactionReceipt.class);
     }
 
+    @Override
+    public Request<?, EthGetTransactionReceipt> ethGetTransactionReceipt(String transactionHash) {
+        return new PreparedRequest<>(
+                "eth_getTransactionReceipt",
+                transactionHash,
+                web3jService,
+                EthGetTransactionReceipt.class);
+    }
+
     // privacy marker transactions
 
     @Override
@@ -148,11 +176,27 @@ public class JsonRpc2_0Quorum extends JsonRpc2_0Web3j implements Quorum {
             List<String> privateFor,
             PrivacyFlag privacyFlag,
             List<String> mandatoryFor) {
-        PrivateRawTransaction transaction =
-                new PrivateRawTransaction(privateFor, privacyFlag, mandatoryFor);
-        return new Request<>(
+        return new PreparedRequest<>(
+                "eth_distributePrivateTransaction",
+                signedTransactionData,
+                privateFor,
+                privacyFlag,
+                mandatoryFor,
+                privateRawTransactionEncoder.encode(privateFor, privacyFlag, mandatoryFor),
+                web3jService,
+                EthSendTransaction.class);
+    }
+
+    @Override
+    public Request<?, EthSendTransaction> ethDistributePrivateTransaction(
+            String signedTransactionData, PrivacyGroup privacyGroup) {
+        return new PreparedRequest<>(
                 "eth_distributePrivateTransaction",
-                Arrays.asList(signedTransactionData, transaction),
+                signedTransactionData,
+                privacyGroup.getPrivateFor(),
+                privacyGroup.getPrivacyFlag(),
+                privacyGroup.getMandatoryFor(),
+                privacyGroup.toJson(),
                 web3jService,
                 EthSendTransaction.class);
     }
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.quorum.methods.request.PrivateRawTransaction;
+
+/**
+ * The recipients and privacy flag of private transactions, validated and encoded once.
+ *
+ * <p>Groups are interned: {@link #of(List, PrivacyFlag, List)} returns the same instance for equal
+ * arguments for as long as that instance is referenced, so a fixed set of counterparty groups costs
+ * one instance each. The lookup does not lock or copy the arguments, but it still hashes and
+ * compares every recipient, so callers sending repeatedly to the same recipients should keep the
+ * group, or the {@link org.web3j.quorum.tx.PrivacyOptions} holding it, rather than look it up for
+ * each transaction.
+ *
+ * <p>A group caches its JSON encoding as a {@link PrivateRawTransaction} object and its content
+ * hash. The lists returned by {@link #getPrivateFor()} and {@link #getMandatoryFor()} are immutable
+ * and serialise from their cached JSON, so passing them to {@link
+ * org.web3j.quorum.methods.request.PrivateTransaction} or other requests also avoids encoding them
+ * again.
+ */
+public final class PrivacyGroup {
+
+    private static final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private static final ConcurrentHashMap<Key, GroupReference> interned =
+            new ConcurrentHashMap<>();
+    private static final ReferenceQueue<PrivacyGroup> collected = new ReferenceQueue<>();
+
+    private final RecipientList privateFor;
+    private final PrivacyFlag privacyFlag;
+    private final RecipientList mandatoryFor;
+    private final int hash;
+    private volatile String json;
+
+    private PrivacyGroup(
+            RecipientList privateFor, PrivacyFlag privacyFlag, RecipientList mandatoryFor) {
+        this.privateFor = privateFor;
+        this.privacyFlag = privacyFlag;
+        this.mandatoryFor = mandatoryFor;
+        this.hash = hash(privateFor, privacyFlag, mandatoryFor);
+    }
+
+    public static PrivacyGroup of(List<String> privateFor) {
+        return of(privateFor, null, null);
+    }
+
+    public static PrivacyGroup of(List<String> privateFor, PrivacyFlag privacyFlag) {
+        return of(privateFor, privacyFlag, null);
+    }
+
+    /**
+     * Returns the interned group with the given parameters.
+     *
+     * @param privacyFlag the privacy flag, or null to leave it to the node's default
+     * @param mandatoryFor the mandatory recipients, or null if there are none
+     * @throws IllegalArgumentException if a recipient is null or empty, or if mandatory recipients
+     *     are given with a flag other than {@link PrivacyFlag#MANDATORY_FOR} or are missing for
+     *     that flag
+     */
+    public static PrivacyGroup of(
+            List<String> privateFor, PrivacyFlag privacyFlag, List<String> mandatoryFor) {
+        Objects.requireNonNull(privateFor, "privateFor");
+        boolean mandatory = mandatoryFor != null && !mandatoryFor.isEmpty();
+        if (mandatory != (privacyFlag == PrivacyFlag.MANDATORY_FOR)) {
+            throw new IllegalArgumentException(
+                    "Mandatory recipients must be given with, and only with, the "
+                            + PrivacyFlag.MANDATORY_FOR
+                            + " privacy flag");
+        }
+        expungeCollected();
+
+        Key key = new Key(privateFor, privacyFlag, mandatoryFor);
+        GroupReference existing = interned.get(key);
+        PrivacyGroup group = existing == null ? null : existing.get();
+        if (group != null) {
+            return group;
+        }
+
+        PrivacyGroup created =
+                new PrivacyGroup(
+                        new RecipientList(privateFor),
+                        privacyFlag,
+                        mandatoryFor == null ? null : new RecipientList(mandatoryFor));
+        GroupReference reference = new GroupReference(created);
+        while (true) {
+            existing = interned.putIfAbsent(reference.key, reference);
+            if (existing == null) {
+                return created;
+            }
+            group = existing.get();
+            if (group != null) {
+                return group;
+            }
+            if (interned.replace(reference.key, existing, reference)) {
+                return created;
+            }
+        }
+    }
+
+    public List<String> getPrivateFor() {
+        return privateFor;
+    }
+
+    public PrivacyFlag getPrivacyFlag() {
+        return privacyFlag;
+    }
+
+    public List<String> getMandatoryFor() {
+        return mandatoryFor;
+    }
+
+    /** The group encoded as the JSON of a {@link PrivateRawTransaction}. */
+    public String toJson() {
+        String json = this.json;
+        if (json == null) {
+            json = encode(toPrivateRawTransaction());
+            this.json = json;
+        }
+        return json;
+    }
+
+    /** The group as the privacy parameters of a raw private transaction. */
+    public PrivateRawTransaction toPrivateRawTransaction() {
+        return new PrivateRawTransaction(privateFor, privacyFlag, mandatoryFor);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PrivacyGroup)) {
+            return false;
+        }
+        PrivacyGroup that = (PrivacyGroup) o;
+        return hash == that.hash
+                && privacyFlag == that.privacyFlag
+                && privateFor.equals(that.privateFor)
+                && Objects.equals(mandatoryFor, that.mandatoryFor);
+    }
+
+    /** A hash of the group's contents, which is the same across runs. */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+    private static int hash(
+            List<String> privateFor, PrivacyFlag privacyFlag, List<String> mandatoryFor) {
+        int hash = privateFor.hashCode();
+        hash = 31 * hash + (privacyFlag == null ? 0 : privacyFlag.getValue() + 1);
+        return 31 * hash + Objects.hashCode(mandatoryFor);
+    }
+
+    // removes the entries of groups which are no longer referenced
+    private static void expungeCollected() {
+        Reference<? extends PrivacyGroup> reference;
+        while ((reference = collected.poll()) != null) {
+            interned.remove(((GroupReference) reference).key, reference);
+        }
+    }
+
+    private static String encode(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The contents of a group, which are the caller's lists when looking a group up and the group's
+     * own lists when interning it, so that an entry does not keep its group reachable.
+     */
+    private static final class Key {
+
+        private final List<String> privateFor;
+        private final PrivacyFlag privacyFlag;
+        private final List<String> mandatoryFor;
+        private final int hash;
+
+        private Key(List<String> privateFor, PrivacyFlag privacyFlag, List<String> mandatoryFor) {
+            this.privateFor = privateFor;
+            this.privacyFlag = privacyFlag;
+            this.mandatoryFor = mandatoryFor;
+            this.hash = hash(privateFor, privacyFlag, mandatoryFor);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hash == that.hash
+                    && privacyFlag == that.privacyFlag
+                    && privateFor.equals(that.privateFor)
+                    && Objects.equals(mandatoryFor, that.mandatoryFor);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class GroupReference extends WeakReference<PrivacyGroup> {
+
+        private final Key key;
+
+        private GroupReference(PrivacyGroup group) {
+            super(group, collected);
+            this.key = new Key(group.privateFor, group.privacyFlag, group.mandatoryFor);
+        }
+    }
+
+    /** An immutable list of recipients which serialises from its cached JSON array. */
+    @JsonSerialize(using = RecipientListSerializer.class)
+    static final class RecipientList extends AbstractList<String> implements RandomAccess {
+
+        private final String[] recipients;
+        private final int hash;
+        private volatile String json;
+
+        private RecipientList(List<String> recipients) {
+            this.recipients = new ArrayList<>(recipients).toArray(new String[0]);
+            for (String recipient : this.recipients) {
+                if (recipient == null || recipient.isEmpty()) {
+                    throw new IllegalArgumentException("Recipients must not be null or empty");
+                }
+            }
+            this.hash = super.hashCode();
+        }
+
+        @Override
+        public String get(int index) {
+            return recipients[index];
+        }
+
+        @Override
+        public int size() {
+            return recipients.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        String toJson() {
+            String json = this.json;
+            if (json == null) {
+                json = encode(recipients);
+                this.json = json;
+            }
+            return json;
+        }
+    }
+
+    static final class RecipientListSerializer extends JsonSerializer<RecipientList> {
+        @Override
+        public void serialize(
+                RecipientList value, JsonGenerator gen, SerializerProvider serializers)
+                throws IOException {
+            gen.writeRawValue(value.toJson());
+        }
+    }
+}
@@ -67,6 +67,15 @@ public interface Quorum extends Web3j {
             PrivacyFlag privacyFlag,
             List<String> mandatoryFor);
 
+    default Request<?, EthSendTransaction> ethSendRawPrivateTransaction(
+            String signedTransactionData, PrivacyGroup privacyGroup) {
+        return ethSendRawPrivateTransaction(
+                signedTransactionData,
+                privacyGroup.getPrivateFor(),
+                privacyGroup.getPrivacyFlag(),
+                privacyGroup.getMandatoryFor());
+    }
+
     Request<?, EthSendTransaction> ethSendTransactionAsync(PrivateTransaction transaction);
 
     Request<?, EthGetQuorumTransactionReceipt> ethGetQuorumTransactionReceipt(String hexDigest);
@@ -85,6 +94,15 @@ public interface Quorum extends Web3j {
             PrivacyFlag privacyFlag,
             List<String> mandatoryFor);
 
+    default Request<?, EthSendTransaction> ethDistributePrivateTransaction(
+            String signedTransactionData, PrivacyGroup privacyGroup) {
+        return ethDistributePrivateTransaction(
+                signedTransactionData,
+                privacyGroup.getPrivateFor(),
+                privacyGroup.getPrivacyFlag(),
+                privacyGroup.getMandatoryFor());
+    }
+
     Request<?, EthAddress> ethGetPrivacyPrecompileAddress();
 
     Request<?, EthTransaction> ethGetPrivateTransactionByHash(String hexDigest);
@@ -199,4 +217,16 @@ public interface Quorum extends Web3j {
 
     Request<?, ExecStatusInfo> quorumPermissionApproveBlackListedAccountRecovery(
             String orgId, String address, PrivateTransaction transaction);
+
+    // batching
+
+    /** Creates a typed batch which is split into JSON-RPC batches of at most the default size. */
+    default QuorumBatch newQuorumBatch() {
+        return newQuorumBatch(QuorumBatch.DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /** Creates a typed batch which is split into JSON-RPC batches of at most the given size. */
+    default QuorumBatch newQuorumBatch(int maxBatchSize) {
+        return new QuorumBatch(this, maxBatchSize);
+    }
 }
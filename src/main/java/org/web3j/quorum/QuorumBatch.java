@@ -0,0 +1,180 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+
+/**
+ * A typed JSON-RPC batch, combining any mix of requests into as few round trips as possible.
+ *
+ * <p>Each request added returns a {@link Handle}, which is used to retrieve its typed response once
+ * the batch has been sent. Batches larger than the maximum batch size are split into several
+ * JSON-RPC batches, which are sent one after the other by {@link #send()} and concurrently by
+ * {@link #sendAsync()}. A batch may be sent any number of times.
+ */
+public class QuorumBatch {
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    private final Supplier<BatchRequest> batchFactory;
+    private final int maxBatchSize;
+    private final List<Request<?, ? extends Response<?>>> requests = new ArrayList<>();
+
+    public QuorumBatch(Web3jService web3jService) {
+        this(web3jService, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public QuorumBatch(Web3jService web3jService, int maxBatchSize) {
+        this(() -> new BatchRequest(web3jService), maxBatchSize);
+    }
+
+    public QuorumBatch(Web3j web3j) {
+        this(web3j, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /** Creates a batch sent through the JSON-RPC batches of the given client. */
+    public QuorumBatch(Web3j web3j, int maxBatchSize) {
+        this(web3j::newBatch, maxBatchSize);
+    }
+
+    private QuorumBatch(Supplier<BatchRequest> batchFactory, int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.batchFactory = batchFactory;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public <T extends Response<?>> Handle<T> add(Request<?, T> request) {
+        requests.add(request);
+        return new Handle<>(this, requests.size() - 1, request.getResponseType());
+    }
+
+    public int size() {
+        return requests.size();
+    }
+
+    public Responses send() throws IOException {
+        List<Response<?>> responses = new ArrayList<>(requests.size());
+        for (BatchRequest batch : split()) {
+            responses.addAll(checked(batch, batch.send()));
+        }
+        return new Responses(this, responses);
+    }
+
+    public CompletableFuture<Responses> sendAsync() {
+        List<BatchRequest> batches = split();
+        List<CompletableFuture<BatchResponse>> futures = new ArrayList<>(batches.size());
+        batches.forEach(batch -> futures.add(batch.sendAsync()));
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(
+                        ignored -> {
+                            List<Response<?>> responses = new ArrayList<>(requests.size());
+                            for (int i = 0; i < batches.size(); i++) {
+                                try {
+                                    responses.addAll(
+                                            checked(batches.get(i), futures.get(i).join()));
+                                } catch (IOException e) {
+                                    throw new IllegalStateException(e.getMessage(), e);
+                                }
+                            }
+                            return new Responses(this, responses);
+                        });
+    }
+
+    private List<BatchRequest> split() {
+        List<BatchRequest> batches = new ArrayList<>();
+        for (int from = 0; from < requests.size(); from += maxBatchSize) {
+            BatchRequest batch = batchFactory.get();
+            requests.subList(from, Math.min(from + maxBatchSize, requests.size()))
+                    .forEach(batch::add);
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private static List<? extends Response<?>> checked(BatchRequest batch, BatchResponse response)
+            throws IOException {
+        List<? extends Response<?>> responses = response.getResponses();
+        if (responses == null || responses.size() != batch.getRequests().size()) {
+            throw new IOException(
+                    "Expected "
+                            + batch.getRequests().size()
+                            + " responses to batch but received "
+                            + (responses == null ? 0 : responses.size()));
+        }
+        return responses;
+    }
+
+    /** Identifies a request within a batch and the type of its response. */
+    public static final class Handle<T extends Response<?>> {
+        private final QuorumBatch batch;
+        private final int index;
+        private final Class<T> responseType;
+
+        private Handle(QuorumBatch batch, int index, Class<T> responseType) {
+            this.batch = batch;
+            this.index = index;
+            this.responseType = responseType;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+    }
+
+    /** The responses to a sent batch, in the order their requests were added. */
+    public static final class Responses {
+        private final QuorumBatch batch;
+        private final List<Response<?>> responses;
+
+        private Responses(QuorumBatch batch, List<Response<?>> responses) {
+            this.batch = batch;
+            this.responses = Collections.unmodifiableList(responses);
+        }
+
+        public <T extends Response<?>> T get(Handle<T> handle) {
+            if (handle.batch != batch) {
+                throw new IllegalArgumentException("Handle belongs to a different batch");
+            }
+            return handle.responseType.cast(responses.get(handle.index));
+        }
+
+        public List<Response<?>> getResponses() {
+            return responses;
+        }
+
+        /** Returns true if any of the responses is a JSON-RPC error. */
+        public boolean hasError() {
+            for (Response<?> response : responses) {
+                if (response.hasError()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.cache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.web3j.quorum.PrivacyFlag;
+import org.web3j.quorum.Quorum;
+import org.web3j.quorum.QuorumBatch;
+import org.web3j.quorum.methods.response.ContractPrivacyMetadataInfo;
+import org.web3j.quorum.methods.response.ContractPrivacyMetadataInfo.ContractPrivacyMetadata;
+
+/**
+ * Concurrent cache of {@link ContractPrivacyMetadata} keyed by contract address.
+ *
+ * <p>The metadata of a private contract never changes, so it is kept until invalidated. A null
+ * result, returned for public contracts and for addresses without a contract, is cached for the
+ * negative time to live only, as a private contract may later be deployed at an unused address.
+ */
+public class ContractPrivacyMetadataCache {
+
+    public static final long DEFAULT_NEGATIVE_TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(5);
+
+    private final Quorum quorum;
+    private final long negativeTimeToLive;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    public ContractPrivacyMetadataCache(Quorum quorum) {
+        this(quorum, DEFAULT_NEGATIVE_TIME_TO_LIVE);
+    }
+
+    /**
+     * @param negativeTimeToLive milliseconds for which a null result is cached, or zero to not
+     *     cache null results
+     */
+    public ContractPrivacyMetadataCache(Quorum quorum, long negativeTimeToLive) {
+        if (negativeTimeToLive < 0) {
+            throw new IllegalArgumentException("Negative time to live must not be negative");
+        }
+        this.quorum = quorum;
+        this.negativeTimeToLive = negativeTimeToLive;
+    }
+
+    /** Returns the privacy metadata of the given contract, or null if it is not private. */
+    public ContractPrivacyMetadata get(String contractAddress) throws IOException {
+        String key = contractAddress.toLowerCase();
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.isExpired()) {
+            (entry.metadata == null ? negativeHits : hits).incrementAndGet();
+            return entry.metadata;
+        }
+        misses.incrementAndGet();
+        ContractPrivacyMetadataInfo response =
+                quorum.quorumGetContractPrivacyMetadata(contractAddress).send();
+        if (response.hasError()) {
+            throw new IOException(response.getError().getMessage());
+        }
+        loads.incrementAndGet();
+        put(key, response.getContractPrivacyMetadata());
+        return response.getContractPrivacyMetadata();
+    }
+
+    /** Returns the privacy flag of the given contract, or null if it is not private. */
+    public PrivacyFlag getPrivacyFlag(String contractAddress) throws IOException {
+        ContractPrivacyMetadata metadata = get(contractAddress);
+        return metadata == null ? null : metadata.getPrivacyFlag();
+    }
+
+    /**
+     * Fetches the metadata of all given contracts which are not cached, using as few JSON-RPC
+     * batches as possible.
+     *
+     * @return the number of contracts fetched
+     */
+    public int prefetch(Collection<String> contractAddresses) throws IOException {
+        QuorumBatch batch = quorum.newQuorumBatch();
+        Prefetch prefetch = prepare(batch, contractAddresses);
+        if (batch.size() > 0) {
+            prefetch.complete(batch.send());
+        }
+        return batch.size();
+    }
+
+    public void invalidate(String contractAddress) {
+        entries.remove(contractAddress.toLowerCase());
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /** The number of lookups answered with cached metadata of a private contract. */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /** The number of lookups answered with a cached null result. */
+    public long getNegativeHitCount() {
+        return negativeHits.get();
+    }
+
+    /** The number of lookups which had to fetch the metadata from the node. */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /** The number of contracts fetched from the node, by lookups and prefetches. */
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    /** The fraction of lookups answered from the cache, or zero if there were none. */
+    public double getHitRate() {
+        long cached = hits.get() + negativeHits.get();
+        long total = cached + misses.get();
+        return total == 0 ? 0 : (double) cached / total;
+    }
+
+    /** Adds requests for the uncached contracts to the given batch. */
+    Prefetch prepare(QuorumBatch batch, Collection<String> contractAddresses) {
+        Prefetch prefetch = new Prefetch();
+        for (String contractAddress : contractAddresses) {
+            String key = contractAddress.toLowerCase();
+            Entry entry = entries.get(key);
+            if ((entry == null || entry.isExpired()) && prefetch.requested.add(key)) {
+                prefetch.keys.add(key);
+                prefetch.handles.add(
+                        batch.add(quorum.quorumGetContractPrivacyMetadata(contractAddress)));
+            }
+        }
+        return prefetch;
+    }
+
+    private void put(String key, ContractPrivacyMetadata metadata) {
+        if (metadata != null) {
+            entries.put(key, new Entry(metadata, Long.MAX_VALUE));
+        } else if (negativeTimeToLive > 0) {
+            entries.put(key, new Entry(null, System.currentTimeMillis() + negativeTimeToLive));
+        } else {
+            entries.remove(key);
+        }
+    }
+
+    /** Requests added to a batch by {@link #prepare(QuorumBatch, Collection)}. */
+    final class Prefetch {
+        private final Set<String> requested = new HashSet<>();
+        private final List<String> keys = new ArrayList<>();
+        private final List<QuorumBatch.Handle<ContractPrivacyMetadataInfo>> handles =
+                new ArrayList<>();
+
+        void complete(QuorumBatch.Responses responses) throws IOException {
+            for (int i = 0; i < keys.size(); i++) {
+                ContractPrivacyMetadataInfo response = responses.get(handles.get(i));
+                if (response.hasError()) {
+                    throw new IOException(
+                            "Error fetching privacy metadata of contract "
+                                    + keys.get(i)
+                                    + ": "
+                                    + response.getError().getMessage());
+                }
+                loads.incrementAndGet();
+                put(keys.get(i), response.getContractPrivacyMetadata());
+            }
+        }
+    }
+
+    private static class Entry {
+        private final ContractPrivacyMetadata metadata;
+        private final long expiresAt;
+
+        private Entry(ContractPrivacyMetadata metadata, long expiresAt) {
+            this.metadata = metadata;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return expiresAt != Long.MAX_VALUE && System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
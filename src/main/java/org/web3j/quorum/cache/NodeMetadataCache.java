@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.cache;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.quorum.Quorum;
+import org.web3j.quorum.QuorumBatch;
+import org.web3j.quorum.methods.response.ContractPrivacyMetadataInfo.ContractPrivacyMetadata;
+import org.web3j.quorum.methods.response.EthAddress;
+import org.web3j.quorum.methods.response.QuorumTransactionReceipt;
+import org.web3j.quorum.methods.response.istanbul.IstanbulNodeAddress;
+
+import static org.web3j.quorum.util.Results.checked;
+
+/**
+ * Memoises values which do not change for the lifetime of a node: its privacy precompile address,
+ * its Istanbul node address, and the privacy metadata of its private contracts.
+ *
+ * <p>One instance should be used per endpoint. Values are fetched on first use, or up front with
+ * {@link #preload(boolean, boolean, List)}, and kept until {@link #invalidate()} is called, which
+ * should be done whenever the client reconnects, as the endpoint may now be served by a different
+ * node. {@link org.web3j.quorum.tx.ClientTransactionManager} does this itself when a request to the
+ * node fails.
+ */
+public class NodeMetadataCache {
+
+    private final Quorum quorum;
+
+    private volatile String privacyPrecompileAddress;
+    private volatile String istanbulNodeAddress;
+    private volatile boolean privacyPrecompileUnsupported;
+    private final ContractPrivacyMetadataCache contractPrivacyMetadata;
+
+    public NodeMetadataCache(Quorum quorum) {
+        this(quorum, new ContractPrivacyMetadataCache(quorum));
+    }
+
+    public NodeMetadataCache(Quorum quorum, ContractPrivacyMetadataCache contractPrivacyMetadata) {
+        this.quorum = quorum;
+        this.contractPrivacyMetadata = contractPrivacyMetadata;
+    }
+
+    public String getPrivacyPrecompileAddress() throws IOException {
+        String address = privacyPrecompileAddress;
+        if (address == null) {
+            address = checked(quorum.ethGetPrivacyPrecompileAddress().send()).getAddress();
+            privacyPrecompileAddress = address;
+        }
+        return address;
+    }
+
+    public String getIstanbulNodeAddress() throws IOException {
+        String address = istanbulNodeAddress;
+        if (address == null) {
+            address = checked(quorum.istanbulNodeAddress().send()).getNodeAddress();
+            istanbulNodeAddress = address;
+        }
+        return address;
+    }
+
+    /**
+     * Returns true if the receipt is of a privacy marker transaction. Nodes flag such receipts, but
+     * a receipt without the flag is also recognised by being sent to the node's privacy precompile.
+     * Nodes without privacy marker support are asked for the precompile address only once.
+     */
+    public boolean isPrivacyMarkerTransaction(TransactionReceipt receipt) throws IOException {
+        if (receipt instanceof QuorumTransactionReceipt) {
+            Boolean flag = ((QuorumTransactionReceipt) receipt).getIsPrivacyMarkerTransaction();
+            if (flag != null) {
+                return flag;
+            }
+        }
+        if (receipt.getTo() == null || privacyPrecompileUnsupported) {
+            return false;
+        }
+        String address = privacyPrecompileAddress;
+        if (address == null) {
+            EthAddress response = quorum.ethGetPrivacyPrecompileAddress().send();
+            if (response.hasError()) {
+                privacyPrecompileUnsupported = true;
+                return false;
+            }
+            address = response.getAddress();
+            privacyPrecompileAddress = address;
+        }
+        return receipt.getTo().equalsIgnoreCase(address);
+    }
+
+    /** Returns the privacy metadata of the given contract, or null if it is not private. */
+    public ContractPrivacyMetadata getContractPrivacyMetadata(String contractAddress)
+            throws IOException {
+        return contractPrivacyMetadata.get(contractAddress);
+    }
+
+    public ContractPrivacyMetadataCache getContractPrivacyMetadataCache() {
+        return contractPrivacyMetadata;
+    }
+
+    /**
+     * Fetches the node values and the privacy metadata of the given contracts in a single batch.
+     * Values already held are not fetched again.
+     *
+     * @param privacyPrecompile whether to fetch the privacy precompile address, which is only
+     *     available on nodes with privacy marker transactions enabled
+     * @param istanbul whether to fetch the Istanbul node address, which is only available on
+     *     Istanbul nodes
+     */
+    public void preload(boolean privacyPrecompile, boolean istanbul, List<String> contracts)
+            throws IOException {
+        QuorumBatch batch = quorum.newQuorumBatch();
+        QuorumBatch.Handle<EthAddress> precompileHandle =
+                privacyPrecompile && privacyPrecompileAddress == null
+                        ? batch.add(quorum.ethGetPrivacyPrecompileAddress())
+                        : null;
+        QuorumBatch.Handle<IstanbulNodeAddress> nodeAddressHandle =
+                istanbul && istanbulNodeAddress == null
+                        ? batch.add(quorum.istanbulNodeAddress())
+                        : null;
+        ContractPrivacyMetadataCache.Prefetch prefetch =
+                contractPrivacyMetadata.prepare(batch, contracts);
+        if (batch.size() == 0) {
+            return;
+        }
+
+        QuorumBatch.Responses responses = batch.send();
+        if (precompileHandle != null) {
+            privacyPrecompileAddress = checked(responses.get(precompileHandle)).getAddress();
+        }
+        if (nodeAddressHandle != null) {
+            istanbulNodeAddress = checked(responses.get(nodeAddressHandle)).getNodeAddress();
+        }
+        prefetch.complete(responses);
+    }
+
+    /** Discards all memoised values. */
+    public void invalidate() {
+        privacyPrecompileAddress = null;
+        privacyPrecompileUnsupported = false;
+        istanbulNodeAddress = null;
+        contractPrivacyMetadata.invalidateAll();
+    }
+}
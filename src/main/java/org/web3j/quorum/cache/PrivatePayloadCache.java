@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.web3j.utils.Numeric;
+
+/**
+ * Size bounded cache of private payloads keyed by payload hash, the enclave's hash of the encrypted
+ * payload which a private transaction carries as its {@code input}.
+ *
+ * <p>Payloads are kept in memory in least recently used order, up to {@code maxMemoryBytes}
+ * (estimated as two bytes per character of the hex encoded payload). If a spill file is configured,
+ * payloads evicted from memory are appended to it in binary form and served from there, until the
+ * file is full. The spill file is a scratch area: it is truncated when the cache is created and its
+ * contents are not retained between runs.
+ */
+public class PrivatePayloadCache implements Closeable {
+
+    private final long maxMemoryBytes;
+    private final LinkedHashMap<String, String> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+
+    private final FileChannel spillChannel;
+    private final MappedByteBuffer spill;
+    private final Map<String, Long> spillIndex = new HashMap<>();
+
+    private long hits;
+    private long misses;
+
+    /** Creates a cache held in memory only. */
+    public PrivatePayloadCache(long maxMemoryBytes) {
+        if (maxMemoryBytes < 0) {
+            throw new IllegalArgumentException("Memory bound must not be negative");
+        }
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.spillChannel = null;
+        this.spill = null;
+    }
+
+    /**
+     * Creates a cache which spills payloads evicted from memory to a memory-mapped file.
+     *
+     * @param spillFile the file to map, which is created or truncated
+     * @param spillBytes the size of the spill file, at most {@link Integer#MAX_VALUE}
+     */
+    public PrivatePayloadCache(long maxMemoryBytes, Path spillFile, int spillBytes)
+            throws IOException {
+        if (maxMemoryBytes < 0 || spillBytes < 0) {
+            throw new IllegalArgumentException("Memory and spill bounds must not be negative");
+        }
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.spillChannel =
+                FileChannel.open(
+                        spillFile,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+        this.spill = spillChannel.map(FileChannel.MapMode.READ_WRITE, 0, spillBytes);
+    }
+
+    /** Returns the payload with the given payload hash, or null if it is not cached. */
+    public synchronized String get(String payloadHash) {
+        String key = payloadHash.toLowerCase();
+        String payload = memory.get(key);
+        if (payload == null) {
+            payload = readSpilled(key);
+        }
+        if (payload == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return payload;
+    }
+
+    public synchronized boolean contains(String payloadHash) {
+        String key = payloadHash.toLowerCase();
+        return memory.containsKey(key) || spillIndex.containsKey(key);
+    }
+
+    public synchronized void put(String payloadHash, String payload) {
+        String key = payloadHash.toLowerCase();
+        if (spillIndex.containsKey(key)) {
+            return;
+        }
+        String previous = memory.put(key, payload);
+        if (previous != null) {
+            memoryBytes -= weight(previous);
+        }
+        memoryBytes += weight(payload);
+        evict();
+    }
+
+    /** The number of payloads held, in memory and in the spill file. */
+    public synchronized int size() {
+        return memory.size() + spillIndex.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        memory.clear();
+        spillIndex.clear();
+        memoryBytes = 0;
+        if (spillChannel != null) {
+            spillChannel.close();
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, String>> eldest = memory.entrySet().iterator();
+        while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+            Map.Entry<String, String> entry = eldest.next();
+            eldest.remove();
+            memoryBytes -= weight(entry.getValue());
+            writeSpilled(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void writeSpilled(String key, String payload) {
+        if (spill == null) {
+            return;
+        }
+        byte[] bytes = Numeric.hexStringToByteArray(payload);
+        int offset = spill.position();
+        if (bytes.length > spill.remaining()) {
+            return;
+        }
+        spill.put(bytes);
+        spillIndex.put(key, ((long) offset << 32) | bytes.length);
+    }
+
+    private String readSpilled(String key) {
+        Long location = spillIndex.get(key);
+        if (location == null) {
+            return null;
+        }
+        int offset = (int) (location >>> 32);
+        byte[] bytes = new byte[(int) (location & 0xFFFFFFFFL)];
+        ByteBuffer view = spill.duplicate();
+        view.position(offset);
+        view.get(bytes);
+        return Numeric.toHexString(bytes);
+    }
+
+    private static long weight(String payload) {
+        return 2L * payload.length();
+    }
+}
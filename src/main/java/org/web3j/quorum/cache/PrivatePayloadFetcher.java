@@ -0,0 +1,206 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.web3j.quorum.Quorum;
+import org.web3j.quorum.QuorumBatch;
+import org.web3j.quorum.methods.response.PrivatePayload;
+
+import static org.web3j.quorum.util.Results.await;
+
+/**
+ * Fetches many private payloads at once.
+ *
+ * <p>Payloads are identified by their payload hash, the enclave's hash of the encrypted payload,
+ * which is the {@code input} of the private transaction rather than its transaction hash. Hashes
+ * are deduplicated and looked up in a {@link PrivatePayloadCache} first. The remainder are
+ * requested with {@code eth_getQuorumPayload} in batches of {@code batchSize}, with up to {@code
+ * parallelism} batches in flight, and the results are added to the cache.
+ *
+ * <p>Batches run on the executor given to the constructor, or on a pool owned by the fetcher which
+ * is reused across calls and shut down by {@link #close()}.
+ */
+public class PrivatePayloadFetcher implements Closeable {
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private final Quorum quorum;
+    private final PrivatePayloadCache cache;
+    private final int batchSize;
+    private final int parallelism;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    public PrivatePayloadFetcher(Quorum quorum, PrivatePayloadCache cache) {
+        this(quorum, cache, DEFAULT_BATCH_SIZE, DEFAULT_PARALLELISM);
+    }
+
+    public PrivatePayloadFetcher(
+            Quorum quorum, PrivatePayloadCache cache, int batchSize, int parallelism) {
+        this(quorum, cache, batchSize, parallelism, null);
+    }
+
+    /**
+     * @param executor runs up to {@code parallelism} workers at a time, and is not shut down by the
+     *     fetcher; if null, the fetcher creates its own pool. It should not be a bounded pool whose
+     *     threads call {@link #fetch(Collection)}, as they would wait on each other
+     */
+    public PrivatePayloadFetcher(
+            Quorum quorum,
+            PrivatePayloadCache cache,
+            int batchSize,
+            int parallelism,
+            ExecutorService executor) {
+        if (batchSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Batch size and parallelism must be positive");
+        }
+        this.quorum = quorum;
+        this.cache = cache;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.ownsExecutor = executor == null;
+        this.executor =
+                ownsExecutor ? Executors.newFixedThreadPool(parallelism, threads()) : executor;
+    }
+
+    public PrivatePayloadCache getCache() {
+        return cache;
+    }
+
+    /** Returns the payload with the given payload hash, fetching it if it is not cached. */
+    public String fetch(String payloadHash) throws IOException, InterruptedException {
+        return fetch(Collections.singletonList(payloadHash)).get(payloadHash.toLowerCase());
+    }
+
+    /**
+     * Returns the payloads with the given payload hashes, keyed by lower case payload hash. The
+     * payload of a transaction this node is not party to is {@code 0x}.
+     */
+    public Map<String, String> fetch(Collection<String> payloadHashes)
+            throws IOException, InterruptedException {
+        Set<String> unique = new LinkedHashSet<>();
+        payloadHashes.forEach(hash -> unique.add(hash.toLowerCase()));
+
+        Map<String, String> payloads = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String hash : unique) {
+            String payload = cache.get(hash);
+            if (payload != null) {
+                payloads.put(hash, payload);
+            } else {
+                missing.add(hash);
+            }
+        }
+        if (missing.isEmpty()) {
+            return payloads;
+        }
+
+        List<List<String>> batches = new ArrayList<>();
+        for (int from = 0; from < missing.size(); from += batchSize) {
+            batches.add(missing.subList(from, Math.min(from + batchSize, missing.size())));
+        }
+        if (batches.size() == 1) {
+            payloads.putAll(fetchBatch(batches.get(0)));
+            return payloads;
+        }
+
+        // Each worker takes batches from the queue until it is empty
+        Queue<List<String>> pending = new ConcurrentLinkedQueue<>(batches);
+        int workers = Math.min(parallelism, batches.size());
+        List<Future<Map<String, String>>> futures = new ArrayList<>(workers);
+        try {
+            for (int i = 0; i < workers; i++) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    Map<String, String> fetched = new HashMap<>();
+                                    List<String> batch;
+                                    while ((batch = pending.poll()) != null) {
+                                        fetched.putAll(fetchBatch(batch));
+                                    }
+                                    return fetched;
+                                }));
+            }
+            for (Future<Map<String, String>> future : futures) {
+                payloads.putAll(await(future));
+            }
+            return payloads;
+        } finally {
+            // Stop the other workers after a failure
+            pending.clear();
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /** Shuts down the pool of the fetcher, unless it was given an executor. */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<String, String> fetchBatch(List<String> hashes) throws IOException {
+        QuorumBatch batch = quorum.newQuorumBatch(hashes.size());
+        List<QuorumBatch.Handle<PrivatePayload>> handles = new ArrayList<>(hashes.size());
+        hashes.forEach(hash -> handles.add(batch.add(quorum.quorumGetPrivatePayload(hash))));
+        QuorumBatch.Responses responses = batch.send();
+
+        Map<String, String> payloads = new HashMap<>();
+        for (int i = 0; i < hashes.size(); i++) {
+            PrivatePayload response = responses.get(handles.get(i));
+            if (response.hasError()) {
+                throw new IOException(
+                        "Error fetching private payload "
+                                + hashes.get(i)
+                                + ": "
+                                + response.getError().getMessage());
+            }
+            String payload = response.getPrivatePayload();
+            if (payload != null) {
+                cache.put(hashes.get(i), payload);
+            }
+            payloads.put(hashes.get(i), payload);
+        }
+        return payloads;
+    }
+
+    private static ThreadFactory threads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread =
+                    new Thread(runnable, "private-payload-fetcher-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.istanbul;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Response;
+import org.web3j.quorum.Quorum;
+import org.web3j.quorum.methods.response.istanbul.BlockSigners;
+import org.web3j.quorum.methods.response.istanbul.IstanbulBlockSigners;
+import org.web3j.utils.Numeric;
+
+import static org.web3j.quorum.util.Results.await;
+
+/**
+ * Indexes the proposer and committers of a range of Istanbul blocks into a {@link
+ * BlockSignerStore}.
+ *
+ * <p>The range is split into segments which are fetched concurrently by a bounded number of
+ * workers, each issuing {@code istanbul_getSignersFromBlock} calls as JSON-RPC batches. Segments
+ * already present in the store are skipped, so an interrupted run can be resumed by indexing the
+ * same range again.
+ *
+ * <p>The workers run on the executor given to the constructor, or on a pool owned by the indexer
+ * which is reused across calls and shut down by {@link #close()}.
+ */
+public class BlockSignerIndexer implements Closeable {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 10_000;
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private final Quorum quorum;
+    private final BlockSignerStore store;
+    private final int segmentSize;
+    private final int batchSize;
+    private final int parallelism;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    public BlockSignerIndexer(Quorum quorum, BlockSignerStore store) {
+        this(quorum, store, DEFAULT_SEGMENT_SIZE, DEFAULT_BATCH_SIZE, DEFAULT_PARALLELISM);
+    }
+
+    public BlockSignerIndexer(
+            Quorum quorum,
+            BlockSignerStore store,
+            int segmentSize,
+            int batchSize,
+            int parallelism) {
+        this(quorum, store, segmentSize, batchSize, parallelism, null);
+    }
+
+    /**
+     * @param executor runs up to {@code parallelism} workers at a time, and is not shut down by the
+     *     indexer; if null, the indexer creates its own pool
+     */
+    public BlockSignerIndexer(
+            Quorum quorum,
+            BlockSignerStore store,
+            int segmentSize,
+            int batchSize,
+            int parallelism,
+            ExecutorService executor) {
+        if (segmentSize < 1 || batchSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "Segment size, batch size and parallelism must be positive");
+        }
+        this.quorum = quorum;
+        this.store = store;
+        this.segmentSize = segmentSize;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.ownsExecutor = executor == null;
+        this.executor =
+                ownsExecutor ? Executors.newFixedThreadPool(parallelism, threads()) : executor;
+    }
+
+    /**
+     * Indexes all blocks in the given inclusive range which are not yet in the store.
+     *
+     * @return the number of blocks fetched
+     */
+    public long index(long fromBlock, long toBlock) throws IOException, InterruptedException {
+        List<long[]> segments = new ArrayList<>();
+        for (long[] range : store.missingRanges(fromBlock, toBlock)) {
+            for (long first = range[0]; first <= range[1]; first += segmentSize) {
+                segments.add(new long[] {first, Math.min(range[1], first + segmentSize - 1)});
+            }
+        }
+        if (segments.isEmpty()) {
+            return 0;
+        }
+
+        // Each worker takes segments from the queue until it is empty
+        Queue<long[]> pending = new ConcurrentLinkedQueue<>(segments);
+        int workers = Math.min(parallelism, segments.size());
+        List<Future<Long>> futures = new ArrayList<>(workers);
+        try {
+            for (int i = 0; i < workers; i++) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    long indexed = 0;
+                                    long[] segment;
+                                    while ((segment = pending.poll()) != null) {
+                                        indexed += indexSegment(segment[0], segment[1]);
+                                    }
+                                    return indexed;
+                                }));
+            }
+            long indexed = 0;
+            for (Future<Long> future : futures) {
+                indexed += await(future);
+            }
+            return indexed;
+        } finally {
+            // Stop the other workers after a failure
+            pending.clear();
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Indexes from the last contiguously indexed block after {@code fromBlock} up to {@code
+     * toBlock}.
+     */
+    public long resume(long fromBlock, long toBlock) throws IOException, InterruptedException {
+        return index(store.lastIndexedBlock(fromBlock) + 1, toBlock);
+    }
+
+    /** Shuts down the pool of the indexer, unless it was given an executor. */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private int indexSegment(long first, long last) throws IOException {
+        List<BlockSigners> blocks = new ArrayList<>((int) (last - first + 1));
+        for (long start = first; start <= last; start += batchSize) {
+            long end = Math.min(last, start + batchSize - 1);
+            BatchRequest batch = quorum.newBatch();
+            for (long block = start; block <= end; block++) {
+                batch.add(
+                        quorum.istanbulGetSignersFromBlock(
+                                Numeric.toHexStringWithPrefix(BigInteger.valueOf(block))));
+            }
+            BatchResponse response = batch.send();
+            long block = start;
+            for (Response<?> signers : response.getResponses()) {
+                blocks.add(toBlockSigners(block++, (IstanbulBlockSigners) signers));
+            }
+        }
+        store.write(blocks);
+        return blocks.size();
+    }
+
+    private static BlockSigners toBlockSigners(long block, IstanbulBlockSigners response)
+            throws IOException {
+        if (response.hasError()) {
+            throw new IOException(
+                    "Error fetching signers of block "
+                            + block
+                            + ": "
+                            + response.getError().getMessage());
+        }
+        return response.getBlockSigners()
+                .orElseThrow(() -> new IOException("No signers returned for block " + block));
+    }
+
+    private static ThreadFactory threads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "block-signer-indexer-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
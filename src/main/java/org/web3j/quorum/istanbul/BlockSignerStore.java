@@ -0,0 +1,297 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.istanbul;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.web3j.quorum.methods.response.istanbul.BlockSigners;
+import org.web3j.utils.Numeric;
+
+/**
+ * Compact columnar on-disk store of Istanbul block signers.
+ *
+ * <p>Blocks are written in immutable segments covering a contiguous block range. Within a segment
+ * the proposer, committer count, committer and block hash values are laid out column by column,
+ * with validator addresses replaced by their id in a shared {@link ValidatorDictionary} which is
+ * persisted alongside the segments. Segments are written to a temporary file and atomically moved
+ * into place, so an interrupted indexing run never leaves a partial segment behind.
+ */
+public class BlockSignerStore {
+
+    static final String DICTIONARY_FILE = "validators.dict";
+
+    private static final int MAGIC = 0x51494253; // "QIBS"
+    private static final short VERSION = 1;
+    private static final int HASH_LENGTH = 32;
+    private static final Pattern SEGMENT_NAME =
+            Pattern.compile("signers-(\\d{12})-(\\d{12})\\.seg");
+
+    private final Path directory;
+    private final ValidatorDictionary dictionary;
+    private int persistedValidators;
+
+    private BlockSignerStore(Path directory, ValidatorDictionary dictionary) {
+        this.directory = directory;
+        this.dictionary = dictionary;
+        this.persistedValidators = dictionary.size();
+    }
+
+    /** Opens the store in the given directory, creating it if required. */
+    public static BlockSignerStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path dictionaryFile = directory.resolve(DICTIONARY_FILE);
+        List<String> addresses =
+                Files.exists(dictionaryFile)
+                        ? Files.readAllLines(dictionaryFile, StandardCharsets.US_ASCII)
+                        : Collections.emptyList();
+        return new BlockSignerStore(directory, new ValidatorDictionary(addresses));
+    }
+
+    public ValidatorDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /** Writes the given blocks, which must be sorted and contiguous, as a single segment. */
+    public void write(List<BlockSigners> blocks) throws IOException {
+        if (blocks.isEmpty()) {
+            return;
+        }
+        long first = blocks.get(0).getNumber();
+        long last = blocks.get(blocks.size() - 1).getNumber();
+        if (last - first + 1 != blocks.size()) {
+            throw new IllegalArgumentException(
+                    "Blocks " + first + " to " + last + " are not contiguous");
+        }
+
+        int[] authors = new int[blocks.size()];
+        int[] committerCounts = new int[blocks.size()];
+        List<int[]> committers = new ArrayList<>(blocks.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            BlockSigners block = blocks.get(i);
+            authors[i] = dictionary.idOf(block.getAuthor());
+            int[] ids = new int[block.getCommitters().size()];
+            for (int j = 0; j < ids.length; j++) {
+                ids[j] = dictionary.idOf(block.getCommitters().get(j));
+            }
+            committerCounts[i] = ids.length;
+            committers.add(ids);
+        }
+
+        // ids referenced by the segment must be durable before the segment itself
+        persistDictionary();
+
+        Path target = directory.resolve(segmentName(first, last));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(gzip(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(first);
+            out.writeInt(blocks.size());
+            for (int author : authors) {
+                writeId(out, author);
+            }
+            for (int count : committerCounts) {
+                writeId(out, count);
+            }
+            for (int[] ids : committers) {
+                for (int id : ids) {
+                    writeId(out, id);
+                }
+            }
+            for (BlockSigners block : blocks) {
+                byte[] hash = Numeric.hexStringToByteArray(block.getHash());
+                if (hash.length != HASH_LENGTH) {
+                    throw new IOException(
+                            "Invalid hash for block " + block.getNumber() + ": " + block.getHash());
+                }
+                out.write(hash);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Reads the signers of all stored blocks within the given inclusive range, in block order. */
+    public List<BlockSigners> read(long fromBlock, long toBlock) throws IOException {
+        List<BlockSigners> result = new ArrayList<>();
+        for (long[] segment : segments()) {
+            if (segment[1] < fromBlock || segment[0] > toBlock) {
+                continue;
+            }
+            for (BlockSigners block : readSegment(segment[0], segment[1])) {
+                if (block.getNumber() >= fromBlock && block.getNumber() <= toBlock) {
+                    result.add(block);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the highest block such that every block from {@code fromBlock} up to it has been
+     * indexed, or {@code fromBlock - 1} if {@code fromBlock} itself is missing.
+     */
+    public long lastIndexedBlock(long fromBlock) throws IOException {
+        long last = fromBlock - 1;
+        for (long[] segment : segments()) {
+            if (segment[0] > last + 1) {
+                break;
+            }
+            last = Math.max(last, segment[1]);
+        }
+        return last;
+    }
+
+    /** Returns the inclusive sub-ranges of the given range that have not been indexed yet. */
+    public List<long[]> missingRanges(long fromBlock, long toBlock) throws IOException {
+        List<long[]> missing = new ArrayList<>();
+        long next = fromBlock;
+        for (long[] segment : segments()) {
+            if (segment[1] < next) {
+                continue;
+            }
+            if (segment[0] > toBlock) {
+                break;
+            }
+            if (segment[0] > next) {
+                missing.add(new long[] {next, segment[0] - 1});
+            }
+            next = segment[1] + 1;
+        }
+        if (next <= toBlock) {
+            missing.add(new long[] {next, toBlock});
+        }
+        return missing;
+    }
+
+    /** Returns the inclusive block ranges of all stored segments, sorted by first block. */
+    List<long[]> segments() throws IOException {
+        List<long[]> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "signers-*.seg")) {
+            for (Path path : stream) {
+                Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.add(
+                            new long[] {
+                                Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2))
+                            });
+                }
+            }
+        }
+        segments.sort((a, b) -> Long.compare(a[0], b[0]));
+        return segments;
+    }
+
+    private List<BlockSigners> readSegment(long first, long last) throws IOException {
+        Path path = directory.resolve(segmentName(first, last));
+        try (DataInputStream in = new DataInputStream(gunzip(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                throw new IOException("Unsupported segment format: " + path);
+            }
+            long firstBlock = in.readLong();
+            int count = in.readInt();
+
+            int[] authors = new int[count];
+            for (int i = 0; i < count; i++) {
+                authors[i] = readId(in);
+            }
+            int[] committerCounts = new int[count];
+            for (int i = 0; i < count; i++) {
+                committerCounts[i] = readId(in);
+            }
+            List<List<String>> committers = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String[] addresses = new String[committerCounts[i]];
+                for (int j = 0; j < addresses.length; j++) {
+                    addresses[j] = dictionary.addressOf(readId(in));
+                }
+                committers.add(Arrays.asList(addresses));
+            }
+
+            List<BlockSigners> blocks = new ArrayList<>(count);
+            byte[] hash = new byte[HASH_LENGTH];
+            for (int i = 0; i < count; i++) {
+                in.readFully(hash);
+                blocks.add(
+                        new BlockSigners(
+                                Math.toIntExact(firstBlock + i),
+                                Numeric.toHexString(hash),
+                                dictionary.addressOf(authors[i]),
+                                committers.get(i)));
+            }
+            return blocks;
+        }
+    }
+
+    private synchronized void persistDictionary() throws IOException {
+        List<String> addresses = dictionary.getAddresses();
+        if (addresses.size() == persistedValidators) {
+            return;
+        }
+        try (BufferedWriter writer =
+                Files.newBufferedWriter(
+                        directory.resolve(DICTIONARY_FILE),
+                        StandardCharsets.US_ASCII,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND)) {
+            for (String address : addresses.subList(persistedValidators, addresses.size())) {
+                writer.write(address);
+                writer.newLine();
+            }
+        }
+        persistedValidators = addresses.size();
+    }
+
+    private static void writeId(DataOutputStream out, int id) throws IOException {
+        if (id > 0xFFFF) {
+            throw new IOException("Validator dictionary exceeds " + 0xFFFF + " entries");
+        }
+        out.writeShort(id);
+    }
+
+    private static int readId(DataInputStream in) throws IOException {
+        return in.readUnsignedShort();
+    }
+
+    private static String segmentName(long first, long last) {
+        return String.format("signers-%012d-%012d.seg", first, last);
+    }
+
+    private static OutputStream gzip(OutputStream out) throws IOException {
+        return new GZIPOutputStream(new BufferedOutputStream(out));
+    }
+
+    private static InputStream gunzip(InputStream in) throws IOException {
+        return new BufferedInputStream(new GZIPInputStream(in));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.istanbul;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+
+import org.web3j.quorum.methods.response.istanbul.BlockSigners;
+import org.web3j.utils.Numeric;
+
+/**
+ * Memory efficient form of {@link BlockSigners}.
+ *
+ * <p>The proposer is held as its id in a shared {@link ValidatorDictionary}, the committers as a
+ * bitset over the same ids and the block hash as raw bytes. Committers are returned in dictionary
+ * id order when converting back to {@link BlockSigners}.
+ */
+public final class CompactBlockSigners {
+
+    private final int number;
+    private final byte[] hash;
+    private final int author;
+    private final BitSet committers;
+
+    /** Creates block signers holding copies of the given hash and committers. */
+    public CompactBlockSigners(int number, byte[] hash, int author, BitSet committers) {
+        this.number = number;
+        this.hash = hash.clone();
+        this.author = author;
+        this.committers = (BitSet) committers.clone();
+    }
+
+    public static CompactBlockSigners of(BlockSigners signers, ValidatorDictionary dictionary) {
+        BitSet committers = new BitSet(dictionary.size());
+        for (String committer : signers.getCommitters()) {
+            committers.set(dictionary.idOf(committer));
+        }
+        return new CompactBlockSigners(
+                signers.getNumber(),
+                Numeric.hexStringToByteArray(signers.getHash()),
+                dictionary.idOf(signers.getAuthor()),
+                committers);
+    }
+
+    public BlockSigners toBlockSigners(ValidatorDictionary dictionary) {
+        List<String> committerAddresses = new ArrayList<>(committers.cardinality());
+        for (int id = committers.nextSetBit(0); id >= 0; id = committers.nextSetBit(id + 1)) {
+            committerAddresses.add(dictionary.addressOf(id));
+        }
+        return new BlockSigners(
+                number,
+                Numeric.toHexString(hash),
+                dictionary.addressOf(author),
+                committerAddresses);
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public String getHash() {
+        return Numeric.toHexString(hash);
+    }
+
+    public int getAuthor() {
+        return author;
+    }
+
+    public BitSet getCommitters() {
+        return (BitSet) committers.clone();
+    }
+
+    public boolean isCommitter(int validator) {
+        return committers.get(validator);
+    }
+
+    public int getCommitterCount() {
+        return committers.cardinality();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CompactBlockSigners that = (CompactBlockSigners) o;
+        return number == that.number
+                && author == that.author
+                && Arrays.equals(hash, that.hash)
+                && committers.equals(that.committers);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(number, author, committers);
+        result = 31 * result + Arrays.hashCode(hash);
+        return result;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.istanbul;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+
+import org.web3j.quorum.methods.response.istanbul.Snapshot;
+import org.web3j.quorum.methods.response.istanbul.Tally;
+import org.web3j.quorum.methods.response.istanbul.Vote;
+import org.web3j.utils.Numeric;
+
+/**
+ * Memory efficient form of an Istanbul {@link Snapshot}.
+ *
+ * <p>Validators are held as a bitset over the ids of a shared {@link ValidatorDictionary}, and the
+ * validator and candidate of each pending vote as dictionary ids. Validators are returned in
+ * dictionary id order when converting back to {@link Snapshot}.
+ */
+public final class CompactSnapshot {
+
+    private final String epoch;
+    private final byte[] hash;
+    private final String number;
+    private final String policy;
+    private final Tally tally;
+    private final BitSet validators;
+    private final int[] voteValidators;
+    private final int[] voteBlocks;
+    private final int[] voteAddresses;
+    private final BitSet voteAuthorizations;
+
+    private CompactSnapshot(
+            String epoch,
+            byte[] hash,
+            String number,
+            String policy,
+            Tally tally,
+            BitSet validators,
+            int[] voteValidators,
+            int[] voteBlocks,
+            int[] voteAddresses,
+            BitSet voteAuthorizations) {
+        this.epoch = epoch;
+        this.hash = hash;
+        this.number = number;
+        this.policy = policy;
+        this.tally = tally;
+        this.validators = validators;
+        this.voteValidators = voteValidators;
+        this.voteBlocks = voteBlocks;
+        this.voteAddresses = voteAddresses;
+        this.voteAuthorizations = voteAuthorizations;
+    }
+
+    public static CompactSnapshot of(Snapshot snapshot, ValidatorDictionary dictionary) {
+        BitSet validators = new BitSet(dictionary.size());
+        for (String validator : snapshot.getValidators()) {
+            validators.set(dictionary.idOf(validator));
+        }
+
+        List<Vote> votes = snapshot.getVotes();
+        int[] voteValidators = new int[votes.size()];
+        int[] voteBlocks = new int[votes.size()];
+        int[] voteAddresses = new int[votes.size()];
+        BitSet voteAuthorizations = new BitSet(votes.size());
+        for (int i = 0; i < votes.size(); i++) {
+            Vote vote = votes.get(i);
+            voteValidators[i] = dictionary.idOf(vote.getValidator());
+            voteBlocks[i] = vote.getBlock();
+            voteAddresses[i] = dictionary.idOf(vote.getAddress());
+            voteAuthorizations.set(i, vote.getAuthorize());
+        }
+
+        return new CompactSnapshot(
+                snapshot.getEpoch(),
+                Numeric.hexStringToByteArray(snapshot.getHash()),
+                snapshot.getNumber(),
+                snapshot.getPolicy(),
+                new Tally(snapshot.getTally().getAuthorize(), snapshot.getTally().getVotes()),
+                validators,
+                voteValidators,
+                voteBlocks,
+                voteAddresses,
+                voteAuthorizations);
+    }
+
+    public Snapshot toSnapshot(ValidatorDictionary dictionary) {
+        List<String> validatorAddresses = new ArrayList<>(validators.cardinality());
+        for (int id = validators.nextSetBit(0); id >= 0; id = validators.nextSetBit(id + 1)) {
+            validatorAddresses.add(dictionary.addressOf(id));
+        }
+
+        List<Vote> votes = new ArrayList<>(voteValidators.length);
+        for (int i = 0; i < voteValidators.length; i++) {
+            votes.add(
+                    new Vote(
+                            dictionary.addressOf(voteValidators[i]),
+                            voteBlocks[i],
+                            dictionary.addressOf(voteAddresses[i]),
+                            voteAuthorizations.get(i)));
+        }
+
+        return new Snapshot(
+                epoch,
+                Numeric.toHexString(hash),
+                number,
+                policy,
+                new Tally(tally.getAuthorize(), tally.getVotes()),
+                validatorAddresses,
+                votes);
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public String getHash() {
+        return Numeric.toHexString(hash);
+    }
+
+    public String getNumber() {
+        return number;
+    }
+
+    public String getPolicy() {
+        return policy;
+    }
+
+    public BitSet getValidators() {
+        return (BitSet) validators.clone();
+    }
+
+    public boolean isValidator(int validator) {
+        return validators.get(validator);
+    }
+
+    public int getValidatorCount() {
+        return validators.cardinality();
+    }
+
+    public int getVoteCount() {
+        return voteValidators.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CompactSnapshot that = (CompactSnapshot) o;
+        return Objects.equals(epoch, that.epoch)
+                && Arrays.equals(hash, that.hash)
+                && Objects.equals(number, that.number)
+                && Objects.equals(policy, that.policy)
+                && Objects.equals(tally, that.tally)
+                && validators.equals(that.validators)
+                && Arrays.equals(voteValidators, that.voteValidators)
+                && Arrays.equals(voteBlocks, that.voteBlocks)
+                && Arrays.equals(voteAddresses, that.voteAddresses)
+                && voteAuthorizations.equals(that.voteAuthorizations);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(epoch, number, policy, tally, validators, voteAuthorizations);
+        result = 31 * result + Arrays.hashCode(hash);
+        result = 31 * result + Arrays.hashCode(voteValidators);
+        result = 31 * result + Arrays.hashCode(voteBlocks);
+        result = 31 * result + Arrays.hashCode(voteAddresses);
+        return result;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.istanbul;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe dictionary assigning a small, stable integer id to each validator address.
+ *
+ * <p>Ids are allocated sequentially from zero in the order addresses are first seen and are never
+ * reused, so they can be persisted and used to dictionary-encode validator columns. Addresses are
+ * normalised to lower case.
+ */
+public class ValidatorDictionary {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final List<String> addresses = new ArrayList<>();
+
+    public ValidatorDictionary() {}
+
+    public ValidatorDictionary(List<String> addresses) {
+        addresses.forEach(this::idOf);
+    }
+
+    /** Returns the id of the given address, allocating a new one if it has not been seen. */
+    public int idOf(String address) {
+        String key = normalise(address);
+        Integer id = ids.get(key);
+        if (id != null) {
+            return id;
+        }
+        synchronized (addresses) {
+            return ids.computeIfAbsent(
+                    key,
+                    k -> {
+                        addresses.add(k);
+                        return addresses.size() - 1;
+                    });
+        }
+    }
+
+    /** Returns the id of the given address, or -1 if it is unknown. */
+    public int find(String address) {
+        return ids.getOrDefault(normalise(address), -1);
+    }
+
+    public String addressOf(int id) {
+        synchronized (addresses) {
+            if (id < 0 || id >= addresses.size()) {
+                throw new IllegalArgumentException("Unknown validator id: " + id);
+            }
+            return addresses.get(id);
+        }
+    }
+
+    public int size() {
+        synchronized (addresses) {
+            return addresses.size();
+        }
+    }
+
+    /** Returns a snapshot of the known addresses, indexed by id. */
+    public List<String> getAddresses() {
+        synchronized (addresses) {
+            return Collections.unmodifiableList(new ArrayList<>(addresses));
+        }
+    }
+
+    private static String normalise(String address) {
+        return address.toLowerCase();
+    }
+}
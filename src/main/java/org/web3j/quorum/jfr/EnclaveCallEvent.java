@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.web3j.quorum.EnclaveCall")
+@Label("Enclave Call")
+@Category({"Web3j", "Quorum"})
+@Description("A call to the private transaction manager")
+final class EnclaveCallEvent extends Event {
+
+    @Label("Path")
+    String path;
+
+    @Label("Status Code")
+    @Description("The HTTP status code, or 0 if there was no response")
+    int statusCode;
+
+    @Label("Request Size")
+    @DataAmount
+    long requestBytes;
+
+    @Label("Response Size")
+    @DataAmount
+    long responseBytes;
+
+    @Label("Outcome")
+    String outcome;
+
+    static Object start() {
+        EnclaveCallEvent event = new EnclaveCallEvent();
+        event.begin();
+        return event;
+    }
+
+    static void finish(
+            Object begun,
+            String path,
+            int statusCode,
+            long requestBytes,
+            long responseBytes,
+            Throwable failure) {
+        EnclaveCallEvent event = (EnclaveCallEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = path;
+            event.statusCode = statusCode;
+            event.requestBytes = requestBytes;
+            event.responseBytes = responseBytes;
+            if (failure != null) {
+                event.outcome = failure.toString();
+            } else {
+                event.outcome = statusCode < 400 ? "success" : "status " + statusCode;
+            }
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.jfr;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import io.reactivex.Flowable;
+
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.websocket.events.Notification;
+import org.web3j.quorum.metrics.RpcMetrics;
+
+/**
+ * A {@link Web3jService} which records an {@link RpcCallEvent} for every call and batch made while
+ * events are on. The events of asynchronous calls are committed on the thread completing the call.
+ */
+final class FlightRecorderWeb3jService implements Web3jService {
+
+    private final Web3jService web3jService;
+
+    FlightRecorderWeb3jService(Web3jService web3jService) {
+        this.web3jService = web3jService;
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        Object event = begin();
+        T response;
+        try {
+            response = web3jService.send(request, responseType);
+        } catch (IOException | RuntimeException e) {
+            end(event, request, null, e);
+            throw e;
+        }
+        end(event, request, response, null);
+        return response;
+    }
+
+    @Override
+    public <T extends Response> CompletableFuture<T> sendAsync(
+            Request request, Class<T> responseType) {
+        Object event = begin();
+        return web3jService
+                .sendAsync(request, responseType)
+                .whenComplete((response, throwable) -> end(event, request, response, throwable));
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        Object event = begin();
+        BatchResponse response;
+        try {
+            response = web3jService.sendBatch(batchRequest);
+        } catch (IOException | RuntimeException e) {
+            endBatch(event, batchRequest, null, e);
+            throw e;
+        }
+        endBatch(event, batchRequest, response, null);
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+        Object event = begin();
+        return web3jService
+                .sendBatchAsync(batchRequest)
+                .whenComplete(
+                        (response, throwable) ->
+                                endBatch(event, batchRequest, response, throwable));
+    }
+
+    @Override
+    public <T extends Notification<?>> Flowable<T> subscribe(
+            Request request, String unsubscribeMethod, Class<T> responseType) {
+        return web3jService.subscribe(request, unsubscribeMethod, responseType);
+    }
+
+    @Override
+    public void close() throws IOException {
+        web3jService.close();
+    }
+
+    private static Object begin() {
+        return QuorumFlightRecorder.isEnabled() ? RpcCallEvent.start() : null;
+    }
+
+    private static void end(
+            Object event, Request<?, ?> request, Response<?> response, Throwable failure) {
+        if (event == null) {
+            return;
+        }
+        RpcCallEvent.finish(
+                event,
+                request.getMethod(),
+                Collections.singletonList(request),
+                QuorumFlightRecorder.outcome(response, failure));
+    }
+
+    private static void endBatch(
+            Object event, BatchRequest batchRequest, BatchResponse response, Throwable failure) {
+        if (event == null) {
+            return;
+        }
+        String outcome;
+        if (failure != null || response == null) {
+            outcome = QuorumFlightRecorder.outcome(null, failure);
+        } else {
+            long errors = response.getResponses().stream().filter(Response::hasError).count();
+            outcome = errors == 0 ? "success" : errors + " errors";
+        }
+        List<Request<?, ? extends Response<?>>> requests = batchRequest.getRequests();
+        RpcCallEvent.finish(event, RpcMetrics.BATCH, requests, outcome);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.jfr;
+
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.Response;
+
+/**
+ * Emits Java Flight Recorder events for Quorum RPC calls, enclave calls, receipt polls and {@code
+ * signAndSend}, so that they appear alongside the JVM's own events when profiling.
+ *
+ * <p>Events are off unless the {@value #ENABLED_PROPERTY} system property is {@code true} or {@link
+ * #setEnabled(boolean)} is called, and the JVM has the {@code jdk.jfr} API (JDK 11, or JDK 8u262
+ * and later). They can be turned on and off at any time, including for Quorum clients already
+ * built. While they are off each instrumented call costs a volatile read, and no flight recorder
+ * event class is loaded. Once on, the usual JFR settings such as {@code enabled} and {@code
+ * threshold} apply to each event type.
+ *
+ * <p>The {@code begin} methods return an opaque event, or null when events are off, which must be
+ * passed to the matching {@code end} method.
+ */
+public final class QuorumFlightRecorder {
+
+    public static final String ENABLED_PROPERTY = "org.web3j.quorum.jfr";
+
+    private static final boolean AVAILABLE = isAvailable();
+
+    private static volatile boolean enabled = AVAILABLE && Boolean.getBoolean(ENABLED_PROPERTY);
+
+    private QuorumFlightRecorder() {}
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns events on or off.
+     *
+     * @throws IllegalStateException if events are turned on and the JVM has no flight recorder
+     */
+    public static void setEnabled(boolean enabled) {
+        if (enabled && !AVAILABLE) {
+            throw new IllegalStateException("Java Flight Recorder is not available");
+        }
+        QuorumFlightRecorder.enabled = enabled;
+    }
+
+    /**
+     * Returns a service which records each call it sends while events are on, or the service if the
+     * JVM has no flight recorder.
+     */
+    public static Web3jService instrument(Web3jService web3jService) {
+        if (!AVAILABLE || web3jService instanceof FlightRecorderWeb3jService) {
+            return web3jService;
+        }
+        return new FlightRecorderWeb3jService(web3jService);
+    }
+
+    public static Object beginEnclaveCall() {
+        return enabled ? EnclaveCallEvent.start() : null;
+    }
+
+    public static void endEnclaveCall(
+            Object event,
+            String path,
+            int statusCode,
+            long requestBytes,
+            long responseBytes,
+            Throwable failure) {
+        if (event != null) {
+            EnclaveCallEvent.finish(event, path, statusCode, requestBytes, responseBytes, failure);
+        }
+    }
+
+    public static Object beginReceiptPoll() {
+        return enabled ? ReceiptPollEvent.start() : null;
+    }
+
+    public static void endReceiptPoll(
+            Object event, String transactionHash, int attempt, boolean found, Throwable failure) {
+        if (event != null) {
+            ReceiptPollEvent.finish(event, transactionHash, attempt, found, failure);
+        }
+    }
+
+    public static Object beginSignAndSend() {
+        return enabled ? SignAndSendEvent.start() : null;
+    }
+
+    public static void endSignAndSend(
+            Object event,
+            int recipients,
+            long payloadBytes,
+            Response<?> response,
+            Throwable failure) {
+        if (event != null) {
+            SignAndSendEvent.finish(event, recipients, payloadBytes, response, failure);
+        }
+    }
+
+    static String outcome(Response<?> response, Throwable failure) {
+        if (failure != null) {
+            return failure.toString();
+        } else if (response == null) {
+            return "no response";
+        } else if (response.hasError()) {
+            return "error "
+                    + response.getError().getCode()
+                    + ": "
+                    + response.getError().getMessage();
+        }
+        return "success";
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, QuorumFlightRecorder.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
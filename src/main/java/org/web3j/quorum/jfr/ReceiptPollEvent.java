@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.web3j.quorum.ReceiptPoll")
+@Label("Transaction Receipt Poll")
+@Category({"Web3j", "Quorum"})
+@Description("A request for a transaction receipt while waiting for the transaction to be mined")
+final class ReceiptPollEvent extends Event {
+
+    @Label("Transaction Hash")
+    String transactionHash;
+
+    @Label("Attempt")
+    @Description("The number of the request, starting at 1")
+    int attempt;
+
+    @Label("Found")
+    boolean found;
+
+    @Label("Outcome")
+    String outcome;
+
+    static Object start() {
+        ReceiptPollEvent event = new ReceiptPollEvent();
+        event.begin();
+        return event;
+    }
+
+    static void finish(
+            Object begun, String transactionHash, int attempt, boolean found, Throwable failure) {
+        ReceiptPollEvent event = (ReceiptPollEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.transactionHash = transactionHash;
+            event.attempt = attempt;
+            event.found = found;
+            event.outcome = failure != null ? failure.toString() : "success";
+            event.commit();
+        }
+    }
+}
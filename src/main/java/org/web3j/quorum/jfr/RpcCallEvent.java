@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.jfr;
+
+import java.util.List;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.core.Request;
+
+@Name("org.web3j.quorum.RpcCall")
+@Label("Quorum RPC Call")
+@Category({"Web3j", "Quorum"})
+@Description("A JSON-RPC call to the Quorum node, or a batch of calls")
+final class RpcCallEvent extends Event {
+
+    @Label("Method")
+    @Description("The JSON-RPC method, or \"batch\" for a batch")
+    String method;
+
+    @Label("Requests")
+    int requests;
+
+    @Label("Params Size")
+    @Description("The size of the serialised params, summed over a batch")
+    @DataAmount
+    long paramsBytes;
+
+    @Label("Outcome")
+    String outcome;
+
+    static Object start() {
+        RpcCallEvent event = new RpcCallEvent();
+        event.begin();
+        return event;
+    }
+
+    static void finish(
+            Object begun, String method, List<? extends Request<?, ?>> requests, String outcome) {
+        RpcCallEvent event = (RpcCallEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = method;
+            event.requests = requests.size();
+            // only serialised again for events which are recorded
+            for (Request<?, ?> request : requests) {
+                event.paramsBytes += paramsBytes(request);
+            }
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    private static long paramsBytes(Request<?, ?> request) {
+        try {
+            return ObjectMapperFactory.getObjectMapper()
+                    .writeValueAsBytes(request.getParams())
+                    .length;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+
+@Name("org.web3j.quorum.SignAndSend")
+@Label("Sign And Send")
+@Category({"Web3j", "Quorum"})
+@Description("Storing, signing and sending a private transaction from the client")
+final class SignAndSendEvent extends Event {
+
+    @Label("Transaction Hash")
+    String transactionHash;
+
+    @Label("Recipients")
+    int recipients;
+
+    @Label("Payload Size")
+    @DataAmount
+    long payloadBytes;
+
+    @Label("Outcome")
+    String outcome;
+
+    static Object start() {
+        SignAndSendEvent event = new SignAndSendEvent();
+        event.begin();
+        return event;
+    }
+
+    static void finish(
+            Object begun,
+            int recipients,
+            long payloadBytes,
+            Response<?> response,
+            Throwable failure) {
+        SignAndSendEvent event = (SignAndSendEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            if (response instanceof EthSendTransaction) {
+                event.transactionHash = ((EthSendTransaction) response).getTransactionHash();
+            }
+            event.recipients = recipients;
+            event.payloadBytes = payloadBytes;
+            event.outcome = QuorumFlightRecorder.outcome(response, failure);
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.methods.request;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.quorum.PrivacyFlag;
+
+/**
+ * A request taking a string parameter, optionally followed by the privacy parameters of a raw
+ * private transaction whose JSON encoding is already known, which writes itself straight to the
+ * JSON generator.
+ *
+ * <p>Serialising a regular {@link Request} goes through Jackson's bean serialiser for the request,
+ * its parameter list and any parameter objects. A prepared request writes the same JSON without
+ * building a parameter list, and copies the encoded privacy parameters verbatim, so that they are
+ * only encoded once per recipient set (see {@link PrivateRawTransactionEncoder}). {@link
+ * #getParams()} still returns the typed parameters, with a {@link PrivateRawTransaction} built on
+ * demand. Once {@link #setParams(List)} replaces them the request is serialised like any other.
+ */
+public class PreparedRequest<T extends Response> extends Request<Object, T>
+        implements JsonSerializable {
+
+    private final String value;
+    private final List<String> privateFor;
+    private final PrivacyFlag privacyFlag;
+    private final List<String> mandatoryFor;
+    private final String encodedPrivacyParams;
+    private volatile List<Object> params;
+    private volatile boolean prepared = true;
+
+    /**
+     * @param value the first parameter
+     * @param encodedPrivacyParams the JSON encoding of the {@link PrivateRawTransaction} with the
+     *     given privacy parameters, which is the second parameter
+     */
+    public PreparedRequest(
+            String method,
+            String value,
+            List<String> privateFor,
+            PrivacyFlag privacyFlag,
+            List<String> mandatoryFor,
+            String encodedPrivacyParams,
+            Web3jService web3jService,
+            Class<T> responseType) {
+        super(method, null, web3jService, responseType);
+        this.value = value;
+        this.privateFor = privateFor;
+        this.privacyFlag = privacyFlag;
+        this.mandatoryFor = mandatoryFor;
+        this.encodedPrivacyParams = encodedPrivacyParams;
+    }
+
+    public PreparedRequest(
+            String method, String value, Web3jService web3jService, Class<T> responseType) {
+        this(method, value, null, null, null, null, web3jService, responseType);
+    }
+
+    @Override
+    public List<Object> getParams() {
+        List<Object> params = this.params;
+        if (params == null) {
+            params =
+                    encodedPrivacyParams == null
+                            ? Collections.singletonList(value)
+                            : Arrays.asList(
+                                    value,
+                                    new PrivateRawTransaction(
+                                            privateFor, privacyFlag, mandatoryFor));
+            this.params = params;
+        }
+        return params;
+    }
+
+    @Override
+    public void setParams(List<Object> params) {
+        this.params = params;
+        this.prepared = false;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("jsonrpc", getJsonrpc());
+        gen.writeStringField("method", getMethod());
+        if (prepared) {
+            gen.writeArrayFieldStart("params");
+            gen.writeString(value);
+            if (encodedPrivacyParams != null) {
+                gen.writeRawValue(encodedPrivacyParams);
+            }
+            gen.writeEndArray();
+        } else {
+            serializers.defaultSerializeField("params", getParams(), gen);
+        }
+        gen.writeNumberField("id", getId());
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(
+            JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+}
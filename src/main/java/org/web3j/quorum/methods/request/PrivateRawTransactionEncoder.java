@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.methods.request;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.quorum.PrivacyFlag;
+
+/**
+ * Encodes the privacy parameters of raw private transactions, as a JSON {@link
+ * PrivateRawTransaction} object, remembering the encodings of up to {@code maxEntries} recipient
+ * sets so that repeated submissions to the same recipients reuse them.
+ *
+ * <p>Recipient sets without mandatory recipients, the common case, are looked up by the caller's
+ * {@code privateFor} list in a map per privacy flag, so that reusing an encoding allocates nothing.
+ *
+ * <p>The cache is cleared when it is full, so a working set larger than {@code maxEntries} degrades
+ * to encoding every call rather than to unbounded growth.
+ */
+public class PrivateRawTransactionEncoder {
+
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private static final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+
+    private final int maxEntries;
+    // Indexed by privacy flag ordinal plus one, with zero for no flag
+    private final List<ConcurrentHashMap<List<String>, String>> byPrivateFor = new ArrayList<>();
+    private final ConcurrentHashMap<Key, String> encodings = new ConcurrentHashMap<>();
+
+    public PrivateRawTransactionEncoder() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public PrivateRawTransactionEncoder(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Maximum number of entries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        for (int i = 0; i <= PrivacyFlag.values().length; i++) {
+            byPrivateFor.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    public String encode(
+            List<String> privateFor, PrivacyFlag privacyFlag, List<String> mandatoryFor) {
+        ConcurrentHashMap<List<String>, String> recipients =
+                privateFor != null && mandatoryFor == null
+                        ? byPrivateFor.get(privacyFlag == null ? 0 : privacyFlag.ordinal() + 1)
+                        : null;
+        String encoding =
+                recipients != null
+                        ? recipients.get(privateFor)
+                        : encodings.get(new Key(privateFor, privacyFlag, mandatoryFor));
+        if (encoding != null) {
+            return encoding;
+        }
+
+        try {
+            encoding =
+                    objectMapper.writeValueAsString(
+                            new PrivateRawTransaction(privateFor, privacyFlag, mandatoryFor));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+        if (size() >= maxEntries) {
+            encodings.clear();
+            byPrivateFor.forEach(ConcurrentHashMap::clear);
+        }
+        // copy the lists, as the caller may modify them after this call
+        if (recipients != null) {
+            // an ArrayList, so that ArrayList lookups compare without iterators
+            recipients.put(new ArrayList<>(privateFor), encoding);
+        } else {
+            encodings.put(new Key(copy(privateFor), privacyFlag, copy(mandatoryFor)), encoding);
+        }
+        return encoding;
+    }
+
+    /** The number of recipient sets whose encoding is held. */
+    public int size() {
+        int size = encodings.size();
+        for (ConcurrentHashMap<List<String>, String> recipients : byPrivateFor) {
+            size += recipients.size();
+        }
+        return size;
+    }
+
+    private static List<String> copy(List<String> list) {
+        return list == null ? null : Collections.unmodifiableList(new ArrayList<>(list));
+    }
+
+    private static class Key {
+        private final List<String> privateFor;
+        private final PrivacyFlag privacyFlag;
+        private final List<String> mandatoryFor;
+
+        private Key(List<String> privateFor, PrivacyFlag privacyFlag, List<String> mandatoryFor) {
+            this.privateFor = privateFor;
+            this.privacyFlag = privacyFlag;
+            this.mandatoryFor = mandatoryFor;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return privacyFlag == key.privacyFlag
+                    && Objects.equals(privateFor, key.privateFor)
+                    && Objects.equals(mandatoryFor, key.mandatoryFor);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Objects.hashCode(privateFor);
+            result = 31 * result + Objects.hashCode(privacyFlag);
+            return 31 * result + Objects.hashCode(mandatoryFor);
+        }
+    }
+}
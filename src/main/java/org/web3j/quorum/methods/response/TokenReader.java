@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.methods.response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+
+/**
+ * Helpers for deserialisers which read values directly from the token stream.
+ *
+ * <p>Scalar values are read leniently, as Quorum returns booleans and numbers either as JSON
+ * primitives or as strings depending on the endpoint.
+ */
+public final class TokenReader {
+
+    private TokenReader() {}
+
+    /** Reads a single JSON object, positioned on its {@code START_OBJECT} token. */
+    @FunctionalInterface
+    public interface ObjectReader<T> {
+        T read(JsonParser jsonParser) throws IOException;
+    }
+
+    /**
+     * Reads the array the parser is positioned on, leaving the parser on its {@code END_ARRAY}
+     * token. Returns null if the parser is positioned on a null value.
+     */
+    public static <T> List<T> readList(JsonParser jsonParser, ObjectReader<T> reader)
+            throws IOException {
+        JsonToken token = jsonParser.getCurrentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(jsonParser, JsonToken.START_ARRAY);
+        List<T> result = new ArrayList<>();
+        while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+            expect(jsonParser, JsonToken.START_OBJECT);
+            result.add(reader.read(jsonParser));
+        }
+        return result;
+    }
+
+    /** Reads an array of strings, or null if the parser is positioned on a null value. */
+    public static List<String> readStringList(JsonParser jsonParser) throws IOException {
+        JsonToken token = jsonParser.getCurrentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(jsonParser, JsonToken.START_ARRAY);
+        List<String> result = new ArrayList<>();
+        while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+            result.add(jsonParser.getValueAsString());
+        }
+        return result;
+    }
+
+    /**
+     * Advances to the next field of the current object, leaving the parser on the field value.
+     * Returns the field name, or null once the end of the object has been reached.
+     */
+    public static String nextField(JsonParser jsonParser) throws IOException {
+        if (jsonParser.nextToken() != JsonToken.FIELD_NAME) {
+            return null;
+        }
+        String name = jsonParser.getCurrentName();
+        jsonParser.nextToken();
+        return name;
+    }
+
+    public static <T> T required(JsonParser jsonParser, T value, String field, Class<?> type)
+            throws JsonMappingException {
+        if (value == null) {
+            throw JsonMappingException.from(
+                    jsonParser,
+                    "Missing required field '" + field + "' for " + type.getSimpleName());
+        }
+        return value;
+    }
+
+    private static void expect(JsonParser jsonParser, JsonToken expected)
+            throws JsonMappingException {
+        if (jsonParser.getCurrentToken() != expected) {
+            throw JsonMappingException.from(
+                    jsonParser,
+                    "Expected " + expected + " but found " + jsonParser.getCurrentToken());
+        }
+    }
+}
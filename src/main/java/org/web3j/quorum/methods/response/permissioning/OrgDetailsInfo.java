@@ -13,16 +13,16 @@
 package org.web3j.quorum.methods.response.permissioning;
 
 import java.io.IOException;
+import java.util.List;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import com.fasterxml.jackson.module.kotlin.KotlinModule;
 
 import org.web3j.protocol.core.Response;
+import org.web3j.quorum.methods.response.TokenReader;
 
 public class OrgDetailsInfo extends Response<OrgDetails> {
 
@@ -37,17 +37,51 @@ public class OrgDetailsInfo extends Response<OrgDetails> {
     }
 
     public static class ResponseDeserialiser extends JsonDeserializer<OrgDetails> {
-        private ObjectMapper om = new ObjectMapper().registerModule(new KotlinModule());
 
         @Override
         public OrgDetails deserialize(
                 JsonParser jsonParser, DeserializationContext deserializationContext)
                 throws IOException {
-            if (jsonParser.getCurrentToken() != JsonToken.VALUE_NULL) {
-                return om.readValue(jsonParser, OrgDetails.class);
-            } else {
+            if (jsonParser.getCurrentToken() == JsonToken.VALUE_NULL) {
                 return null;
             }
+
+            List<PermissionRoleInfo> roleList = null;
+            List<PermissionAccountInfo> acctList = null;
+            List<PermissionNodeInfo> nodeList = null;
+            List<String> subOrgList = null;
+
+            String field;
+            while ((field = TokenReader.nextField(jsonParser)) != null) {
+                switch (field) {
+                    case "roleList":
+                        roleList =
+                                TokenReader.readList(
+                                        jsonParser,
+                                        PermissionRoleList.ResponseDeserialiser::readRoleInfo);
+                        break;
+                    case "acctList":
+                        acctList =
+                                TokenReader.readList(
+                                        jsonParser,
+                                        PermissionAccountList.ResponseDeserialiser
+                                                ::readAccountInfo);
+                        break;
+                    case "nodeList":
+                        nodeList =
+                                TokenReader.readList(
+                                        jsonParser,
+                                        PermissionNodeList.ResponseDeserialiser::readNodeInfo);
+                        break;
+                    case "subOrgList":
+                        subOrgList = TokenReader.readStringList(jsonParser);
+                        break;
+                    default:
+                        jsonParser.skipChildren();
+                }
+            }
+
+            return new OrgDetails(roleList, acctList, nodeList, subOrgList);
         }
     }
 }
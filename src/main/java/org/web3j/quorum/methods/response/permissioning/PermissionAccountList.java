@@ -13,19 +13,15 @@
 package org.web3j.quorum.methods.response.permissioning;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import com.fasterxml.jackson.module.kotlin.KotlinModule;
 
 import org.web3j.protocol.core.Response;
+import org.web3j.quorum.methods.response.TokenReader;
 
 public class PermissionAccountList extends Response<List<PermissionAccountInfo>> {
 
@@ -40,25 +36,52 @@ public class PermissionAccountList extends Response<List<PermissionAccountInfo>>
     }
 
     public static class ResponseDeserialiser extends JsonDeserializer<List<PermissionAccountInfo>> {
-        private ObjectMapper om = new ObjectMapper().registerModule(new KotlinModule());
 
         @Override
         public List<PermissionAccountInfo> deserialize(
                 JsonParser jsonParser, DeserializationContext deserializationContext)
                 throws IOException {
-            List<PermissionAccountInfo> acctList = new ArrayList<>();
-            JsonToken nextToken = jsonParser.nextToken();
+            return TokenReader.readList(jsonParser, ResponseDeserialiser::readAccountInfo);
+        }
+
+        static PermissionAccountInfo readAccountInfo(JsonParser jsonParser) throws IOException {
+            String acctId = null;
+            Boolean isOrgAdmin = null;
+            String orgId = null;
+            String roleId = null;
+            Integer status = null;
 
-            if (nextToken == JsonToken.START_OBJECT) {
-                Iterator<PermissionAccountInfo> acctInfoIterator =
-                        om.readValues(jsonParser, PermissionAccountInfo.class);
-                while (acctInfoIterator.hasNext()) {
-                    acctList.add(acctInfoIterator.next());
+            String field;
+            while ((field = TokenReader.nextField(jsonParser)) != null) {
+                switch (field) {
+                    case "acctId":
+                        acctId = jsonParser.getValueAsString();
+                        break;
+                    case "isOrgAdmin":
+                        isOrgAdmin = jsonParser.getValueAsBoolean();
+                        break;
+                    case "orgId":
+                        orgId = jsonParser.getValueAsString();
+                        break;
+                    case "roleId":
+                        roleId = jsonParser.getValueAsString();
+                        break;
+                    case "status":
+                        status = jsonParser.getValueAsInt();
+                        break;
+                    default:
+                        jsonParser.skipChildren();
                 }
-                return acctList;
-            } else {
-                return null;
             }
+
+            return new PermissionAccountInfo(
+                    TokenReader.required(jsonParser, acctId, "acctId", PermissionAccountInfo.class),
+                    TokenReader.required(
+                            jsonParser, isOrgAdmin, "isOrgAdmin", PermissionAccountInfo.class),
+                    TokenReader.required(jsonParser, orgId, "orgId", PermissionAccountInfo.class),
+                    TokenReader.required(jsonParser, roleId, "roleId", PermissionAccountInfo.class),
+                    TokenReader.required(
+                            jsonParser, status, "status", PermissionAccountInfo.class));
         }
     }
 }
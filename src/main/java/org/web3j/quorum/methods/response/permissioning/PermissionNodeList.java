@@ -13,19 +13,15 @@
 package org.web3j.quorum.methods.response.permissioning;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import com.fasterxml.jackson.module.kotlin.KotlinModule;
 
 import org.web3j.protocol.core.Response;
+import org.web3j.quorum.methods.response.TokenReader;
 
 public class PermissionNodeList extends Response<List<PermissionNodeInfo>> {
 
@@ -40,25 +36,40 @@ public class PermissionNodeList extends Response<List<PermissionNodeInfo>> {
     }
 
     public static class ResponseDeserialiser extends JsonDeserializer<List<PermissionNodeInfo>> {
-        private ObjectMapper om = new ObjectMapper().registerModule(new KotlinModule());
 
         @Override
         public List<PermissionNodeInfo> deserialize(
                 JsonParser jsonParser, DeserializationContext deserializationContext)
                 throws IOException {
-            List<PermissionNodeInfo> nodeList = new ArrayList<>();
-            JsonToken nextToken = jsonParser.nextToken();
+            return TokenReader.readList(jsonParser, ResponseDeserialiser::readNodeInfo);
+        }
+
+        static PermissionNodeInfo readNodeInfo(JsonParser jsonParser) throws IOException {
+            String orgId = null;
+            String url = null;
+            Integer status = null;
 
-            if (nextToken == JsonToken.START_OBJECT) {
-                Iterator<PermissionNodeInfo> nodeInfoIterator =
-                        om.readValues(jsonParser, PermissionNodeInfo.class);
-                while (nodeInfoIterator.hasNext()) {
-                    nodeList.add(nodeInfoIterator.next());
+            String field;
+            while ((field = TokenReader.nextField(jsonParser)) != null) {
+                switch (field) {
+                    case "orgId":
+                        orgId = jsonParser.getValueAsString();
+                        break;
+                    case "url":
+                        url = jsonParser.getValueAsString();
+                        break;
+                    case "status":
+                        status = jsonParser.getValueAsInt();
+                        break;
+                    default:
+                        jsonParser.skipChildren();
                 }
-                return nodeList;
-            } else {
-                return null;
             }
+
+            return new PermissionNodeInfo(
+                    TokenReader.required(jsonParser, orgId, "orgId", PermissionNodeInfo.class),
+                    TokenReader.required(jsonParser, url, "url", PermissionNodeInfo.class),
+                    TokenReader.required(jsonParser, status, "status", PermissionNodeInfo.class));
         }
     }
 }
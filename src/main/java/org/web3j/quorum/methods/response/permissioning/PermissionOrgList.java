@@ -13,19 +13,15 @@
 package org.web3j.quorum.methods.response.permissioning;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import com.fasterxml.jackson.module.kotlin.KotlinModule;
 
 import org.web3j.protocol.core.Response;
+import org.web3j.quorum.methods.response.TokenReader;
 
 public class PermissionOrgList extends Response<List<PermissionOrgInfo>> {
 
@@ -40,26 +36,63 @@ public class PermissionOrgList extends Response<List<PermissionOrgInfo>> {
     }
 
     public static class ResponseDeserialiser extends JsonDeserializer<List<PermissionOrgInfo>> {
-        private ObjectMapper om = new ObjectMapper().registerModule(new KotlinModule());
 
         @Override
         public List<PermissionOrgInfo> deserialize(
                 JsonParser jsonParser, DeserializationContext deserializationContext)
                 throws IOException {
+            return TokenReader.readList(jsonParser, ResponseDeserialiser::readOrgInfo);
+        }
 
-            List<PermissionOrgInfo> orgList = new ArrayList<>();
-            JsonToken nextToken = jsonParser.nextToken();
+        static PermissionOrgInfo readOrgInfo(JsonParser jsonParser) throws IOException {
+            String orgId = null;
+            String fullOrgId = null;
+            String parentOrgId = null;
+            String ultimateParent = null;
+            Integer level = null;
+            Integer status = null;
+            List<String> subOrgList = null;
 
-            if (nextToken == JsonToken.START_OBJECT) {
-                Iterator<PermissionOrgInfo> orgInfoIterator =
-                        om.readValues(jsonParser, PermissionOrgInfo.class);
-                while (orgInfoIterator.hasNext()) {
-                    orgList.add(orgInfoIterator.next());
+            String field;
+            while ((field = TokenReader.nextField(jsonParser)) != null) {
+                switch (field) {
+                    case "orgId":
+                        orgId = jsonParser.getValueAsString();
+                        break;
+                    case "fullOrgId":
+                        fullOrgId = jsonParser.getValueAsString();
+                        break;
+                    case "parentOrgId":
+                        parentOrgId = jsonParser.getValueAsString();
+                        break;
+                    case "ultimateParent":
+                        ultimateParent = jsonParser.getValueAsString();
+                        break;
+                    case "level":
+                        level = jsonParser.getValueAsInt();
+                        break;
+                    case "status":
+                        status = jsonParser.getValueAsInt();
+                        break;
+                    case "subOrgList":
+                        subOrgList = TokenReader.readStringList(jsonParser);
+                        break;
+                    default:
+                        jsonParser.skipChildren();
                 }
-                return orgList;
-            } else {
-                return null;
             }
+
+            return new PermissionOrgInfo(
+                    TokenReader.required(jsonParser, orgId, "orgId", PermissionOrgInfo.class),
+                    TokenReader.required(
+                            jsonParser, fullOrgId, "fullOrgId", PermissionOrgInfo.class),
+                    TokenReader.required(
+                            jsonParser, parentOrgId, "parentOrgId", PermissionOrgInfo.class),
+                    TokenReader.required(
+                            jsonParser, ultimateParent, "ultimateParent", PermissionOrgInfo.class),
+                    TokenReader.required(jsonParser, level, "level", PermissionOrgInfo.class),
+                    TokenReader.required(jsonParser, status, "status", PermissionOrgInfo.class),
+                    subOrgList);
         }
     }
 }
@@ -13,19 +13,15 @@
 package org.web3j.quorum.methods.response.permissioning;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import com.fasterxml.jackson.module.kotlin.KotlinModule;
 
 import org.web3j.protocol.core.Response;
+import org.web3j.quorum.methods.response.TokenReader;
 
 public class PermissionRoleList extends Response<List<PermissionRoleInfo>> {
 
@@ -40,25 +36,55 @@ public class PermissionRoleList extends Response<List<PermissionRoleInfo>> {
     }
 
     public static class ResponseDeserialiser extends JsonDeserializer<List<PermissionRoleInfo>> {
-        private ObjectMapper om = new ObjectMapper().registerModule(new KotlinModule());
 
         @Override
         public List<PermissionRoleInfo> deserialize(
                 JsonParser jsonParser, DeserializationContext deserializationContext)
                 throws IOException {
-            List<PermissionRoleInfo> roleList = new ArrayList<>();
-            JsonToken nextToken = jsonParser.nextToken();
+            return TokenReader.readList(jsonParser, ResponseDeserialiser::readRoleInfo);
+        }
+
+        static PermissionRoleInfo readRoleInfo(JsonParser jsonParser) throws IOException {
+            Boolean isVoter = null;
+            Boolean active = null;
+            String orgId = null;
+            String roleId = null;
+            Integer access = null;
+            Boolean isAdmin = null;
 
-            if (nextToken == JsonToken.START_OBJECT) {
-                Iterator<PermissionRoleInfo> roleInfoIterator =
-                        om.readValues(jsonParser, PermissionRoleInfo.class);
-                while (roleInfoIterator.hasNext()) {
-                    roleList.add(roleInfoIterator.next());
+            String field;
+            while ((field = TokenReader.nextField(jsonParser)) != null) {
+                switch (field) {
+                    case "isVoter":
+                        isVoter = jsonParser.getValueAsBoolean();
+                        break;
+                    case "active":
+                        active = jsonParser.getValueAsBoolean();
+                        break;
+                    case "orgId":
+                        orgId = jsonParser.getValueAsString();
+                        break;
+                    case "roleId":
+                        roleId = jsonParser.getValueAsString();
+                        break;
+                    case "access":
+                        access = jsonParser.getValueAsInt();
+                        break;
+                    case "isAdmin":
+                        isAdmin = jsonParser.getValueAsBoolean();
+                        break;
+                    default:
+                        jsonParser.skipChildren();
                 }
-                return roleList;
-            } else {
-                return null;
             }
+
+            return new PermissionRoleInfo(
+                    TokenReader.required(jsonParser, isVoter, "isVoter", PermissionRoleInfo.class),
+                    TokenReader.required(jsonParser, active, "active", PermissionRoleInfo.class),
+                    TokenReader.required(jsonParser, orgId, "orgId", PermissionRoleInfo.class),
+                    TokenReader.required(jsonParser, roleId, "roleId", PermissionRoleInfo.class),
+                    TokenReader.required(jsonParser, access, "access", PermissionRoleInfo.class),
+                    TokenReader.required(jsonParser, isAdmin, "isAdmin", PermissionRoleInfo.class));
         }
     }
 }
@@ -13,20 +13,16 @@
 package org.web3j.quorum.methods.response.raft;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import com.fasterxml.jackson.module.kotlin.KotlinModule;
 
 import org.web3j.protocol.core.Response;
+import org.web3j.quorum.methods.response.TokenReader;
 
 public class RaftCluster extends Response<List<RaftPeer>> {
     public Optional<List<RaftPeer>> getCluster() {
@@ -40,24 +36,60 @@ public class RaftCluster extends Response<List<RaftPeer>> {
     }
 
     public static class ResponseDeserialiser extends JsonDeserializer<List<RaftPeer>> {
-        private ObjectMapper om = new ObjectMapper().registerModule(new KotlinModule());
 
         @Override
         public List<RaftPeer> deserialize(
                 JsonParser jsonParser, DeserializationContext deserializationContext)
                 throws IOException {
-            List<RaftPeer> peerList = new ArrayList<>();
-            JsonToken nextToken = jsonParser.nextToken();
+            return TokenReader.readList(jsonParser, ResponseDeserialiser::readPeer);
+        }
+
+        static RaftPeer readPeer(JsonParser jsonParser) throws IOException {
+            String hostname = null;
+            String nodeId = null;
+            Boolean nodeActive = null;
+            String p2pPort = null;
+            String raftId = null;
+            String raftPort = null;
+            String role = null;
 
-            if (nextToken == JsonToken.START_OBJECT) {
-                Iterator<RaftPeer> peerIterator = om.readValues(jsonParser, RaftPeer.class);
-                while (peerIterator.hasNext()) {
-                    peerList.add(peerIterator.next());
+            String field;
+            while ((field = TokenReader.nextField(jsonParser)) != null) {
+                switch (field) {
+                    case "hostname":
+                        hostname = jsonParser.getValueAsString();
+                        break;
+                    case "nodeId":
+                        nodeId = jsonParser.getValueAsString();
+                        break;
+                    case "nodeActive":
+                        nodeActive = jsonParser.getValueAsBoolean();
+                        break;
+                    case "p2pPort":
+                        p2pPort = jsonParser.getValueAsString();
+                        break;
+                    case "raftId":
+                        raftId = jsonParser.getValueAsString();
+                        break;
+                    case "raftPort":
+                        raftPort = jsonParser.getValueAsString();
+                        break;
+                    case "role":
+                        role = jsonParser.getValueAsString();
+                        break;
+                    default:
+                        jsonParser.skipChildren();
                 }
-                return peerList;
-            } else {
-                return null;
             }
+
+            return new RaftPeer(
+                    TokenReader.required(jsonParser, hostname, "hostname", RaftPeer.class),
+                    TokenReader.required(jsonParser, nodeId, "nodeId", RaftPeer.class),
+                    TokenReader.required(jsonParser, nodeActive, "nodeActive", RaftPeer.class),
+                    TokenReader.required(jsonParser, p2pPort, "p2pPort", RaftPeer.class),
+                    TokenReader.required(jsonParser, raftId, "raftId", RaftPeer.class),
+                    TokenReader.required(jsonParser, raftPort, "raftPort", RaftPeer.class),
+                    TokenReader.required(jsonParser, role, "role", RaftPeer.class));
         }
     }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.web3j.quorum.enclave.protocol.EnclaveCall;
+import org.web3j.quorum.enclave.protocol.EnclaveCallListener;
+
+/**
+ * Keeps the measurements of the calls made by an {@link
+ * org.web3j.quorum.enclave.protocol.EnclaveService} in memory, by enclave path.
+ *
+ * <p>Calls may additionally be forwarded to an {@link RpcMetrics}, under the method name {@code
+ * enclave/<path>}, so that enclave and node calls can be reported through the same metrics.
+ */
+public class EnclaveMetrics implements EnclaveCallListener {
+
+    private final RpcMetrics rpcMetrics;
+    private final ConcurrentHashMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    public EnclaveMetrics() {
+        this(RpcMetrics.NOOP);
+    }
+
+    public EnclaveMetrics(RpcMetrics rpcMetrics) {
+        this.rpcMetrics = rpcMetrics;
+    }
+
+    @Override
+    public void onCall(EnclaveCall call) {
+        EndpointMetrics endpoint =
+                endpoints.computeIfAbsent(call.getPath(), path -> new EndpointMetrics(path));
+        endpoint.record(call);
+        rpcMetrics.recordCall(endpoint.getMethod(), call.getTotalNanos(), call.isFailed());
+        rpcMetrics.recordPayload(
+                endpoint.getMethod(), call.getRequestBytes(), call.getResponseBytes());
+    }
+
+    /** Returns the measurements of the given path, or null if it has not been called. */
+    public EndpointMetrics getEndpoint(String path) {
+        return endpoints.get(path);
+    }
+
+    /** Returns the measurements of all paths called so far, by path. */
+    public Map<String, EndpointMetrics> getEndpoints() {
+        return Collections.unmodifiableMap(new TreeMap<>(endpoints));
+    }
+}
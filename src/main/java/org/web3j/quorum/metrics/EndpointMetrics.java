@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.web3j.quorum.enclave.protocol.EnclaveCall;
+
+/** The measurements of one enclave path, kept by {@link EnclaveMetrics}. */
+public final class EndpointMetrics {
+
+    private final String path;
+    private final String method;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder reusedConnections = new LongAdder();
+    private final LongAdder requestBytes = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+    private final ConcurrentHashMap<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+    private final LatencyHistogram queueLatency = new LatencyHistogram();
+    private final LatencyHistogram networkLatency = new LatencyHistogram();
+
+    EndpointMetrics(String path) {
+        this.path = path;
+        this.method = "enclave/" + path;
+    }
+
+    void record(EnclaveCall call) {
+        calls.increment();
+        if (call.isFailed()) {
+            failures.increment();
+        }
+        if (call.isConnectionReused()) {
+            reusedConnections.increment();
+        }
+        requestBytes.add(call.getRequestBytes());
+        responseBytes.add(call.getResponseBytes());
+        statusCodes.computeIfAbsent(call.getStatusCode(), code -> new LongAdder()).increment();
+        queueLatency.record(call.getQueueNanos());
+        networkLatency.record(call.getNetworkNanos());
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /** The name under which calls are forwarded to {@link RpcMetrics}. */
+    public String getMethod() {
+        return method;
+    }
+
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    /** The number of calls which threw or received an HTTP status of 400 or above. */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    public long getRequestBytes() {
+        return requestBytes.sum();
+    }
+
+    public long getResponseBytes() {
+        return responseBytes.sum();
+    }
+
+    /** The number of calls by HTTP status code, where 0 counts calls without a response. */
+    public Map<Integer, Long> getStatusCodes() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statusCodes.forEach((code, count) -> counts.put(code, count.sum()));
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /** The fraction of calls sent on a connection which had been used before. */
+    public double getConnectionReuseRate() {
+        long calls = getCallCount();
+        return calls == 0 ? 0 : (double) reusedConnections.sum() / calls;
+    }
+
+    /** The time calls waited for a connection, including establishing new connections. */
+    public LatencyHistogram getQueueLatency() {
+        return queueLatency;
+    }
+
+    /** The time from acquiring a connection until the response was read. */
+    public LatencyHistogram getNetworkLatency() {
+        return networkLatency;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link RpcMetricsRegistry} which publishes each method's measurements as an MXBean named
+ * {@code org.web3j.quorum:type=RpcMetrics,client=<client>,method=<method>}, where they can be read
+ * by JMX consoles and by the JMX bridges of metrics libraries and monitoring agents.
+ */
+public class JmxRpcMetrics extends RpcMetricsRegistry implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(JmxRpcMetrics.class);
+
+    private final MBeanServer server;
+    private final String client;
+    private final List<ObjectName> registered = new CopyOnWriteArrayList<>();
+
+    /** @param client distinguishes the metrics of this client from those of others in the JVM */
+    public JmxRpcMetrics(String client) {
+        this(ManagementFactory.getPlatformMBeanServer(), client);
+    }
+
+    public JmxRpcMetrics(MBeanServer server, String client) {
+        this.server = server;
+        this.client = client;
+    }
+
+    @Override
+    protected void added(MethodMetrics metrics) {
+        try {
+            ObjectName name =
+                    new ObjectName(
+                            "org.web3j.quorum:type=RpcMetrics,client="
+                                    + ObjectName.quote(client)
+                                    + ",method="
+                                    + ObjectName.quote(metrics.getMethod()));
+            server.registerMBean(new MethodMetricsBean(metrics), name);
+            registered.add(name);
+        } catch (JMException e) {
+            log.warn("Unable to register metrics of method {}", metrics.getMethod(), e);
+        }
+    }
+
+    /** Unregisters the MXBeans. */
+    @Override
+    public void close() {
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                log.warn("Unable to unregister {}", name, e);
+            }
+        }
+        registered.clear();
+    }
+
+    private static class MethodMetricsBean implements MethodMetricsMXBean {
+
+        private final MethodMetrics metrics;
+
+        private MethodMetricsBean(MethodMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public String getMethod() {
+            return metrics.getMethod();
+        }
+
+        @Override
+        public long getCallCount() {
+            return metrics.getCallCount();
+        }
+
+        @Override
+        public long getErrorCount() {
+            return metrics.getErrorCount();
+        }
+
+        @Override
+        public long getRequestBytes() {
+            return metrics.getRequestBytes();
+        }
+
+        @Override
+        public long getResponseBytes() {
+            return metrics.getResponseBytes();
+        }
+
+        @Override
+        public double getMeanLatencyMicros() {
+            return metrics.getLatency().getMean() / 1_000;
+        }
+
+        @Override
+        public long getP50LatencyMicros() {
+            return percentile(50);
+        }
+
+        @Override
+        public long getP90LatencyMicros() {
+            return percentile(90);
+        }
+
+        @Override
+        public long getP99LatencyMicros() {
+            return percentile(99);
+        }
+
+        @Override
+        public long getP999LatencyMicros() {
+            return percentile(99.9);
+        }
+
+        @Override
+        public long getMaxLatencyMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(metrics.getLatency().getMax());
+        }
+
+        private long percentile(double percentile) {
+            return TimeUnit.NANOSECONDS.toMicros(
+                    metrics.getLatency().getValueAtPercentile(percentile));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import okhttp3.OkHttpClient;
+
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.http.HttpService;
+
+/**
+ * An {@link HttpService} which records the size of every request and response body with {@link
+ * RpcMetrics#recordPayload(String, long, long)}, under the JSON-RPC method of the request, or
+ * {@link RpcMetrics#BATCH} for batches.
+ *
+ * <p>The response size is the number of bytes read from the body, recorded when it is closed.
+ */
+public class MeteredHttpService extends HttpService {
+
+    private final RpcMetrics metrics;
+    private final ThreadLocal<String> method = new ThreadLocal<>();
+
+    public MeteredHttpService(String url, RpcMetrics metrics) {
+        super(url);
+        this.metrics = metrics;
+    }
+
+    public MeteredHttpService(String url, OkHttpClient httpClient, RpcMetrics metrics) {
+        super(url, httpClient);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        String previous = method.get();
+        method.set(request.getMethod());
+        try {
+            return super.send(request, responseType);
+        } finally {
+            method.set(previous);
+        }
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        String previous = method.get();
+        method.set(RpcMetrics.BATCH);
+        try {
+            return super.sendBatch(batchRequest);
+        } finally {
+            method.set(previous);
+        }
+    }
+
+    @Override
+    protected InputStream performIO(String request) throws IOException {
+        String method = this.method.get();
+        long requestBytes = utf8Length(request);
+        InputStream response = super.performIO(request);
+        if (method == null) {
+            return response;
+        }
+        if (response == null) {
+            metrics.recordPayload(method, requestBytes, 0);
+            return null;
+        }
+        return new CountingInputStream(response, method, requestBytes);
+    }
+
+    private static long utf8Length(String value) {
+        long length = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x800) {
+                length += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                length += 1;
+            }
+        }
+        return length;
+    }
+
+    private class CountingInputStream extends FilterInputStream {
+
+        private final String method;
+        private final long requestBytes;
+        private long responseBytes;
+        private boolean closed;
+
+        private CountingInputStream(InputStream in, String method, long requestBytes) {
+            super(in);
+            this.method = method;
+            this.requestBytes = requestBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                responseBytes++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                responseBytes += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            responseBytes += skipped;
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                metrics.recordPayload(method, requestBytes, responseBytes);
+            }
+            super.close();
+        }
+    }
+}
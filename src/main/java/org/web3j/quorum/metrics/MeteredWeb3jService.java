@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.metrics;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import io.reactivex.Flowable;
+
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.websocket.events.Notification;
+
+/**
+ * A {@link Web3jService} which records the latency and outcome of every call with {@link
+ * RpcMetrics}, by JSON-RPC method.
+ *
+ * <p>A call fails if it throws or returns a JSON-RPC error. Each request of a batch is recorded
+ * under its own method with the latency of the whole batch. Subscriptions are passed straight
+ * through. An instrumented {@link org.web3j.quorum.Quorum} is obtained with {@code Quorum.build(new
+ * MeteredWeb3jService(service, metrics))}; wrap a {@link MeteredHttpService} to record payload
+ * sizes as well.
+ */
+public class MeteredWeb3jService implements Web3jService {
+
+    private final Web3jService web3jService;
+    private final RpcMetrics metrics;
+
+    public MeteredWeb3jService(Web3jService web3jService, RpcMetrics metrics) {
+        this.web3jService = web3jService;
+        this.metrics = metrics;
+    }
+
+    public RpcMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        long start = System.nanoTime();
+        T response;
+        try {
+            response = web3jService.send(request, responseType);
+        } catch (IOException | RuntimeException e) {
+            metrics.recordCall(request.getMethod(), System.nanoTime() - start, true);
+            throw e;
+        }
+        metrics.recordCall(request.getMethod(), System.nanoTime() - start, failed(response));
+        return response;
+    }
+
+    @Override
+    public <T extends Response> CompletableFuture<T> sendAsync(
+            Request request, Class<T> responseType) {
+        long start = System.nanoTime();
+        return web3jService
+                .sendAsync(request, responseType)
+                .whenComplete(
+                        (response, throwable) ->
+                                metrics.recordCall(
+                                        request.getMethod(),
+                                        System.nanoTime() - start,
+                                        throwable != null || failed(response)));
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        long start = System.nanoTime();
+        BatchResponse response;
+        try {
+            response = web3jService.sendBatch(batchRequest);
+        } catch (IOException | RuntimeException e) {
+            recordBatch(batchRequest, null, System.nanoTime() - start);
+            throw e;
+        }
+        recordBatch(batchRequest, response, System.nanoTime() - start);
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+        long start = System.nanoTime();
+        return web3jService
+                .sendBatchAsync(batchRequest)
+                .whenComplete(
+                        (response, throwable) ->
+                                recordBatch(batchRequest, response, System.nanoTime() - start));
+    }
+
+    @Override
+    public <T extends Notification<?>> Flowable<T> subscribe(
+            Request request, String unsubscribeMethod, Class<T> responseType) {
+        return web3jService.subscribe(request, unsubscribeMethod, responseType);
+    }
+
+    @Override
+    public void close() throws IOException {
+        web3jService.close();
+    }
+
+    /** Records each request of a batch, all as failed if the batch had no response. */
+    private void recordBatch(BatchRequest batchRequest, BatchResponse response, long latency) {
+        List<Request<?, ? extends Response<?>>> requests = batchRequest.getRequests();
+        List<? extends Response<?>> responses = response == null ? null : response.getResponses();
+        for (int i = 0; i < requests.size(); i++) {
+            boolean failed = responses == null || i >= responses.size() || failed(responses.get(i));
+            metrics.recordCall(requests.get(i).getMethod(), latency, failed);
+        }
+    }
+
+    private static boolean failed(Response<?> response) {
+        return response == null || response.hasError();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.metrics;
+
+/**
+ * Receives measurements of JSON-RPC calls, keyed by method name.
+ *
+ * <p>Implementations are called on the threads making the calls, and must be thread safe and cheap.
+ * {@link RpcMetricsRegistry} keeps the measurements in memory, {@link JmxRpcMetrics} additionally
+ * publishes them as MBeans, and other metrics libraries can be connected by implementing this
+ * interface.
+ */
+public interface RpcMetrics {
+
+    /** The method name under which batches are recorded by {@link MeteredHttpService}. */
+    String BATCH = "batch";
+
+    /** Discards all measurements. */
+    RpcMetrics NOOP =
+            new RpcMetrics() {
+                @Override
+                public void recordCall(String method, long latencyNanos, boolean failed) {}
+
+                @Override
+                public void recordPayload(String method, long requestBytes, long responseBytes) {}
+            };
+
+    /**
+     * Records a completed call.
+     *
+     * @param failed whether the call threw, or returned a JSON-RPC error
+     */
+    void recordCall(String method, long latencyNanos, boolean failed);
+
+    /** Records the sizes of the request and response bodies of a call. */
+    void recordPayload(String method, long requestBytes, long responseBytes);
+}
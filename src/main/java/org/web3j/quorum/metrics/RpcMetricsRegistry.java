@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Keeps the measurements of each JSON-RPC method in memory. */
+public class RpcMetricsRegistry implements RpcMetrics {
+
+    private final ConcurrentHashMap<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordCall(String method, long latencyNanos, boolean failed) {
+        get(method).recordCall(latencyNanos, failed);
+    }
+
+    @Override
+    public void recordPayload(String method, long requestBytes, long responseBytes) {
+        get(method).recordPayload(requestBytes, responseBytes);
+    }
+
+    /** Returns the measurements of the given method, or null if it has not been called. */
+    public MethodMetrics getMethod(String method) {
+        return methods.get(method);
+    }
+
+    /** Returns the measurements of all methods called so far, by method name. */
+    public Map<String, MethodMetrics> getMethods() {
+        return Collections.unmodifiableMap(new TreeMap<>(methods));
+    }
+
+    /** Called when the first measurement of a method is recorded. */
+    protected void added(MethodMetrics metrics) {}
+
+    private MethodMetrics get(String method) {
+        MethodMetrics metrics = methods.get(method);
+        if (metrics == null) {
+            MethodMetrics created = new MethodMetrics(method);
+            metrics = methods.putIfAbsent(method, created);
+            if (metrics == null) {
+                metrics = created;
+                added(created);
+            }
+        }
+        return metrics;
+    }
+}
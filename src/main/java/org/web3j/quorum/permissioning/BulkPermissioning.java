@@ -0,0 +1,259 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.permissioning;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.exceptions.TransactionException;
+import org.web3j.quorum.Quorum;
+import org.web3j.quorum.methods.request.PrivateTransaction;
+
+/**
+ * Executes a {@link PermissionPlan} using JSON-RPC batches.
+ *
+ * <p>The plan is split into stages: an operation is placed in the stage after the latest of the
+ * operations it depends on, so every stage only holds operations which are independent of each
+ * other. Each stage is sent as one or more batches of at most {@code maxBatchSize} requests. An
+ * operation which depends on a failed operation is skipped rather than sent.
+ *
+ * <p>The node validates permissioning calls against the contract state, so a dependent operation
+ * can only succeed once the transactions of the previous stage have been mined. The {@link
+ * StageBarrier} supplied to the constructor is invoked between stages for this purpose.
+ */
+public class BulkPermissioning {
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    /** Invoked after a stage has been submitted, before the next stage is sent. */
+    @FunctionalInterface
+    public interface StageBarrier {
+        void await(int stage) throws IOException, TransactionException;
+    }
+
+    private final Quorum quorum;
+    private final PrivateTransaction transaction;
+    private final int maxBatchSize;
+    private final StageBarrier stageBarrier;
+
+    public BulkPermissioning(
+            Quorum quorum, PrivateTransaction transaction, StageBarrier stageBarrier) {
+        this(quorum, transaction, stageBarrier, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * @param transaction the transaction parameters, typically only {@code from}, used for every
+     *     operation
+     */
+    public BulkPermissioning(
+            Quorum quorum,
+            PrivateTransaction transaction,
+            StageBarrier stageBarrier,
+            int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.quorum = quorum;
+        this.transaction = transaction;
+        this.stageBarrier = stageBarrier;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Returns a barrier which waits for the given number of blocks to be produced after each stage.
+     */
+    public static StageBarrier awaitBlocks(
+            Quorum quorum, int blocks, long pollingInterval, int attempts) {
+        return stage -> {
+            BigInteger target =
+                    quorum.ethBlockNumber().send().getBlockNumber().add(BigInteger.valueOf(blocks));
+            for (int i = 0; i < attempts; i++) {
+                if (quorum.ethBlockNumber().send().getBlockNumber().compareTo(target) >= 0) {
+                    return;
+                }
+                try {
+                    Thread.sleep(pollingInterval);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new TransactionException(e);
+                }
+            }
+            throw new TransactionException(
+                    "Block " + target + " was not produced after stage " + stage);
+        };
+    }
+
+    /**
+     * Executes the plan.
+     *
+     * @return the result of each operation, in plan order
+     * @throws TransactionException if the stage barrier fails
+     */
+    public List<PermissionOperationResult> execute(PermissionPlan plan)
+            throws IOException, TransactionException {
+        List<PermissionOperation> operations = plan.getOperations();
+        int[] stages = stages(operations);
+        PermissionOperationResult[] results = new PermissionOperationResult[operations.size()];
+        Set<String> failed = new HashSet<>();
+
+        int lastStage = Arrays.stream(stages).max().orElse(-1);
+        for (int stage = 0; stage <= lastStage; stage++) {
+            List<Integer> pending = new ArrayList<>();
+            for (int i = 0; i < operations.size(); i++) {
+                if (stages[i] != stage) {
+                    continue;
+                }
+                PermissionOperation operation = operations.get(i);
+                String blocker = firstFailed(operation, failed);
+                if (blocker != null) {
+                    results[i] = skipped(operation, stage, blocker, failed);
+                } else {
+                    pending.add(i);
+                }
+            }
+
+            for (int from = 0; from < pending.size(); from += maxBatchSize) {
+                List<Integer> chunk =
+                        pending.subList(from, Math.min(from + maxBatchSize, pending.size()));
+                send(operations, chunk, stage, results, failed);
+            }
+            if (!pending.isEmpty() && stage < lastStage) {
+                stageBarrier.await(stage);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private void send(
+            List<PermissionOperation> operations,
+            List<Integer> chunk,
+            int stage,
+            PermissionOperationResult[] results,
+            Set<String> failed) {
+        BatchRequest batch = quorum.newBatch();
+        chunk.forEach(i -> batch.add(operations.get(i).createRequest(quorum, transaction)));
+
+        List<? extends Response<?>> responses;
+        try {
+            BatchResponse batchResponse = batch.send();
+            responses = batchResponse.getResponses();
+        } catch (IOException e) {
+            for (int i : chunk) {
+                results[i] = failed(operations.get(i), stage, e.getMessage(), failed);
+            }
+            return;
+        }
+
+        for (int n = 0; n < chunk.size(); n++) {
+            int i = chunk.get(n);
+            PermissionOperation operation = operations.get(i);
+            Response<?> response = n < responses.size() ? responses.get(n) : null;
+            if (response == null) {
+                results[i] = failed(operation, stage, "No response received", failed);
+            } else if (response.hasError()) {
+                results[i] = failed(operation, stage, response.getError().getMessage(), failed);
+            } else {
+                results[i] =
+                        new PermissionOperationResult(
+                                operation,
+                                PermissionOperationResult.Status.SUCCEEDED,
+                                stage,
+                                String.valueOf(response.getResult()));
+            }
+        }
+    }
+
+    /** Assigns each operation the stage after the latest stage of its dependencies in the plan. */
+    static int[] stages(List<PermissionOperation> operations) {
+        Map<String, Integer> providers = new HashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            String provides = operations.get(i).getProvides();
+            if (provides != null) {
+                providers.putIfAbsent(provides, i);
+            }
+        }
+        int[] stages = new int[operations.size()];
+        Arrays.fill(stages, -1);
+        for (int i = 0; i < operations.size(); i++) {
+            stage(i, operations, providers, stages, new HashSet<>());
+        }
+        return stages;
+    }
+
+    private static int stage(
+            int i,
+            List<PermissionOperation> operations,
+            Map<String, Integer> providers,
+            int[] stages,
+            Set<Integer> visiting) {
+        if (stages[i] >= 0) {
+            return stages[i];
+        }
+        if (!visiting.add(i)) {
+            throw new IllegalArgumentException(
+                    "Cyclic dependency on " + operations.get(i) + " in permission plan");
+        }
+        int stage = 0;
+        for (String required : operations.get(i).getRequires()) {
+            Integer provider = providers.get(required);
+            if (provider != null && provider != i) {
+                stage =
+                        Math.max(
+                                stage,
+                                stage(provider, operations, providers, stages, visiting) + 1);
+            }
+        }
+        stages[i] = stage;
+        return stage;
+    }
+
+    private static String firstFailed(PermissionOperation operation, Set<String> failed) {
+        for (String required : operation.getRequires()) {
+            if (failed.contains(required)) {
+                return required;
+            }
+        }
+        return null;
+    }
+
+    private static PermissionOperationResult skipped(
+            PermissionOperation operation, int stage, String blocker, Set<String> failed) {
+        if (operation.getProvides() != null) {
+            failed.add(operation.getProvides());
+        }
+        return new PermissionOperationResult(
+                operation,
+                PermissionOperationResult.Status.SKIPPED,
+                stage,
+                "Depends on " + blocker);
+    }
+
+    private static PermissionOperationResult failed(
+            PermissionOperation operation, int stage, String message, Set<String> failed) {
+        if (operation.getProvides() != null) {
+            failed.add(operation.getProvides());
+        }
+        return new PermissionOperationResult(
+                operation, PermissionOperationResult.Status.FAILED, stage, message);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.permissioning;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.web3j.quorum.methods.response.permissioning.OrgDetails;
+import org.web3j.quorum.methods.response.permissioning.PermissionOrgInfo;
+
+/** An org together with its details and its sub orgs, as resolved by {@link OrgTreeResolver}. */
+public final class OrgTree {
+
+    private final PermissionOrgInfo org;
+    // Has unmodifiable lists, copied by the resolver when it memoises them
+    private final OrgDetails details;
+    private final List<OrgTree> subOrgs;
+
+    OrgTree(PermissionOrgInfo org, OrgDetails details, List<OrgTree> subOrgs) {
+        this.org = org;
+        this.details = details;
+        this.subOrgs = Collections.unmodifiableList(new ArrayList<>(subOrgs));
+    }
+
+    public String getFullOrgId() {
+        return org.getFullOrgId();
+    }
+
+    public PermissionOrgInfo getOrg() {
+        return org;
+    }
+
+    /**
+     * The roles, accounts and nodes of this org, or null if the node returned none. Each call
+     * returns a new instance over unmodifiable lists, which are shared with later trees.
+     */
+    public OrgDetails getDetails() {
+        if (details == null) {
+            return null;
+        }
+        return new OrgDetails(
+                details.getRoleList(),
+                details.getAcctList(),
+                details.getNodeList(),
+                details.getSubOrgList());
+    }
+
+    public List<OrgTree> getSubOrgs() {
+        return subOrgs;
+    }
+
+    /** Returns the tree rooted at the given org within this tree, or null if it is not present. */
+    public OrgTree find(String fullOrgId) {
+        if (getFullOrgId().equals(fullOrgId)) {
+            return this;
+        }
+        if (!fullOrgId.startsWith(getFullOrgId() + ".")) {
+            return null;
+        }
+        for (OrgTree subOrg : subOrgs) {
+            OrgTree found = subOrg.find(fullOrgId);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    /** The number of orgs in this tree, including this one. */
+    public int size() {
+        int size = 1;
+        for (OrgTree subOrg : subOrgs) {
+            size += subOrg.size();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.permissioning;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Response;
+import org.web3j.quorum.Quorum;
+import org.web3j.quorum.methods.response.permissioning.OrgDetails;
+import org.web3j.quorum.methods.response.permissioning.OrgDetailsInfo;
+import org.web3j.quorum.methods.response.permissioning.PermissionOrgInfo;
+import org.web3j.quorum.methods.response.permissioning.PermissionOrgList;
+
+import static org.web3j.quorum.util.Results.await;
+
+/**
+ * Resolves an org hierarchy into an {@link OrgTree}.
+ *
+ * <p>The hierarchy is taken from a single {@code quorumPermission_orgList} call, after which the
+ * details of every org in it are fetched with {@code quorumPermission_getOrgDetails} in batches of
+ * {@code batchSize}, with up to {@code parallelism} batches in flight. A hierarchy therefore loads
+ * in two round trips however deep it is.
+ *
+ * <p>Org details are memoised per full org id and reused for as long as the org's entry in the org
+ * list is unchanged. Changes to the roles, accounts or nodes of an org do not show in the org list,
+ * so callers following those should {@link #invalidate(String)} the org concerned.
+ *
+ * <p>Batches run on the executor given to the constructor, or on a pool owned by the resolver which
+ * is reused across calls and shut down by {@link #close()}.
+ */
+public class OrgTreeResolver implements Closeable {
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private final Quorum quorum;
+    private final int batchSize;
+    private final int parallelism;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final Map<String, CachedDetails> cache = new ConcurrentHashMap<>();
+
+    public OrgTreeResolver(Quorum quorum) {
+        this(quorum, DEFAULT_BATCH_SIZE, DEFAULT_PARALLELISM);
+    }
+
+    public OrgTreeResolver(Quorum quorum, int batchSize, int parallelism) {
+        this(quorum, batchSize, parallelism, null);
+    }
+
+    /**
+     * @param executor runs the batches, and is not shut down by the resolver; if null, the resolver
+     *     creates its own pool of {@code parallelism} threads
+     */
+    public OrgTreeResolver(
+            Quorum quorum, int batchSize, int parallelism, ExecutorService executor) {
+        if (batchSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Batch size and parallelism must be positive");
+        }
+        this.quorum = quorum;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.ownsExecutor = executor == null;
+        this.executor =
+                ownsExecutor ? Executors.newFixedThreadPool(parallelism, threads()) : executor;
+    }
+
+    /**
+     * Resolves the hierarchy below the given org.
+     *
+     * @param fullOrgId the full id of the root org, such as {@code ORG.SUB}
+     * @return the tree, or null if the org does not exist
+     */
+    public OrgTree resolve(String fullOrgId) throws IOException, InterruptedException {
+        PermissionOrgList response = quorum.quorumPermissionGetOrgList().send();
+        if (response.hasError()) {
+            throw new IOException(response.getError().getMessage());
+        }
+        Map<String, PermissionOrgInfo> orgs = new HashMap<>();
+        List<PermissionOrgInfo> orgList = response.getPermissionOrgList();
+        if (orgList != null) {
+            orgList.forEach(org -> orgs.put(org.getFullOrgId(), org));
+        }
+        if (!orgs.containsKey(fullOrgId)) {
+            return null;
+        }
+
+        List<String> hierarchy = hierarchy(fullOrgId, orgs);
+        Map<String, OrgDetails> details = new HashMap<>();
+        List<String> stale = new ArrayList<>();
+        for (String orgId : hierarchy) {
+            CachedDetails cached = cache.get(orgId);
+            if (cached != null && cached.org.equals(orgs.get(orgId))) {
+                details.put(orgId, cached.details);
+            } else {
+                stale.add(orgId);
+            }
+        }
+        details.putAll(fetch(stale));
+        for (String orgId : stale) {
+            OrgDetails copy = immutableCopy(details.get(orgId));
+            details.put(orgId, copy);
+            cache.put(orgId, new CachedDetails(orgs.get(orgId), copy));
+        }
+
+        return build(fullOrgId, orgs, details, new HashSet<>());
+    }
+
+    /** Discards the memoised details of the given org. */
+    public void invalidate(String fullOrgId) {
+        cache.remove(fullOrgId);
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    /** Shuts down the pool of the resolver, unless it was given an executor. */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<String> hierarchy(String root, Map<String, PermissionOrgInfo> orgs) {
+        List<String> hierarchy = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            String orgId = queue.poll();
+            if (orgs.containsKey(orgId) && seen.add(orgId)) {
+                hierarchy.add(orgId);
+                queue.addAll(subOrgs(orgs.get(orgId)));
+            }
+        }
+        return hierarchy;
+    }
+
+    private Map<String, OrgDetails> fetch(List<String> orgIds)
+            throws IOException, InterruptedException {
+        if (orgIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<List<String>> batches = new ArrayList<>();
+        for (int from = 0; from < orgIds.size(); from += batchSize) {
+            batches.add(orgIds.subList(from, Math.min(from + batchSize, orgIds.size())));
+        }
+        if (batches.size() == 1) {
+            return fetchBatch(batches.get(0));
+        }
+
+        List<Future<Map<String, OrgDetails>>> futures = new ArrayList<>(batches.size());
+        try {
+            for (List<String> batch : batches) {
+                futures.add(executor.submit(() -> fetchBatch(batch)));
+            }
+            Map<String, OrgDetails> details = new HashMap<>();
+            for (Future<Map<String, OrgDetails>> future : futures) {
+                details.putAll(await(future));
+            }
+            return details;
+        } finally {
+            // Stop the other batches after a failure
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private Map<String, OrgDetails> fetchBatch(List<String> orgIds) throws IOException {
+        BatchRequest batch = quorum.newBatch();
+        orgIds.forEach(orgId -> batch.add(quorum.quorumPermissionGetOrgDetails(orgId)));
+        BatchResponse response = batch.send();
+
+        Map<String, OrgDetails> details = new HashMap<>();
+        int i = 0;
+        for (Response<?> orgDetails : response.getResponses()) {
+            String orgId = orgIds.get(i++);
+            if (orgDetails.hasError()) {
+                throw new IOException(
+                        "Error fetching details of org "
+                                + orgId
+                                + ": "
+                                + orgDetails.getError().getMessage());
+            }
+            details.put(orgId, ((OrgDetailsInfo) orgDetails).getOrgDetails());
+        }
+        return details;
+    }
+
+    private static OrgTree build(
+            String orgId,
+            Map<String, PermissionOrgInfo> orgs,
+            Map<String, OrgDetails> details,
+            Set<String> visited) {
+        visited.add(orgId);
+        PermissionOrgInfo org = orgs.get(orgId);
+        List<OrgTree> subOrgs = new ArrayList<>();
+        for (String subOrgId : subOrgs(org)) {
+            if (orgs.containsKey(subOrgId) && !visited.contains(subOrgId)) {
+                subOrgs.add(build(subOrgId, orgs, details, visited));
+            }
+        }
+        return new OrgTree(org, details.get(orgId), subOrgs);
+    }
+
+    /** Copies the lists of the details, so that the memoised copy cannot be changed by callers. */
+    private static OrgDetails immutableCopy(OrgDetails details) {
+        if (details == null) {
+            return null;
+        }
+        return new OrgDetails(
+                immutableCopy(details.getRoleList()),
+                immutableCopy(details.getAcctList()),
+                immutableCopy(details.getNodeList()),
+                immutableCopy(details.getSubOrgList()));
+    }
+
+    private static <T> List<T> immutableCopy(List<T> list) {
+        return list == null ? null : Collections.unmodifiableList(new ArrayList<>(list));
+    }
+
+    private static List<String> subOrgs(PermissionOrgInfo org) {
+        return org.getSubOrgList() == null ? Collections.emptyList() : org.getSubOrgList();
+    }
+
+    private static ThreadFactory threads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "org-tree-resolver-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class CachedDetails {
+        private final PermissionOrgInfo org;
+        private final OrgDetails details;
+
+        private CachedDetails(PermissionOrgInfo org, OrgDetails details) {
+            this.org = org;
+            this.details = details;
+        }
+    }
+}
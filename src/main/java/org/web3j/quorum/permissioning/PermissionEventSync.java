@@ -0,0 +1,209 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.permissioning;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+import io.reactivex.disposables.Disposable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.quorum.Quorum;
+import org.web3j.utils.Async;
+
+/**
+ * Keeps a {@link PermissionIndex} current by following the logs of the permissioning contracts.
+ *
+ * <p>Org, node, role and account events are applied to the index as they arrive, so the view trails
+ * the chain by no more than the log polling interval. The full permission lists are only re-read
+ * when the index is started, when an event cannot be applied incrementally (an unrecognised event,
+ * a removed log or an update to an entry the index does not know about), and when the log
+ * subscription fails. A failed subscription is retried after a delay which doubles with each
+ * consecutive failure, up to a maximum, and is reset once a log is received.
+ */
+public class PermissionEventSync implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PermissionEventSync.class);
+
+    private static final long DEFAULT_INITIAL_RETRY_DELAY = 1_000;
+    private static final long DEFAULT_MAX_RETRY_DELAY = 60_000;
+
+    private final Quorum quorum;
+    private final PermissionIndex index;
+    private final List<String> contractAddresses;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final long initialRetryDelay;
+    private final long maxRetryDelay;
+
+    private final AtomicLong appliedEvents = new AtomicLong();
+    private final AtomicLong reconciliations = new AtomicLong();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private boolean running;
+    private Disposable subscription;
+    private ScheduledFuture<?> retryTask;
+
+    /**
+     * @param contractAddresses addresses of the permissioning implementation contracts emitting the
+     *     org, node, role and account events
+     */
+    public PermissionEventSync(
+            Quorum quorum, PermissionIndex index, List<String> contractAddresses) {
+        this(
+                quorum,
+                index,
+                contractAddresses,
+                Async.defaultExecutorService(),
+                DEFAULT_INITIAL_RETRY_DELAY,
+                DEFAULT_MAX_RETRY_DELAY);
+    }
+
+    /**
+     * @param contractAddresses addresses of the permissioning implementation contracts emitting the
+     *     org, node, role and account events
+     * @param scheduledExecutorService executor on which failed subscriptions are retried
+     * @param initialRetryDelay delay before retrying the first failure, in milliseconds
+     * @param maxRetryDelay maximum delay between retries, in milliseconds
+     */
+    public PermissionEventSync(
+            Quorum quorum,
+            PermissionIndex index,
+            List<String> contractAddresses,
+            ScheduledExecutorService scheduledExecutorService,
+            long initialRetryDelay,
+            long maxRetryDelay) {
+        if (initialRetryDelay <= 0 || maxRetryDelay < initialRetryDelay) {
+            throw new IllegalArgumentException(
+                    "Retry delays must be positive, with the maximum at least the initial delay");
+        }
+        this.quorum = quorum;
+        this.index = index;
+        this.contractAddresses = new ArrayList<>(contractAddresses);
+        this.scheduledExecutorService = scheduledExecutorService;
+        this.initialRetryDelay = initialRetryDelay;
+        this.maxRetryDelay = maxRetryDelay;
+    }
+
+    public PermissionIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Subscribes to the permissioning contract logs, then loads the full permission lists. Events
+     * received while the lists load are idempotent, so none are missed between the two.
+     */
+    public synchronized void start() throws IOException {
+        if (!running) {
+            running = true;
+            consecutiveFailures.set(0);
+            subscribe();
+            reconciliations.incrementAndGet();
+            index.refresh();
+        }
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (subscription != null) {
+            subscription.dispose();
+            subscription = null;
+        }
+        if (retryTask != null) {
+            retryTask.cancel(false);
+            retryTask = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    /** Re-reads the full permission lists, logging rather than throwing on failure. */
+    public void reconcile() {
+        reconciliations.incrementAndGet();
+        try {
+            index.refresh();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to reconcile permission index", e);
+        }
+    }
+
+    /** The number of events applied incrementally since this sync was created. */
+    public long getAppliedEvents() {
+        return appliedEvents.get();
+    }
+
+    /** The number of times the full permission lists have been read. */
+    public long getReconciliations() {
+        return reconciliations.get();
+    }
+
+    void onLog(Log eventLog) {
+        consecutiveFailures.set(0);
+        UnaryOperator<PermissionSnapshot> change =
+                eventLog.isRemoved() ? null : PermissionEvents.decode(eventLog);
+        if (change != null && index.update(change)) {
+            appliedEvents.incrementAndGet();
+        } else {
+            log.debug(
+                    "Reconciling permission index after log {} of transaction {}",
+                    eventLog.getLogIndexRaw(),
+                    eventLog.getTransactionHash());
+            reconcile();
+        }
+    }
+
+    private synchronized void onError(Throwable throwable) {
+        if (!running || retryTask != null) {
+            return;
+        }
+        int failures = consecutiveFailures.getAndIncrement();
+        long delay =
+                failures >= Long.numberOfLeadingZeros(initialRetryDelay) - 1
+                        ? maxRetryDelay
+                        : Math.min(initialRetryDelay << failures, maxRetryDelay);
+        log.warn("Permissioning log subscription failed, resubscribing in {} ms", delay, throwable);
+        subscription = null;
+        retryTask =
+                scheduledExecutorService.schedule(this::resubscribe, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void resubscribe() {
+        retryTask = null;
+        if (running) {
+            subscribe();
+            reconcile();
+        }
+    }
+
+    private void subscribe() {
+        EthFilter filter =
+                new EthFilter(
+                        DefaultBlockParameterName.LATEST,
+                        DefaultBlockParameterName.LATEST,
+                        contractAddresses);
+        subscription = quorum.ethLogFlowable(filter).subscribe(this::onLog, this::onError);
+    }
+}
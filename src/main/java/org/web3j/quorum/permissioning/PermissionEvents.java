@@ -0,0 +1,297 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.permissioning;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import org.web3j.abi.EventEncoder;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.Event;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Uint16;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.quorum.methods.response.permissioning.PermissionAccountInfo;
+import org.web3j.quorum.methods.response.permissioning.PermissionNodeInfo;
+import org.web3j.quorum.methods.response.permissioning.PermissionOrgInfo;
+import org.web3j.quorum.methods.response.permissioning.PermissionRoleInfo;
+
+/**
+ * Decodes the events emitted by the Quorum permissioning contracts into changes to a {@link
+ * PermissionSnapshot}.
+ *
+ * <p>Only events which carry the complete resulting state of an entry are translated. Other events,
+ * such as account access revocation, can only be followed by re-reading the permission lists.
+ */
+final class PermissionEvents {
+
+    private static final int ORG_APPROVED = 2;
+    private static final int ORG_SUSPENDED = 4;
+
+    private static final int NODE_PENDING_APPROVAL = 1;
+    private static final int NODE_DEACTIVATED = 3;
+    private static final int NODE_BLACKLISTED = 4;
+    private static final int NODE_RECOVERY_INITIATED = 5;
+
+    private static final Map<String, Decoder> DECODERS = new HashMap<>();
+
+    static {
+        registerOrgEvent("OrgApproved");
+        registerOrgEvent("OrgPendingApproval");
+        registerOrgEvent("OrgSuspended", ORG_SUSPENDED);
+        registerOrgEvent("OrgSuspensionRevoked", ORG_APPROVED);
+
+        registerNodeEvent("NodeProposed", NODE_PENDING_APPROVAL);
+        registerNodeEvent("NodeApproved", PermissionSnapshot.NODE_APPROVED);
+        registerNodeEvent("NodeActivated", PermissionSnapshot.NODE_APPROVED);
+        registerNodeEvent("NodeDeactivated", NODE_DEACTIVATED);
+        registerNodeEvent("NodeBlacklisted", NODE_BLACKLISTED);
+        registerNodeEvent("NodeRecoveryInitiated", NODE_RECOVERY_INITIATED);
+        registerNodeEvent("NodeRecoveryCompleted", PermissionSnapshot.NODE_APPROVED);
+
+        register(
+                new Event(
+                        "RoleCreated",
+                        Arrays.asList(
+                                new TypeReference<Utf8String>() {},
+                                new TypeReference<Utf8String>() {},
+                                new TypeReference<Uint256>() {},
+                                new TypeReference<Bool>() {},
+                                new TypeReference<Bool>() {})),
+                PermissionEvents::roleCreated);
+        register(
+                new Event(
+                        "RoleRevoked",
+                        Arrays.asList(
+                                new TypeReference<Utf8String>() {},
+                                new TypeReference<Utf8String>() {})),
+                PermissionEvents::roleRevoked);
+
+        register(
+                new Event(
+                        "AccountAccessModified",
+                        Arrays.asList(
+                                new TypeReference<Address>() {},
+                                new TypeReference<Utf8String>() {},
+                                new TypeReference<Utf8String>() {},
+                                new TypeReference<Bool>() {},
+                                new TypeReference<Uint256>() {})),
+                PermissionEvents::accountModified);
+        register(
+                new Event(
+                        "AccountStatusChanged",
+                        Arrays.asList(
+                                new TypeReference<Address>() {},
+                                new TypeReference<Utf8String>() {},
+                                new TypeReference<Uint256>() {})),
+                PermissionEvents::accountStatusChanged);
+    }
+
+    private PermissionEvents() {}
+
+    /**
+     * Returns the change described by the given log, or null if it is not a recognised
+     * permissioning event.
+     */
+    static UnaryOperator<PermissionSnapshot> decode(Log log) {
+        if (log.getTopics() == null || log.getTopics().isEmpty()) {
+            return null;
+        }
+        Decoder decoder = DECODERS.get(log.getTopics().get(0));
+        if (decoder == null) {
+            return null;
+        }
+        List<Type> values =
+                FunctionReturnDecoder.decode(
+                        log.getData(), decoder.event.getNonIndexedParameters());
+        if (values.size() != decoder.event.getNonIndexedParameters().size()) {
+            return null;
+        }
+        return decoder.change.apply(values);
+    }
+
+    private static UnaryOperator<PermissionSnapshot> orgChanged(List<Type> values, int status) {
+        String orgId = string(values.get(0));
+        String parentOrgId = string(values.get(1));
+        String fullOrgId = parentOrgId.isEmpty() ? orgId : parentOrgId + "." + orgId;
+        PermissionOrgInfo org =
+                new PermissionOrgInfo(
+                        orgId,
+                        fullOrgId,
+                        parentOrgId,
+                        string(values.get(2)),
+                        integer(values.get(3)),
+                        status,
+                        null);
+        return snapshot -> snapshot.withOrg(org);
+    }
+
+    private static UnaryOperator<PermissionSnapshot> nodeChanged(List<Type> values, int status) {
+        String enodeId = string(values.get(0));
+        String orgId = string(values.get(4));
+        int raftPort = integer(values.get(3));
+        String url =
+                "enode://"
+                        + enodeId
+                        + "@"
+                        + string(values.get(1))
+                        + ":"
+                        + integer(values.get(2))
+                        + "?discport=0"
+                        + (raftPort == 0 ? "" : "&raftport=" + raftPort);
+        return snapshot -> {
+            PermissionNodeInfo existing = snapshot.getNode(enodeId);
+            return snapshot.withNode(
+                    new PermissionNodeInfo(
+                            orgId, existing == null ? url : existing.getUrl(), status));
+        };
+    }
+
+    private static UnaryOperator<PermissionSnapshot> roleCreated(List<Type> values) {
+        PermissionRoleInfo role =
+                new PermissionRoleInfo(
+                        bool(values.get(3)),
+                        true,
+                        string(values.get(1)),
+                        string(values.get(0)),
+                        integer(values.get(2)),
+                        bool(values.get(4)));
+        return snapshot -> snapshot.withRole(role);
+    }
+
+    private static UnaryOperator<PermissionSnapshot> roleRevoked(List<Type> values) {
+        String roleId = string(values.get(0));
+        String orgId = string(values.get(1));
+        return snapshot -> {
+            PermissionRoleInfo existing = snapshot.getRole(orgId, roleId);
+            if (existing == null) {
+                return null;
+            }
+            return snapshot.withRole(
+                    new PermissionRoleInfo(
+                            existing.isVoter(),
+                            false,
+                            orgId,
+                            roleId,
+                            existing.getAccess(),
+                            existing.isAdmin()));
+        };
+    }
+
+    private static UnaryOperator<PermissionSnapshot> accountModified(List<Type> values) {
+        PermissionAccountInfo account =
+                new PermissionAccountInfo(
+                        string(values.get(0)),
+                        bool(values.get(3)),
+                        string(values.get(1)),
+                        string(values.get(2)),
+                        integer(values.get(4)));
+        return snapshot -> snapshot.withAccount(account);
+    }
+
+    private static UnaryOperator<PermissionSnapshot> accountStatusChanged(List<Type> values) {
+        String address = string(values.get(0));
+        int status = integer(values.get(2));
+        return snapshot -> {
+            PermissionAccountInfo existing = snapshot.getAccount(address);
+            if (existing == null) {
+                return null;
+            }
+            return snapshot.withAccount(
+                    new PermissionAccountInfo(
+                            existing.getAcctId(),
+                            existing.isOrgAdmin(),
+                            existing.getOrgId(),
+                            existing.getRoleId(),
+                            status));
+        };
+    }
+
+    /** Registers an org event carrying the org's resulting status as its last parameter. */
+    private static void registerOrgEvent(String name) {
+        register(
+                new Event(
+                        name,
+                        Arrays.asList(
+                                new TypeReference<Utf8String>() {},
+                                new TypeReference<Utf8String>() {},
+                                new TypeReference<Utf8String>() {},
+                                new TypeReference<Uint256>() {},
+                                new TypeReference<Uint256>() {})),
+                values -> orgChanged(values, integer(values.get(4))));
+    }
+
+    /** Registers an org event without a status parameter, which implies the given status. */
+    private static void registerOrgEvent(String name, int status) {
+        register(
+                new Event(
+                        name,
+                        Arrays.asList(
+                                new TypeReference<Utf8String>() {},
+                                new TypeReference<Utf8String>() {},
+                                new TypeReference<Utf8String>() {},
+                                new TypeReference<Uint256>() {})),
+                values -> orgChanged(values, status));
+    }
+
+    private static void registerNodeEvent(String name, int status) {
+        register(
+                new Event(
+                        name,
+                        Arrays.asList(
+                                new TypeReference<Utf8String>() {},
+                                new TypeReference<Utf8String>() {},
+                                new TypeReference<Uint16>() {},
+                                new TypeReference<Uint16>() {},
+                                new TypeReference<Utf8String>() {})),
+                values -> nodeChanged(values, status));
+    }
+
+    private static void register(
+            Event event, Function<List<Type>, UnaryOperator<PermissionSnapshot>> change) {
+        DECODERS.put(EventEncoder.encode(event), new Decoder(event, change));
+    }
+
+    private static String string(Type value) {
+        return value.getValue().toString();
+    }
+
+    private static int integer(Type value) {
+        return ((BigInteger) value.getValue()).intValue();
+    }
+
+    private static boolean bool(Type value) {
+        return (Boolean) value.getValue();
+    }
+
+    private static class Decoder {
+        private final Event event;
+        private final Function<List<Type>, UnaryOperator<PermissionSnapshot>> change;
+
+        private Decoder(
+                Event event, Function<List<Type>, UnaryOperator<PermissionSnapshot>> change) {
+            this.event = event;
+            this.change = change;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.permissioning;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.web3j.quorum.Quorum;
+import org.web3j.quorum.QuorumBatch;
+import org.web3j.quorum.methods.response.permissioning.PermissionAccountList;
+import org.web3j.quorum.methods.response.permissioning.PermissionNodeList;
+import org.web3j.quorum.methods.response.permissioning.PermissionOrgList;
+import org.web3j.quorum.methods.response.permissioning.PermissionRoleList;
+
+import static org.web3j.quorum.util.Results.checked;
+
+/**
+ * In-memory index of a node's permissioning state.
+ *
+ * <p>Each refresh fetches the org, node, role and account lists in a single JSON-RPC batch and
+ * publishes a new {@link PermissionSnapshot}. Only the indexes of lists which changed since the
+ * previous refresh are rebuilt, and the snapshot is left untouched if nothing changed at all. The
+ * lists are fetched without holding the lock, and incremental changes published while they load are
+ * applied again on top of them, as they may be newer than the lists. Readers should take a snapshot
+ * once per decision, so that all lookups see the same state.
+ */
+public class PermissionIndex implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PermissionIndex.class);
+
+    private final Quorum quorum;
+
+    private volatile PermissionSnapshot snapshot = PermissionSnapshot.EMPTY;
+    private ScheduledFuture<?> refreshTask;
+    // Changes published while any refresh is fetching, cleared once none is
+    private final List<UnaryOperator<PermissionSnapshot>> recentChanges = new ArrayList<>();
+    private int refreshing;
+
+    public PermissionIndex(Quorum quorum) {
+        this.quorum = quorum;
+    }
+
+    /** The state seen by the last successful refresh, which is empty before the first one. */
+    public PermissionSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Fetches the current permissioning state from the node and publishes it.
+     *
+     * @return true if the state changed since the previous refresh
+     */
+    public boolean refresh() throws IOException {
+        int firstChange;
+        synchronized (this) {
+            refreshing++;
+            firstChange = recentChanges.size();
+        }
+        try {
+            QuorumBatch batch = quorum.newQuorumBatch();
+            QuorumBatch.Handle<PermissionOrgList> orgs =
+                    batch.add(quorum.quorumPermissionGetOrgList());
+            QuorumBatch.Handle<PermissionNodeList> nodes =
+                    batch.add(quorum.quorumPermissionGetNodeList());
+            QuorumBatch.Handle<PermissionRoleList> roles =
+                    batch.add(quorum.quorumPermissionGetRoleList());
+            QuorumBatch.Handle<PermissionAccountList> accounts =
+                    batch.add(quorum.quorumPermissionGetAccountList());
+            QuorumBatch.Responses responses = batch.send();
+            PermissionOrgList orgList = checked(responses.get(orgs));
+            PermissionNodeList nodeList = checked(responses.get(nodes));
+            PermissionRoleList roleList = checked(responses.get(roles));
+            PermissionAccountList accountList = checked(responses.get(accounts));
+            return publish(orgList, nodeList, roleList, accountList, firstChange);
+        } finally {
+            synchronized (this) {
+                if (--refreshing == 0) {
+                    recentChanges.clear();
+                }
+            }
+        }
+    }
+
+    private synchronized boolean publish(
+            PermissionOrgList orgList,
+            PermissionNodeList nodeList,
+            PermissionRoleList roleList,
+            PermissionAccountList accountList,
+            int firstChange) {
+        PermissionSnapshot current = snapshot;
+        PermissionSnapshot latest =
+                new PermissionSnapshot(
+                        orEmpty(orgList.getPermissionOrgList()),
+                        orEmpty(nodeList.getPermissionNodeList()),
+                        orEmpty(roleList.getPermissionRoleList()),
+                        orEmpty(accountList.getPermissionAccountList()),
+                        current);
+        for (UnaryOperator<PermissionSnapshot> change :
+                recentChanges.subList(firstChange, recentChanges.size())) {
+            PermissionSnapshot changed = change.apply(latest);
+            if (changed != null) {
+                latest = changed;
+            }
+        }
+        if (latest.getOrgList().equals(current.getOrgList())
+                && latest.getNodeList().equals(current.getNodeList())
+                && latest.getRoleList().equals(current.getRoleList())
+                && latest.getAccountList().equals(current.getAccountList())) {
+            return false;
+        }
+        snapshot = latest;
+        return true;
+    }
+
+    /**
+     * Publishes the result of applying an incremental change to the current snapshot.
+     *
+     * @param change returns the updated snapshot, or null if it cannot be applied to the current
+     *     one
+     * @return false if the change could not be applied
+     */
+    synchronized boolean update(UnaryOperator<PermissionSnapshot> change) {
+        PermissionSnapshot updated = change.apply(snapshot);
+        if (updated == null) {
+            return false;
+        }
+        snapshot = updated;
+        if (refreshing > 0) {
+            recentChanges.add(change);
+        }
+        return true;
+    }
+
+    /**
+     * Refreshes the index at the given interval, in milliseconds. Failed refreshes are logged and
+     * leave the previous snapshot in place.
+     */
+    public synchronized void start(
+            ScheduledExecutorService scheduledExecutorService, long refreshInterval) {
+        if (refreshTask == null) {
+            refreshTask =
+                    scheduledExecutorService.scheduleWithFixedDelay(
+                            this::scheduledRefresh, 0, refreshInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized void stop() {
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+            refreshTask = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    private void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to refresh permission index", e);
+        }
+    }
+
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list == null ? Collections.emptyList() : list;
+    }
+}
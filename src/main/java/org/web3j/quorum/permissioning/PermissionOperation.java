@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.permissioning;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.web3j.protocol.core.Request;
+import org.web3j.quorum.Quorum;
+import org.web3j.quorum.methods.request.PrivateTransaction;
+import org.web3j.quorum.methods.response.permissioning.ExecStatusInfo;
+
+/** A single permissioning transaction within a {@link PermissionPlan}. */
+public final class PermissionOperation {
+
+    public enum Type {
+        ADD_ORG,
+        APPROVE_ORG,
+        ADD_SUB_ORG,
+        ADD_ROLE,
+        ADD_NODE,
+        ADD_ACCOUNT,
+        ASSIGN_ADMIN_ROLE,
+        APPROVE_ADMIN_ROLE
+    }
+
+    @FunctionalInterface
+    interface RequestFactory {
+        Request<?, ExecStatusInfo> create(Quorum quorum, PrivateTransaction transaction);
+    }
+
+    private final Type type;
+    private final List<Object> arguments;
+    private final List<String> requires;
+    private final String provides;
+    private final RequestFactory requestFactory;
+
+    PermissionOperation(
+            Type type,
+            List<String> requires,
+            String provides,
+            RequestFactory requestFactory,
+            Object... arguments) {
+        this.type = type;
+        this.arguments = Collections.unmodifiableList(Arrays.asList(arguments));
+        this.requires = requires;
+        this.provides = provides;
+        this.requestFactory = requestFactory;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /** The arguments of the permissioning method, excluding the transaction. */
+    public List<Object> getArguments() {
+        return arguments;
+    }
+
+    /** Keys of the state which must exist before this operation can succeed. */
+    List<String> getRequires() {
+        return requires;
+    }
+
+    /** Key of the state created by this operation, or null. */
+    String getProvides() {
+        return provides;
+    }
+
+    Request<?, ExecStatusInfo> createRequest(Quorum quorum, PrivateTransaction transaction) {
+        return requestFactory.create(quorum, transaction);
+    }
+
+    @Override
+    public String toString() {
+        return type + arguments.toString();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.permissioning;
+
+/** The outcome of a single {@link PermissionOperation} executed by {@link BulkPermissioning}. */
+public final class PermissionOperationResult {
+
+    public enum Status {
+        /** The node accepted the operation. */
+        SUCCEEDED,
+        /** The node rejected the operation, or the request could not be sent. */
+        FAILED,
+        /** The operation was not sent, as an operation it depends on did not succeed. */
+        SKIPPED
+    }
+
+    private final PermissionOperation operation;
+    private final Status status;
+    private final int stage;
+    private final String message;
+
+    PermissionOperationResult(
+            PermissionOperation operation, Status status, int stage, String message) {
+        this.operation = operation;
+        this.status = status;
+        this.stage = stage;
+        this.message = message;
+    }
+
+    public PermissionOperation getOperation() {
+        return operation;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /** The stage the operation was scheduled in, starting from zero. */
+    public int getStage() {
+        return stage;
+    }
+
+    /** The execution status returned by the node, or the reason the operation failed. */
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isSuccess() {
+        return status == Status.SUCCEEDED;
+    }
+
+    @Override
+    public String toString() {
+        return operation + " " + status + (message == null ? "" : ": " + message);
+    }
+}
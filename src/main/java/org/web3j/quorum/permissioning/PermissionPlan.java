@@ -0,0 +1,159 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.permissioning;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A declarative set of permissioning changes, such as onboarding an org with its roles, nodes and
+ * accounts, executed by {@link BulkPermissioning}.
+ *
+ * <p>Operations may be added in any order. Dependencies between them, for instance an account on a
+ * role created by the same plan, are derived from their arguments. State not created by the plan is
+ * assumed to already exist on the network.
+ */
+public class PermissionPlan {
+
+    private final List<PermissionOperation> operations = new ArrayList<>();
+
+    public PermissionPlan addOrg(String orgId, String enodeId, String address) {
+        return add(
+                new PermissionOperation(
+                        PermissionOperation.Type.ADD_ORG,
+                        Collections.emptyList(),
+                        proposedOrg(orgId),
+                        (quorum, tx) -> quorum.quorumPermissionAddOrg(orgId, enodeId, address, tx),
+                        orgId,
+                        enodeId,
+                        address));
+    }
+
+    public PermissionPlan approveOrg(String orgId, String enodeId, String address) {
+        return add(
+                new PermissionOperation(
+                        PermissionOperation.Type.APPROVE_ORG,
+                        Collections.singletonList(proposedOrg(orgId)),
+                        org(orgId),
+                        (quorum, tx) ->
+                                quorum.quorumPermissionApproveOrg(orgId, enodeId, address, tx),
+                        orgId,
+                        enodeId,
+                        address));
+    }
+
+    public PermissionPlan addSubOrg(String parentOrgId, String orgId, String enodeId) {
+        return add(
+                new PermissionOperation(
+                        PermissionOperation.Type.ADD_SUB_ORG,
+                        Collections.singletonList(org(parentOrgId)),
+                        org(parentOrgId + "." + orgId),
+                        (quorum, tx) ->
+                                quorum.quorumPermissionAddSubOrg(parentOrgId, orgId, enodeId, tx),
+                        parentOrgId,
+                        orgId,
+                        enodeId));
+    }
+
+    public PermissionPlan addRole(
+            String orgId, String roleId, int access, boolean isVoter, boolean isAdmin) {
+        return add(
+                new PermissionOperation(
+                        PermissionOperation.Type.ADD_ROLE,
+                        Collections.singletonList(org(orgId)),
+                        role(orgId, roleId),
+                        (quorum, tx) ->
+                                quorum.quorumPermissionAddNewRole(
+                                        orgId, roleId, access, isVoter, isAdmin, tx),
+                        orgId,
+                        roleId,
+                        access,
+                        isVoter,
+                        isAdmin));
+    }
+
+    public PermissionPlan addNode(String orgId, String enodeId) {
+        return add(
+                new PermissionOperation(
+                        PermissionOperation.Type.ADD_NODE,
+                        Collections.singletonList(org(orgId)),
+                        null,
+                        (quorum, tx) -> quorum.quorumPermissionAddNode(orgId, enodeId, tx),
+                        orgId,
+                        enodeId));
+    }
+
+    public PermissionPlan addAccount(String address, String orgId, String roleId) {
+        return add(
+                new PermissionOperation(
+                        PermissionOperation.Type.ADD_ACCOUNT,
+                        Arrays.asList(org(orgId), role(orgId, roleId)),
+                        null,
+                        (quorum, tx) ->
+                                quorum.quorumPermissionAddAccountToOrg(address, orgId, roleId, tx),
+                        address,
+                        orgId,
+                        roleId));
+    }
+
+    public PermissionPlan assignAdminRole(String orgId, String address, String roleId) {
+        return add(
+                new PermissionOperation(
+                        PermissionOperation.Type.ASSIGN_ADMIN_ROLE,
+                        Arrays.asList(org(orgId), role(orgId, roleId)),
+                        admin(orgId, address),
+                        (quorum, tx) ->
+                                quorum.quorumPermissionAssignAdminRole(orgId, address, roleId, tx),
+                        orgId,
+                        address,
+                        roleId));
+    }
+
+    public PermissionPlan approveAdminRole(String orgId, String address) {
+        return add(
+                new PermissionOperation(
+                        PermissionOperation.Type.APPROVE_ADMIN_ROLE,
+                        Collections.singletonList(admin(orgId, address)),
+                        null,
+                        (quorum, tx) -> quorum.quorumPermissionApproveAdminRole(orgId, address, tx),
+                        orgId,
+                        address));
+    }
+
+    public List<PermissionOperation> getOperations() {
+        return Collections.unmodifiableList(operations);
+    }
+
+    private PermissionPlan add(PermissionOperation operation) {
+        operations.add(operation);
+        return this;
+    }
+
+    private static String proposedOrg(String orgId) {
+        return "proposed-org:" + orgId;
+    }
+
+    private static String org(String fullOrgId) {
+        return "org:" + fullOrgId;
+    }
+
+    private static String role(String orgId, String roleId) {
+        return "role:" + orgId + ":" + roleId;
+    }
+
+    private static String admin(String orgId, String address) {
+        return "admin:" + orgId + ":" + address.toLowerCase();
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.permissioning;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.web3j.quorum.methods.response.permissioning.PermissionAccountInfo;
+import org.web3j.quorum.methods.response.permissioning.PermissionNodeInfo;
+import org.web3j.quorum.methods.response.permissioning.PermissionOrgInfo;
+import org.web3j.quorum.methods.response.permissioning.PermissionRoleInfo;
+
+/**
+ * Immutable, indexed view of a node's permissioning state.
+ *
+ * <p>Accounts are keyed by lower case address, nodes by enode id (the public key part of the enode
+ * URL), orgs by full org id and roles by org and role id, so all lookups are constant time.
+ */
+public final class PermissionSnapshot {
+
+    /** Account status of an active account. */
+    public static final int ACCOUNT_ACTIVE = 2;
+    /** Node status of an approved node. */
+    public static final int NODE_APPROVED = 2;
+
+    static final PermissionSnapshot EMPTY =
+            new PermissionSnapshot(
+                    Collections.emptyList(),
+                    Collections.emptyList(),
+                    Collections.emptyList(),
+                    Collections.emptyList());
+
+    private final List<PermissionOrgInfo> orgList;
+    private final List<PermissionNodeInfo> nodeList;
+    private final List<PermissionRoleInfo> roleList;
+    private final List<PermissionAccountInfo> accountList;
+
+    private final Map<String, PermissionOrgInfo> orgs;
+    private final Map<String, List<String>> subOrgs;
+    private final Map<String, PermissionNodeInfo> nodes;
+    private final Map<String, PermissionRoleInfo> roles;
+    private final Map<String, PermissionAccountInfo> accounts;
+
+    PermissionSnapshot(
+            List<PermissionOrgInfo> orgList,
+            List<PermissionNodeInfo> nodeList,
+            List<PermissionRoleInfo> roleList,
+            List<PermissionAccountInfo> accountList) {
+        this(orgList, nodeList, roleList, accountList, null);
+    }
+
+    /**
+     * Creates a snapshot from the given lists, sharing the indexes of any list which is unchanged
+     * from {@code previous}.
+     */
+    PermissionSnapshot(
+            List<PermissionOrgInfo> orgList,
+            List<PermissionNodeInfo> nodeList,
+            List<PermissionRoleInfo> roleList,
+            List<PermissionAccountInfo> accountList,
+            PermissionSnapshot previous) {
+        this.orgList = Collections.unmodifiableList(new ArrayList<>(orgList));
+        this.nodeList = Collections.unmodifiableList(new ArrayList<>(nodeList));
+        this.roleList = Collections.unmodifiableList(new ArrayList<>(roleList));
+        this.accountList = Collections.unmodifiableList(new ArrayList<>(accountList));
+
+        if (previous != null && previous.orgList.equals(orgList)) {
+            this.orgs = previous.orgs;
+            this.subOrgs = previous.subOrgs;
+        } else {
+            this.orgs = indexOrgs(orgList);
+            this.subOrgs = indexSubOrgs(orgList);
+        }
+        this.nodes =
+                previous != null && previous.nodeList.equals(nodeList)
+                        ? previous.nodes
+                        : indexNodes(nodeList);
+        this.roles =
+                previous != null && previous.roleList.equals(roleList)
+                        ? previous.roles
+                        : indexRoles(roleList);
+        this.accounts =
+                previous != null && previous.accountList.equals(accountList)
+                        ? previous.accounts
+                        : indexAccounts(accountList);
+    }
+
+    /** Creates a snapshot from lists and indexes which are already unmodifiable. */
+    private PermissionSnapshot(
+            List<PermissionOrgInfo> orgList,
+            List<PermissionNodeInfo> nodeList,
+            List<PermissionRoleInfo> roleList,
+            List<PermissionAccountInfo> accountList,
+            Map<String, PermissionOrgInfo> orgs,
+            Map<String, List<String>> subOrgs,
+            Map<String, PermissionNodeInfo> nodes,
+            Map<String, PermissionRoleInfo> roles,
+            Map<String, PermissionAccountInfo> accounts) {
+        this.orgList = orgList;
+        this.nodeList = nodeList;
+        this.roleList = roleList;
+        this.accountList = accountList;
+        this.orgs = orgs;
+        this.subOrgs = subOrgs;
+        this.nodes = nodes;
+        this.roles = roles;
+        this.accounts = accounts;
+    }
+
+    public PermissionAccountInfo getAccount(String address) {
+        return accounts.get(address.toLowerCase());
+    }
+
+    /** Returns the node with the given enode id or enode URL. */
+    public PermissionNodeInfo getNode(String enode) {
+        return nodes.get(enodeId(enode));
+    }
+
+    public PermissionOrgInfo getOrg(String fullOrgId) {
+        return orgs.get(fullOrgId);
+    }
+
+    public PermissionRoleInfo getRole(String orgId, String roleId) {
+        return roles.get(roleKey(orgId, roleId));
+    }
+
+    /** Returns the role held by the given account, or null if either is unknown. */
+    public PermissionRoleInfo getAccountRole(String address) {
+        PermissionAccountInfo account = getAccount(address);
+        return account == null ? null : getRole(account.getOrgId(), account.getRoleId());
+    }
+
+    /** Returns the full ids of the direct sub orgs of the given org. */
+    public List<String> getSubOrgs(String fullOrgId) {
+        return subOrgs.getOrDefault(fullOrgId, Collections.emptyList());
+    }
+
+    public boolean isAccountActive(String address) {
+        PermissionAccountInfo account = getAccount(address);
+        return account != null && account.getStatus() == ACCOUNT_ACTIVE;
+    }
+
+    public boolean isNodeApproved(String enode) {
+        PermissionNodeInfo node = getNode(enode);
+        return node != null && node.getStatus() == NODE_APPROVED;
+    }
+
+    public List<PermissionOrgInfo> getOrgList() {
+        return orgList;
+    }
+
+    public List<PermissionNodeInfo> getNodeList() {
+        return nodeList;
+    }
+
+    public List<PermissionRoleInfo> getRoleList() {
+        return roleList;
+    }
+
+    public List<PermissionAccountInfo> getAccountList() {
+        return accountList;
+    }
+
+    /**
+     * Returns a copy of this snapshot with the given org added or replaced, keeping its known sub
+     * orgs and registering it with its parent. The other lists and their indexes are shared with
+     * this snapshot, as they are by the other {@code with} methods.
+     */
+    PermissionSnapshot withOrg(PermissionOrgInfo org) {
+        PermissionOrgInfo existing = orgs.get(org.getFullOrgId());
+        if (org.getSubOrgList() == null && existing != null) {
+            org =
+                    new PermissionOrgInfo(
+                            org.getOrgId(),
+                            org.getFullOrgId(),
+                            org.getParentOrgId(),
+                            org.getUltimateParent(),
+                            org.getLevel(),
+                            org.getStatus(),
+                            existing.getSubOrgList());
+        }
+        List<PermissionOrgInfo> updatedList = replace(orgList, existing, org);
+        Map<String, PermissionOrgInfo> updatedOrgs = new HashMap<>(orgs);
+        Map<String, List<String>> updatedSubOrgs = new HashMap<>(subOrgs);
+        updatedOrgs.put(org.getFullOrgId(), org);
+        putSubOrgs(updatedSubOrgs, org);
+
+        PermissionOrgInfo parent = orgs.get(org.getParentOrgId());
+        if (existing == null
+                && parent != null
+                && !getSubOrgs(parent.getFullOrgId()).contains(org.getFullOrgId())) {
+            List<String> siblings = new ArrayList<>(getSubOrgs(parent.getFullOrgId()));
+            siblings.add(org.getFullOrgId());
+            PermissionOrgInfo updatedParent =
+                    new PermissionOrgInfo(
+                            parent.getOrgId(),
+                            parent.getFullOrgId(),
+                            parent.getParentOrgId(),
+                            parent.getUltimateParent(),
+                            parent.getLevel(),
+                            parent.getStatus(),
+                            siblings);
+            updatedList = replace(updatedList, parent, updatedParent);
+            updatedOrgs.put(parent.getFullOrgId(), updatedParent);
+            putSubOrgs(updatedSubOrgs, updatedParent);
+        }
+        return new PermissionSnapshot(
+                updatedList,
+                nodeList,
+                roleList,
+                accountList,
+                Collections.unmodifiableMap(updatedOrgs),
+                Collections.unmodifiableMap(updatedSubOrgs),
+                nodes,
+                roles,
+                accounts);
+    }
+
+    PermissionSnapshot withNode(PermissionNodeInfo node) {
+        String id = enodeId(node.getUrl());
+        return new PermissionSnapshot(
+                orgList,
+                replace(nodeList, nodes.get(id), node),
+                roleList,
+                accountList,
+                orgs,
+                subOrgs,
+                put(nodes, id, node),
+                roles,
+                accounts);
+    }
+
+    PermissionSnapshot withRole(PermissionRoleInfo role) {
+        String key = roleKey(role.getOrgId(), role.getRoleId());
+        return new PermissionSnapshot(
+                orgList,
+                nodeList,
+                replace(roleList, roles.get(key), role),
+                accountList,
+                orgs,
+                subOrgs,
+                nodes,
+                put(roles, key, role),
+                accounts);
+    }
+
+    PermissionSnapshot withAccount(PermissionAccountInfo account) {
+        String address = account.getAcctId().toLowerCase();
+        return new PermissionSnapshot(
+                orgList,
+                nodeList,
+                roleList,
+                replace(accountList, accounts.get(address), account),
+                orgs,
+                subOrgs,
+                nodes,
+                roles,
+                put(accounts, address, account));
+    }
+
+    /**
+     * Copies the list with {@code existing}, the element indexed under the key of {@code value},
+     * replaced by {@code value}, or with {@code value} appended if there is none.
+     */
+    private static <T> List<T> replace(List<T> list, T existing, T value) {
+        List<T> result = new ArrayList<>(list.size() + 1);
+        result.addAll(list);
+        int position = -1;
+        if (existing != null) {
+            // The indexed element is the last one with its key
+            for (int i = result.size() - 1; i >= 0; i--) {
+                if (result.get(i) == existing) {
+                    position = i;
+                    break;
+                }
+            }
+        }
+        if (position < 0) {
+            result.add(value);
+        } else {
+            result.set(position, value);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static <T> Map<String, T> put(Map<String, T> index, String key, T value) {
+        Map<String, T> result = new HashMap<>(index);
+        result.put(key, value);
+        return Collections.unmodifiableMap(result);
+    }
+
+    /** Extracts the enode id from an enode URL of the form {@code enode://<id>@<host>:<port>}. */
+    static String enodeId(String enode) {
+        String id = enode.startsWith("enode://") ? enode.substring("enode://".length()) : enode;
+        int at = id.indexOf('@');
+        return (at < 0 ? id : id.substring(0, at)).toLowerCase();
+    }
+
+    private static String roleKey(String orgId, String roleId) {
+        return orgId + '\u0000' + roleId;
+    }
+
+    private static Map<String, PermissionOrgInfo> indexOrgs(List<PermissionOrgInfo> orgList) {
+        Map<String, PermissionOrgInfo> index = new HashMap<>();
+        orgList.forEach(org -> index.put(org.getFullOrgId(), org));
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static Map<String, List<String>> indexSubOrgs(List<PermissionOrgInfo> orgList) {
+        Map<String, List<String>> index = new HashMap<>();
+        orgList.forEach(org -> putSubOrgs(index, org));
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static void putSubOrgs(Map<String, List<String>> index, PermissionOrgInfo org) {
+        if (org.getSubOrgList() != null && !org.getSubOrgList().isEmpty()) {
+            index.put(
+                    org.getFullOrgId(),
+                    Collections.unmodifiableList(new ArrayList<>(org.getSubOrgList())));
+        } else {
+            index.remove(org.getFullOrgId());
+        }
+    }
+
+    private static Map<String, PermissionNodeInfo> indexNodes(List<PermissionNodeInfo> nodeList) {
+        Map<String, PermissionNodeInfo> index = new HashMap<>();
+        nodeList.forEach(node -> index.put(enodeId(node.getUrl()), node));
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static Map<String, PermissionRoleInfo> indexRoles(List<PermissionRoleInfo> roleList) {
+        Map<String, PermissionRoleInfo> index = new HashMap<>();
+        roleList.forEach(role -> index.put(roleKey(role.getOrgId(), role.getRoleId()), role));
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static Map<String, PermissionAccountInfo> indexAccounts(
+            List<PermissionAccountInfo> accountList) {
+        Map<String, PermissionAccountInfo> index = new HashMap<>();
+        accountList.forEach(account -> index.put(account.getAcctId().toLowerCase(), account));
+        return Collections.unmodifiableMap(index);
+    }
+}
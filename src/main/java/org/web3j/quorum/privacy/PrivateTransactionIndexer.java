@@ -0,0 +1,407 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.privacy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
+import org.web3j.protocol.core.methods.response.EthTransaction;
+import org.web3j.protocol.core.methods.response.Transaction;
+import org.web3j.quorum.Quorum;
+import org.web3j.quorum.QuorumBatch;
+import org.web3j.quorum.cache.PrivatePayloadFetcher;
+import org.web3j.quorum.methods.response.EthGetQuorumTransactionReceipt;
+import org.web3j.quorum.methods.response.QuorumTransactionReceipt;
+
+import static org.web3j.quorum.util.Results.await;
+import static org.web3j.quorum.util.Results.checked;
+
+/**
+ * Reconstructs the private transactions a node participated in over a range of blocks.
+ *
+ * <p>The range is split into chunks of {@code chunkSize} blocks, which up to {@code parallelism}
+ * workers take from a shared queue, so that chunks with many transactions do not hold up the
+ * others. For each chunk the blocks, the receipts of their transactions, the private transactions
+ * and receipts behind privacy marker transactions and, if a {@link PrivatePayloadFetcher} is
+ * supplied, the private payloads are each fetched in JSON-RPC batches of at most {@code batchSize}
+ * requests.
+ *
+ * <p>Private transactions the node was not party to are left out: marker transactions whose private
+ * transaction is unknown to the node and, when payloads are fetched, private transactions with an
+ * empty payload. Progress is recorded in a checkpoint file holding the last block below which all
+ * chunks have been delivered to the sink, from which {@link #resume(long, long)} continues. As the
+ * checkpoint is shared, an indexer runs one range at a time.
+ *
+ * <p>The workers run on the executor given to the constructor, or on a pool owned by the indexer
+ * which is reused across calls and shut down by {@link #close()}.
+ */
+public class PrivateTransactionIndexer implements Closeable {
+
+    public static final int DEFAULT_CHUNK_SIZE = 100;
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private static final long PRIVATE_V_EVEN = 37;
+    private static final long PRIVATE_V_ODD = 38;
+    private static final String EMPTY_PAYLOAD = "0x";
+
+    private final Quorum quorum;
+    private final PrivatePayloadFetcher payloadFetcher;
+    private final PrivateTransactionSink sink;
+    private final Path checkpointFile;
+    private final int chunkSize;
+    private final int batchSize;
+    private final int parallelism;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * @param payloadFetcher fetches the private payloads, or null to not fetch them
+     * @param checkpointFile the file progress is recorded in, or null to not record progress
+     */
+    public PrivateTransactionIndexer(
+            Quorum quorum,
+            PrivatePayloadFetcher payloadFetcher,
+            PrivateTransactionSink sink,
+            Path checkpointFile) {
+        this(
+                quorum,
+                payloadFetcher,
+                sink,
+                checkpointFile,
+                DEFAULT_CHUNK_SIZE,
+                DEFAULT_BATCH_SIZE,
+                DEFAULT_PARALLELISM);
+    }
+
+    public PrivateTransactionIndexer(
+            Quorum quorum,
+            PrivatePayloadFetcher payloadFetcher,
+            PrivateTransactionSink sink,
+            Path checkpointFile,
+            int chunkSize,
+            int batchSize,
+            int parallelism) {
+        this(quorum, payloadFetcher, sink, checkpointFile, chunkSize, batchSize, parallelism, null);
+    }
+
+    /**
+     * @param executor runs up to {@code parallelism} workers at a time, and is not shut down by the
+     *     indexer; if null, the indexer creates its own pool
+     */
+    public PrivateTransactionIndexer(
+            Quorum quorum,
+            PrivatePayloadFetcher payloadFetcher,
+            PrivateTransactionSink sink,
+            Path checkpointFile,
+            int chunkSize,
+            int batchSize,
+            int parallelism,
+            ExecutorService executor) {
+        if (chunkSize < 1 || batchSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "Chunk size, batch size and parallelism must be positive");
+        }
+        this.quorum = quorum;
+        this.payloadFetcher = payloadFetcher;
+        this.sink = sink;
+        this.checkpointFile = checkpointFile;
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.ownsExecutor = executor == null;
+        this.executor =
+                ownsExecutor ? Executors.newFixedThreadPool(parallelism, threads()) : executor;
+    }
+
+    /**
+     * Indexes the given inclusive range of blocks.
+     *
+     * @return the number of private transactions delivered to the sink
+     * @throws IllegalStateException if the indexer is already indexing a range
+     */
+    public long index(long fromBlock, long toBlock) throws IOException, InterruptedException {
+        if (fromBlock > toBlock) {
+            return 0;
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Already indexing");
+        }
+        try {
+            return indexChunks(fromBlock, toBlock);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /** Indexes from the block after the checkpoint, or from {@code fromBlock} if it is later. */
+    public long resume(long fromBlock, long toBlock) throws IOException, InterruptedException {
+        return index(Math.max(fromBlock, readCheckpoint() + 1), toBlock);
+    }
+
+    /** The last block below which all blocks have been indexed, or -1 if there is none. */
+    public long readCheckpoint() throws IOException {
+        if (checkpointFile == null || !Files.exists(checkpointFile)) {
+            return -1;
+        }
+        String checkpoint =
+                new String(Files.readAllBytes(checkpointFile), StandardCharsets.UTF_8).trim();
+        return checkpoint.isEmpty() ? -1 : Long.parseLong(checkpoint);
+    }
+
+    /** Shuts down the pool of the indexer, unless it was given an executor. */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private long indexChunks(long fromBlock, long toBlock)
+            throws IOException, InterruptedException {
+        Queue<long[]> pending = new ConcurrentLinkedQueue<>();
+        for (long start = fromBlock; start <= toBlock; start += chunkSize) {
+            pending.add(new long[] {start, Math.min(toBlock, start + chunkSize - 1)});
+        }
+        Progress progress = new Progress(fromBlock);
+
+        // Each worker takes chunks from the queue until it is empty
+        int workers = (int) Math.min(parallelism, pending.size());
+        List<Future<Long>> futures = new ArrayList<>(workers);
+        try {
+            for (int i = 0; i < workers; i++) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    long indexed = 0;
+                                    long[] chunk;
+                                    while ((chunk = pending.poll()) != null) {
+                                        indexed += indexChunk(chunk[0], chunk[1], progress);
+                                    }
+                                    return indexed;
+                                }));
+            }
+            long indexed = 0;
+            for (Future<Long> future : futures) {
+                indexed += await(future);
+            }
+            return indexed;
+        } finally {
+            // Stop the other workers after a failure
+            pending.clear();
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private int indexChunk(long first, long last, Progress progress)
+            throws IOException, InterruptedException {
+        List<Transaction> transactions = new ArrayList<>();
+        List<Long> blockNumbers = new ArrayList<>();
+        QuorumBatch blocks = quorum.newQuorumBatch(batchSize);
+        List<QuorumBatch.Handle<EthBlock>> blockHandles = new ArrayList<>();
+        for (long block = first; block <= last; block++) {
+            blockHandles.add(
+                    blocks.add(
+                            quorum.ethGetBlockByNumber(
+                                    DefaultBlockParameter.valueOf(BigInteger.valueOf(block)),
+                                    true)));
+        }
+        QuorumBatch.Responses blockResponses = blocks.send();
+        for (int i = 0; i < blockHandles.size(); i++) {
+            EthBlock.Block block = checked(blockResponses.get(blockHandles.get(i))).getBlock();
+            if (block == null) {
+                throw new IOException("Block " + (first + i) + " not found");
+            }
+            for (EthBlock.TransactionResult<?> result : block.getTransactions()) {
+                transactions.add((Transaction) result.get());
+                blockNumbers.add(first + i);
+            }
+        }
+
+        List<PrivateTransactionRecord> records =
+                transactions.isEmpty()
+                        ? Collections.emptyList()
+                        : records(transactions, blockNumbers);
+        sink.accept(first, last, records);
+        checkpoint(first, last, progress);
+        return records.size();
+    }
+
+    private List<PrivateTransactionRecord> records(
+            List<Transaction> transactions, List<Long> blockNumbers)
+            throws IOException, InterruptedException {
+        QuorumBatch receipts = quorum.newQuorumBatch(batchSize);
+        List<QuorumBatch.Handle<EthGetQuorumTransactionReceipt>> receiptHandles = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            receiptHandles.add(
+                    receipts.add(quorum.ethGetQuorumTransactionReceipt(transaction.getHash())));
+        }
+        QuorumBatch.Responses receiptResponses = receipts.send();
+
+        List<QuorumTransactionReceipt> transactionReceipts = new ArrayList<>();
+        QuorumBatch markers = quorum.newQuorumBatch(batchSize);
+        List<QuorumBatch.Handle<EthTransaction>> privateTransactionHandles = new ArrayList<>();
+        List<QuorumBatch.Handle<EthGetTransactionReceipt>> privateReceiptHandles =
+                new ArrayList<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            String hash = transactions.get(i).getHash();
+            QuorumTransactionReceipt receipt =
+                    checked(receiptResponses.get(receiptHandles.get(i)))
+                            .getTransactionReceipt()
+                            .orElseThrow(
+                                    () ->
+                                            new IOException(
+                                                    "Receipt of transaction "
+                                                            + hash
+                                                            + " not found"));
+            transactionReceipts.add(receipt);
+            privateTransactionHandles.add(
+                    receipt.isPrivacyMarkerTransaction()
+                            ? markers.add(quorum.ethGetPrivateTransactionByHash(hash))
+                            : null);
+            privateReceiptHandles.add(
+                    receipt.isPrivacyMarkerTransaction()
+                            ? markers.add(quorum.ethGetPrivateTransactionReceipt(hash))
+                            : null);
+        }
+        QuorumBatch.Responses markerResponses = markers.size() == 0 ? null : markers.send();
+
+        List<PrivateTransactionRecord> candidates = new ArrayList<>();
+        List<String> payloadHashes = new ArrayList<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            QuorumTransactionReceipt receipt = transactionReceipts.get(i);
+            if (privateTransactionHandles.get(i) != null) {
+                Transaction privateTransaction =
+                        checked(markerResponses.get(privateTransactionHandles.get(i)))
+                                .getTransaction()
+                                .orElse(null);
+                if (privateTransaction == null) {
+                    continue;
+                }
+                candidates.add(
+                        new PrivateTransactionRecord(
+                                blockNumbers.get(i),
+                                transaction,
+                                receipt,
+                                privateTransaction,
+                                checked(markerResponses.get(privateReceiptHandles.get(i)))
+                                        .getTransactionReceipt()
+                                        .orElse(null),
+                                null));
+                payloadHashes.add(privateTransaction.getInput());
+            } else if (isPrivate(transaction)) {
+                candidates.add(
+                        new PrivateTransactionRecord(
+                                blockNumbers.get(i),
+                                transaction,
+                                receipt,
+                                transaction,
+                                receipt,
+                                null));
+                payloadHashes.add(transaction.getInput());
+            }
+        }
+        if (payloadFetcher == null || candidates.isEmpty()) {
+            return candidates;
+        }
+
+        Map<String, String> payloads = payloadFetcher.fetch(payloadHashes);
+        List<PrivateTransactionRecord> records = new ArrayList<>(candidates.size());
+        for (PrivateTransactionRecord candidate : candidates) {
+            String payload =
+                    payloads.get(candidate.getPrivateTransaction().getInput().toLowerCase());
+            if (payload != null && !payload.equals(EMPTY_PAYLOAD)) {
+                records.add(
+                        new PrivateTransactionRecord(
+                                candidate.getBlockNumber(),
+                                candidate.getTransaction(),
+                                candidate.getReceipt(),
+                                candidate.getPrivateTransaction(),
+                                candidate.getPrivateReceipt(),
+                                payload));
+            }
+        }
+        return records;
+    }
+
+    private void checkpoint(long first, long last, Progress progress) throws IOException {
+        synchronized (progress) {
+            TreeMap<Long, Long> completed = progress.completed;
+            completed.put(first, last);
+            long previous = progress.nextCheckpoint;
+            long nextCheckpoint = previous;
+            while (completed.containsKey(nextCheckpoint)) {
+                nextCheckpoint = completed.remove(nextCheckpoint) + 1;
+            }
+            progress.nextCheckpoint = nextCheckpoint;
+            if (checkpointFile != null && nextCheckpoint != previous) {
+                Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+                Files.write(
+                        temp, Long.toString(nextCheckpoint - 1).getBytes(StandardCharsets.UTF_8));
+                Files.move(
+                        temp,
+                        checkpointFile,
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+    }
+
+    private static boolean isPrivate(Transaction transaction) {
+        return transaction.getV() == PRIVATE_V_EVEN || transaction.getV() == PRIVATE_V_ODD;
+    }
+
+    private static ThreadFactory threads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread =
+                    new Thread(runnable, "private-transaction-indexer-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /** The chunks of one run delivered to the sink, guarded by its own monitor. */
+    private static class Progress {
+        // First block of each delivered chunk beyond the checkpoint, to its last block
+        private final TreeMap<Long, Long> completed = new TreeMap<>();
+        private long nextCheckpoint;
+
+        private Progress(long fromBlock) {
+            this.nextCheckpoint = fromBlock;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.privacy;
+
+import org.web3j.protocol.core.methods.response.Transaction;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.quorum.methods.response.QuorumTransactionReceipt;
+
+/**
+ * A private transaction this node participated in, found by {@link PrivateTransactionIndexer}.
+ *
+ * <p>For a privacy marker transaction, {@link #getTransaction()} and {@link #getReceipt()} describe
+ * the public marker, while {@link #getPrivateTransaction()} and {@link #getPrivateReceipt()}
+ * describe the private transaction it wraps. For a private transaction sent without a marker, the
+ * private transaction and receipt are the same as the public ones.
+ */
+public final class PrivateTransactionRecord {
+
+    private final long blockNumber;
+    private final Transaction transaction;
+    private final QuorumTransactionReceipt receipt;
+    private final Transaction privateTransaction;
+    private final TransactionReceipt privateReceipt;
+    private final String payload;
+
+    PrivateTransactionRecord(
+            long blockNumber,
+            Transaction transaction,
+            QuorumTransactionReceipt receipt,
+            Transaction privateTransaction,
+            TransactionReceipt privateReceipt,
+            String payload) {
+        this.blockNumber = blockNumber;
+        this.transaction = transaction;
+        this.receipt = receipt;
+        this.privateTransaction = privateTransaction;
+        this.privateReceipt = privateReceipt;
+        this.payload = payload;
+    }
+
+    public long getBlockNumber() {
+        return blockNumber;
+    }
+
+    public String getTransactionHash() {
+        return transaction.getHash();
+    }
+
+    public boolean isPrivacyMarkerTransaction() {
+        return receipt.isPrivacyMarkerTransaction();
+    }
+
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    public QuorumTransactionReceipt getReceipt() {
+        return receipt;
+    }
+
+    public Transaction getPrivateTransaction() {
+        return privateTransaction;
+    }
+
+    public TransactionReceipt getPrivateReceipt() {
+        return privateReceipt;
+    }
+
+    /** The decrypted payload of the private transaction, or null if it was not fetched. */
+    public String getPayload() {
+        return payload;
+    }
+}
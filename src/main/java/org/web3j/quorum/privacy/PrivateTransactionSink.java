@@ -0,0 +1,35 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.privacy;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives the private transactions found by a {@link PrivateTransactionIndexer}.
+ *
+ * <p>The indexer calls the sink once per block range, from several threads at once and in no
+ * particular order, so implementations must be thread safe. A range is only checkpointed once the
+ * sink has returned, so a range may be delivered again after an interrupted run.
+ */
+@FunctionalInterface
+public interface PrivateTransactionSink {
+
+    /**
+     * @param fromBlock the first block of the range, inclusive
+     * @param toBlock the last block of the range, inclusive
+     * @param records the private transactions of the range, in block and transaction order
+     */
+    void accept(long fromBlock, long toBlock, List<PrivateTransactionRecord> records)
+            throws IOException;
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.raft;
+
+import org.web3j.quorum.methods.response.raft.RaftPeer;
+
+/** A change in Raft cluster state observed by a {@link RaftClusterMonitor}. */
+public class RaftClusterEvent {
+
+    public enum Type {
+        /** The cluster leader changed, values hold the old and new leader node ids. */
+        LEADER_CHANGED,
+        /** The role of the monitored node changed, values hold the old and new role. */
+        ROLE_CHANGED,
+        PEER_ADDED,
+        PEER_REMOVED,
+        PEER_ACTIVE,
+        PEER_INACTIVE,
+        /** A learner became a verifier or minter. */
+        LEARNER_PROMOTED,
+        /** The monitored node could not be polled, the new value holds the failure message. */
+        NODE_UNREACHABLE,
+        NODE_RECOVERED
+    }
+
+    private final Type type;
+    private final RaftPeer peer;
+    private final String previousValue;
+    private final String newValue;
+
+    public RaftClusterEvent(Type type, RaftPeer peer, String previousValue, String newValue) {
+        this.type = type;
+        this.peer = peer;
+        this.previousValue = previousValue;
+        this.newValue = newValue;
+    }
+
+    static RaftClusterEvent peerEvent(Type type, RaftPeer peer) {
+        return new RaftClusterEvent(type, peer, null, null);
+    }
+
+    static RaftClusterEvent valueEvent(Type type, String previousValue, String newValue) {
+        return new RaftClusterEvent(type, null, previousValue, newValue);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /** The peer this event relates to, or null for node level events. */
+    public RaftPeer getPeer() {
+        return peer;
+    }
+
+    public String getPreviousValue() {
+        return previousValue;
+    }
+
+    public String getNewValue() {
+        return newValue;
+    }
+
+    @Override
+    public String toString() {
+        return "RaftClusterEvent{"
+                + "type="
+                + type
+                + ", peer="
+                + peer
+                + ", previousValue='"
+                + previousValue
+                + '\''
+                + ", newValue='"
+                + newValue
+                + '\''
+                + '}';
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.raft;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.web3j.quorum.Quorum;
+import org.web3j.quorum.QuorumBatch;
+import org.web3j.quorum.methods.response.raft.RaftCluster;
+import org.web3j.quorum.methods.response.raft.RaftLeader;
+import org.web3j.quorum.methods.response.raft.RaftPeer;
+import org.web3j.quorum.methods.response.raft.RaftRole;
+
+import static org.web3j.quorum.util.Results.checked;
+
+/**
+ * Polls the Raft state of a single Quorum node and notifies listeners of changes.
+ *
+ * <p>Each poll fetches {@code raft_cluster}, {@code raft_leader} and {@code raft_role} in a single
+ * JSON-RPC batch and diffs the result against the previous poll, so listeners only see typed {@link
+ * RaftClusterEvent}s for what actually changed. The first successful poll establishes the baseline
+ * and emits no events. Any number of listeners may be registered, allowing one monitor per node to
+ * be shared between consumers.
+ */
+public class RaftClusterMonitor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RaftClusterMonitor.class);
+
+    private static final String LEARNER = "learner";
+
+    private final Quorum quorum;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final long pollingInterval;
+    private final List<RaftClusterListener> listeners = new CopyOnWriteArrayList<>();
+
+    private ScheduledFuture<?> pollingTask;
+    private volatile Map<String, RaftPeer> peers;
+    private volatile String leader;
+    private volatile String role;
+    private volatile boolean reachable = true;
+
+    public RaftClusterMonitor(
+            Quorum quorum,
+            ScheduledExecutorService scheduledExecutorService,
+            long pollingInterval) {
+        this.quorum = quorum;
+        this.scheduledExecutorService = scheduledExecutorService;
+        this.pollingInterval = pollingInterval;
+    }
+
+    public void addListener(RaftClusterListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(RaftClusterListener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Starts polling at the configured interval, in milliseconds. */
+    public synchronized void start() {
+        if (pollingTask == null) {
+            pollingTask =
+                    scheduledExecutorService.scheduleWithFixedDelay(
+                            this::poll, 0, pollingInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized void stop() {
+        if (pollingTask != null) {
+            pollingTask.cancel(false);
+            pollingTask = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    /** The peers seen by the last successful poll, or an empty list before the first one. */
+    public List<RaftPeer> getCluster() {
+        Map<String, RaftPeer> current = peers;
+        return current == null
+                ? Collections.emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(current.values()));
+    }
+
+    public String getLeader() {
+        return leader;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public boolean isReachable() {
+        return reachable;
+    }
+
+    /** Polls the node immediately, notifying listeners of any change since the last poll. */
+    public synchronized void poll() {
+        List<RaftClusterEvent> events = new ArrayList<>();
+        try {
+            QuorumBatch batch = quorum.newQuorumBatch();
+            QuorumBatch.Handle<RaftCluster> clusterHandle = batch.add(quorum.raftGetCluster());
+            QuorumBatch.Handle<RaftLeader> leaderHandle = batch.add(quorum.raftGetLeader());
+            QuorumBatch.Handle<RaftRole> roleHandle = batch.add(quorum.raftGetRole());
+            QuorumBatch.Responses responses = batch.send();
+            RaftCluster cluster = checked(responses.get(clusterHandle));
+            RaftLeader raftLeader = checked(responses.get(leaderHandle));
+            RaftRole raftRole = checked(responses.get(roleHandle));
+
+            Map<String, RaftPeer> latest = new LinkedHashMap<>();
+            for (RaftPeer peer : cluster.getCluster().orElse(Collections.emptyList())) {
+                latest.put(peer.getRaftId(), peer);
+            }
+
+            if (!reachable) {
+                reachable = true;
+                events.add(
+                        RaftClusterEvent.valueEvent(
+                                RaftClusterEvent.Type.NODE_RECOVERED, null, null));
+            }
+            if (peers != null) {
+                diff(peers, latest, events);
+                if (!Objects.equals(leader, raftLeader.getLeader())) {
+                    events.add(
+                            RaftClusterEvent.valueEvent(
+                                    RaftClusterEvent.Type.LEADER_CHANGED,
+                                    leader,
+                                    raftLeader.getLeader()));
+                }
+                if (!Objects.equals(role, raftRole.getRole())) {
+                    events.add(
+                            RaftClusterEvent.valueEvent(
+                                    RaftClusterEvent.Type.ROLE_CHANGED, role, raftRole.getRole()));
+                }
+            }
+
+            peers = latest;
+            leader = raftLeader.getLeader();
+            role = raftRole.getRole();
+        } catch (IOException | RuntimeException e) {
+            if (reachable) {
+                reachable = false;
+                events.add(
+                        RaftClusterEvent.valueEvent(
+                                RaftClusterEvent.Type.NODE_UNREACHABLE, null, e.getMessage()));
+            }
+        }
+        events.forEach(this::notifyListeners);
+    }
+
+    private static void diff(
+            Map<String, RaftPeer> previous,
+            Map<String, RaftPeer> latest,
+            List<RaftClusterEvent> events) {
+        for (RaftPeer peer : latest.values()) {
+            RaftPeer old = previous.get(peer.getRaftId());
+            if (old == null) {
+                events.add(RaftClusterEvent.peerEvent(RaftClusterEvent.Type.PEER_ADDED, peer));
+                continue;
+            }
+            if (old.getNodeActive() != peer.getNodeActive()) {
+                events.add(
+                        RaftClusterEvent.peerEvent(
+                                peer.getNodeActive()
+                                        ? RaftClusterEvent.Type.PEER_ACTIVE
+                                        : RaftClusterEvent.Type.PEER_INACTIVE,
+                                peer));
+            }
+            if (LEARNER.equals(old.getRole()) && !LEARNER.equals(peer.getRole())) {
+                events.add(
+                        RaftClusterEvent.peerEvent(RaftClusterEvent.Type.LEARNER_PROMOTED, peer));
+            }
+        }
+        for (RaftPeer peer : previous.values()) {
+            if (!latest.containsKey(peer.getRaftId())) {
+                events.add(RaftClusterEvent.peerEvent(RaftClusterEvent.Type.PEER_REMOVED, peer));
+            }
+        }
+    }
+
+    private void notifyListeners(RaftClusterEvent event) {
+        for (RaftClusterListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                log.warn("Raft cluster listener failed to handle {}", event, e);
+            }
+        }
+    }
+}
@@ -22,9 +22,15 @@ import org.web3j.protocol.core.methods.response.*;
 import org.web3j.protocol.exceptions.TransactionException;
 import org.web3j.quorum.PrivacyFlag;
 import org.web3j.quorum.Quorum;
+import org.web3j.quorum.cache.NodeMetadataCache;
 import org.web3j.quorum.methods.request.PrivateTransaction;
 import org.web3j.quorum.methods.response.QuorumTransactionReceipt;
+import org.web3j.quorum.tx.limit.AdaptiveConcurrencyLimiter;
+import org.web3j.quorum.tx.limit.ConcurrencyLimitExceededException;
 import org.web3j.quorum.tx.response.QuorumPollingTransactionReceiptProcessor;
+import org.web3j.quorum.tx.trace.TransactionPhase;
+import org.web3j.quorum.tx.trace.TransactionTrace;
+import org.web3j.quorum.tx.trace.TransactionTraceListener;
 import org.web3j.tx.ContractErrorUtil;
 import org.web3j.tx.TransactionManager;
 
@@ -40,6 +46,9 @@ public class ClientTransactionManager extends TransactionManager {
     private List<String> privateFor;
     private PrivacyFlag privacyFlag;
     private List<String> mandatoryFor;
+    private volatile TransactionTraceListener traceListener = TransactionTraceListener.NOOP;
+    private volatile AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private volatile NodeMetadataCache nodeMetadataCache;
 
     public ClientTransactionManager(
             Quorum quorum,
@@ -154,15 +163,137 @@ public class ClientTransactionManager extends TransactionManager {
         return privateFor;
     }
 
+    /**
+     * Changes the recipients of subsequent transactions. This is not safe while other threads use
+     * the manager; use {@link #sendTransaction(BigInteger, BigInteger, String, String, BigInteger,
+     * PrivacyOptions)} to send to different recipients concurrently.
+     */
     public void setPrivateFor(List<String> privateFor) {
         this.privateFor = privateFor;
     }
 
+    public TransactionTraceListener getTraceListener() {
+        return traceListener;
+    }
+
+    /**
+     * Sets the listener which receives a {@link TransactionTrace} of each transaction sent by this
+     * manager, or {@link TransactionTraceListener#NOOP} to stop tracing.
+     */
+    public void setTraceListener(TransactionTraceListener traceListener) {
+        this.traceListener = traceListener;
+    }
+
+    public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * Sets the limiter which transactions sent by this manager go through, which may be shared with
+     * other managers sending to the same node, or null to send without a limit.
+     */
+    public void setConcurrencyLimiter(AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    public NodeMetadataCache getNodeMetadataCache() {
+        return nodeMetadataCache;
+    }
+
+    /**
+     * Sets the cache used to recognise privacy marker transactions whose receipts are not flagged
+     * as such, or null to rely on the flag alone. The cache is invalidated whenever a request to
+     * the node fails, as the client may then reconnect to a different node.
+     */
+    public void setNodeMetadataCache(NodeMetadataCache nodeMetadataCache) {
+        this.nodeMetadataCache = nodeMetadataCache;
+    }
+
     @Override
     public EthSendTransaction sendTransaction(
             BigInteger gasPrice, BigInteger gasLimit, String to, String data, BigInteger value)
             throws IOException {
+        return sendPrivateTransaction(
+                gasLimit, to, data, value, privateFrom, privateFor, privacyFlag, mandatoryFor);
+    }
+
+    /**
+     * Sends a private transaction with the given privacy parameters instead of the ones this
+     * manager was created with. This does not modify the manager, so it may be called concurrently
+     * for different recipients.
+     */
+    public EthSendTransaction sendTransaction(
+            BigInteger gasPrice,
+            BigInteger gasLimit,
+            String to,
+            String data,
+            BigInteger value,
+            PrivacyOptions options)
+            throws IOException {
+        return sendPrivateTransaction(
+                gasLimit,
+                to,
+                data,
+                value,
+                options.getPrivateFrom() != null ? options.getPrivateFrom() : privateFrom,
+                options.getPrivateFor(),
+                options.getPrivacyFlag(),
+                options.getMandatoryFor());
+    }
 
+    /**
+     * Sends a private transaction with the given privacy parameters and waits for its receipt,
+     * which is the private receipt for a privacy marker transaction.
+     */
+    public TransactionReceipt executeTransaction(
+            BigInteger gasPrice,
+            BigInteger gasLimit,
+            String to,
+            String data,
+            BigInteger value,
+            PrivacyOptions options)
+            throws IOException, TransactionException {
+        TransactionTrace trace = TransactionTrace.begin(traceListener);
+        try {
+            return processResponse(sendTransaction(gasPrice, gasLimit, to, data, value, options));
+        } catch (IOException | TransactionException | RuntimeException e) {
+            trace.fail(e);
+            throw e;
+        } finally {
+            trace.end();
+        }
+    }
+
+    @Override
+    protected TransactionReceipt executeTransaction(
+            BigInteger gasPrice,
+            BigInteger gasLimit,
+            String to,
+            String data,
+            BigInteger value,
+            boolean constructor)
+            throws IOException, TransactionException {
+        TransactionTrace trace = TransactionTrace.begin(traceListener);
+        try {
+            return super.executeTransaction(gasPrice, gasLimit, to, data, value, constructor);
+        } catch (IOException | TransactionException | RuntimeException e) {
+            trace.fail(e);
+            throw e;
+        } finally {
+            trace.end();
+        }
+    }
+
+    private EthSendTransaction sendPrivateTransaction(
+            BigInteger gasLimit,
+            String to,
+            String data,
+            BigInteger value,
+            String privateFrom,
+            List<String> privateFor,
+            PrivacyFlag privacyFlag,
+            List<String> mandatoryFor)
+            throws IOException {
         PrivateTransaction transaction =
                 new PrivateTransaction(
                         fromAddress,
@@ -176,7 +307,29 @@ public class ClientTransactionManager extends TransactionManager {
                         privacyFlag,
                         mandatoryFor);
 
-        return quorum.ethSendTransaction(transaction).send();
+        TransactionTrace trace = TransactionTrace.begin(traceListener);
+        try {
+            AdaptiveConcurrencyLimiter limiter = concurrencyLimiter;
+            long start = System.nanoTime();
+            EthSendTransaction response =
+                    limiter == null
+                            ? quorum.ethSendTransaction(transaction).send()
+                            : limiter.submit(() -> quorum.ethSendTransaction(transaction).send());
+            TransactionTrace.record(TransactionPhase.RPC_SEND, start);
+            trace.setTransactionHash(response.getTransactionHash());
+            return response;
+        } catch (IOException e) {
+            if (!(e instanceof ConcurrencyLimitExceededException)) {
+                invalidateNodeMetadata();
+            }
+            trace.fail(e);
+            throw e;
+        } catch (RuntimeException e) {
+            trace.fail(e);
+            throw e;
+        } finally {
+            trace.end();
+        }
     }
 
     @Override
@@ -230,21 +383,41 @@ public class ClientTransactionManager extends TransactionManager {
     @Override
     protected TransactionReceipt processResponse(EthSendTransaction transactionResponse)
             throws IOException, TransactionException {
-        TransactionReceipt transactionReceipt = super.processResponse(transactionResponse);
-        if (transactionReceipt instanceof QuorumTransactionReceipt) {
-            QuorumTransactionReceipt quorumTransactionReceipt =
-                    (QuorumTransactionReceipt) transactionReceipt;
-
-            // If this was a Privacy Marker Transaction, then need to retrieve the receipt for the
-            // internal private transaction
-            if (quorumTransactionReceipt.isPrivacyMarkerTransaction()) {
-                String transactionHash = transactionResponse.getTransactionHash();
-                EthGetTransactionReceipt privateTransactionReceipt =
-                        quorum.ethGetPrivateTransactionReceipt(transactionHash).send();
-                return privateTransactionReceipt.getTransactionReceipt().get();
-            }
+        TransactionReceipt transactionReceipt;
+        try {
+            transactionReceipt = super.processResponse(transactionResponse);
+        } catch (IOException e) {
+            invalidateNodeMetadata();
+            throw e;
+        }
+
+        // If this was a Privacy Marker Transaction, then need to retrieve the receipt for the
+        // internal private transaction
+        if (isPrivacyMarkerTransaction(transactionReceipt)) {
+            String transactionHash = transactionResponse.getTransactionHash();
+            long start = System.nanoTime();
+            EthGetTransactionReceipt privateTransactionReceipt =
+                    quorum.ethGetPrivateTransactionReceipt(transactionHash).send();
+            TransactionTrace.record(TransactionPhase.PRIVATE_RECEIPT, start);
+            return privateTransactionReceipt.getTransactionReceipt().get();
         }
 
         return transactionReceipt;
     }
+
+    private boolean isPrivacyMarkerTransaction(TransactionReceipt receipt) throws IOException {
+        NodeMetadataCache cache = nodeMetadataCache;
+        if (cache != null) {
+            return cache.isPrivacyMarkerTransaction(receipt);
+        }
+        return receipt instanceof QuorumTransactionReceipt
+                && ((QuorumTransactionReceipt) receipt).isPrivacyMarkerTransaction();
+    }
+
+    private void invalidateNodeMetadata() {
+        NodeMetadataCache cache = nodeMetadataCache;
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
 }
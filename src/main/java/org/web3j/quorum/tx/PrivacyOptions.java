@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.tx;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.web3j.quorum.PrivacyFlag;
+import org.web3j.quorum.PrivacyGroup;
+
+/**
+ * The privacy parameters of a single private transaction, passed to {@link
+ * ClientTransactionManager} or {@link QuorumTransactionManager} alongside each send so that one
+ * manager can serve any number of recipient sets concurrently.
+ *
+ * <p>Instances are immutable, and hold their recipients and privacy flag as an interned {@link
+ * PrivacyGroup}. A null {@code privateFrom} means the manager's own enclave key is used, and null
+ * {@code privacyFlag} or {@code mandatoryFor} are left out of the request, so that the node applies
+ * its defaults.
+ */
+public final class PrivacyOptions {
+
+    private final String privateFrom;
+    private final PrivacyGroup privacyGroup;
+
+    public PrivacyOptions(List<String> privateFor) {
+        this(null, privateFor, null, null);
+    }
+
+    public PrivacyOptions(List<String> privateFor, PrivacyFlag privacyFlag) {
+        this(null, privateFor, privacyFlag, null);
+    }
+
+    public PrivacyOptions(
+            String privateFrom,
+            List<String> privateFor,
+            PrivacyFlag privacyFlag,
+            List<String> mandatoryFor) {
+        this(privateFrom, PrivacyGroup.of(privateFor, privacyFlag, mandatoryFor));
+    }
+
+    public PrivacyOptions(PrivacyGroup privacyGroup) {
+        this(null, privacyGroup);
+    }
+
+    public PrivacyOptions(String privateFrom, PrivacyGroup privacyGroup) {
+        this.privateFrom = privateFrom;
+        this.privacyGroup = Objects.requireNonNull(privacyGroup, "privacyGroup");
+    }
+
+    public String getPrivateFrom() {
+        return privateFrom;
+    }
+
+    public PrivacyGroup getPrivacyGroup() {
+        return privacyGroup;
+    }
+
+    public List<String> getPrivateFor() {
+        return privacyGroup.getPrivateFor();
+    }
+
+    public PrivacyFlag getPrivacyFlag() {
+        return privacyGroup.getPrivacyFlag();
+    }
+
+    public List<String> getMandatoryFor() {
+        return privacyGroup.getMandatoryFor();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PrivacyOptions)) {
+            return false;
+        }
+        PrivacyOptions that = (PrivacyOptions) o;
+        return Objects.equals(privateFrom, that.privateFrom)
+                && privacyGroup.equals(that.privacyGroup);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hashCode(privateFrom) + privacyGroup.hashCode();
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.tx.limit;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.exceptions.ClientConnectionException;
+import org.web3j.quorum.enclave.EnclaveClientConnectionException;
+
+/**
+ * Limits the number of private transactions being submitted at once, adapting the limit to the
+ * capacity of the node and enclave.
+ *
+ * <p>The limit follows additive increase, multiplicative decrease: it grows by one for each limit's
+ * worth of successful submissions while the limit is being used, and shrinks by {@value
+ * #BACKOFF_RATIO} times on a sign of overload. Overload is a submission taking longer than the
+ * latency threshold, a timeout, an HTTP 429, 503 or 504 response from the node or the enclave, or a
+ * node error saying its transaction pool is full or that a limit was exceeded. Other failures leave
+ * the limit unchanged. The limit shrinks at most once per window: overloads of submissions sent
+ * before the last decrease were sent under the old limit, so they are counted but do not shrink it
+ * again.
+ *
+ * <p>Submissions over the limit wait in a first in, first out queue of at most {@code maxQueued}
+ * entries, for at most the queue timeout, and are otherwise rejected with a {@link
+ * ConcurrencyLimitExceededException}, so that a burst is shed rather than sent to nodes which
+ * cannot take it.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_MAX_LIMIT = 200;
+    public static final int DEFAULT_MAX_QUEUED = 1_000;
+    public static final long DEFAULT_QUEUE_TIMEOUT_MILLIS = 30_000;
+    public static final long DEFAULT_LATENCY_THRESHOLD_MILLIS = 5_000;
+
+    static final double BACKOFF_RATIO = 0.9;
+
+    // JSON-RPC error code for a request over a rate or resource limit, from EIP-1474
+    private static final int LIMIT_EXCEEDED = -32005;
+    private static final List<String> OVERLOAD_ERRORS =
+            Arrays.asList("txpool is full", "transaction pool is full");
+    private static final List<Integer> OVERLOAD_STATUS_CODES = Arrays.asList(429, 503, 504);
+    // The message of web3j's HttpService for an error response
+    private static final Pattern STATUS_CODE =
+            Pattern.compile("^Invalid response received: (\\d+);");
+
+    private enum Outcome {
+        SUCCESS,
+        OVERLOAD,
+        FAILURE
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueued;
+    private final long queueTimeoutNanos;
+    private final long latencyThresholdNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Waiters are handed their slot in order by the submission which frees it
+    private Waiter head;
+    private Waiter tail;
+    private int queued;
+    private double limit;
+    private int inFlight;
+    // Counts the decreases of the limit, to tell which window a submission was sent in
+    private long window;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder overloads = new LongAdder();
+
+    public AdaptiveConcurrencyLimiter() {
+        this(
+                DEFAULT_INITIAL_LIMIT,
+                DEFAULT_MIN_LIMIT,
+                DEFAULT_MAX_LIMIT,
+                DEFAULT_MAX_QUEUED,
+                DEFAULT_QUEUE_TIMEOUT_MILLIS,
+                DEFAULT_LATENCY_THRESHOLD_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public AdaptiveConcurrencyLimiter(
+            int initialLimit,
+            int minLimit,
+            int maxLimit,
+            int maxQueued,
+            long queueTimeout,
+            long latencyThreshold,
+            TimeUnit unit) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException(
+                    "Limits must be positive, with the initial limit between the minimum and"
+                            + " maximum");
+        }
+        if (maxQueued < 0 || queueTimeout < 0 || latencyThreshold < 1) {
+            throw new IllegalArgumentException(
+                    "Queue size and timeout must not be negative, and the latency threshold must"
+                            + " be positive");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueued = maxQueued;
+        this.queueTimeoutNanos = unit.toNanos(queueTimeout);
+        this.latencyThresholdNanos = unit.toNanos(latencyThreshold);
+    }
+
+    /**
+     * Sends a submission once it is within the limit, and adjusts the limit according to its
+     * outcome.
+     *
+     * @throws ConcurrencyLimitExceededException if the submission was shed without being sent
+     */
+    public <T extends Response<?>> T submit(Submission<T> submission) throws IOException {
+        long sentInWindow = acquire();
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.FAILURE;
+        try {
+            T response = submission.send();
+            outcome = isOverload(response) ? Outcome.OVERLOAD : Outcome.SUCCESS;
+            return response;
+        } catch (IOException | RuntimeException e) {
+            outcome = isOverload(e) ? Outcome.OVERLOAD : Outcome.FAILURE;
+            throw e;
+        } finally {
+            release(outcome, System.nanoTime() - start, sentInWindow);
+        }
+    }
+
+    /** The number of submissions which may currently be in flight. */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The number of submissions waiting for the limit. */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The number of submissions shed because the queue was full or they timed out in it. */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /** The number of submissions which showed the node or enclave to be overloaded. */
+    public long getOverloadCount() {
+        return overloads.sum();
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return String.format(
+                    Locale.ROOT,
+                    "AdaptiveConcurrencyLimiter[limit=%d, inFlight=%d, queued=%d]",
+                    (int) limit,
+                    inFlight,
+                    queued);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long acquire() throws IOException {
+        lock.lock();
+        try {
+            if (head == null && inFlight < (int) limit) {
+                inFlight++;
+                return window;
+            }
+            if (queued >= maxQueued) {
+                rejected.increment();
+                throw new ConcurrencyLimitExceededException(
+                        "Submission queue is full with " + queued + " waiting");
+            }
+
+            Waiter waiter = enqueue();
+            try {
+                long remaining = queueTimeoutNanos;
+                while (!waiter.granted) {
+                    if (remaining <= 0) {
+                        unlink(waiter);
+                        rejected.increment();
+                        throw new ConcurrencyLimitExceededException(
+                                "Timed out after "
+                                        + TimeUnit.NANOSECONDS.toMillis(queueTimeoutNanos)
+                                        + " ms waiting for the submission limit of "
+                                        + (int) limit);
+                    }
+                    remaining = waiter.ready.awaitNanos(remaining);
+                }
+                return window;
+            } catch (InterruptedException e) {
+                if (waiter.granted) {
+                    // Pass on the slot handed over while being interrupted
+                    inFlight--;
+                    grantWaiting();
+                } else {
+                    unlink(waiter);
+                }
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for the submission limit");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Outcome outcome, long latencyNanos, long sentInWindow) {
+        lock.lock();
+        try {
+            if (outcome == Outcome.OVERLOAD
+                    || (outcome == Outcome.SUCCESS && latencyNanos > latencyThresholdNanos)) {
+                overloads.increment();
+                if (sentInWindow == window) {
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                    window++;
+                }
+            } else if (outcome == Outcome.SUCCESS && inFlight * 2 >= limit) {
+                // Only grow a limit which is being used, so that it stays meaningful when idle
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            inFlight--;
+            grantWaiting();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held
+    private void grantWaiting() {
+        while (head != null && inFlight < (int) limit) {
+            Waiter waiter = head;
+            unlink(waiter);
+            inFlight++;
+            waiter.granted = true;
+            waiter.ready.signal();
+        }
+    }
+
+    private Waiter enqueue() {
+        Waiter waiter = new Waiter(lock.newCondition());
+        if (tail == null) {
+            head = waiter;
+        } else {
+            tail.next = waiter;
+            waiter.previous = tail;
+        }
+        tail = waiter;
+        queued++;
+        return waiter;
+    }
+
+    private void unlink(Waiter waiter) {
+        if (waiter.previous == null) {
+            head = waiter.next;
+        } else {
+            waiter.previous.next = waiter.next;
+        }
+        if (waiter.next == null) {
+            tail = waiter.previous;
+        } else {
+            waiter.next.previous = waiter.previous;
+        }
+        waiter.previous = null;
+        waiter.next = null;
+        queued--;
+    }
+
+    static boolean isOverload(Response<?> response) {
+        if (response == null || !response.hasError()) {
+            return false;
+        }
+        Response.Error error = response.getError();
+        return error.getCode() == LIMIT_EXCEEDED || isOverloadMessage(error.getMessage());
+    }
+
+    static boolean isOverload(Throwable error) {
+        if (error instanceof InterruptedIOException) {
+            // Socket and call timeouts
+            return true;
+        }
+        if (error instanceof EnclaveClientConnectionException) {
+            return OVERLOAD_STATUS_CODES.contains(
+                    ((EnclaveClientConnectionException) error).getStatusCode());
+        }
+        if (error instanceof ClientConnectionException && error.getMessage() != null) {
+            Matcher matcher = STATUS_CODE.matcher(error.getMessage());
+            return matcher.find()
+                    && OVERLOAD_STATUS_CODES.contains(Integer.parseInt(matcher.group(1)));
+        }
+        return false;
+    }
+
+    private static boolean isOverloadMessage(String message) {
+        if (message == null) {
+            return false;
+        }
+        String lowerCase = message.toLowerCase(Locale.ROOT);
+        for (String overloadError : OVERLOAD_ERRORS) {
+            if (lowerCase.contains(overloadError)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** A submission waiting in the queue, guarded by the lock. */
+    private static final class Waiter {
+        private final Condition ready;
+        private Waiter previous;
+        private Waiter next;
+        private boolean granted;
+
+        private Waiter(Condition ready) {
+            this.ready = ready;
+        }
+    }
+
+    /** A submission of a transaction to the node, and to the enclave if needed. */
+    @FunctionalInterface
+    public interface Submission<T> {
+        T send() throws IOException;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.tx.nonce;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+
+import static org.web3j.quorum.util.Results.checked;
+
+/**
+ * A nonce source which reads the pending transaction count of an account from the node once and
+ * counts up from it, so that concurrent senders sharing the account get distinct nonces without a
+ * round trip each.
+ *
+ * <p>After a {@link #reset()} the count is read again, which may hand out a nonce still held by a
+ * transaction in flight if other transactions are being sent at the same time.
+ */
+public class LocalNonceSource implements NonceSource {
+
+    private final Web3j web3j;
+    private final String address;
+    private BigInteger nonce;
+
+    public LocalNonceSource(Web3j web3j, String address) {
+        this.web3j = web3j;
+        this.address = address;
+    }
+
+    @Override
+    public synchronized BigInteger next() throws IOException {
+        if (nonce == null) {
+            nonce =
+                    checked(
+                                    web3j.ethGetTransactionCount(
+                                                    address, DefaultBlockParameterName.PENDING)
+                                            .send())
+                            .getTransactionCount();
+        }
+        BigInteger next = nonce;
+        nonce = nonce.add(BigInteger.ONE);
+        return next;
+    }
+
+    @Override
+    public synchronized void reset() {
+        nonce = null;
+    }
+}
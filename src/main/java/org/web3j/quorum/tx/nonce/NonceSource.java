@@ -0,0 +1,32 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.tx.nonce;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+/**
+ * Hands out the nonces of the transactions a transaction manager signs. Implementations must be
+ * thread safe, and must not hand out the same nonce twice unless {@link #reset()} is called.
+ */
+public interface NonceSource {
+
+    /** Returns the nonce of the next transaction. */
+    BigInteger next() throws IOException;
+
+    /**
+     * Called when a transaction signed with a nonce from this source was not accepted by the node,
+     * so that the source can resynchronise with the node's count.
+     */
+    default void reset() {}
+}
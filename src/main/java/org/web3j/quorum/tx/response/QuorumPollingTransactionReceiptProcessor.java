@@ -18,8 +18,10 @@ import java.util.Optional;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.web3j.protocol.exceptions.TransactionException;
 import org.web3j.quorum.Quorum;
+import org.web3j.quorum.jfr.QuorumFlightRecorder;
 import org.web3j.quorum.methods.response.EthGetQuorumTransactionReceipt;
 import org.web3j.quorum.methods.response.QuorumTransactionReceipt;
+import org.web3j.quorum.tx.trace.TransactionTrace;
 import org.web3j.tx.response.PollingTransactionReceiptProcessor;
 
 /**
@@ -54,8 +56,7 @@ public class QuorumPollingTransactionReceiptProcessor extends PollingTransaction
             String transactionHash, long sleepDuration, int attempts)
             throws IOException, TransactionException {
 
-        Optional<? extends QuorumTransactionReceipt> receiptOptional =
-                sendTransactionReceiptRequest(transactionHash);
+        Optional<? extends QuorumTransactionReceipt> receiptOptional = poll(transactionHash, 1);
         for (int i = 0; i < attempts; i++) {
             if (!receiptOptional.isPresent()) {
                 try {
@@ -64,7 +65,7 @@ public class QuorumPollingTransactionReceiptProcessor extends PollingTransaction
                     throw new TransactionException(e);
                 }
 
-                receiptOptional = sendTransactionReceiptRequest(transactionHash);
+                receiptOptional = poll(transactionHash, i + 2);
             } else {
                 return receiptOptional.get();
             }
@@ -78,6 +79,23 @@ public class QuorumPollingTransactionReceiptProcessor extends PollingTransaction
                 transactionHash);
     }
 
+    private Optional<? extends QuorumTransactionReceipt> poll(String transactionHash, int attempt)
+            throws IOException, TransactionException {
+        Object event = QuorumFlightRecorder.beginReceiptPoll();
+        long start = System.nanoTime();
+        Optional<? extends QuorumTransactionReceipt> receipt;
+        try {
+            receipt = sendTransactionReceiptRequest(transactionHash);
+        } catch (IOException | TransactionException | RuntimeException e) {
+            QuorumFlightRecorder.endReceiptPoll(event, transactionHash, attempt, false, e);
+            throw e;
+        }
+        TransactionTrace.recordReceiptPoll(start, receipt.isPresent());
+        QuorumFlightRecorder.endReceiptPoll(
+                event, transactionHash, attempt, receipt.isPresent(), null);
+        return receipt;
+    }
+
     Optional<? extends QuorumTransactionReceipt> sendTransactionReceiptRequest(
             String transactionHash) throws IOException, TransactionException {
         EthGetQuorumTransactionReceipt transactionReceipt =
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.tx.trace;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs a sample of completed transaction traces at info level, one line per transaction. Failed
+ * transactions are always logged, at warn level.
+ */
+public class LoggingTransactionTraceListener implements TransactionTraceListener {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(LoggingTransactionTraceListener.class);
+
+    private final double sampleRate;
+
+    /** @param sampleRate the fraction of successful transactions to log, between 0 and 1 */
+    public LoggingTransactionTraceListener(double sampleRate) {
+        if (!(sampleRate >= 0 && sampleRate <= 1)) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1");
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public void onComplete(TransactionTrace trace) {
+        if (trace.isFailed()) {
+            log.warn("Transaction failed: {}", trace, trace.getFailure());
+        } else if (log.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("Transaction {}", trace);
+        }
+    }
+}
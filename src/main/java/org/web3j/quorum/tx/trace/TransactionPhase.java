@@ -0,0 +1,31 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.tx.trace;
+
+/** The phases of a transaction recorded in a {@link TransactionTrace}, in the order they occur. */
+public enum TransactionPhase {
+    /** Storing the private payload in the enclave, for transactions signed locally. */
+    ENCLAVE_STORE,
+    /** Signing the transaction locally. */
+    SIGN,
+    /** Rewriting the signature of a locally signed transaction to mark it private. */
+    SET_PRIVATE,
+    /** Sending the transaction to the node, up to the transaction hash being returned. */
+    RPC_SEND,
+    /** The first request for the transaction receipt. */
+    FIRST_RECEIPT_POLL,
+    /** The receipt request which returned the receipt. */
+    RECEIPT_FOUND,
+    /** Fetching the receipt of the private transaction wrapped by a privacy marker transaction. */
+    PRIVATE_RECEIPT
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.tx.trace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The timeline of a single transaction, from storing its payload in the enclave to finding its
+ * receipt.
+ *
+ * <p>A trace is bound to the thread sending the transaction. The outermost traced call of a
+ * transaction manager begins it, nested calls such as the send and receipt polling within {@code
+ * executeTransaction} join it, and it completes when the outermost call returns. Phases are
+ * recorded against the trace of the current thread, so code which is not tracing pays only for a
+ * thread local lookup.
+ *
+ * <p>A trace must not be modified once it has been passed to {@link
+ * TransactionTraceListener#onComplete(TransactionTrace)}.
+ */
+public final class TransactionTrace {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionTrace.class);
+
+    private static final ThreadLocal<TransactionTrace> CURRENT = new ThreadLocal<>();
+
+    /** Returned by {@link #begin} when tracing is disabled; all of its methods do nothing. */
+    private static final TransactionTrace DISABLED = new TransactionTrace(null);
+
+    private final TransactionTraceListener listener;
+    private final long startTimeMillis = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final List<Span> spans = new ArrayList<>(TransactionPhase.values().length);
+    private long endNanos;
+    private int depth;
+    private String transactionHash;
+    private int receiptPolls;
+    private Throwable failure;
+
+    private TransactionTrace(TransactionTraceListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Begins a trace on the current thread, or joins the one already in progress. Each call must be
+     * matched by a call to {@link #end()}, normally in a finally block. If no trace is in progress
+     * and the listener is {@link TransactionTraceListener#NOOP}, the returned trace does nothing.
+     */
+    public static TransactionTrace begin(TransactionTraceListener listener) {
+        TransactionTrace trace = CURRENT.get();
+        if (trace == null) {
+            if (listener == null || listener == TransactionTraceListener.NOOP) {
+                return DISABLED;
+            }
+            trace = new TransactionTrace(listener);
+            CURRENT.set(trace);
+        }
+        trace.depth++;
+        return trace;
+    }
+
+    /** Returns the trace in progress on the current thread, or null. */
+    public static TransactionTrace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Records that a phase which began at {@code startNanos}, as given by {@link
+     * System#nanoTime()}, has just ended, if a trace is in progress on the current thread.
+     */
+    public static void record(TransactionPhase phase, long startNanos) {
+        TransactionTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.add(phase, startNanos, System.nanoTime());
+        }
+    }
+
+    /**
+     * Records a receipt request which began at {@code startNanos} and has just returned, if a trace
+     * is in progress on the current thread.
+     */
+    public static void recordReceiptPoll(long startNanos, boolean found) {
+        TransactionTrace trace = CURRENT.get();
+        if (trace == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (trace.receiptPolls++ == 0) {
+            trace.add(TransactionPhase.FIRST_RECEIPT_POLL, startNanos, now);
+        }
+        if (found) {
+            trace.add(TransactionPhase.RECEIPT_FOUND, startNanos, now);
+        }
+    }
+
+    /**
+     * Ends this call's part in the trace. When the outermost call ends, the trace is removed from
+     * the current thread and passed to its listener.
+     */
+    public void end() {
+        if (this == DISABLED || --depth > 0) {
+            return;
+        }
+        endNanos = System.nanoTime();
+        CURRENT.remove();
+        try {
+            listener.onComplete(this);
+        } catch (RuntimeException e) {
+            log.warn("Transaction trace listener failed", e);
+        }
+    }
+
+    /** Records the failure of the transaction, keeping the first failure if there are several. */
+    public void fail(Throwable failure) {
+        if (this != DISABLED && this.failure == null) {
+            this.failure = failure;
+        }
+    }
+
+    public void setTransactionHash(String transactionHash) {
+        if (this != DISABLED && transactionHash != null) {
+            this.transactionHash = transactionHash;
+        }
+    }
+
+    /** The transaction hash, or null if the transaction was not sent. */
+    public String getTransactionHash() {
+        return transactionHash;
+    }
+
+    /** The wall clock time the trace began, in milliseconds since the epoch. */
+    public long getStartTimeMillis() {
+        return startTimeMillis;
+    }
+
+    /** The time from the beginning to the end of the trace, or so far if it is in progress. */
+    public long getDurationNanos() {
+        return (depth > 0 ? System.nanoTime() : endNanos) - startNanos;
+    }
+
+    /** The recorded phases, in the order they ended. */
+    public List<Span> getSpans() {
+        return Collections.unmodifiableList(spans);
+    }
+
+    /** Returns the first span of the given phase, or null if the phase was not recorded. */
+    public Span getSpan(TransactionPhase phase) {
+        for (Span span : spans) {
+            if (span.phase == phase) {
+                return span;
+            }
+        }
+        return null;
+    }
+
+    /** The number of receipt requests made, including the one which found the receipt. */
+    public int getReceiptPollCount() {
+        return receiptPolls;
+    }
+
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    /** The first exception thrown while sending the transaction or waiting for it, or null. */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    private void add(TransactionPhase phase, long fromNanos, long toNanos) {
+        Span span = new Span(phase, fromNanos - startNanos, toNanos - fromNanos);
+        spans.add(span);
+        try {
+            listener.onPhase(this, span);
+        } catch (RuntimeException e) {
+            log.warn("Transaction trace listener failed", e);
+        }
+    }
+
+    /**
+     * Formats the trace on one line as the transaction hash, total duration and each phase's offset
+     * from the beginning of the trace and duration, in milliseconds.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(160);
+        builder.append(transactionHash != null ? transactionHash : "(not sent)");
+        builder.append(" total=").append(millis(getDurationNanos()));
+        for (Span span : spans) {
+            builder.append(' ')
+                    .append(span.phase.name().toLowerCase(Locale.ROOT))
+                    .append("=+")
+                    .append(millis(span.offsetNanos))
+                    .append('/')
+                    .append(millis(span.durationNanos));
+        }
+        if (receiptPolls > 0) {
+            builder.append(" polls=").append(receiptPolls);
+        }
+        if (failure != null) {
+            builder.append(" failure=").append(failure);
+        }
+        return builder.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1fms", nanos / 1e6);
+    }
+
+    /** A phase of a transaction, timed relative to the beginning of its trace. */
+    public static final class Span {
+
+        private final TransactionPhase phase;
+        private final long offsetNanos;
+        private final long durationNanos;
+
+        private Span(TransactionPhase phase, long offsetNanos, long durationNanos) {
+            this.phase = phase;
+            this.offsetNanos = offsetNanos;
+            this.durationNanos = durationNanos;
+        }
+
+        public TransactionPhase getPhase() {
+            return phase;
+        }
+
+        /** The time from the beginning of the trace to the beginning of the phase. */
+        public long getOffsetNanos() {
+            return offsetNanos;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /** The time from the beginning of the trace to the end of the phase. */
+        public long getEndOffsetNanos() {
+            return offsetNanos + durationNanos;
+        }
+
+        @Override
+        public String toString() {
+            return phase + "=+" + millis(offsetNanos) + "/" + millis(durationNanos);
+        }
+    }
+}
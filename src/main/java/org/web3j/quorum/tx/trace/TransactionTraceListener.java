@@ -0,0 +1,31 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.tx.trace;
+
+/**
+ * Receives the {@link TransactionTrace}s of the transactions sent by a transaction manager.
+ *
+ * <p>Both methods are called on the thread sending the transaction, so implementations should
+ * return quickly and must be thread safe if they are shared between threads.
+ */
+public interface TransactionTraceListener {
+
+    /** A listener which ignores traces; transaction managers do not trace while it is set. */
+    TransactionTraceListener NOOP = trace -> {};
+
+    /** Called as each phase of a transaction ends. */
+    default void onPhase(TransactionTrace trace, TransactionTrace.Span span) {}
+
+    /** Called once a transaction has been sent or its receipt found, or it has failed. */
+    void onComplete(TransactionTrace trace);
+}
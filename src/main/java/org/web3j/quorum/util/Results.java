@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.util;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.web3j.protocol.core.Response;
+
+/**
+ * Helpers for unwrapping JSON-RPC responses and the results of background tasks.
+ *
+ * <p>This class is shared by the packages of this library and is not intended for application use.
+ */
+public final class Results {
+
+    private Results() {}
+
+    /** Returns the response, or throws an {@link IOException} if it is a JSON-RPC error. */
+    public static <T extends Response<?>> T checked(T response) throws IOException {
+        if (response.hasError()) {
+            throw new IOException(response.getError().getMessage());
+        }
+        return response;
+    }
+
+    /**
+     * Waits for the result of a task, rethrowing an {@link IOException} or {@link
+     * InterruptedException} it failed with and wrapping any other failure in an {@link
+     * IOException}.
+     */
+    public static <T> T await(Future<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
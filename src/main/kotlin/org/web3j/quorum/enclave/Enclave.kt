@@ -14,6 +14,7 @@ package org.web3j.quorum.enclave
 
 import org.web3j.protocol.core.methods.response.EthSendTransaction
 import org.web3j.quorum.PrivacyFlag
+import org.web3j.quorum.PrivacyGroup
 
 /**
  * Enclave API methods.
@@ -38,6 +39,13 @@ interface Enclave {
         return sendRawRequest(payload, privateFor, privacyFlag, null)
     }
 
+    /**
+     * overloaded sendRawRequest taking the recipients and privacy flag from an interned [PrivacyGroup]
+     */
+    fun sendRawRequest(payload: String, privacyGroup: PrivacyGroup): EthSendTransaction {
+        return sendRawRequest(payload, privacyGroup.privateFor, privacyGroup.privacyFlag, privacyGroup.mandatoryFor)
+    }
+
     /**
      * Store raw transaction in the secure enclave only
      */
@@ -14,4 +14,14 @@ package org.web3j.quorum.enclave
 
 import org.web3j.protocol.exceptions.ClientConnectionException
 
-class EnclaveClientConnectionException(message: String) : ClientConnectionException(message)
+/**
+ * Thrown when the enclave returns an error response, with its HTTP [statusCode], or zero if it is
+ * not known.
+ */
+class EnclaveClientConnectionException(
+    message: String,
+    val statusCode: Int
+) : ClientConnectionException(message) {
+
+    constructor(message: String) : this(message, 0)
+}
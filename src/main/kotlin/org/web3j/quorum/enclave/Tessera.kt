@@ -14,6 +14,7 @@ package org.web3j.quorum.enclave
 
 import org.web3j.protocol.core.methods.response.EthSendTransaction
 import org.web3j.quorum.PrivacyFlag
+import org.web3j.quorum.PrivacyGroup
 import org.web3j.quorum.Quorum
 import org.web3j.quorum.enclave.protocol.EnclaveService
 
@@ -27,6 +28,10 @@ class Tessera(private val service: EnclaveService, private val web3: Quorum) : E
         return web3.ethSendRawPrivateTransaction(payload, privateFor, privacyFlag, mandatoryFor).send()
     }
 
+    override fun sendRawRequest(payload: String, privacyGroup: PrivacyGroup): EthSendTransaction {
+        return web3.ethSendRawPrivateTransaction(payload, privacyGroup).send()
+    }
+
     // payload is hex encoded bytes
     // hash returned in response is base64 encoded string
     override fun storeRawRequest(payload: String, from: String, to: List<String>): SendResponse {
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.enclave.protocol
+
+import java.util.Collections
+import java.util.WeakHashMap
+import okhttp3.Connection
+import okhttp3.Interceptor
+import okhttp3.Response
+
+/**
+ * Receives a measurement of every HTTP call made by an [EnclaveService].
+ *
+ * Listeners are called on the calling thread once the response body has been read, or the call
+ * has failed, and must be thread safe and cheap.
+ */
+interface EnclaveCallListener {
+
+    fun onCall(call: EnclaveCall)
+
+    companion object {
+        /** Discards all measurements. */
+        @JvmField
+        val NOOP: EnclaveCallListener = object : EnclaveCallListener {
+            override fun onCall(call: EnclaveCall) {}
+        }
+    }
+}
+
+/**
+ * A measurement of one HTTP call to the enclave.
+ *
+ * The queue time runs from the start of the call until a connection was acquired for it, which
+ * includes waiting for a pooled connection or establishing a new one. The network time runs from
+ * then until the response body was read. A call which failed before a connection was acquired has
+ * only a queue time.
+ */
+class EnclaveCall(
+    /** The enclave path, such as storeraw or upcheck. */
+    val path: String,
+    /** The HTTP status code, or 0 if no response was received. */
+    val statusCode: Int,
+    val requestBytes: Long,
+    val responseBytes: Long,
+    val queueNanos: Long,
+    val networkNanos: Long,
+    /** Whether the call was sent on a connection which had been used before. */
+    val isConnectionReused: Boolean,
+    /** The exception the call failed with, if it did not receive a response. */
+    val failure: Throwable?
+) {
+    val isFailed: Boolean
+        get() = failure != null || statusCode >= 400
+
+    val totalNanos: Long
+        get() = queueNanos + networkNanos
+}
+
+/** The progress of a call in flight, attached to its request as a tag. */
+internal class CallTrace {
+    @Volatile
+    var connectionAcquired = 0L
+    @Volatile
+    var connectionReused = false
+}
+
+/**
+ * Network interceptor which notes in the [CallTrace] of a request when it obtained a connection,
+ * and whether that connection had been seen before.
+ */
+internal class CallTraceInterceptor : Interceptor {
+
+    private val connections = Collections.newSetFromMap(WeakHashMap<Connection, Boolean>())
+
+    override fun intercept(chain: Interceptor.Chain): Response {
+        val trace = chain.request().tag(CallTrace::class.java)
+        if (trace != null) {
+            trace.connectionAcquired = System.nanoTime()
+            val connection = chain.connection()
+            trace.connectionReused = connection != null &&
+                    synchronized(connections) { !connections.add(connection) }
+        }
+        return chain.proceed(chain.request())
+    }
+}
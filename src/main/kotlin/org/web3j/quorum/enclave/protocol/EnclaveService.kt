@@ -14,18 +14,33 @@ package org.web3j.quorum.enclave.protocol
 
 import com.fasterxml.jackson.annotation.JsonInclude
 import com.fasterxml.jackson.module.kotlin.jacksonObjectMapper
+import java.io.IOException
 import okhttp3.MediaType.Companion.toMediaTypeOrNull
 import okhttp3.RequestBody.Companion.toRequestBody
 import okhttp3.OkHttpClient
 import okhttp3.Request
+import okhttp3.Response
 import org.web3j.quorum.enclave.EnclaveClientConnectionException
+import org.web3j.quorum.jfr.QuorumFlightRecorder
 
 /**
  * EnclaveService implements send methods that support communication with the private enclave via Http.
  * Currently Http communication is only supported in Tessera.
+ *
+ * <p> If an [EnclaveCallListener] is given, every call is measured and reported to it.
  */
-class EnclaveService(private val url: String, private val port: Int, private val client: OkHttpClient = OkHttpClient()) {
+class EnclaveService(
+    private val url: String,
+    private val port: Int,
+    client: OkHttpClient,
+    private val listener: EnclaveCallListener
+) {
+
+    constructor(url: String, port: Int, client: OkHttpClient = OkHttpClient()) :
+            this(url, port, client, EnclaveCallListener.NOOP)
 
+    private val client = if (listener === EnclaveCallListener.NOOP) client else
+        client.newBuilder().addNetworkInterceptor(CallTraceInterceptor()).build()
     private val objectMapper = jacksonObjectMapper()
             .setSerializationInclusion(JsonInclude.Include.NON_NULL)
     private val JSON_MEDIA_TYPE = "application/json; charset=utf-8".toMediaTypeOrNull()
@@ -40,18 +55,18 @@ class EnclaveService(private val url: String, private val port: Int, private val
         val buildRequest = Request.Builder()
                 .url(uri)
                 .post(body)
-                .build()
 
-        val response = client.newCall(buildRequest).execute()
+        val (response, chunk) = execute(buildRequest, path)
 
         if (response.isSuccessful) {
-            val chunk = response.body?.string()
             return objectMapper.readValue(chunk, responseType)
         } else {
             val statusCode = response.code
-            val text = if (response.body == null) "N/A" else response.body?.string()
+            val text = if (response.body == null) "N/A" else chunk.toString(Charsets.UTF_8)
 
-            throw EnclaveClientConnectionException("Invalid response received from enclave: $statusCode $text")
+            throw EnclaveClientConnectionException(
+                "Invalid response received from enclave: $statusCode $text", statusCode
+            )
         }
     }
 
@@ -63,8 +78,66 @@ class EnclaveService(private val url: String, private val port: Int, private val
         val request = Request.Builder()
                 .url(serverUri)
                 .get()
-                .build()
-        val response = client.newCall(request).execute()
-        return response.body?.string() ?: ""
+        val (response, chunk) = execute(request, path)
+        val charset = response.body?.contentType()?.charset() ?: Charsets.UTF_8
+        return chunk.toString(charset)
+    }
+
+    /**
+     * Executes the request and reads the response body, measuring the call if there is a listener.
+     */
+    private fun execute(builder: Request.Builder, path: String): Pair<Response, ByteArray> {
+        val event = QuorumFlightRecorder.beginEnclaveCall() ?: return call(builder, path)
+        try {
+            val result = call(builder, path)
+            val requestBytes = result.first.request.body?.contentLength() ?: 0L
+            QuorumFlightRecorder.endEnclaveCall(
+                event, path, result.first.code, requestBytes, result.second.size.toLong(), null
+            )
+            return result
+        } catch (e: IOException) {
+            QuorumFlightRecorder.endEnclaveCall(event, path, 0, 0L, 0L, e)
+            throw e
+        }
+    }
+
+    private fun call(builder: Request.Builder, path: String): Pair<Response, ByteArray> {
+        if (listener === EnclaveCallListener.NOOP) {
+            val response = client.newCall(builder.build()).execute()
+            return Pair(response, response.body?.bytes() ?: ByteArray(0))
+        }
+
+        val trace = CallTrace()
+        val request = builder.tag(CallTrace::class.java, trace).build()
+        val requestBytes = request.body?.contentLength() ?: 0L
+        val start = System.nanoTime()
+        var statusCode = 0
+        try {
+            val response = client.newCall(request).execute()
+            statusCode = response.code
+            val chunk = response.body?.bytes() ?: ByteArray(0)
+            listener.onCall(measure(path, statusCode, requestBytes, chunk.size.toLong(), start, trace, null))
+            return Pair(response, chunk)
+        } catch (e: IOException) {
+            listener.onCall(measure(path, statusCode, requestBytes, 0L, start, trace, e))
+            throw e
+        }
+    }
+
+    private fun measure(
+        path: String,
+        statusCode: Int,
+        requestBytes: Long,
+        responseBytes: Long,
+        start: Long,
+        trace: CallTrace,
+        failure: Throwable?
+    ): EnclaveCall {
+        val end = System.nanoTime()
+        val acquired = if (trace.connectionAcquired == 0L) end else trace.connectionAcquired
+        return EnclaveCall(
+            path, statusCode, requestBytes, responseBytes,
+            acquired - start, end - acquired, trace.connectionReused, failure
+        )
     }
 }
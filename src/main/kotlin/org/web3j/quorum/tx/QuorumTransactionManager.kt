@@ -12,14 +12,24 @@
  */
 package org.web3j.quorum.tx
 
+import java.math.BigInteger
 import org.web3j.crypto.Credentials
 import org.web3j.crypto.RawTransaction
 import org.web3j.crypto.TransactionEncoder
 import org.web3j.protocol.core.methods.response.EthSendTransaction
+import org.web3j.protocol.core.methods.response.TransactionReceipt
 import org.web3j.quorum.PrivacyFlag
 import org.web3j.quorum.Quorum
 import org.web3j.quorum.enclave.Enclave
 import org.web3j.quorum.enclave.SendResponse
+import org.web3j.quorum.jfr.QuorumFlightRecorder
+import org.web3j.quorum.tx.limit.AdaptiveConcurrencyLimiter
+import org.web3j.quorum.tx.nonce.LocalNonceSource
+import org.web3j.quorum.tx.nonce.NonceSource
+import org.web3j.quorum.tx.response.QuorumPollingTransactionReceiptProcessor
+import org.web3j.quorum.tx.trace.TransactionPhase
+import org.web3j.quorum.tx.trace.TransactionTrace
+import org.web3j.quorum.tx.trace.TransactionTraceListener
 import org.web3j.quorum.tx.util.decode
 import org.web3j.quorum.tx.util.encode
 import org.web3j.rlp.RlpDecoder
@@ -43,7 +53,32 @@ open class QuorumTransactionManager(
     chainId: Long = -1L,
     attempts: Int = TransactionManager.DEFAULT_POLLING_ATTEMPTS_PER_TX_HASH,
     sleepDuration: Long = TransactionManager.DEFAULT_POLLING_FREQUENCY
-) : RawTransactionManager(web3j, credentials, chainId, attempts, sleepDuration) {
+) : RawTransactionManager(
+    web3j, credentials, chainId,
+    QuorumPollingTransactionReceiptProcessor(web3j, sleepDuration, attempts)
+) {
+
+    /**
+     * The listener which receives a [TransactionTrace] of each transaction sent by this manager,
+     * or [TransactionTraceListener.NOOP] to disable tracing.
+     */
+    @Volatile
+    var traceListener: TransactionTraceListener = TransactionTraceListener.NOOP
+
+    /**
+     * The limiter which transactions stored, signed and sent by this manager go through, which may
+     * be shared with other managers using the same node and enclave, or null for no limit.
+     */
+    @Volatile
+    var concurrencyLimiter: AdaptiveConcurrencyLimiter? = null
+
+    /**
+     * The source of the nonces of transactions sent by this manager, or null to read the pending
+     * transaction count from the node for each transaction. Concurrent sends from one account need
+     * a thread safe source such as [LocalNonceSource], which is reset whenever a send fails.
+     */
+    @Volatile
+    var nonceSource: NonceSource? = null
 
     // add extra constructor as java does not have optional parameters
     constructor(
@@ -85,19 +120,108 @@ open class QuorumTransactionManager(
         return enclave.sendRawRequest(signedTx, to, privacyFlag, mandatoryFor)
     }
 
+    fun sendRaw(signedTx: String, options: PrivacyOptions): EthSendTransaction {
+        return enclave.sendRawRequest(signedTx, options.privacyGroup)
+    }
+
+    override fun getNonce(): BigInteger = nonceSource?.next() ?: super.getNonce()
+
     override fun sign(rawTransaction: RawTransaction): String {
-        var signedMessage = TransactionEncoder.signMessage(rawTransaction, credentials)
+        return sign(rawTransaction, privateFor)
+    }
+
+    /** Signs the transaction, marking it private if [options] name any recipients. */
+    fun sign(rawTransaction: RawTransaction, options: PrivacyOptions): String {
+        return sign(rawTransaction, options.privateFor)
+    }
+
+    override fun signAndSend(rawTransaction: RawTransaction): EthSendTransaction = traced {
+        nonced {
+            limited {
+                recorded(rawTransaction, privateFor) {
+                    val hexValue = signPrivate(rawTransaction, publicKey, privateFor)
+                    send { enclave.sendRawRequest(hexValue, privateFor, privacyFlag, mandatoryFor) }
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores the payload in the enclave, signs and sends the transaction with the given privacy
+     * parameters instead of the ones this manager was created with. This does not modify the
+     * manager, so it may be called concurrently for different recipients.
+     */
+    fun signAndSend(rawTransaction: RawTransaction, options: PrivacyOptions): EthSendTransaction = traced {
+        nonced {
+            limited {
+                recorded(rawTransaction, options.privateFor) {
+                    val hexValue = signPrivate(rawTransaction, options.privateFrom ?: publicKey, options.privateFor)
+                    send { enclave.sendRawRequest(hexValue, options.privacyGroup) }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends a transaction with the given privacy parameters, using the nonce from [getNonce].
+     * Concurrent callers sharing the sending account must set a [nonceSource], as otherwise they
+     * may read the same pending transaction count.
+     */
+    fun sendTransaction(
+        gasPrice: BigInteger,
+        gasLimit: BigInteger,
+        to: String?,
+        data: String,
+        value: BigInteger,
+        options: PrivacyOptions
+    ): EthSendTransaction {
+        val rawTransaction =
+            RawTransaction.createTransaction(nonce, gasPrice, gasLimit, to, value, data)
+        return signAndSend(rawTransaction, options)
+    }
+
+    /** Sends a transaction with the given privacy parameters and waits for its receipt. */
+    fun executeTransaction(
+        gasPrice: BigInteger,
+        gasLimit: BigInteger,
+        to: String?,
+        data: String,
+        value: BigInteger,
+        options: PrivacyOptions
+    ): TransactionReceipt = traced {
+        processResponse(sendTransaction(gasPrice, gasLimit, to, data, value, options))
+    }
+
+    override fun executeTransaction(
+        gasPrice: BigInteger,
+        gasLimit: BigInteger,
+        to: String?,
+        data: String,
+        value: BigInteger,
+        constructor: Boolean
+    ): TransactionReceipt = traced {
+        super.executeTransaction(gasPrice, gasLimit, to, data, value, constructor)
+    }
+
+    private fun sign(rawTransaction: RawTransaction, privateFor: List<String>): String {
+        var signedMessage = signMessage(rawTransaction)
         if (privateFor.isNotEmpty()) {
-            signedMessage = setPrivate(signedMessage)
+            signedMessage = markPrivate(signedMessage)
         }
         return Numeric.toHexString(signedMessage)
     }
 
-    override fun signAndSend(rawTransaction: RawTransaction): EthSendTransaction {
+    private fun signPrivate(
+        rawTransaction: RawTransaction,
+        privateFrom: String,
+        privateFor: List<String>
+    ): String {
         val signedMessage: ByteArray
         if (privateFor.isNotEmpty()) {
             val base64Encoded = encode(Numeric.hexStringToByteArray(rawTransaction.data))
-            val response = enclave.storeRawRequest(base64Encoded, publicKey, privateFor)
+            val start = System.nanoTime()
+            val response = enclave.storeRawRequest(base64Encoded, privateFrom, privateFor)
+            TransactionTrace.record(TransactionPhase.ENCLAVE_STORE, start)
             val responseDecoded = Numeric.toHexString(decode(response.key))
 
             val privateTransaction = RawTransaction.createTransaction(
@@ -106,14 +230,87 @@ open class QuorumTransactionManager(
                 rawTransaction.value, responseDecoded
             )
 
-            val privateMessage = TransactionEncoder.signMessage(privateTransaction, credentials)
+            val privateMessage = signMessage(privateTransaction)
 
-            signedMessage = setPrivate(privateMessage)
+            signedMessage = markPrivate(privateMessage)
         } else {
-            signedMessage = TransactionEncoder.signMessage(rawTransaction, credentials)
+            signedMessage = signMessage(rawTransaction)
+        }
+        return Numeric.toHexString(signedMessage)
+    }
+
+    // Runs the block in the transaction trace of this thread, beginning one if there is none
+    private inline fun <T> traced(block: () -> T): T {
+        val trace = TransactionTrace.begin(traceListener)
+        try {
+            return block()
+        } catch (e: Exception) {
+            trace.fail(e)
+            throw e
+        } finally {
+            trace.end()
+        }
+    }
+
+    // Resets the nonce source if the block fails or the node rejects the transaction
+    private inline fun nonced(block: () -> EthSendTransaction): EthSendTransaction {
+        val source = nonceSource ?: return block()
+        try {
+            val response = block()
+            if (response.hasError()) {
+                source.reset()
+            }
+            return response
+        } catch (e: Exception) {
+            source.reset()
+            throw e
         }
-        val hexValue = Numeric.toHexString(signedMessage)
-        return enclave.sendRawRequest(hexValue, privateFor, privacyFlag, mandatoryFor)
+    }
+
+    // Runs the block within the concurrency limit, if there is one
+    private inline fun limited(crossinline block: () -> EthSendTransaction): EthSendTransaction {
+        val limiter = concurrencyLimiter ?: return block()
+        return limiter.submit { block() }
+    }
+
+    // Records a flight recorder event for the block if they are enabled
+    private inline fun recorded(
+        rawTransaction: RawTransaction,
+        privateFor: List<String>,
+        block: () -> EthSendTransaction
+    ): EthSendTransaction {
+        val event = QuorumFlightRecorder.beginSignAndSend() ?: return block()
+        val payloadBytes = Numeric.cleanHexPrefix(rawTransaction.data ?: "").length / 2L
+        try {
+            val response = block()
+            QuorumFlightRecorder.endSignAndSend(event, privateFor.size, payloadBytes, response, null)
+            return response
+        } catch (e: Exception) {
+            QuorumFlightRecorder.endSignAndSend(event, privateFor.size, payloadBytes, null, e)
+            throw e
+        }
+    }
+
+    private inline fun send(block: () -> EthSendTransaction): EthSendTransaction {
+        val start = System.nanoTime()
+        val response = block()
+        TransactionTrace.record(TransactionPhase.RPC_SEND, start)
+        TransactionTrace.current()?.setTransactionHash(response.transactionHash)
+        return response
+    }
+
+    private fun signMessage(rawTransaction: RawTransaction): ByteArray {
+        val start = System.nanoTime()
+        val signedMessage = TransactionEncoder.signMessage(rawTransaction, credentials)
+        TransactionTrace.record(TransactionPhase.SIGN, start)
+        return signedMessage
+    }
+
+    private fun markPrivate(message: ByteArray): ByteArray {
+        val start = System.nanoTime()
+        val privateMessage = setPrivate(message)
+        TransactionTrace.record(TransactionPhase.SET_PRIVATE, start)
+        return privateMessage
     }
 
     // If the byte array RLP decodes to a list of size >= 1 containing a list of size >= 3
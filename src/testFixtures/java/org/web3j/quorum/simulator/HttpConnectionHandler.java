@@ -0,0 +1,222 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.simulator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Serves HTTP/1.1 on a connection, with keep alive. Request bodies may have a content length or be
+ * chunked; responses always have a content length.
+ */
+final class HttpConnectionHandler implements SimulatorServer.ConnectionHandler {
+
+    /** Answers a request. */
+    interface Handler {
+        Reply handle(String method, String path, byte[] body) throws IOException;
+    }
+
+    /** A response to a request. */
+    static final class Reply {
+        final int status;
+        final String contentType;
+        final byte[] body;
+
+        Reply(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        static Reply json(byte[] body) {
+            return new Reply(200, "application/json", body);
+        }
+
+        static Reply text(int status, String body) {
+            return new Reply(
+                    status, "text/plain; charset=utf-8", body.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static final int MAX_LINE = 8192;
+
+    private final Handler handler;
+
+    HttpConnectionHandler(Handler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void serve(InputStream socketIn, OutputStream socketOut) throws IOException {
+        InputStream in = new BufferedInputStream(socketIn);
+        OutputStream out = new BufferedOutputStream(socketOut);
+        while (true) {
+            String requestLine = readLine(in);
+            if (requestLine == null) {
+                return;
+            }
+            if (requestLine.isEmpty()) {
+                continue;
+            }
+            String[] parts = requestLine.split(" ");
+            if (parts.length != 3) {
+                write(out, Reply.text(400, "Malformed request line"), true);
+                return;
+            }
+
+            long contentLength = 0;
+            boolean chunked = false;
+            boolean close = parts[2].equals("HTTP/1.0");
+            String header;
+            while ((header = readLine(in)) != null && !header.isEmpty()) {
+                int colon = header.indexOf(':');
+                if (colon < 0) {
+                    continue;
+                }
+                String name = header.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+                String value = header.substring(colon + 1).trim();
+                if (name.equals("content-length")) {
+                    contentLength = Long.parseLong(value);
+                } else if (name.equals("transfer-encoding")) {
+                    chunked = value.toLowerCase(Locale.ROOT).contains("chunked");
+                } else if (name.equals("connection")) {
+                    close = value.equalsIgnoreCase("close");
+                }
+            }
+            if (header == null) {
+                return;
+            }
+
+            byte[] body = chunked ? readChunked(in) : readFully(in, contentLength);
+            String path = parts[1];
+            int query = path.indexOf('?');
+            if (query >= 0) {
+                path = path.substring(0, query);
+            }
+
+            Reply reply;
+            try {
+                reply = handler.handle(parts[0], path, body);
+            } catch (RuntimeException e) {
+                reply = Reply.text(500, String.valueOf(e));
+            }
+            write(out, reply, close);
+            if (close) {
+                return;
+            }
+        }
+    }
+
+    private static void write(OutputStream out, Reply reply, boolean close) throws IOException {
+        StringBuilder head = new StringBuilder(128);
+        head.append("HTTP/1.1 ").append(reply.status).append(' ').append(reason(reply.status));
+        head.append("\r\nContent-Length: ").append(reply.body.length);
+        if (reply.contentType != null) {
+            head.append("\r\nContent-Type: ").append(reply.contentType);
+        }
+        if (close) {
+            head.append("\r\nConnection: close");
+        }
+        head.append("\r\n\r\n");
+        out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+        out.write(reply.body);
+        out.flush();
+    }
+
+    private static String reason(int status) {
+        switch (status) {
+            case 200:
+                return "OK";
+            case 204:
+                return "No Content";
+            case 400:
+                return "Bad Request";
+            case 404:
+                return "Not Found";
+            case 405:
+                return "Method Not Allowed";
+            default:
+                return status < 500 ? "Client Error" : "Server Error";
+        }
+    }
+
+    /** Reads a CRLF or LF terminated line, or returns null at the end of the stream. */
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) >= 0) {
+            if (c == '\n') {
+                int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                return line.toString();
+            }
+            if (line.length() == MAX_LINE) {
+                throw new IOException("Line too long");
+            }
+            line.append((char) c);
+        }
+        if (line.length() > 0) {
+            throw new EOFException("Connection closed mid line");
+        }
+        return null;
+    }
+
+    private static byte[] readFully(InputStream in, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Request body too large");
+        }
+        byte[] body = new byte[(int) length];
+        int read = 0;
+        while (read < body.length) {
+            int n = in.read(body, read, body.length - read);
+            if (n < 0) {
+                throw new EOFException("Connection closed mid body");
+            }
+            read += n;
+        }
+        return body;
+    }
+
+    private static byte[] readChunked(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        while (true) {
+            String sizeLine = readLine(in);
+            if (sizeLine == null) {
+                throw new EOFException("Connection closed mid body");
+            }
+            int extension = sizeLine.indexOf(';');
+            int size =
+                    Integer.parseInt(
+                            (extension >= 0 ? sizeLine.substring(0, extension) : sizeLine).trim(),
+                            16);
+            if (size == 0) {
+                String trailer;
+                while ((trailer = readLine(in)) != null && !trailer.isEmpty()) {
+                    // trailers are ignored
+                }
+                return body.toByteArray();
+            }
+            body.write(readFully(in, size));
+            readLine(in);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.simulator;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/** The time a simulator takes to answer a call, drawn uniformly between a minimum and maximum. */
+public final class Latency {
+
+    public static final Latency NONE = new Latency(0, 0);
+
+    private final long minNanos;
+    private final long maxNanos;
+
+    private Latency(long minNanos, long maxNanos) {
+        if (minNanos < 0 || maxNanos < minNanos) {
+            throw new IllegalArgumentException(
+                    "Latency must not be negative and the maximum must not be below the minimum");
+        }
+        this.minNanos = minNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public static Latency fixed(long duration, TimeUnit unit) {
+        return new Latency(unit.toNanos(duration), unit.toNanos(duration));
+    }
+
+    public static Latency uniform(long min, long max, TimeUnit unit) {
+        return new Latency(unit.toNanos(min), unit.toNanos(max));
+    }
+
+    public long getMinNanos() {
+        return minNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /** Sleeps for a latency drawn from this distribution. */
+    void await() throws InterruptedIOException {
+        long nanos =
+                minNanos == maxNanos
+                        ? minNanos
+                        : ThreadLocalRandom.current().nextLong(minNanos, maxNanos + 1);
+        if (nanos == 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while simulating latency");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Latency{minNanos=" + minNanos + ", maxNanos=" + maxNanos + "}";
+    }
+}
@@ -0,0 +1,474 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.simulator;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.SignatureException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.Keys;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.crypto.Sign;
+import org.web3j.crypto.SignedRawTransaction;
+import org.web3j.crypto.TransactionDecoder;
+import org.web3j.crypto.TransactionEncoder;
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.http.HttpService;
+import org.web3j.protocol.ipc.UnixIpcService;
+import org.web3j.quorum.Quorum;
+import org.web3j.utils.Numeric;
+
+/**
+ * Simulates the JSON-RPC API of a Quorum node used by {@link org.web3j.quorum.JsonRpc2_0Quorum},
+ * over HTTP on a loopback port or over an IPC socket like {@code geth.ipc}.
+ *
+ * <p>Sent transactions are mined at once into a block of their own, and their receipt is returned
+ * after {@link #setReceiptPolls(int)} empty receipt requests. Signatures, nonces, gas and balances
+ * are not checked. Raft, Istanbul and permissioning calls return fixed results, and any method may
+ * be given a result of its own with {@link #respond(String, Function)}. Unknown methods return the
+ * JSON-RPC "method not found" error.
+ */
+public class QuorumNodeSimulator extends Simulator {
+
+    /** A JSON-RPC error, which a handler given to {@link #respond} may throw. */
+    public static class RpcError extends RuntimeException {
+        private final int code;
+
+        public RpcError(int code, String message) {
+            super(message);
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+    }
+
+    public static final String CHAIN_ID = "0x2710";
+
+    private static final String LOGS_BLOOM = "0x" + new String(new char[512]).replace('\0', '0');
+
+    private static final String NODE_ID =
+            "0ba6b9f606a43a95edc6247cdb1c1e105145817be7bcafd6b2c0ba15d58145f0dc1a194f70ba73cd6f4cdd6864edc7687f311254c7555cc32e4d45aeb1b80416";
+    private static final String VALIDATORS =
+            "[\"0x6571d97f340c8495b661a823f2c2145ca47d63c2\","
+                    + "\"0x8157d4437104e3b8df4451a85f7b2438ef6699ff\"]";
+    private static final String RAFT_CLUSTER =
+            "[{\"hostname\":\"127.0.0.1\",\"nodeActive\":true,\"nodeId\":\""
+                    + NODE_ID
+                    + "\",\"p2pPort\":21000,\"raftId\":1,\"raftPort\":50400,\"role\":\"minter\"}]";
+    private static final String ORG_LIST =
+            "[{\"fullOrgId\":\"INITORG\",\"level\":1,\"orgId\":\"INITORG\",\"parentOrgId\":\"\","
+                    + "\"status\":2,\"subOrgList\":[],\"ultimateParent\":\"INITORG\"}]";
+    private static final String NODE_LIST =
+            "[{\"orgId\":\"INITORG\",\"status\":2,\"url\":\"enode://"
+                    + NODE_ID
+                    + "@127.0.0.1:21000?discport=0\"}]";
+    private static final String ROLE_LIST =
+            "[{\"access\":3,\"active\":true,\"isAdmin\":true,\"isVoter\":true,"
+                    + "\"orgId\":\"INITORG\",\"roleId\":\"NWADMIN\"}]";
+    private static final String ACCOUNT_LIST =
+            "[{\"acctId\":\"0xed9d02e382b34818e88b88a309c7fe71e65f419d\",\"isOrgAdmin\":true,"
+                    + "\"orgId\":\"INITORG\",\"roleId\":\"NWADMIN\",\"status\":2}]";
+    private static final String EXEC_STATUS = "Action completed successfully";
+
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private final Map<String, Function<JsonNode, Object>> handlers = new ConcurrentHashMap<>();
+    private final Map<String, MinedTransaction> transactions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> nonces = new ConcurrentHashMap<>();
+    private final AtomicLong blockNumber = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private volatile int receiptPolls;
+    private volatile TesseraSimulator enclave;
+
+    private QuorumNodeSimulator() {
+        registerDefaults();
+    }
+
+    /** Starts a simulator serving JSON-RPC over HTTP on an ephemeral loopback port. */
+    public static QuorumNodeSimulator http() throws IOException {
+        QuorumNodeSimulator simulator = new QuorumNodeSimulator();
+        simulator.listen(SimulatorServer.tcp(new HttpConnectionHandler(simulator::handleHttp)));
+        return simulator;
+    }
+
+    /**
+     * Starts a simulator serving JSON-RPC over an IPC socket, replacing any file at the path. Each
+     * response is written on its own line, as geth does.
+     */
+    public static QuorumNodeSimulator ipc(Path socketFile) throws IOException {
+        QuorumNodeSimulator simulator = new QuorumNodeSimulator();
+        simulator.listen(SimulatorServer.unix(socketFile, simulator::serveIpc));
+        return simulator;
+    }
+
+    /** The URL of the HTTP endpoint, or null if the simulator serves IPC. */
+    public String getUrl() {
+        return getSocketFile() == null ? "http://127.0.0.1:" + getPort() : null;
+    }
+
+    /** Returns a client connected to this simulator. */
+    public Quorum quorum() {
+        return getSocketFile() == null
+                ? Quorum.build(new HttpService(getUrl()))
+                : Quorum.build(new UnixIpcService(getSocketFile().toString()));
+    }
+
+    /** Sets the number of receipt requests for each transaction which return no receipt. */
+    public void setReceiptPolls(int receiptPolls) {
+        if (receiptPolls < 0) {
+            throw new IllegalArgumentException("Receipt polls must not be negative");
+        }
+        this.receiptPolls = receiptPolls;
+    }
+
+    /** Serves {@code eth_getQuorumPayload} from the payloads stored in the enclave. */
+    public void setEnclave(TesseraSimulator enclave) {
+        this.enclave = enclave;
+    }
+
+    /**
+     * Answers a method with the given handler, which is passed the params and returns the result.
+     * The result is serialised with Jackson, and the handler may throw {@link RpcError}.
+     */
+    public void respond(String method, Function<JsonNode, Object> handler) {
+        handlers.put(method, handler);
+    }
+
+    /** Answers a method with a JSON-RPC error. */
+    public void respondWithError(String method, int code, String message) {
+        respond(
+                method,
+                params -> {
+                    throw new RpcError(code, message);
+                });
+    }
+
+    /** The number of transactions sent to the simulator. */
+    public int getTransactionCount() {
+        return transactions.size();
+    }
+
+    private HttpConnectionHandler.Reply handleHttp(String method, String path, byte[] body)
+            throws IOException {
+        if (!method.equals("POST")) {
+            return HttpConnectionHandler.Reply.text(405, "JSON-RPC requests must be posted");
+        }
+        return HttpConnectionHandler.Reply.json(
+                objectMapper.writeValueAsBytes(handle(objectMapper.readTree(body))));
+    }
+
+    private void serveIpc(InputStream in, OutputStream socketOut) throws IOException {
+        OutputStream out = new BufferedOutputStream(socketOut);
+        JsonParser parser = objectMapper.getFactory().createParser(in);
+        while (parser.nextToken() != null) {
+            JsonNode request = objectMapper.readTree(parser);
+            out.write(objectMapper.writeValueAsBytes(handle(request)));
+            out.write('\n');
+            out.flush();
+        }
+    }
+
+    private JsonNode handle(JsonNode message) throws IOException {
+        if (!message.isArray()) {
+            return call(message);
+        }
+        ArrayNode responses = JsonNodeFactory.instance.arrayNode();
+        for (JsonNode request : message) {
+            responses.add(call(request));
+        }
+        return responses;
+    }
+
+    private ObjectNode call(JsonNode request) throws IOException {
+        ObjectNode response = JsonNodeFactory.instance.objectNode();
+        response.put("jsonrpc", "2.0");
+        response.set("id", request.path("id"));
+
+        String method = request.path("method").asText();
+        called(method);
+        Function<JsonNode, Object> handler = handlers.get(method);
+        try {
+            if (handler == null) {
+                throw new RpcError(
+                        -32601, "the method " + method + " does not exist/is not available");
+            }
+            Object result = handler.apply(request.path("params"));
+            response.set("result", objectMapper.valueToTree(result));
+        } catch (RpcError e) {
+            ObjectNode error = response.putObject("error");
+            error.put("code", e.getCode());
+            error.put("message", e.getMessage());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return response;
+    }
+
+    private void registerDefaults() {
+        respond("eth_chainId", params -> CHAIN_ID);
+        respond("net_version", params -> Numeric.toBigInt(CHAIN_ID).toString());
+        respond("eth_blockNumber", params -> Numeric.encodeQuantity(blockNumber()));
+        respond("eth_gasPrice", params -> "0x0");
+        respond("eth_estimateGas", params -> "0x5208");
+        respond("eth_call", params -> "0x");
+        respond("eth_getCode", params -> "0x");
+        respond(
+                "eth_getTransactionCount",
+                params -> Numeric.encodeQuantity(BigInteger.valueOf(nonce(params.path(0)))));
+
+        respond("eth_sendTransaction", params -> sendTransaction(params.path(0)));
+        respond("eth_sendTransactionAsync", params -> sendTransaction(params.path(0)));
+        respond("eth_sendRawTransaction", params -> sendRaw(params.path(0).asText()));
+        respond("eth_sendRawPrivateTransaction", params -> sendRaw(params.path(0).asText()));
+        respond("eth_distributePrivateTransaction", params -> Hash.sha3(params.path(0).asText()));
+        respond("eth_getTransactionReceipt", params -> receipt(params.path(0).asText(), true));
+        respond(
+                "eth_getPrivateTransactionReceipt",
+                params -> receipt(params.path(0).asText(), false));
+        respond("eth_getPrivateTransactionByHash", params -> null);
+        respond("eth_getQuorumPayload", params -> payload(params.path(0).asText()));
+        respond("eth_getContractPrivacyMetadata", params -> null);
+        respond(
+                "eth_getPrivacyPrecompileAddress",
+                params -> "0x000000000000000000000000000000000000007a");
+
+        respond("raft_role", params -> "minter");
+        respond("raft_leader", params -> NODE_ID);
+        respond("raft_cluster", params -> json(RAFT_CLUSTER));
+        respond("raft_addPeer", params -> "2");
+        respond("raft_addLearner", params -> "2");
+        respond("raft_removePeer", params -> null);
+        respond("raft_promoteToPeer", params -> true);
+
+        JsonNode validators = json(VALIDATORS);
+        respond("istanbul_getValidators", params -> validators);
+        respond("istanbul_getValidatorsAtHash", params -> validators);
+        respond("istanbul_getSnapshot", params -> snapshot(validators));
+        respond("istanbul_getSnapshotAtHash", params -> snapshot(validators));
+        respond("istanbul_candidates", params -> JsonNodeFactory.instance.objectNode());
+        respond("istanbul_propose", params -> null);
+        respond("istanbul_discard", params -> null);
+        respond("istanbul_nodeAddress", params -> validators.get(0));
+        respond("istanbul_getSignersFromBlock", params -> signers(validators));
+        respond("istanbul_getSignersFromBlockByHash", params -> signers(validators));
+
+        JsonNode orgList = json(ORG_LIST);
+        JsonNode nodeList = json(NODE_LIST);
+        JsonNode roleList = json(ROLE_LIST);
+        JsonNode accountList = json(ACCOUNT_LIST);
+        respond("quorumPermission_orgList", params -> orgList);
+        respond("quorumPermission_nodeList", params -> nodeList);
+        respond("quorumPermission_roleList", params -> roleList);
+        respond("quorumPermission_acctList", params -> accountList);
+        ObjectNode orgDetails = JsonNodeFactory.instance.objectNode();
+        orgDetails.set("roleList", roleList);
+        orgDetails.set("acctList", accountList);
+        orgDetails.set("nodeList", nodeList);
+        orgDetails.putArray("subOrgList");
+        respond("quorumPermission_getOrgDetails", params -> orgDetails);
+        for (String method :
+                Arrays.asList(
+                        "addOrg",
+                        "approveOrg",
+                        "updateOrgStatus",
+                        "approveOrgStatus",
+                        "addSubOrg",
+                        "addNewRole",
+                        "removeRole",
+                        "addAccountToOrg",
+                        "changeAccountRole",
+                        "updateAccountStatus",
+                        "recoverBlackListedAccount",
+                        "approveBlackListedAccountRecovery",
+                        "assignAdminRole",
+                        "approveAdminRole",
+                        "addNode",
+                        "updateNodeStatus",
+                        "recoverBlackListedNode",
+                        "approveBlackListedNodeRecovery")) {
+            respond("quorumPermission_" + method, params -> EXEC_STATUS);
+        }
+    }
+
+    private String sendTransaction(JsonNode transaction) {
+        String from = text(transaction, "from");
+        String to = text(transaction, "to");
+        String data = text(transaction, "data");
+        if (from != null) {
+            nonces.computeIfAbsent(from.toLowerCase(), key -> new AtomicLong()).incrementAndGet();
+        }
+        return mine(from, to, data == null ? "" : data);
+    }
+
+    private String sendRaw(String signedTransaction) {
+        String from = null;
+        String to = null;
+        try {
+            RawTransaction transaction = TransactionDecoder.decode(signedTransaction);
+            // contract creations decode with an empty recipient
+            to = transaction.getTo();
+            if (to != null && Numeric.cleanHexPrefix(to).isEmpty()) {
+                to = null;
+            }
+            if (transaction instanceof SignedRawTransaction) {
+                from = sender((SignedRawTransaction) transaction);
+            }
+        } catch (RuntimeException e) {
+            // an undecodable transaction is mined without a sender
+        }
+        if (from != null) {
+            nonces.computeIfAbsent(from, key -> new AtomicLong()).incrementAndGet();
+        }
+        return mine(from, to, signedTransaction);
+    }
+
+    // private transactions are marked with a v of 37 or 38 in place of 27 or 28
+    private static String sender(SignedRawTransaction transaction) {
+        Sign.SignatureData signature = transaction.getSignatureData();
+        byte v = signature.getV()[0];
+        try {
+            if (v != 37 && v != 38) {
+                return transaction.getFrom().toLowerCase();
+            }
+            Sign.SignatureData homestead =
+                    new Sign.SignatureData((byte) (v - 10), signature.getR(), signature.getS());
+            BigInteger key =
+                    Sign.signedMessageToKey(TransactionEncoder.encode(transaction), homestead);
+            return "0x" + Keys.getAddress(key);
+        } catch (SignatureException e) {
+            return null;
+        }
+    }
+
+    private String mine(String from, String to, String data) {
+        String hash =
+                Hash.sha3(
+                        Numeric.toHexString(
+                                (sent.incrementAndGet() + ":" + data)
+                                        .getBytes(StandardCharsets.UTF_8)));
+        BigInteger block = BigInteger.valueOf(blockNumber.incrementAndGet());
+
+        ObjectNode receipt = JsonNodeFactory.instance.objectNode();
+        receipt.put("transactionHash", hash);
+        receipt.put("transactionIndex", "0x0");
+        receipt.put("blockHash", Hash.sha3(Numeric.encodeQuantity(block)));
+        receipt.put("blockNumber", Numeric.encodeQuantity(block));
+        receipt.put("cumulativeGasUsed", "0x0");
+        receipt.put("gasUsed", "0x0");
+        receipt.put("from", from);
+        receipt.put("to", to);
+        receipt.put(
+                "contractAddress",
+                to == null ? "0x" + Numeric.cleanHexPrefix(hash).substring(24) : null);
+        receipt.putArray("logs");
+        receipt.put("logsBloom", LOGS_BLOOM);
+        receipt.put("status", "0x1");
+        receipt.put("isPrivacyMarkerTransaction", false);
+        transactions.put(hash, new MinedTransaction(receipt));
+        return hash;
+    }
+
+    private JsonNode receipt(String transactionHash, boolean counted) {
+        MinedTransaction transaction = transactions.get(transactionHash.toLowerCase());
+        if (transaction == null
+                || (counted && transaction.polls.incrementAndGet() <= receiptPolls)) {
+            return null;
+        }
+        return transaction.receipt;
+    }
+
+    private String payload(String key) {
+        TesseraSimulator enclave = this.enclave;
+        if (enclave == null) {
+            return "0x";
+        }
+        byte[] payload =
+                enclave.getPayload(
+                        Base64.getEncoder().encodeToString(Numeric.hexStringToByteArray(key)));
+        return payload == null ? "0x" : Numeric.toHexString(payload);
+    }
+
+    private long nonce(JsonNode address) {
+        AtomicLong nonce = nonces.get(address.asText().toLowerCase());
+        return nonce == null ? 0 : nonce.get();
+    }
+
+    private BigInteger blockNumber() {
+        return BigInteger.valueOf(blockNumber.get());
+    }
+
+    private ObjectNode snapshot(JsonNode validators) {
+        ObjectNode snapshot = JsonNodeFactory.instance.objectNode();
+        snapshot.put("epoch", 30000);
+        snapshot.put("hash", Hash.sha3(Numeric.encodeQuantity(blockNumber())));
+        snapshot.put("number", blockNumber.get());
+        snapshot.put("policy", 0);
+        snapshot.putObject("tally");
+        snapshot.set("validators", validators);
+        snapshot.putArray("votes");
+        return snapshot;
+    }
+
+    private ObjectNode signers(JsonNode validators) {
+        ObjectNode signers = JsonNodeFactory.instance.objectNode();
+        signers.set("Author", validators.get(0));
+        signers.set("Committers", validators);
+        signers.put("Hash", Hash.sha3(Numeric.encodeQuantity(blockNumber())));
+        signers.put("Number", blockNumber.get());
+        return signers;
+    }
+
+    private JsonNode json(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static final class MinedTransaction {
+        private final ObjectNode receipt;
+        private final AtomicInteger polls = new AtomicInteger();
+
+        private MinedTransaction(ObjectNode receipt) {
+            this.receipt = receipt;
+        }
+    }
+}
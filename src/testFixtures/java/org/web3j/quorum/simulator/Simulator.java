@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.simulator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An in-process stand-in for a node or enclave, listening on a loopback TCP port or a Unix domain
+ * socket. Every call is counted and delayed by the {@link Latency} configured for it, so that
+ * clients can be benchmarked offline against a known service time.
+ */
+public abstract class Simulator implements Closeable {
+
+    private final Map<String, Latency> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> calls = new ConcurrentHashMap<>();
+    private final LongAdder totalCalls = new LongAdder();
+    private volatile Latency latency = Latency.NONE;
+    private SimulatorServer server;
+
+    Simulator() {}
+
+    final void listen(SimulatorServer server) {
+        this.server = server;
+    }
+
+    /** Sets the latency of every call without a latency of its own. */
+    public void setLatency(Latency latency) {
+        this.latency = latency;
+    }
+
+    /** Sets the latency of calls to a JSON-RPC method or enclave path. */
+    public void setLatency(String name, Latency latency) {
+        latencies.put(name, latency);
+    }
+
+    /** The number of calls to a JSON-RPC method or enclave path. */
+    public long getCallCount(String name) {
+        LongAdder count = calls.get(name);
+        return count == null ? 0 : count.sum();
+    }
+
+    public long getCallCount() {
+        return totalCalls.sum();
+    }
+
+    /** The TCP port, or -1 if the simulator listens on a Unix domain socket. */
+    public int getPort() {
+        return server.getPort();
+    }
+
+    /** The Unix domain socket, or null if the simulator listens on a TCP port. */
+    public Path getSocketFile() {
+        return server.getSocketFile();
+    }
+
+    /** Counts a call and waits for its latency. */
+    final void called(String name) throws InterruptedIOException {
+        calls.computeIfAbsent(name, key -> new LongAdder()).increment();
+        totalCalls.increment();
+        latencies.getOrDefault(name, latency).await();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+}
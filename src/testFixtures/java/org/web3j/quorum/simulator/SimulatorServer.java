@@ -0,0 +1,173 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.simulator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jnr.unixsocket.UnixServerSocketChannel;
+import jnr.unixsocket.UnixSocketAddress;
+import jnr.unixsocket.UnixSocketChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Accepts connections on a loopback TCP port or a Unix domain socket, and serves each on its own
+ * thread with a {@link ConnectionHandler}.
+ */
+final class SimulatorServer implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(SimulatorServer.class);
+
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    /** Serves a connection until the peer closes it. */
+    interface ConnectionHandler {
+        void serve(InputStream in, OutputStream out) throws IOException;
+    }
+
+    private final ServerSocket serverSocket;
+    private final UnixServerSocketChannel serverChannel;
+    private final Path socketFile;
+    private final ConnectionHandler handler;
+    private final ExecutorService executor =
+            Executors.newCachedThreadPool(
+                    runnable -> {
+                        Thread thread =
+                                new Thread(
+                                        runnable, "quorum-simulator-" + THREADS.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+    private final Set<Closeable> connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    private SimulatorServer(
+            ServerSocket serverSocket,
+            UnixServerSocketChannel serverChannel,
+            Path socketFile,
+            ConnectionHandler handler) {
+        this.serverSocket = serverSocket;
+        this.serverChannel = serverChannel;
+        this.socketFile = socketFile;
+        this.handler = handler;
+        executor.execute(this::acceptLoop);
+    }
+
+    /** Listens on an ephemeral loopback port. */
+    static SimulatorServer tcp(ConnectionHandler handler) throws IOException {
+        ServerSocket serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        return new SimulatorServer(serverSocket, null, null, handler);
+    }
+
+    /** Listens on a Unix domain socket, replacing any file at the path. */
+    static SimulatorServer unix(Path socketFile, ConnectionHandler handler) throws IOException {
+        Files.deleteIfExists(socketFile);
+        UnixServerSocketChannel serverChannel = UnixServerSocketChannel.open();
+        serverChannel.socket().bind(new UnixSocketAddress(socketFile.toFile()));
+        return new SimulatorServer(null, serverChannel, socketFile, handler);
+    }
+
+    /** The TCP port, or -1 for a Unix domain socket. */
+    int getPort() {
+        return serverSocket != null ? serverSocket.getLocalPort() : -1;
+    }
+
+    /** The Unix domain socket, or null for a TCP port. */
+    Path getSocketFile() {
+        return socketFile;
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                if (serverSocket != null) {
+                    Socket socket = serverSocket.accept();
+                    socket.setTcpNoDelay(true);
+                    serve(socket, socket.getInputStream(), socket.getOutputStream());
+                } else {
+                    UnixSocketChannel channel = serverChannel.accept();
+                    if (channel != null) {
+                        serve(
+                                channel,
+                                Channels.newInputStream(channel),
+                                Channels.newOutputStream(channel));
+                    }
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    log.warn("Simulator failed to accept a connection", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Closeable connection, InputStream in, OutputStream out) {
+        if (closed) {
+            closeQuietly(connection);
+            return;
+        }
+        connections.add(connection);
+        executor.execute(
+                () -> {
+                    try {
+                        handler.serve(in, out);
+                    } catch (IOException e) {
+                        if (!closed) {
+                            log.debug("Simulator connection failed", e);
+                        }
+                    } finally {
+                        connections.remove(connection);
+                        closeQuietly(connection);
+                    }
+                });
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (serverSocket != null) {
+            serverSocket.close();
+        } else {
+            // a blocked accept on a Unix domain socket is not woken by closing it, so connect
+            UnixSocketChannel.open(new UnixSocketAddress(socketFile.toFile())).close();
+            serverChannel.close();
+            Files.deleteIfExists(socketFile);
+        }
+        connections.forEach(SimulatorServer::closeQuietly);
+        executor.shutdownNow();
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // already closing
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.simulator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.reactivex.Flowable;
+
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.websocket.events.Notification;
+
+/**
+ * An in-memory {@link Web3jService} which answers requests from handlers without serialising them,
+ * for tests of the client side only. Every request is counted before it is answered, and the size
+ * of every batch is recorded.
+ */
+public class StubWeb3jService implements Web3jService {
+
+    /** Returns the result of a request, or throws to fail it as a transport error would. */
+    @FunctionalInterface
+    public interface Handler {
+        Object answer(Request<?, ?> request) throws IOException;
+    }
+
+    private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> calls = new ConcurrentHashMap<>();
+    private final LongAdder totalCalls = new LongAdder();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private volatile Handler defaultHandler =
+            request -> {
+                throw new IOException("Unexpected method " + request.getMethod());
+            };
+
+    /** Answers a method with the given handler. */
+    public StubWeb3jService respond(String method, Handler handler) {
+        handlers.put(method, handler);
+        return this;
+    }
+
+    /** Answers every method without a handler of its own, which otherwise fail. */
+    public StubWeb3jService respondToOthers(Handler handler) {
+        defaultHandler = handler;
+        return this;
+    }
+
+    /** The number of requests for a method, including those in batches. */
+    public long getCallCount(String method) {
+        LongAdder count = calls.get(method);
+        return count == null ? 0 : count.sum();
+    }
+
+    public long getCallCount() {
+        return totalCalls.sum();
+    }
+
+    /** The number of requests in each batch sent, in the order they were sent. */
+    public List<Integer> getBatchSizes() {
+        return Collections.unmodifiableList(batchSizes);
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        return answer(request, responseType);
+    }
+
+    @Override
+    public <T extends Response> CompletableFuture<T> sendAsync(
+            Request request, Class<T> responseType) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            result.complete(send(request, responseType));
+        } catch (IOException | RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        batchSizes.add(batchRequest.getRequests().size());
+        List<Response<?>> responses = new ArrayList<>(batchRequest.getRequests().size());
+        for (Request<?, ? extends Response<?>> request : batchRequest.getRequests()) {
+            responses.add(answer(request, request.getResponseType()));
+        }
+        return new BatchResponse(batchRequest.getRequests(), responses);
+    }
+
+    @Override
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+        CompletableFuture<BatchResponse> result = new CompletableFuture<>();
+        try {
+            result.complete(sendBatch(batchRequest));
+        } catch (IOException | RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    @Override
+    public <T extends Notification<?>> Flowable<T> subscribe(
+            Request request, String unsubscribeMethod, Class<T> responseType) {
+        throw new UnsupportedOperationException("Subscriptions are not supported");
+    }
+
+    @Override
+    public void close() {}
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <T extends Response> T answer(Request<?, ?> request, Class<T> responseType)
+            throws IOException {
+        String method = request.getMethod();
+        calls.computeIfAbsent(method, name -> new LongAdder()).increment();
+        totalCalls.increment();
+
+        Object result = handlers.getOrDefault(method, defaultHandler).answer(request);
+        T response;
+        try {
+            response = responseType.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Cannot create " + responseType.getName(), e);
+        }
+        response.setId(request.getId());
+        ((Response) response).setResult(result);
+        return response;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.quorum.simulator;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.OkHttpClient;
+
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.quorum.UnixDomainSocketFactory;
+import org.web3j.quorum.enclave.protocol.EnclaveService;
+
+/**
+ * Simulates the Tessera third party API used by {@link org.web3j.quorum.enclave.Tessera} and {@link
+ * org.web3j.quorum.enclave.Constellation}, over HTTP on a loopback port or a Unix domain socket.
+ *
+ * <p>It answers {@code GET /upcheck}, {@code POST /storeraw}, {@code POST /send}, {@code POST
+ * /receive}, and {@code GET} and {@code DELETE /transaction/{key}}. Payloads are kept unencrypted
+ * in memory under a random 64 byte key, and the {@code to} recipients of a call are ignored.
+ */
+public class TesseraSimulator extends Simulator {
+
+    public static final String UPCHECK_RESPONSE = "I'm up!";
+
+    private static final String TRANSACTION_PATH = "/transaction/";
+
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private final Map<String, byte[]> payloads = new ConcurrentHashMap<>();
+    private final AtomicLong keys = new AtomicLong();
+    private volatile String upcheckResponse = UPCHECK_RESPONSE;
+
+    private TesseraSimulator() {}
+
+    /** Starts a simulator listening on an ephemeral loopback port. */
+    public static TesseraSimulator http() throws IOException {
+        TesseraSimulator simulator = new TesseraSimulator();
+        simulator.listen(SimulatorServer.tcp(new HttpConnectionHandler(simulator::handle)));
+        return simulator;
+    }
+
+    /** Starts a simulator listening on a Unix domain socket, replacing any file at the path. */
+    public static TesseraSimulator unixSocket(Path socketFile) throws IOException {
+        TesseraSimulator simulator = new TesseraSimulator();
+        simulator.listen(
+                SimulatorServer.unix(socketFile, new HttpConnectionHandler(simulator::handle)));
+        return simulator;
+    }
+
+    /** Sets the body of the upcheck response, which is {@code OK} for Constellation. */
+    public void setUpcheckResponse(String upcheckResponse) {
+        this.upcheckResponse = upcheckResponse;
+    }
+
+    /** Returns an enclave service connected to this simulator. */
+    public EnclaveService enclaveService() {
+        return enclaveService(new OkHttpClient());
+    }
+
+    /**
+     * Returns an enclave service connected to this simulator using the given client, which is given
+     * a Unix domain socket factory if the simulator listens on a socket.
+     */
+    public EnclaveService enclaveService(OkHttpClient client) {
+        if (getSocketFile() != null) {
+            return new EnclaveService(
+                    "http://localhost",
+                    80,
+                    client.newBuilder()
+                            .socketFactory(new UnixDomainSocketFactory(getSocketFile().toFile()))
+                            .build());
+        }
+        return new EnclaveService("http://127.0.0.1", getPort(), client);
+    }
+
+    /** Returns the payload stored under a base64 key, or null. */
+    public byte[] getPayload(String key) {
+        return payloads.get(key);
+    }
+
+    public int getPayloadCount() {
+        return payloads.size();
+    }
+
+    private HttpConnectionHandler.Reply handle(String method, String path, byte[] body)
+            throws IOException {
+        String name = path.startsWith(TRANSACTION_PATH) ? "transaction" : path.substring(1);
+        called(name);
+        switch (method + " " + (name.equals("transaction") ? TRANSACTION_PATH : path)) {
+            case "GET /upcheck":
+                return HttpConnectionHandler.Reply.text(200, upcheckResponse);
+            case "POST /storeraw":
+            case "POST /send":
+                return key(store(readTree(body).path("payload").asText()));
+            case "POST /receive":
+                return payload(readTree(body).path("key").asText());
+            case "GET " + TRANSACTION_PATH:
+                return payload(decode(path.substring(TRANSACTION_PATH.length())));
+            case "DELETE " + TRANSACTION_PATH:
+                return payloads.remove(decode(path.substring(TRANSACTION_PATH.length()))) != null
+                        ? new HttpConnectionHandler.Reply(204, null, new byte[0])
+                        : HttpConnectionHandler.Reply.text(404, "Transaction not found");
+            default:
+                return HttpConnectionHandler.Reply.text(404, "Not found: " + method + " " + path);
+        }
+    }
+
+    private JsonNode readTree(byte[] body) throws IOException {
+        return objectMapper.readTree(body);
+    }
+
+    private String store(String payload) {
+        byte[] bytes = Base64.getDecoder().decode(payload);
+        String key = Base64.getEncoder().encodeToString(newKey(bytes));
+        payloads.put(key, bytes);
+        return key;
+    }
+
+    private byte[] newKey(byte[] payload) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-512");
+            digest.update(payload);
+            digest.update(ByteBuffer.allocate(Long.BYTES).putLong(keys.incrementAndGet()).array());
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpConnectionHandler.Reply key(String key) throws IOException {
+        return HttpConnectionHandler.Reply.json(
+                objectMapper.writeValueAsBytes(Collections.singletonMap("key", key)));
+    }
+
+    private HttpConnectionHandler.Reply payload(String key) throws IOException {
+        byte[] payload = payloads.get(key);
+        if (payload == null) {
+            return HttpConnectionHandler.Reply.text(404, "Transaction not found");
+        }
+        return HttpConnectionHandler.Reply.json(
+                objectMapper.writeValueAsBytes(
+                        Collections.singletonMap(
+                                "payload", Base64.getEncoder().encodeToString(payload))));
+    }
+
+    private static String decode(String key) throws UnsupportedEncodingException {
+        return URLDecoder.decode(key, "UTF-8");
+    }
+}